@@ -20,10 +20,12 @@ package com.thinkbiganalytics.json;
  * #L%
  */
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.joda.JodaModule;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,12 +54,25 @@ public class ObjectMapperSerializer {
      */
     private static ObjectMapper getMapper() {
         if (mapper == null) {
-            mapper = new ObjectMapper();
-            mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+            mapper = newMapper(new JsonFactory());
         }
         return mapper;
     }
 
+    /**
+     * Create a new Jackson2 ObjectMapper with the same configuration as this serializer.  Use this for other formats, such as binary JSON, that must read
+     * and write objects the same way as the JSON.
+     *
+     * @param factory the factory for the format to read and write
+     * @return the new ObjectMapper
+     */
+    public static ObjectMapper newMapper(JsonFactory factory) {
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        objectMapper.registerModule(new JodaModule());
+        return objectMapper;
+    }
+
 
     /**
      * serialize an Object to a String using Jackson2
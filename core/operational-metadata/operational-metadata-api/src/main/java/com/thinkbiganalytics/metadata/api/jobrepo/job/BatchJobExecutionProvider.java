@@ -28,7 +28,9 @@ import org.joda.time.ReadablePeriod;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -114,6 +116,24 @@ public interface BatchJobExecutionProvider extends BatchJobExecutionFilters {
      */
     BatchJobExecution getOrCreateJobExecution(ProvenanceEventRecordDTO event);
 
+    /**
+     * find the job executions for a group of job flow file ids using a single query
+     *
+     * @param jobFlowFileIds the {@link ProvenanceEventRecordDTO#jobFlowFileId}s to find
+     * @return a map of the job flow file id to its job execution.  Flow files without a job execution are not included
+     */
+    Map<String, BatchJobExecution> findJobExecutionsByFlowFiles(Collection<String> jobFlowFileIds);
+
+    /**
+     * find or create the job execution from the provenance event using a map of job executions that have already been resolved, i.e. via {@link #findJobExecutionsByFlowFiles(Collection)}
+     * If a new job execution is created it is added to the {@code resolvedJobExecutions}
+     *
+     * @param event                 a provenance event
+     * @param resolvedJobExecutions a map of the job flow file id to its job execution
+     * @return the job execution
+     */
+    BatchJobExecution getOrCreateJobExecution(ProvenanceEventRecordDTO event, Map<String, BatchJobExecution> resolvedJobExecutions);
+
     /**
      * find the job execution from the provenance event
      *
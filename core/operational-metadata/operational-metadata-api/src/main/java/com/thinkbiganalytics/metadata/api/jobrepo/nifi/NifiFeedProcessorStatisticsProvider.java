@@ -111,6 +111,24 @@ public interface NifiFeedProcessorStatisticsProvider {
      */
     Long findMaxEventId(String clusterNodeId);
 
+    /**
+     * Delete the raw statistics recorded before the given time.
+     * The minute, hour and day rollups of the statistics are kept.
+     *
+     * @param time the time to delete the statistics before
+     * @return the number of statistics deleted
+     */
+    int deleteStatisticsBefore(DateTime time);
+
+    /**
+     * Delete the minute rollups of the statistics before the given time.
+     * The hour and day rollups are kept.
+     *
+     * @param time the time to delete the minute rollups before
+     * @return the number of rollups deleted
+     */
+    int deleteMinuteRollupsBefore(DateTime time);
+
     /**
      * allow for specifying a time to look back from when querying for statistical information
      */
@@ -135,6 +153,10 @@ public interface NifiFeedProcessorStatisticsProvider {
             return displayName;
         }
 
+        public Long getMillis() {
+            return millis;
+        }
+
         public DateTime startTime() {
             return DateTime.now().minus(millis);
         }
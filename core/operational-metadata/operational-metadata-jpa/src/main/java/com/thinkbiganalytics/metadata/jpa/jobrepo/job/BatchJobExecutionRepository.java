@@ -27,6 +27,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QueryDslPredicateExecutor;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -46,6 +47,11 @@ public interface BatchJobExecutionRepository extends JpaRepository<JpaBatchJobEx
                    + "where nifiEventJob.flowFileId = :flowFileId")
     JpaBatchJobExecution findByFlowFile(@Param("flowFileId") String flowFileId);
 
+    @Query(value = "select job from JpaBatchJobExecution as job "
+                   + "join fetch job.nifiEventJobExecution as nifiEventJob "
+                   + "where nifiEventJob.flowFileId in (:flowFileIds)")
+    List<JpaBatchJobExecution> findByFlowFiles(@Param("flowFileIds") Collection<String> flowFileIds);
+
     @Query(value = "  select job from JpaBatchJobExecution as job "
                    + "join JpaNifiEventJobExecution as nifiEventJob on nifiEventJob.jobExecution.jobExecutionId = job.jobExecutionId "
                    + "where nifiEventJob.flowFileId in ( "
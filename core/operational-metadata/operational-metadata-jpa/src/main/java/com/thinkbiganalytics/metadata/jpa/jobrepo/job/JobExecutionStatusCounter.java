@@ -0,0 +1,261 @@
+package com.thinkbiganalytics.metadata.jpa.jobrepo.job;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecution;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.JobStatusCount;
+
+import org.joda.time.LocalDate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In memory counts of the job executions by status and start day.
+ *
+ * The counts are loaded from the database the first time they are needed and reconciled with the database periodically after that.
+ * In between, each status change saved by the {@link JpaBatchJobExecutionProvider} is added once its transaction commits,
+ * so the dashboard can read the counts without grouping the whole BATCH_JOB_EXECUTION table on every request.
+ *
+ * Changes made outside of JPA (i.e. the abandon_feed_jobs and delete_feed_jobs procedures) {@link #invalidate()} the counts so they are reloaded on the next request.
+ * A change committed while the counts are being reloaded may be missed until the next reconcile.
+ */
+@Service
+public class JobExecutionStatusCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(JobExecutionStatusCounter.class);
+
+    /**
+     * how often to reload the counts from the database.  0 or less disables the in memory counts
+     */
+    @Value("${kylo.ops.mgr.job.status.counts.reconcile.seconds:300}")
+    private long reconcileSeconds = 300;
+
+    private volatile Counts counts;
+
+    private volatile long lastReconcileTime;
+
+    private final Object reconcileLock = new Object();
+
+    /**
+     * @return true if the counts are kept in memory, false if they should be queried from the database
+     */
+    public boolean isEnabled() {
+        return reconcileSeconds > 0;
+    }
+
+    public void setReconcileSeconds(long reconcileSeconds) {
+        this.reconcileSeconds = reconcileSeconds;
+    }
+
+    /**
+     * Reload the counts if they were never loaded, were invalidated or the reconcile interval has passed.
+     * Must be called within a transaction.
+     *
+     * @param loader queries the count of job executions for each status and start day
+     */
+    public void reconcileIfDue(Supplier<Map<StatusDay, Long>> loader) {
+        if (isReconcileDue()) {
+            synchronized (reconcileLock) {
+                if (isReconcileDue()) {
+                    long start = System.currentTimeMillis();
+                    Counts reconciled = new Counts();
+                    loader.get().forEach(reconciled::add);
+                    counts = reconciled;
+                    lastReconcileTime = System.currentTimeMillis();
+                    log.debug("Reconciled the job status counts in {} ms", lastReconcileTime - start);
+                }
+            }
+        }
+    }
+
+    private boolean isReconcileDue() {
+        return counts == null || System.currentTimeMillis() - lastReconcileTime >= TimeUnit.SECONDS.toMillis(reconcileSeconds);
+    }
+
+    /**
+     * Reload the counts from the database on the next request once the current transaction commits
+     */
+    public void invalidate() {
+        afterCommit(() -> counts = null);
+    }
+
+    /**
+     * Add the change in status or start day of the job since it was last counted.
+     * The change is applied when the current transaction commits.
+     *
+     * @param jobExecution a job execution that was just saved
+     */
+    public void track(JpaBatchJobExecution jobExecution) {
+        BatchJobExecution.JobStatus status = jobExecution.getStatus();
+        LocalDate startDate = jobExecution.getStartDate();
+        BatchJobExecution.JobStatus previousStatus = jobExecution.getCountedStatus();
+        LocalDate previousStartDate = jobExecution.getCountedStartDate();
+        if (Objects.equals(status, previousStatus) && Objects.equals(startDate, previousStartDate)) {
+            return;
+        }
+        jobExecution.setCounted(status, startDate);
+        if (!isEnabled()) {
+            return;
+        }
+        afterCommit(() -> {
+            Counts current = counts;
+            if (current != null) {
+                if (previousStatus != null && previousStartDate != null) {
+                    current.add(new StatusDay(previousStatus, previousStartDate), -1L);
+                }
+                if (status != null && startDate != null) {
+                    current.add(new StatusDay(status, startDate), 1L);
+                }
+            }
+        });
+    }
+
+    /**
+     * @param statuses the statuses to include, or null for all statuses
+     * @return the count of job executions for each status, or null if the counts are not loaded
+     */
+    public List<JobStatusCount> getJobStatusCount(Collection<BatchJobExecution.JobStatus> statuses) {
+        Counts current = counts;
+        if (current == null) {
+            return null;
+        }
+        List<JobStatusCount> statusCounts = new ArrayList<>();
+        current.byStatus.forEach((status, count) -> {
+            long value = count.get();
+            if (value > 0 && (statuses == null || statuses.contains(status))) {
+                statusCounts.add(new JpaBatchJobExecutionStatusCounts(jobState(status), value));
+            }
+        });
+        return statusCounts;
+    }
+
+    /**
+     * @param after only include days after this date, or null to include all days
+     * @return the count of job executions for each status and start day, or null if the counts are not loaded
+     */
+    public List<JobStatusCount> getJobStatusCountByDate(LocalDate after) {
+        Counts current = counts;
+        if (current == null) {
+            return null;
+        }
+        List<JobStatusCount> statusCounts = new ArrayList<>();
+        current.byStatusDay.forEach((statusDay, count) -> {
+            long value = count.get();
+            if (value > 0 && (after == null || statusDay.getDate().isAfter(after))) {
+                LocalDate date = statusDay.getDate();
+                statusCounts.add(new JpaBatchJobExecutionStatusCounts(jobState(statusDay.getStatus()), date.getYear(), date.getMonthOfYear(), date.getDayOfMonth(), value));
+            }
+        });
+        return statusCounts;
+    }
+
+    /**
+     * Same state name the job status count queries use: STARTED and STARTING jobs are RUNNING
+     */
+    private static String jobState(BatchJobExecution.JobStatus status) {
+        if (status == BatchJobExecution.JobStatus.STARTED || status == BatchJobExecution.JobStatus.STARTING) {
+            return "RUNNING";
+        }
+        return status.name();
+    }
+
+    private static void afterCommit(Runnable runnable) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    runnable.run();
+                }
+            });
+        } else {
+            runnable.run();
+        }
+    }
+
+    /**
+     * The counts by status, and by status and start day
+     */
+    private static class Counts {
+
+        private final Map<BatchJobExecution.JobStatus, AtomicLong> byStatus = new ConcurrentHashMap<>();
+
+        private final Map<StatusDay, AtomicLong> byStatusDay = new ConcurrentHashMap<>();
+
+        void add(StatusDay statusDay, long delta) {
+            byStatus.computeIfAbsent(statusDay.getStatus(), s -> new AtomicLong()).addAndGet(delta);
+            byStatusDay.computeIfAbsent(statusDay, s -> new AtomicLong()).addAndGet(delta);
+        }
+    }
+
+    /**
+     * A job status and the UTC day the jobs started
+     */
+    public static class StatusDay {
+
+        private final BatchJobExecution.JobStatus status;
+
+        private final LocalDate date;
+
+        public StatusDay(BatchJobExecution.JobStatus status, LocalDate date) {
+            this.status = status;
+            this.date = date;
+        }
+
+        public BatchJobExecution.JobStatus getStatus() {
+            return status;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            StatusDay statusDay = (StatusDay) o;
+            return status == statusDay.status && Objects.equals(date, statusDay.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(status, date);
+        }
+    }
+}
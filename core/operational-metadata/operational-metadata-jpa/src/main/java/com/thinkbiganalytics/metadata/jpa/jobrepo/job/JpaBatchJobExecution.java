@@ -37,6 +37,7 @@ import com.thinkbiganalytics.metadata.jpa.jobrepo.step.JpaBatchStepExecution;
 import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.Type;
 import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
 
 import java.util.HashSet;
 import java.util.Map;
@@ -57,8 +58,10 @@ import javax.persistence.ManyToOne;
 import javax.persistence.NamedNativeQuery;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
+import javax.persistence.PostLoad;
 import javax.persistence.Table;
 import javax.persistence.TableGenerator;
+import javax.persistence.Transient;
 import javax.persistence.Version;
 
 /**
@@ -174,11 +177,51 @@ public class JpaBatchJobExecution implements BatchJobExecution {
     @OneToOne(targetEntity = JpaNifiEventJobExecution.class, mappedBy = "jobExecution", cascade = CascadeType.ALL, fetch = FetchType.LAZY, optional = false)
     private NifiEventJobExecution nifiEventJobExecution;
 
+    /**
+     * the status and start day last added to the {@link JobExecutionStatusCounter}, or null if this job has not been counted yet
+     */
+    @Transient
+    private JobStatus countedStatus;
+
+    @Transient
+    private LocalDate countedStartDate;
+
 
     public JpaBatchJobExecution() {
 
     }
 
+    /**
+     * A job loaded from the database is already included in the counts reconciled from the database
+     */
+    @PostLoad
+    private void postLoad() {
+        setCounted(status, getStartDate());
+    }
+
+    /**
+     * @return the UTC day the job started, or null if it has no start time
+     */
+    public LocalDate getStartDate() {
+        if (startYear == null || startMonth == null || startDay == null) {
+            return null;
+        }
+        return new LocalDate(startYear, startMonth, startDay);
+    }
+
+    JobStatus getCountedStatus() {
+        return countedStatus;
+    }
+
+    LocalDate getCountedStartDate() {
+        return countedStartDate;
+    }
+
+    void setCounted(JobStatus status, LocalDate startDate) {
+        this.countedStatus = status;
+        this.countedStartDate = startDate;
+    }
+
     @Override
     public BatchJobInstance getJobInstance() {
         return jobInstance;
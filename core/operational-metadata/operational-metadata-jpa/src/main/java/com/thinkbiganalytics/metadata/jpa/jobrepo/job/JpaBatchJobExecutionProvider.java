@@ -20,9 +20,14 @@ package com.thinkbiganalytics.metadata.jpa.jobrepo.job;
  * #L%
  */
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Striped;
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.ConstructorExpression;
+import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.SubQueryExpression;
 import com.querydsl.core.types.dsl.CaseBuilder;
@@ -58,6 +63,7 @@ import com.thinkbiganalytics.support.FeedNameUtil;
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
 import org.joda.time.ReadablePeriod;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,18 +71,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.UnsupportedEncodingException;
 import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 
 import javax.inject.Inject;
 import javax.persistence.OptimisticLockException;
@@ -92,6 +104,14 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
 
     private static String PARAM_TB_JOB_TYPE = "tb.jobType";
 
+    private static final List<BatchJobExecution.JobStatus> RUNNING_STATUSES = ImmutableList.of(BatchJobExecution.JobStatus.STARTED, BatchJobExecution.JobStatus.STARTING);
+
+    /**
+     * the statuses matched by the {@link #RUNNING_OR_FAILED_FILTER}
+     */
+    private static final List<BatchJobExecution.JobStatus> RUNNING_OR_FAILED_STATUSES =
+        ImmutableList.of(BatchJobExecution.JobStatus.STARTED, BatchJobExecution.JobStatus.STARTING, BatchJobExecution.JobStatus.FAILED);
+
 
     @Autowired
     private JPAQueryFactory factory;
@@ -111,6 +131,24 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
     @Inject
     private BatchStepExecutionProvider batchStepExecutionProvider;
 
+    @Inject
+    private JobExecutionStatusCounter jobStatusCounter;
+
+    /**
+     * Locks used to ensure only one thread creates or updates the job execution for a given job flow file at a time.
+     * Events for unrelated job flow files will most likely use a different lock and will not block each other.
+     */
+    private final Striped<Lock> jobFlowFileLocks = Striped.lazyWeakLock(1024);
+
+    /**
+     * Cache of the job flow file id to the job execution id for recently created or found job executions.
+     * This allows subsequent events for the same job to lookup the job execution by its primary key
+     */
+    private final Cache<String, Long> jobExecutionIdsByFlowFile = CacheBuilder.newBuilder()
+        .maximumSize(10000)
+        .expireAfterAccess(10, TimeUnit.MINUTES)
+        .build();
+
 
     @Autowired
     public JpaBatchJobExecutionProvider(BatchJobExecutionRepository jobExecutionRepository, BatchJobInstanceRepository jobInstanceRepository,
@@ -208,6 +246,7 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
         JpaNifiEventJobExecution eventJobExecution = new JpaNifiEventJobExecution(jobExecution, event.getEventId(), event.getJobFlowFileId());
         jobExecution.setNifiEventJobExecution(eventJobExecution);
         jobExecution = this.jobExecutionRepository.save(jobExecution);
+        jobStatusCounter.track(jobExecution);
         //bootstrap the feed parameters
         jobParameters.put(FeedConstants.PARAM__FEED_NAME, event.getFeedName());
         jobParameters.put(FeedConstants.PARAM__JOB_TYPE, FeedConstants.PARAM_VALUE__JOB_TYPE_FEED);
@@ -352,13 +391,19 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
 
     /**
      * Get or Create the JobExecution for a given ProvenanceEvent
+     *
+     * The lock for the job flow file is held until the current transaction completes so another thread will not attempt to create the same job execution before this one is committed.
      */
     @Override
-    public synchronized JpaBatchJobExecution getOrCreateJobExecution(ProvenanceEventRecordDTO event) {
+    public JpaBatchJobExecution getOrCreateJobExecution(ProvenanceEventRecordDTO event) {
+        lockJobFlowFiles(Collections.singleton(event.getJobFlowFileId()));
         JpaBatchJobExecution jobExecution = null;
         boolean isNew = false;
         try {
-            jobExecution = jobExecutionRepository.findByFlowFile(event.getJobFlowFileId());
+            jobExecution = findCachedJobExecution(event.getJobFlowFileId());
+            if (jobExecution == null) {
+                jobExecution = jobExecutionRepository.findByFlowFile(event.getJobFlowFileId());
+            }
             if (jobExecution == null) {
                 jobExecution = createNewJobExecution(event);
                 isNew = true;
@@ -367,7 +412,113 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
             //read
             jobExecution = jobExecutionRepository.findByFlowFile(event.getJobFlowFileId());
         }
+        cacheJobExecutionId(event.getJobFlowFileId(), jobExecution);
+        updateJobExecution(jobExecution, event, isNew);
+        return jobExecution;
+    }
+
+    /**
+     * Find the job executions for the job flow files, locking each job flow file until the current transaction completes
+     */
+    @Override
+    public Map<String, BatchJobExecution> findJobExecutionsByFlowFiles(Collection<String> jobFlowFileIds) {
+        Map<String, BatchJobExecution> jobExecutions = new HashMap<>();
+        if (jobFlowFileIds != null && !jobFlowFileIds.isEmpty()) {
+            lockJobFlowFiles(jobFlowFileIds);
+            for (JpaBatchJobExecution jobExecution : jobExecutionRepository.findByFlowFiles(jobFlowFileIds)) {
+                jobExecutions.put(jobExecution.getNifiEventJobExecution().getFlowFileId(), jobExecution);
+            }
+        }
+        return jobExecutions;
+    }
+
+    /**
+     * Get or Create the JobExecution for a given ProvenanceEvent using the job executions already resolved for the batch of events being processed
+     */
+    @Override
+    public JpaBatchJobExecution getOrCreateJobExecution(ProvenanceEventRecordDTO event, Map<String, BatchJobExecution> resolvedJobExecutions) {
+        lockJobFlowFiles(Collections.singleton(event.getJobFlowFileId()));
+        JpaBatchJobExecution jobExecution = (JpaBatchJobExecution) resolvedJobExecutions.get(event.getJobFlowFileId());
+        boolean isNew = false;
+        if (jobExecution == null) {
+            jobExecution = createNewJobExecution(event);
+            resolvedJobExecutions.put(event.getJobFlowFileId(), jobExecution);
+            isNew = true;
+        }
+        cacheJobExecutionId(event.getJobFlowFileId(), jobExecution);
+        updateJobExecution(jobExecution, event, isNew);
+        return jobExecution;
+    }
+
+    /**
+     * Acquire the locks for the job flow files.
+     * The locks are acquired in a consistent order to prevent deadlocks between threads locking multiple job flow files.
+     * If a transaction is active the locks are released when it completes, otherwise the caller already has exclusive access and they are released immediately.
+     *
+     * @param jobFlowFileIds the job flow files to lock
+     */
+    private void lockJobFlowFiles(Collection<String> jobFlowFileIds) {
+        Iterable<Lock> locks = jobFlowFileLocks.bulkGet(jobFlowFileIds);
+        for (Lock lock : locks) {
+            lock.lock();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    locks.forEach(Lock::unlock);
+                }
+            });
+        } else {
+            locks.forEach(Lock::unlock);
+        }
+    }
+
+    /**
+     * Find the job execution by its primary key if it was recently created or found for this job flow file
+     *
+     * @param jobFlowFileId the job flow file id
+     * @return the job execution, or null if it is not cached
+     */
+    private JpaBatchJobExecution findCachedJobExecution(String jobFlowFileId) {
+        Long jobExecutionId = jobExecutionIdsByFlowFile.getIfPresent(jobFlowFileId);
+        if (jobExecutionId != null) {
+            JpaBatchJobExecution jobExecution = jobExecutionRepository.findOne(jobExecutionId);
+            if (jobExecution == null) {
+                jobExecutionIdsByFlowFile.invalidate(jobFlowFileId);
+            }
+            return jobExecution;
+        }
+        return null;
+    }
+
+    /**
+     * Cache the job execution id for the job flow file once the current transaction commits
+     */
+    private void cacheJobExecutionId(String jobFlowFileId, JpaBatchJobExecution jobExecution) {
+        if (jobExecution != null && jobExecution.getJobExecutionId() != null) {
+            Long jobExecutionId = jobExecution.getJobExecutionId();
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                    @Override
+                    public void afterCommit() {
+                        jobExecutionIdsByFlowFile.put(jobFlowFileId, jobExecutionId);
+                    }
+                });
+            } else {
+                jobExecutionIdsByFlowFile.put(jobFlowFileId, jobExecutionId);
+            }
+        }
+    }
 
+    /**
+     * Update the job execution with the incoming event, marking the start or end of the job and updating the job type if needed
+     *
+     * @param jobExecution the job execution for the event
+     * @param event        the provenance event
+     * @param isNew        true if the job execution was just created for this event
+     */
+    private void updateJobExecution(JpaBatchJobExecution jobExecution, ProvenanceEventRecordDTO event, boolean isNew) {
         //if the attrs coming in change the type to a CHECK job then update the entity
         boolean updatedJobType = updateJobType(jobExecution, event);
         boolean save = isNew || updatedJobType;
@@ -393,8 +544,8 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
         }
         if (save) {
             jobExecutionRepository.save(jobExecution);
+            jobStatusCounter.track(jobExecution);
         }
-        return jobExecution;
     }
 
     @Override
@@ -431,7 +582,9 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
      */
     @Override
     public BatchJobExecution save(BatchJobExecution jobExecution) {
-        return jobExecutionRepository.save((JpaBatchJobExecution) jobExecution);
+        JpaBatchJobExecution saved = jobExecutionRepository.save((JpaBatchJobExecution) jobExecution);
+        jobStatusCounter.track(saved);
+        return saved;
     }
 
 
@@ -489,6 +642,7 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
                     log.debug("Finishing related running job {} for event ", job.getJobExecutionId(), event);
                 }
                 jobExecutionRepository.save(runningJobs);
+                runningJobs.forEach(jobStatusCounter::track);
             }
         }
     }
@@ -593,19 +747,21 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
 
 
     /**
-     * Get count of Jobs grouped by Status
+     * Get count of Jobs grouped by Status.
+     * The counts without a filter, or with the {@link #RUNNING_OR_FAILED_FILTER}, are read from the in memory {@link JobExecutionStatusCounter}
      */
     @Override
     public List<JobStatusCount> getJobStatusCount(String filter) {
+        if (jobStatusCounter.isEnabled() && (StringUtils.isBlank(filter) || RUNNING_OR_FAILED_FILTER.equals(filter))) {
+            jobStatusCounter.reconcileIfDue(this::queryJobStatusCountsByStatusDay);
+            List<JobStatusCount> counts = jobStatusCounter.getJobStatusCount(StringUtils.isBlank(filter) ? null : RUNNING_OR_FAILED_STATUSES);
+            if (counts != null) {
+                return counts;
+            }
+        }
 
         QJpaBatchJobExecution jobExecution = QJpaBatchJobExecution.jpaBatchJobExecution;
 
-        List<BatchJobExecution.JobStatus> runningStatus = ImmutableList.of(BatchJobExecution.JobStatus.STARTED, BatchJobExecution.JobStatus.STARTING);
-
-        com.querydsl.core.types.dsl.StringExpression jobState = new CaseBuilder().when(jobExecution.status.eq(BatchJobExecution.JobStatus.FAILED)).then("FAILED")
-            .when(jobExecution.status.in(runningStatus)).then("RUNNING")
-            .otherwise(jobExecution.status.stringValue());
-
         BooleanBuilder whereBuilder = new BooleanBuilder();
         if (StringUtils.isNotBlank(filter)) {
             whereBuilder.and(GenericQueryDslFilter.buildFilter(jobExecution, filter));
@@ -613,7 +769,7 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
 
         ConstructorExpression<JpaBatchJobExecutionStatusCounts> expr =
             Projections.constructor(JpaBatchJobExecutionStatusCounts.class,
-                                    jobState.as("status"),
+                                    jobState(jobExecution).as("status"),
                                     jobExecution.jobExecutionId.count().as("count"));
 
         JPAQuery<?> query = factory.select(expr).from(jobExecution).where(whereBuilder).groupBy(jobExecution.status);
@@ -623,66 +779,97 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
 
     @Override
     public List<JobStatusCount> getJobStatusCountByDate() {
-
-        QJpaBatchJobExecution jobExecution = QJpaBatchJobExecution.jpaBatchJobExecution;
-
-        List<BatchJobExecution.JobStatus> runningStatus = ImmutableList.of(BatchJobExecution.JobStatus.STARTED, BatchJobExecution.JobStatus.STARTING);
-
-        com.querydsl.core.types.dsl.StringExpression jobState = new CaseBuilder().when(jobExecution.status.eq(BatchJobExecution.JobStatus.FAILED)).then("FAILED")
-            .when(jobExecution.status.in(runningStatus)).then("RUNNING")
-            .otherwise(jobExecution.status.stringValue());
-
-        JPAQuery
-            query = factory.select(
-            Projections.constructor(JpaBatchJobExecutionStatusCounts.class,
-                                    jobState.as("status"),
-                                    jobExecution.startYear,
-                                    jobExecution.startMonth,
-                                    jobExecution.startDay,
-                                    jobExecution.count().as("count")))
-            .from(jobExecution)
-            .groupBy(jobExecution.status, jobExecution.startYear, jobExecution.startMonth, jobExecution.startDay);
-
-        return (List<JobStatusCount>) query.fetch();
-
+        if (jobStatusCounter.isEnabled()) {
+            jobStatusCounter.reconcileIfDue(this::queryJobStatusCountsByStatusDay);
+            List<JobStatusCount> counts = jobStatusCounter.getJobStatusCountByDate(null);
+            if (counts != null) {
+                return counts;
+            }
+        }
+        return queryJobStatusCountByDate(new BooleanBuilder());
     }
 
     /**
      * gets job executions grouped by status and Day looking back from Now - the supplied {@code period}
      *
+     * Without a filter the whole days after the start of the period are read from the in memory {@link JobExecutionStatusCounter}
+     * and only the partial first day is queried.
+     *
      * @param period period to look back from the current time to get job execution status
      */
     @Override
     public List<JobStatusCount> getJobStatusCountByDateFromNow(ReadablePeriod period, String filter) {
 
         QJpaBatchJobExecution jobExecution = QJpaBatchJobExecution.jpaBatchJobExecution;
-
-        List<BatchJobExecution.JobStatus> runningStatus = ImmutableList.of(BatchJobExecution.JobStatus.STARTED, BatchJobExecution.JobStatus.STARTING);
-
-        com.querydsl.core.types.dsl.StringExpression jobState = new CaseBuilder().when(jobExecution.status.eq(BatchJobExecution.JobStatus.FAILED)).then("FAILED")
-            .when(jobExecution.status.in(runningStatus)).then("RUNNING")
-            .otherwise(jobExecution.status.stringValue());
+        DateTime startTime = DateTimeUtil.getNowUTCTime().minus(period);
+
+        if (jobStatusCounter.isEnabled() && StringUtils.isBlank(filter)) {
+            jobStatusCounter.reconcileIfDue(this::queryJobStatusCountsByStatusDay);
+            List<JobStatusCount> counts = jobStatusCounter.getJobStatusCountByDate(startTime.toLocalDate());
+            if (counts != null) {
+                BooleanBuilder firstDay = new BooleanBuilder();
+                firstDay.and(jobExecution.startTime.goe(startTime)).and(jobExecution.startTime.lt(startTime.withTimeAtStartOfDay().plusDays(1)));
+                counts.addAll(queryJobStatusCountByDate(firstDay));
+                return counts;
+            }
+        }
 
         BooleanBuilder whereBuilder = new BooleanBuilder();
-        whereBuilder.and(jobExecution.startTime.goe(DateTimeUtil.getNowUTCTime().minus(period)));
+        whereBuilder.and(jobExecution.startTime.goe(startTime));
         if (StringUtils.isNotBlank(filter)) {
             whereBuilder.and(GenericQueryDslFilter.buildFilter(jobExecution, filter));
         }
+        return queryJobStatusCountByDate(whereBuilder);
+    }
+
+    /**
+     * Query the job executions matching the predicate grouped by status and start day
+     */
+    private List<JobStatusCount> queryJobStatusCountByDate(Predicate where) {
+        QJpaBatchJobExecution jobExecution = QJpaBatchJobExecution.jpaBatchJobExecution;
 
         JPAQuery
             query = factory.select(
             Projections.constructor(JpaBatchJobExecutionStatusCounts.class,
-                                    jobState.as("status"),
+                                    jobState(jobExecution).as("status"),
                                     jobExecution.startYear,
                                     jobExecution.startMonth,
                                     jobExecution.startDay,
                                     jobExecution.count().as("count")))
             .from(jobExecution)
-            .where(whereBuilder)
+            .where(where)
             .groupBy(jobExecution.status, jobExecution.startYear, jobExecution.startMonth, jobExecution.startDay);
 
         return (List<JobStatusCount>) query.fetch();
+    }
 
+    /**
+     * Query the count of all job executions by status and start day to reconcile the {@link JobExecutionStatusCounter}
+     */
+    private Map<JobExecutionStatusCounter.StatusDay, Long> queryJobStatusCountsByStatusDay() {
+        QJpaBatchJobExecution jobExecution = QJpaBatchJobExecution.jpaBatchJobExecution;
+
+        List<Tuple> rows = factory.select(jobExecution.status, jobExecution.startYear, jobExecution.startMonth, jobExecution.startDay, jobExecution.count())
+            .from(jobExecution)
+            .where(jobExecution.startYear.isNotNull())
+            .groupBy(jobExecution.status, jobExecution.startYear, jobExecution.startMonth, jobExecution.startDay)
+            .fetch();
+
+        Map<JobExecutionStatusCounter.StatusDay, Long> counts = new HashMap<>();
+        for (Tuple row : rows) {
+            LocalDate date = new LocalDate(row.get(jobExecution.startYear), row.get(jobExecution.startMonth), row.get(jobExecution.startDay));
+            counts.put(new JobExecutionStatusCounter.StatusDay(row.get(jobExecution.status), date), row.get(jobExecution.count()));
+        }
+        return counts;
+    }
+
+    /**
+     * FAILED jobs, RUNNING for the STARTED and STARTING jobs, otherwise the status name
+     */
+    private com.querydsl.core.types.dsl.StringExpression jobState(QJpaBatchJobExecution jobExecution) {
+        return new CaseBuilder().when(jobExecution.status.eq(BatchJobExecution.JobStatus.FAILED)).then("FAILED")
+            .when(jobExecution.status.in(RUNNING_STATUSES)).then("RUNNING")
+            .otherwise(jobExecution.status.stringValue());
     }
 
 
@@ -0,0 +1,339 @@
+package com.thinkbiganalytics.metadata.jpa.jobrepo.nifi;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiFeedProcessorStatisticsProvider;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Type;
+import org.joda.time.DateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * Statistics for a feed and processor summed over a minute, hour or day.
+ * A rollup row is maintained incrementally for each granularity as the {@link JpaNifiFeedProcessorStats} are saved
+ * so the dashboard queries over longer time frames don't need to aggregate the raw rows.
+ */
+@Entity
+@Table(name = "NIFI_FEED_PROCESSOR_STATS_ROLLUP",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"GRANULARITY", "FM_FEED_NAME", "NIFI_PROCESSOR_ID", "BUCKET_TIME"}))
+public class JpaNifiFeedProcessorStatsRollup {
+
+    @Id
+    @GeneratedValue(generator = "uuid2")
+    @GenericGenerator(name = "uuid2", strategy = "uuid2")
+    @Column(name = "ID", unique = true)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "GRANULARITY", nullable = false)
+    private Granularity granularity;
+
+    @Type(type = "org.jadira.usertype.dateandtime.joda.PersistentDateTime")
+    @Column(name = "BUCKET_TIME", nullable = false)
+    private DateTime bucketTime;
+
+    @Column(name = "FM_FEED_NAME", nullable = false)
+    private String feedName;
+
+    @Column(name = "NIFI_PROCESSOR_ID", nullable = false)
+    private String processorId;
+
+    @Column(name = "PROCESSOR_NAME")
+    private String processorName;
+
+    @Column(name = "NIFI_FEED_PROCESS_GROUP_ID")
+    private String feedProcessGroupId;
+
+    /**
+     * the number of raw stats rows summed into this rollup
+     */
+    @Column(name = "ROW_COUNT")
+    private Long rowCount = 0L;
+
+    @Column(name = "TOTAL_EVENTS")
+    private Long totalCount = 0L;
+    @Column(name = "DURATION_MILLIS")
+    private Long duration = 0L;
+    @Column(name = "BYTES_IN")
+    private Long bytesIn = 0L;
+    @Column(name = "BYTES_OUT")
+    private Long bytesOut = 0L;
+    @Type(type = "org.jadira.usertype.dateandtime.joda.PersistentDateTime")
+    @Column(name = "MIN_EVENT_TIME")
+    private DateTime minEventTime;
+    @Type(type = "org.jadira.usertype.dateandtime.joda.PersistentDateTime")
+    @Column(name = "MAX_EVENT_TIME")
+    private DateTime maxEventTime;
+    @Column(name = "JOBS_STARTED")
+    private Long jobsStarted = 0L;
+    @Column(name = "JOBS_FINISHED")
+    private Long jobsFinished = 0L;
+    @Column(name = "JOBS_FAILED")
+    private Long jobsFailed = 0L;
+    @Column(name = "JOB_DURATION")
+    private Long jobDuration = 0L;
+    @Column(name = "SUCCESSFUL_JOB_DURATION")
+    private Long successfulJobDuration = 0L;
+    @Column(name = "PROCESSORS_FAILED")
+    private Long processorsFailed = 0L;
+    @Column(name = "FLOW_FILES_STARTED")
+    private Long flowFilesStarted = 0L;
+    @Column(name = "FLOW_FILES_FINISHED")
+    private Long flowFilesFinished = 0L;
+
+    public JpaNifiFeedProcessorStatsRollup() {
+    }
+
+    public JpaNifiFeedProcessorStatsRollup(Granularity granularity, DateTime bucketTime, String feedName, String processorId) {
+        this.granularity = granularity;
+        this.bucketTime = bucketTime;
+        this.feedName = feedName;
+        this.processorId = processorId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(Granularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public DateTime getBucketTime() {
+        return bucketTime;
+    }
+
+    public void setBucketTime(DateTime bucketTime) {
+        this.bucketTime = bucketTime;
+    }
+
+    public String getFeedName() {
+        return feedName;
+    }
+
+    public void setFeedName(String feedName) {
+        this.feedName = feedName;
+    }
+
+    public String getProcessorId() {
+        return processorId;
+    }
+
+    public void setProcessorId(String processorId) {
+        this.processorId = processorId;
+    }
+
+    public String getProcessorName() {
+        return processorName;
+    }
+
+    public void setProcessorName(String processorName) {
+        this.processorName = processorName;
+    }
+
+    public String getFeedProcessGroupId() {
+        return feedProcessGroupId;
+    }
+
+    public void setFeedProcessGroupId(String feedProcessGroupId) {
+        this.feedProcessGroupId = feedProcessGroupId;
+    }
+
+    public Long getRowCount() {
+        return rowCount;
+    }
+
+    public void setRowCount(Long rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public Long getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(Long totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public Long getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Long duration) {
+        this.duration = duration;
+    }
+
+    public Long getBytesIn() {
+        return bytesIn;
+    }
+
+    public void setBytesIn(Long bytesIn) {
+        this.bytesIn = bytesIn;
+    }
+
+    public Long getBytesOut() {
+        return bytesOut;
+    }
+
+    public void setBytesOut(Long bytesOut) {
+        this.bytesOut = bytesOut;
+    }
+
+    public DateTime getMinEventTime() {
+        return minEventTime;
+    }
+
+    public void setMinEventTime(DateTime minEventTime) {
+        this.minEventTime = minEventTime;
+    }
+
+    public DateTime getMaxEventTime() {
+        return maxEventTime;
+    }
+
+    public void setMaxEventTime(DateTime maxEventTime) {
+        this.maxEventTime = maxEventTime;
+    }
+
+    public Long getJobsStarted() {
+        return jobsStarted;
+    }
+
+    public void setJobsStarted(Long jobsStarted) {
+        this.jobsStarted = jobsStarted;
+    }
+
+    public Long getJobsFinished() {
+        return jobsFinished;
+    }
+
+    public void setJobsFinished(Long jobsFinished) {
+        this.jobsFinished = jobsFinished;
+    }
+
+    public Long getJobsFailed() {
+        return jobsFailed;
+    }
+
+    public void setJobsFailed(Long jobsFailed) {
+        this.jobsFailed = jobsFailed;
+    }
+
+    public Long getJobDuration() {
+        return jobDuration;
+    }
+
+    public void setJobDuration(Long jobDuration) {
+        this.jobDuration = jobDuration;
+    }
+
+    public Long getSuccessfulJobDuration() {
+        return successfulJobDuration;
+    }
+
+    public void setSuccessfulJobDuration(Long successfulJobDuration) {
+        this.successfulJobDuration = successfulJobDuration;
+    }
+
+    public Long getProcessorsFailed() {
+        return processorsFailed;
+    }
+
+    public void setProcessorsFailed(Long processorsFailed) {
+        this.processorsFailed = processorsFailed;
+    }
+
+    public Long getFlowFilesStarted() {
+        return flowFilesStarted;
+    }
+
+    public void setFlowFilesStarted(Long flowFilesStarted) {
+        this.flowFilesStarted = flowFilesStarted;
+    }
+
+    public Long getFlowFilesFinished() {
+        return flowFilesFinished;
+    }
+
+    public void setFlowFilesFinished(Long flowFilesFinished) {
+        this.flowFilesFinished = flowFilesFinished;
+    }
+
+    /**
+     * The time bucket a rollup row sums the stats over
+     */
+    public enum Granularity {
+        MINUTE, HOUR, DAY;
+
+        /**
+         * @param time a time
+         * @return the start of the bucket containing the time
+         */
+        public DateTime truncate(DateTime time) {
+            switch (this) {
+                case MINUTE:
+                    return time.minuteOfDay().roundFloorCopy();
+                case HOUR:
+                    return time.hourOfDay().roundFloorCopy();
+                default:
+                    return time.withTimeAtStartOfDay();
+            }
+        }
+
+        /**
+         * Find the coarsest granularity that still gives a useful number of points for a query over the given span.
+         * Spans of an hour or less are answered from the raw stats.
+         *
+         * @param start the query start time
+         * @param end   the query end time
+         * @return the granularity to query, or null to query the raw stats
+         */
+        public static Granularity forSpan(DateTime start, DateTime end) {
+            long millis = end.getMillis() - start.getMillis();
+            if (millis <= NifiFeedProcessorStatisticsProvider.TimeFrame.HOUR.getMillis()) {
+                return null;
+            } else if (millis <= NifiFeedProcessorStatisticsProvider.TimeFrame.DAY.getMillis()) {
+                return MINUTE;
+            } else if (millis <= NifiFeedProcessorStatisticsProvider.TimeFrame.MONTH.getMillis()) {
+                return HOUR;
+            } else {
+                return DAY;
+            }
+        }
+    }
+}
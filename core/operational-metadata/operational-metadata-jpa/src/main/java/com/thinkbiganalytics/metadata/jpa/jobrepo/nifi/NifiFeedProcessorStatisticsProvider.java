@@ -21,42 +21,166 @@ package com.thinkbiganalytics.metadata.jpa.jobrepo.nifi;
  */
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.ObjectArrays;
+import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
 import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiFeedProcessorStats;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.nifi.JpaNifiFeedProcessorStatsRollup.Granularity;
 
 import org.apache.commons.lang3.StringUtils;
 import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 
 /**
  * Provider for accessing the statstics for a feed and processor
+ *
+ * Each saved stats record is also summed into a minute, hour and day {@link JpaNifiFeedProcessorStatsRollup}.
+ * Queries spanning more than an hour are answered from the coarsest rollup that fits the span instead of aggregating the raw stats.
  */
 @Service
 public class NifiFeedProcessorStatisticsProvider implements com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiFeedProcessorStatisticsProvider {
 
+    private static final Logger log = LoggerFactory.getLogger(NifiFeedProcessorStatisticsProvider.class);
+
     @Autowired
     private JPAQueryFactory factory;
 
+    /**
+     * Creates missing rollup rows in their own transaction so a unique constraint violation doesn't roll back the callers transaction
+     */
+    private TransactionTemplate newRollupTransaction;
+
     private NifiFeedProcessorStatisticsRepository statisticsRepository;
 
+    private NifiFeedProcessorStatisticsRollupRepository rollupRepository;
+
     private NifiEventRepository nifiEventRepository;
 
     @Autowired
-    public NifiFeedProcessorStatisticsProvider(NifiFeedProcessorStatisticsRepository repository, NifiEventRepository nifiEventRepository) {
+    public NifiFeedProcessorStatisticsProvider(NifiFeedProcessorStatisticsRepository repository, NifiFeedProcessorStatisticsRollupRepository rollupRepository,
+                                               NifiEventRepository nifiEventRepository) {
         this.statisticsRepository = repository;
+        this.rollupRepository = rollupRepository;
         this.nifiEventRepository = nifiEventRepository;
     }
 
+    @Autowired
+    public void setTransactionManager(@Qualifier("operationalMetadataTransactionManager") PlatformTransactionManager transactionManager) {
+        this.newRollupTransaction = new TransactionTemplate(transactionManager);
+        this.newRollupTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
 
+    /**
+     * Save the stats and add them to the rollups of the bucket containing the stats min event time.
+     * The rollups are incremented with a single UPDATE statement so concurrent writers to the same bucket don't lose each others counts.
+     */
     @Override
     public NifiFeedProcessorStats create(NifiFeedProcessorStats t) {
-        return statisticsRepository.save((JpaNifiFeedProcessorStats) t);
+        NifiFeedProcessorStats saved = statisticsRepository.save((JpaNifiFeedProcessorStats) t);
+        rollup(saved);
+        return saved;
+    }
+
+    private void rollup(NifiFeedProcessorStats stats) {
+        DateTime eventTime = stats.getMinEventTime() != null ? stats.getMinEventTime() : stats.getMaxEventTime();
+        if (eventTime == null || stats.getFeedName() == null || stats.getProcessorId() == null) {
+            return;
+        }
+        for (Granularity granularity : Granularity.values()) {
+            DateTime bucketTime = granularity.truncate(eventTime);
+            if (addToRollup(granularity, bucketTime, stats) == 0) {
+                createRollup(granularity, bucketTime, stats.getFeedName(), stats.getProcessorId());
+                if (addToRollup(granularity, bucketTime, stats) == 0) {
+                    log.warn("Unable to add the stats for feed {} and processor {} to the {} rollup at {}", stats.getFeedName(), stats.getProcessorId(), granularity, bucketTime);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the stats to an existing rollup row in the callers transaction.
+     * The sums and the min and max event times are computed by the database.
+     *
+     * @return the number of rows updated, 0 if the rollup row doesn't exist yet
+     */
+    private long addToRollup(Granularity granularity, DateTime bucketTime, NifiFeedProcessorStats stats) {
+        QJpaNifiFeedProcessorStatsRollup rollup = QJpaNifiFeedProcessorStatsRollup.jpaNifiFeedProcessorStatsRollup;
+        JPAUpdateClause update = factory.update(rollup)
+            .set(rollup.processorName, stats.getProcessorName())
+            .set(rollup.feedProcessGroupId, stats.getFeedProcessGroupId())
+            .set(rollup.rowCount, rollup.rowCount.add(1L))
+            .set(rollup.totalCount, rollup.totalCount.add(zeroIfNull(stats.getTotalCount())))
+            .set(rollup.duration, rollup.duration.add(zeroIfNull(stats.getDuration())))
+            .set(rollup.bytesIn, rollup.bytesIn.add(zeroIfNull(stats.getBytesIn())))
+            .set(rollup.bytesOut, rollup.bytesOut.add(zeroIfNull(stats.getBytesOut())))
+            .set(rollup.jobsStarted, rollup.jobsStarted.add(zeroIfNull(stats.getJobsStarted())))
+            .set(rollup.jobsFinished, rollup.jobsFinished.add(zeroIfNull(stats.getJobsFinished())))
+            .set(rollup.jobsFailed, rollup.jobsFailed.add(zeroIfNull(stats.getJobsFailed())))
+            .set(rollup.jobDuration, rollup.jobDuration.add(zeroIfNull(stats.getJobDuration())))
+            .set(rollup.successfulJobDuration, rollup.successfulJobDuration.add(zeroIfNull(stats.getSuccessfulJobDuration())))
+            .set(rollup.processorsFailed, rollup.processorsFailed.add(zeroIfNull(stats.getProcessorsFailed())))
+            .set(rollup.flowFilesStarted, rollup.flowFilesStarted.add(zeroIfNull(stats.getFlowFilesStarted())))
+            .set(rollup.flowFilesFinished, rollup.flowFilesFinished.add(zeroIfNull(stats.getFlowFilesFinished())));
+        if (stats.getMinEventTime() != null) {
+            update.set(rollup.minEventTime, new CaseBuilder().when(rollup.minEventTime.isNull().or(rollup.minEventTime.gt(stats.getMinEventTime())))
+                .then(Expressions.constant(stats.getMinEventTime()))
+                .otherwise(rollup.minEventTime));
+        }
+        if (stats.getMaxEventTime() != null) {
+            update.set(rollup.maxEventTime, new CaseBuilder().when(rollup.maxEventTime.isNull().or(rollup.maxEventTime.lt(stats.getMaxEventTime())))
+                .then(Expressions.constant(stats.getMaxEventTime()))
+                .otherwise(rollup.maxEventTime));
+        }
+        return update.where(rollup.granularity.eq(granularity)
+                                .and(rollup.feedName.eq(stats.getFeedName()))
+                                .and(rollup.processorId.eq(stats.getProcessorId()))
+                                .and(rollup.bucketTime.eq(bucketTime)))
+            .execute();
+    }
+
+    /**
+     * Insert an empty rollup row and commit it so the callers update can find it.
+     * If another writer inserted the same row first the unique constraint on the rollup key rejects this one, which is fine as the row now exists.
+     */
+    private void createRollup(Granularity granularity, DateTime bucketTime, String feedName, String processorId) {
+        try {
+            newRollupTransaction.execute(status -> rollupRepository.saveAndFlush(new JpaNifiFeedProcessorStatsRollup(granularity, bucketTime, feedName, processorId)));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("The {} rollup at {} for feed {} and processor {} was created by another writer", granularity, bucketTime, feedName, processorId);
+        }
+    }
+
+    private static long zeroIfNull(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    @Override
+    public int deleteStatisticsBefore(DateTime time) {
+        QJpaNifiFeedProcessorStats stats = QJpaNifiFeedProcessorStats.jpaNifiFeedProcessorStats;
+        return (int) factory.delete(stats).where(stats.maxEventTime.lt(time)).execute();
+    }
+
+    @Override
+    public int deleteMinuteRollupsBefore(DateTime time) {
+        QJpaNifiFeedProcessorStatsRollup rollup = QJpaNifiFeedProcessorStatsRollup.jpaNifiFeedProcessorStatsRollup;
+        return (int) factory.delete(rollup).where(rollup.granularity.eq(Granularity.MINUTE).and(rollup.bucketTime.lt(Granularity.MINUTE.truncate(time)))).execute();
     }
 
     public List<? extends JpaNifiFeedProcessorStats> findFeedProcessorStatisticsByProcessorId(String feedName, TimeFrame timeFrame) {
@@ -114,6 +238,10 @@ public class NifiFeedProcessorStatisticsProvider implements com.thinkbiganalytic
 
     @Override
     public List<? extends JpaNifiFeedProcessorStats> findFeedProcessorStatisticsByProcessorId(String feedName, DateTime start, DateTime end) {
+        Granularity granularity = Granularity.forSpan(start, end);
+        if (granularity != null) {
+            return findRollupStatisticsByProcessor(feedName, granularity, start, end, true);
+        }
         QJpaNifiFeedProcessorStats stats = QJpaNifiFeedProcessorStats.jpaNifiFeedProcessorStats;
         JPAQuery
             query = factory.select(
@@ -138,6 +266,10 @@ public class NifiFeedProcessorStatisticsProvider implements com.thinkbiganalytic
 
     @Override
     public List<? extends JpaNifiFeedProcessorStats> findFeedProcessorStatisticsByProcessorName(String feedName, DateTime start, DateTime end) {
+        Granularity granularity = Granularity.forSpan(start, end);
+        if (granularity != null) {
+            return findRollupStatisticsByProcessor(feedName, granularity, start, end, false);
+        }
         QJpaNifiFeedProcessorStats stats = QJpaNifiFeedProcessorStats.jpaNifiFeedProcessorStats;
         JPAQuery
             query = factory.select(
@@ -160,6 +292,10 @@ public class NifiFeedProcessorStatisticsProvider implements com.thinkbiganalytic
     }
 
     public List<? extends JpaNifiFeedProcessorStats> findForFeedStatisticsGroupedByTime(String feedName, DateTime start, DateTime end) {
+        Granularity granularity = Granularity.forSpan(start, end);
+        if (granularity != null) {
+            return findRollupStatisticsGroupedByTime(feedName, granularity, start, end);
+        }
         QJpaNifiFeedProcessorStats stats = QJpaNifiFeedProcessorStats.jpaNifiFeedProcessorStats;
         JPAQuery
             query = factory.select(
@@ -183,6 +319,62 @@ public class NifiFeedProcessorStatisticsProvider implements com.thinkbiganalytic
         return (List<JpaNifiFeedProcessorStats>) query.fetch();
     }
 
+    /**
+     * Find the stats for a feed grouped by processor from the rollups.
+     * The first and last bucket are included in full, so the stats may start up to one bucket before the start time.
+     *
+     * @param groupByProcessorId true to group by the processor id and name, false to group by the processor name only
+     */
+    private List<? extends JpaNifiFeedProcessorStats> findRollupStatisticsByProcessor(String feedName, Granularity granularity, DateTime start, DateTime end, boolean groupByProcessorId) {
+        QJpaNifiFeedProcessorStatsRollup rollup = QJpaNifiFeedProcessorStatsRollup.jpaNifiFeedProcessorStatsRollup;
+        Expression<?>[] groupBy = groupByProcessorId ? new Expression<?>[]{rollup.feedName, rollup.processorId, rollup.processorName}
+                                                     : new Expression<?>[]{rollup.feedName, rollup.processorName};
+        Expression<?>[] sums = new Expression<?>[]{
+            rollup.bytesIn.sum().as("bytesIn"), rollup.bytesOut.sum().as("bytesOut"), rollup.duration.sum().as("duration"),
+            rollup.jobsStarted.sum().as("jobsStarted"), rollup.jobsFinished.sum().as("jobsFinished"), rollup.jobDuration.sum().as("jobDuration"),
+            rollup.flowFilesStarted.sum().as("flowFilesStarted"), rollup.flowFilesFinished.sum().as("flowFilesFinished"), rollup.totalCount.sum().as("totalCount"),
+            rollup.maxEventTime.max().as("maxEventTime"), rollup.minEventTime.min().as("minEventTime"), rollup.jobsFailed.sum().as("jobsFailed"),
+            rollup.rowCount.sum().as("resultSetCount")};
+        JPAQuery
+            query = factory.select(Projections.bean(JpaNifiFeedProcessorStats.class, ObjectArrays.concat(groupBy, sums, Expression.class)))
+            .from(rollup)
+            .where(withinRollup(rollup, feedName, granularity, start, end))
+            .groupBy(groupBy)
+            .orderBy(rollup.processorName.asc());
+
+        return (List<JpaNifiFeedProcessorStats>) query.fetch();
+    }
+
+    /**
+     * Find the stats for a feed from the rollups, one row per bucket with the bucket time as the maxEventTime
+     */
+    private List<? extends JpaNifiFeedProcessorStats> findRollupStatisticsGroupedByTime(String feedName, Granularity granularity, DateTime start, DateTime end) {
+        QJpaNifiFeedProcessorStatsRollup rollup = QJpaNifiFeedProcessorStatsRollup.jpaNifiFeedProcessorStatsRollup;
+        JPAQuery
+            query = factory.select(
+            Projections.bean(JpaNifiFeedProcessorStats.class,
+                             rollup.feedName,
+                             rollup.bytesIn.sum().as("bytesIn"), rollup.bytesOut.sum().as("bytesOut"), rollup.duration.sum().as("duration"),
+                             rollup.jobsStarted.sum().as("jobsStarted"), rollup.jobsFinished.sum().as("jobsFinished"), rollup.jobDuration.sum().as("jobDuration"),
+                             rollup.flowFilesStarted.sum().as("flowFilesStarted"), rollup.flowFilesFinished.sum().as("flowFilesFinished"),
+                             rollup.bucketTime.as("maxEventTime"),
+                             rollup.jobsFailed.sum().as("jobsFailed"), rollup.totalCount.sum().as("totalCount"),
+                             rollup.rowCount.sum().as("resultSetCount"))
+        )
+            .from(rollup)
+            .where(withinRollup(rollup, feedName, granularity, start, end))
+            .groupBy(rollup.feedName, rollup.bucketTime)
+            .orderBy(rollup.bucketTime.asc());
+
+        return (List<JpaNifiFeedProcessorStats>) query.fetch();
+    }
+
+    private Predicate withinRollup(QJpaNifiFeedProcessorStatsRollup rollup, String feedName, Granularity granularity, DateTime start, DateTime end) {
+        return rollup.granularity.eq(granularity)
+            .and(rollup.feedName.eq(feedName))
+            .and(rollup.bucketTime.goe(granularity.truncate(start)))
+            .and(rollup.bucketTime.loe(end));
+    }
 
     @Override
     public Long findMaxEventId(String clusterNodeId) {
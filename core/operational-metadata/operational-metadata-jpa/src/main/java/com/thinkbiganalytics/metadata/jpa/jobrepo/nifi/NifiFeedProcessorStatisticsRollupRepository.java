@@ -0,0 +1,35 @@
+package com.thinkbiganalytics.metadata.jpa.jobrepo.nifi;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.joda.time.DateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.querydsl.QueryDslPredicateExecutor;
+
+/**
+ * Spring data repository for {@link JpaNifiFeedProcessorStatsRollup}
+ */
+public interface NifiFeedProcessorStatisticsRollupRepository extends JpaRepository<JpaNifiFeedProcessorStatsRollup, String>, QueryDslPredicateExecutor<JpaNifiFeedProcessorStatsRollup> {
+
+    JpaNifiFeedProcessorStatsRollup findByGranularityAndFeedNameAndProcessorIdAndBucketTime(JpaNifiFeedProcessorStatsRollup.Granularity granularity, String feedName, String processorId,
+                                                                                            DateTime bucketTime);
+
+}
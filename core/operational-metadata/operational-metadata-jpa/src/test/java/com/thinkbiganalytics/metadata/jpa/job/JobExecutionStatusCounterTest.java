@@ -0,0 +1,104 @@
+package com.thinkbiganalytics.metadata.jpa.job;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecution;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.JobStatusCount;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.job.JobExecutionStatusCounter;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.job.JpaBatchJobExecution;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Test the in memory job status counts follow the job status changes after they are loaded
+ */
+public class JobExecutionStatusCounterTest {
+
+    private JobExecutionStatusCounter counter;
+
+    private DateTime today = new DateTime(DateTimeZone.UTC);
+
+    @Before
+    public void setup() {
+        counter = new JobExecutionStatusCounter();
+        Map<JobExecutionStatusCounter.StatusDay, Long> counts = new HashMap<>();
+        counts.put(new JobExecutionStatusCounter.StatusDay(BatchJobExecution.JobStatus.FAILED, today.toLocalDate()), 2L);
+        counts.put(new JobExecutionStatusCounter.StatusDay(BatchJobExecution.JobStatus.COMPLETED, today.minusDays(3).toLocalDate()), 5L);
+        counter.reconcileIfDue(() -> counts);
+    }
+
+    @Test
+    public void testTrackStatusChanges() {
+        JpaBatchJobExecution jobExecution = new JpaBatchJobExecution();
+        jobExecution.setStartTime(today);
+        jobExecution.setStatus(BatchJobExecution.JobStatus.STARTED);
+        counter.track(jobExecution);
+        Assert.assertEquals(Long.valueOf(1L), byStatus(counter.getJobStatusCount(null)).get("RUNNING"));
+
+        jobExecution.completeJob();
+        counter.track(jobExecution);
+        Map<String, Long> counts = byStatus(counter.getJobStatusCount(null));
+        Assert.assertNull(counts.get("RUNNING"));
+        Assert.assertEquals(Long.valueOf(6L), counts.get("COMPLETED"));
+        Assert.assertEquals(Long.valueOf(2L), counts.get("FAILED"));
+
+        //saving the job again without a change doesn't count it twice
+        counter.track(jobExecution);
+        Assert.assertEquals(Long.valueOf(6L), byStatus(counter.getJobStatusCount(null)).get("COMPLETED"));
+
+        List<JobStatusCount> failed = counter.getJobStatusCount(Collections.singletonList(BatchJobExecution.JobStatus.FAILED));
+        Assert.assertEquals(1, failed.size());
+    }
+
+    @Test
+    public void testCountsByDate() {
+        List<JobStatusCount> all = counter.getJobStatusCountByDate(null);
+        Assert.assertEquals(2, all.size());
+
+        List<JobStatusCount> recent = counter.getJobStatusCountByDate(today.minusDays(1).toLocalDate());
+        Assert.assertEquals(1, recent.size());
+        Assert.assertEquals("FAILED", recent.get(0).getStatus());
+        Assert.assertEquals(today.toLocalDate(), new LocalDate(recent.get(0).getDate()));
+    }
+
+    @Test
+    public void testInvalidate() {
+        counter.invalidate();
+        Assert.assertNull(counter.getJobStatusCount(null));
+        counter.reconcileIfDue(HashMap::new);
+        Assert.assertTrue(counter.getJobStatusCount(null).isEmpty());
+    }
+
+    private Map<String, Long> byStatus(List<JobStatusCount> counts) {
+        return counts.stream().collect(Collectors.toMap(JobStatusCount::getStatus, JobStatusCount::getCount));
+    }
+}
@@ -23,16 +23,21 @@ package com.thinkbiganalytics.metadata.jpa.job;
 import com.querydsl.core.BooleanBuilder;
 import com.thinkbiganalytics.DateTimeUtil;
 import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.feed.OpsManagerFeed;
 import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecution;
 import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecutionProvider;
 import com.thinkbiganalytics.metadata.api.jobrepo.job.JobStatusCount;
 import com.thinkbiganalytics.metadata.config.OperationalMetadataConfig;
 import com.thinkbiganalytics.metadata.jpa.TestJpaConfiguration;
+import com.thinkbiganalytics.metadata.jpa.feed.OpsFeedManagerFeedProvider;
 import com.thinkbiganalytics.metadata.jpa.jobrepo.job.QJpaBatchJobExecution;
 import com.thinkbiganalytics.metadata.jpa.support.GenericQueryDslFilter;
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTO;
 import com.thinkbiganalytics.spring.CommonsSpringConfiguration;
 
+import org.joda.time.DateTime;
 import org.joda.time.Period;
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.boot.test.SpringApplicationConfiguration;
@@ -44,8 +49,11 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import java.lang.reflect.Field;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -64,6 +72,9 @@ public class JpaBatchJobExecutionTest {
     @Inject
     private MetadataAccess operationalMetadataAccess;
 
+    @Inject
+    private OpsFeedManagerFeedProvider feedProvider;
+
     public static Map<String, Field> getFields(Class<?> cl) {
         return Arrays.asList(cl.getDeclaredFields()).stream().collect(Collectors.toMap(f -> f.getName(), f -> f));
     }
@@ -97,6 +108,38 @@ public class JpaBatchJobExecutionTest {
 
     }
 
+    @Test
+    public void testFindJobExecutionsByFlowFiles() {
+        String feedName = "testCategory.flowFileFeed";
+        String flowFile1 = UUID.randomUUID().toString();
+        String flowFile2 = UUID.randomUUID().toString();
+        String unknownFlowFile = UUID.randomUUID().toString();
+
+        operationalMetadataAccess.commit(() -> {
+            OpsManagerFeed.ID id = feedProvider.resolveId(UUID.randomUUID().toString());
+            return feedProvider.save(id, feedName);
+        });
+        Map<String, Long> jobExecutionIds = operationalMetadataAccess.commit(() -> {
+            Map<String, Long> ids = new HashMap<>();
+            ids.put(flowFile1, jobExecutionProvider.getOrCreateJobExecution(newStartJobEvent(1L, feedName, flowFile1)).getJobExecutionId());
+            ids.put(flowFile2, jobExecutionProvider.getOrCreateJobExecution(newStartJobEvent(2L, feedName, flowFile2)).getJobExecutionId());
+            return ids;
+        });
+        Assert.assertNotEquals(jobExecutionIds.get(flowFile1), jobExecutionIds.get(flowFile2));
+
+        operationalMetadataAccess.read(() -> {
+            Map<String, BatchJobExecution> jobs = jobExecutionProvider.findJobExecutionsByFlowFiles(Arrays.asList(flowFile1, flowFile2, unknownFlowFile));
+            Assert.assertEquals(2, jobs.size());
+            Assert.assertEquals(jobExecutionIds.get(flowFile1), jobs.get(flowFile1).getJobExecutionId());
+            Assert.assertEquals(jobExecutionIds.get(flowFile2), jobs.get(flowFile2).getJobExecutionId());
+            Assert.assertFalse(jobs.containsKey(unknownFlowFile));
+
+            Assert.assertTrue(jobExecutionProvider.findJobExecutionsByFlowFiles(Collections.singleton(unknownFlowFile)).isEmpty());
+            Assert.assertTrue(jobExecutionProvider.findJobExecutionsByFlowFiles(Collections.emptyList()).isEmpty());
+            return jobs;
+        });
+    }
+
     @Test
     public void testFilters() {
         operationalMetadataAccess.read(() -> {
@@ -107,4 +150,17 @@ public class JpaBatchJobExecutionTest {
         });
 
     }
+
+    private ProvenanceEventRecordDTO newStartJobEvent(Long eventId, String feedName, String jobFlowFileId) {
+        ProvenanceEventRecordDTO event = new ProvenanceEventRecordDTO();
+        event.setEventId(eventId);
+        event.setEventTime(DateTime.now());
+        event.setEventType("CREATE");
+        event.setFeedName(feedName);
+        event.setFlowFileUuid(jobFlowFileId);
+        event.setJobFlowFileId(jobFlowFileId);
+        event.setIsStartOfJob(true);
+        event.setAttributeMap(new HashMap<>());
+        return event;
+    }
 }
@@ -0,0 +1,191 @@
+package com.thinkbiganalytics.metadata.jpa.stats;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiFeedProcessorStatisticsProvider;
+import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiFeedProcessorStats;
+import com.thinkbiganalytics.metadata.config.OperationalMetadataConfig;
+import com.thinkbiganalytics.metadata.jpa.TestJpaConfiguration;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.nifi.JpaNifiFeedProcessorStats;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.nifi.JpaNifiFeedProcessorStatsRollup;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.nifi.NifiFeedProcessorStatisticsRollupRepository;
+import com.thinkbiganalytics.spring.CommonsSpringConfiguration;
+
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+/**
+ * Test the feed processor statistics are rolled up as they are saved and queried from the rollups for longer time frames
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@TestPropertySource(locations = "classpath:test-application.properties")
+@SpringApplicationConfiguration(classes = {CommonsSpringConfiguration.class, OperationalMetadataConfig.class, TestJpaConfiguration.class})
+public class JpaNifiFeedProcessorStatsRollupTest {
+
+    @Inject
+    private NifiFeedProcessorStatisticsProvider statisticsProvider;
+
+    @Inject
+    private MetadataAccess operationalMetadataAccess;
+
+    @Inject
+    private NifiFeedProcessorStatisticsRollupRepository rollupRepository;
+
+    @Test
+    public void testRollupMatchesRawStats() {
+        String feedName = "rollup." + UUID.randomUUID().toString();
+        DateTime now = DateTime.now();
+        DateTime start = now.minusHours(2);
+
+        operationalMetadataAccess.commit(() -> {
+            for (int i = 0; i < 10; i++) {
+                DateTime time = start.plusMinutes(i * 7);
+                statisticsProvider.create(newStats(feedName, "processor-1", "GetFile", time));
+                statisticsProvider.create(newStats(feedName, "processor-2", "PutFile", time));
+            }
+            return null;
+        }, MetadataAccess.SERVICE);
+
+        operationalMetadataAccess.read(() -> {
+            List<? extends NifiFeedProcessorStats> byProcessor = statisticsProvider.findFeedProcessorStatisticsByProcessorName(feedName, now.minusDays(1), now);
+            Assert.assertEquals(2, byProcessor.size());
+            for (NifiFeedProcessorStats stats : byProcessor) {
+                Assert.assertEquals(Long.valueOf(100L), stats.getTotalCount());
+                Assert.assertEquals(Long.valueOf(10240L), stats.getBytesIn());
+                Assert.assertEquals(Long.valueOf(10L), stats.getJobsStarted());
+            }
+
+            List<? extends NifiFeedProcessorStats> byProcessorId = statisticsProvider.findFeedProcessorStatisticsByProcessorId(feedName, now.minusDays(1), now);
+            Assert.assertEquals(2, byProcessorId.size());
+            Assert.assertNotNull(byProcessorId.get(0).getProcessorId());
+
+            //one row per minute bucket, each with both processors
+            List<? extends NifiFeedProcessorStats> byMinute = statisticsProvider.findForFeedStatisticsGroupedByTime(feedName, now.minusDays(1), now);
+            Assert.assertEquals(10, byMinute.size());
+            Assert.assertEquals(Long.valueOf(20L), byMinute.get(0).getTotalCount());
+
+            List<? extends NifiFeedProcessorStats> byDay = statisticsProvider.findForFeedStatisticsGroupedByTime(feedName, now.minusMonths(3), now);
+            long dayTotal = byDay.stream().mapToLong(NifiFeedProcessorStats::getTotalCount).sum();
+            Assert.assertEquals(200L, dayTotal);
+            return null;
+        });
+    }
+
+    @Test
+    public void testDeleteRawStatsKeepsRollups() {
+        String feedName = "rollup." + UUID.randomUUID().toString();
+        DateTime now = DateTime.now();
+
+        operationalMetadataAccess.commit(() -> {
+            statisticsProvider.create(newStats(feedName, "processor-1", "GetFile", now.minusHours(5)));
+            statisticsProvider.create(newStats(feedName, "processor-1", "GetFile", now.minusMinutes(10)));
+            return null;
+        }, MetadataAccess.SERVICE);
+
+        operationalMetadataAccess.commit(() -> statisticsProvider.deleteStatisticsBefore(now.minusHours(1)), MetadataAccess.SERVICE);
+
+        operationalMetadataAccess.read(() -> {
+            List<? extends NifiFeedProcessorStats> raw = statisticsProvider.findFeedProcessorStatisticsByProcessorName(feedName, now.minusHours(1), now);
+            Assert.assertEquals(1, raw.size());
+            Assert.assertEquals(Long.valueOf(10L), raw.get(0).getTotalCount());
+
+            List<? extends NifiFeedProcessorStats> rollup = statisticsProvider.findFeedProcessorStatisticsByProcessorName(feedName, now.minusDays(1), now);
+            Assert.assertEquals(Long.valueOf(20L), rollup.get(0).getTotalCount());
+            return null;
+        });
+    }
+
+    @Test
+    public void testConcurrentRollups() throws Exception {
+        String feedName = "rollup." + UUID.randomUUID().toString();
+        DateTime bucketTime = DateTime.now().minusHours(2).minuteOfDay().roundFloorCopy();
+        int threads = 4;
+        int statsPerThread = 25;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                Callable<Void> writer = () -> {
+                    start.await();
+                    for (int i = 0; i < statsPerThread; i++) {
+                        DateTime time = bucketTime.plusSeconds(i % 50);
+                        operationalMetadataAccess.commit(() -> statisticsProvider.create(newStats(feedName, "processor-1", "GetFile", time)), MetadataAccess.SERVICE);
+                    }
+                    return null;
+                };
+                results.add(executor.submit(writer));
+            }
+            //every writer finds the rollup rows missing and races to create them
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        operationalMetadataAccess.read(() -> {
+            for (JpaNifiFeedProcessorStatsRollup.Granularity granularity : JpaNifiFeedProcessorStatsRollup.Granularity.values()) {
+                JpaNifiFeedProcessorStatsRollup rollup =
+                    rollupRepository.findByGranularityAndFeedNameAndProcessorIdAndBucketTime(granularity, feedName, "processor-1", granularity.truncate(bucketTime));
+                Assert.assertNotNull(rollup);
+                Assert.assertEquals(Long.valueOf(threads * statsPerThread), rollup.getRowCount());
+                Assert.assertEquals(Long.valueOf(threads * statsPerThread * 10L), rollup.getTotalCount());
+                Assert.assertEquals(Long.valueOf(threads * statsPerThread * 1024L), rollup.getBytesIn());
+                Assert.assertEquals(bucketTime.getMillis(), rollup.getMinEventTime().getMillis());
+                Assert.assertEquals(bucketTime.plusSeconds(statsPerThread - 1).plusSeconds(5).getMillis(), rollup.getMaxEventTime().getMillis());
+            }
+            return null;
+        });
+    }
+
+    private NifiFeedProcessorStats newStats(String feedName, String processorId, String processorName, DateTime time) {
+        JpaNifiFeedProcessorStats stats = new JpaNifiFeedProcessorStats(feedName, processorId);
+        stats.setProcessorName(processorName);
+        stats.setMinEventTime(time);
+        stats.setMaxEventTime(time.plusSeconds(5));
+        stats.setCollectionTime(time.plusSeconds(5));
+        stats.setTotalCount(10L);
+        stats.setBytesIn(1024L);
+        stats.setJobsStarted(1L);
+        return stats;
+    }
+}
@@ -0,0 +1,284 @@
+package com.thinkbiganalytics.nifi.provenance;
+
+/*-
+ * #%L
+ * thinkbig-nifi-provenance-repo
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.nifi.provenance.model.FeedFlowFile;
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTO;
+import com.thinkbiganalytics.nifi.provenance.model.stats.AggregatedFeedProcessorStatisticsHolder;
+import com.thinkbiganalytics.nifi.provenance.model.stats.AggregatedProcessorStatistics;
+import com.thinkbiganalytics.nifi.provenance.model.stats.GroupedStats;
+
+import org.joda.time.DateTime;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Primitive statistics counters for a single feed processor, kept in a fixed ring of time buckets.
+ *
+ * Each event is added to the bucket for its event time using atomic updates on pre-allocated arrays, so {@link #add(ProvenanceEventRecordDTO)} is lock free and does not allocate.
+ * If an event falls in a slot still holding an older bucket, because the events span more time than the ring covers, it is merged into that bucket.
+ *
+ * {@link #drainTo(Map)} should only be called when no events are being added.
+ */
+public class ProcessorStatsRingBuffer {
+
+    private static final int TOTAL_COUNT = 0;
+    private static final int BYTES_IN = 1;
+    private static final int BYTES_OUT = 2;
+    private static final int DURATION = 3;
+    private static final int PROCESSORS_FAILED = 4;
+    private static final int FLOW_FILES_STARTED = 5;
+    private static final int FLOW_FILES_FINISHED = 6;
+    private static final int JOBS_STARTED = 7;
+    private static final int JOBS_FINISHED = 8;
+    private static final int JOBS_FAILED = 9;
+    private static final int JOB_DURATION = 10;
+    private static final int SUCCESSFUL_JOB_DURATION = 11;
+    private static final int MIN_EVENT_TIME = 12;
+    private static final int MAX_EVENT_TIME = 13;
+    private static final int MAX_EVENT_ID = 14;
+
+    /**
+     * Number of counters in each bucket
+     */
+    private static final int FIELDS = 15;
+
+    /**
+     * Marks a slot that does not hold a bucket
+     */
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final String feedName;
+
+    private final String processorId;
+
+    private volatile String processorName;
+
+    private volatile String processGroupId;
+
+    private volatile String clusterNodeId;
+
+    private volatile String clusterNodeAddress;
+
+    private final long bucketMillis;
+
+    private final int buckets;
+
+    /**
+     * The start time of the bucket held in each slot, or {@link #EMPTY}
+     */
+    private final AtomicLongArray bucketTimes;
+
+    /**
+     * The counters for each slot, {@link #FIELDS} per slot
+     */
+    private final AtomicLongArray counters;
+
+    /**
+     * Number of times in a row this buffer has been drained without any events
+     */
+    private int idleDrains = 0;
+
+    /**
+     * @param feedName     the feed name
+     * @param processorId  the processor id
+     * @param bucketMillis the length of time covered by each bucket
+     * @param buckets      the number of buckets in the ring
+     */
+    public ProcessorStatsRingBuffer(String feedName, String processorId, long bucketMillis, int buckets) {
+        this.feedName = feedName;
+        this.processorId = processorId;
+        this.bucketMillis = bucketMillis;
+        this.buckets = buckets;
+        this.bucketTimes = new AtomicLongArray(buckets);
+        this.counters = new AtomicLongArray(buckets * FIELDS);
+        for (int slot = 0; slot < buckets; slot++) {
+            reset(slot);
+        }
+    }
+
+    /**
+     * Add the event to the bucket for its event time
+     *
+     * @param event the event
+     */
+    public void add(ProvenanceEventRecordDTO event) {
+        setDescriptors(event);
+
+        long eventTime = event.getEventTime().getMillis();
+        long bucketTime = eventTime - Math.floorMod(eventTime, bucketMillis);
+        int slot = (int) Math.floorMod(bucketTime / bucketMillis, (long) buckets);
+        if (bucketTimes.get(slot) == EMPTY) {
+            bucketTimes.compareAndSet(slot, EMPTY, bucketTime);
+        }
+
+        int base = slot * FIELDS;
+        counters.incrementAndGet(base + TOTAL_COUNT);
+        addIfNotNull(base + BYTES_IN, event.getInputContentClaimFileSizeBytes());
+        addIfNotNull(base + BYTES_OUT, event.getOutputContentClaimFileSizeBytes());
+        addIfNotNull(base + DURATION, event.getEventDuration());
+        if (event.isFailure()) {
+            counters.incrementAndGet(base + PROCESSORS_FAILED);
+        }
+        if (event.isStartOfFlowFile()) {
+            counters.incrementAndGet(base + FLOW_FILES_STARTED);
+        }
+        if (event.isEndingFlowFileEvent()) {
+            counters.incrementAndGet(base + FLOW_FILES_FINISHED);
+        }
+        FeedFlowFile feedFlowFile = event.getFeedFlowFile();
+        if (feedFlowFile != null) {
+            if (event.getEventId().equals(feedFlowFile.getFirstEventId())) {
+                counters.incrementAndGet(base + JOBS_STARTED);
+            }
+            if (event.isEndOfJob()) {
+                counters.incrementAndGet(base + JOBS_FINISHED);
+                Long jobTime = feedFlowFile.calculateJobDuration(event);
+                long jobDuration = jobTime != null ? jobTime : 0L;
+                counters.addAndGet(base + JOB_DURATION, jobDuration);
+                if (feedFlowFile.hasFailedEvents()) {
+                    counters.incrementAndGet(base + JOBS_FAILED);
+                } else {
+                    counters.addAndGet(base + SUCCESSFUL_JOB_DURATION, jobDuration);
+                }
+            }
+        }
+        min(base + MIN_EVENT_TIME, eventTime);
+        max(base + MAX_EVENT_TIME, eventTime);
+        max(base + MAX_EVENT_ID, event.getEventId());
+    }
+
+    /**
+     * Add the statistics for each bucket with events to the holder for that bucket's start time, creating the holder if needed, and reset the bucket.
+     *
+     * @param holders map of the bucket start time to the statistics holder for that bucket
+     * @return {@code true} if any bucket had events, {@code false} if the buffer was empty
+     */
+    public boolean drainTo(Map<Long, AggregatedFeedProcessorStatisticsHolder> holders) {
+        boolean drained = false;
+        for (int slot = 0; slot < buckets; slot++) {
+            long bucketTime = bucketTimes.get(slot);
+            int base = slot * FIELDS;
+            if (bucketTime != EMPTY && counters.get(base + TOTAL_COUNT) > 0) {
+                AggregatedFeedProcessorStatisticsHolder holder = holders.computeIfAbsent(bucketTime, time -> new AggregatedFeedProcessorStatisticsHolder());
+                AggregatedProcessorStatistics processorStatistics = new AggregatedProcessorStatistics(processorId, processorName, holder.getCollectionId());
+                toGroupedStats(base, processorStatistics.getStats());
+                holder.addProcessorStats(feedName, processGroupId, processorStatistics);
+                drained = true;
+            }
+            reset(slot);
+        }
+        idleDrains = drained ? 0 : idleDrains + 1;
+        return drained;
+    }
+
+    /**
+     * @return the number of times in a row {@link #drainTo(Map)} has found no events
+     */
+    public int getIdleDrains() {
+        return idleDrains;
+    }
+
+    public String getFeedName() {
+        return feedName;
+    }
+
+    public String getProcessorId() {
+        return processorId;
+    }
+
+    private void toGroupedStats(int base, GroupedStats stats) {
+        stats.setTotalCount(counters.get(base + TOTAL_COUNT));
+        stats.setBytesIn(counters.get(base + BYTES_IN));
+        stats.setBytesOut(counters.get(base + BYTES_OUT));
+        stats.setDuration(counters.get(base + DURATION));
+        stats.setProcessorsFailed(counters.get(base + PROCESSORS_FAILED));
+        stats.setFlowFilesStarted(counters.get(base + FLOW_FILES_STARTED));
+        stats.setFlowFilesFinished(counters.get(base + FLOW_FILES_FINISHED));
+        stats.setJobsStarted(counters.get(base + JOBS_STARTED));
+        stats.setJobsFinished(counters.get(base + JOBS_FINISHED));
+        stats.setJobsFailed(counters.get(base + JOBS_FAILED));
+        stats.setJobDuration(counters.get(base + JOB_DURATION));
+        stats.setSuccessfulJobDuration(counters.get(base + SUCCESSFUL_JOB_DURATION));
+        stats.setMaxEventId(counters.get(base + MAX_EVENT_ID));
+        DateTime minTime = new DateTime(counters.get(base + MIN_EVENT_TIME));
+        stats.setMinTime(minTime);
+        stats.setMaxTime(new DateTime(counters.get(base + MAX_EVENT_TIME)));
+        stats.setTime(minTime);
+        stats.setClusterNodeId(clusterNodeId);
+        stats.setClusterNodeAddress(clusterNodeAddress);
+    }
+
+    private void reset(int slot) {
+        int base = slot * FIELDS;
+        for (int field = 0; field < FIELDS; field++) {
+            counters.set(base + field, 0L);
+        }
+        counters.set(base + MIN_EVENT_TIME, Long.MAX_VALUE);
+        counters.set(base + MAX_EVENT_TIME, Long.MIN_VALUE);
+        bucketTimes.set(slot, EMPTY);
+    }
+
+    private void addIfNotNull(int index, Long value) {
+        if (value != null && value != 0L) {
+            counters.addAndGet(index, value);
+        }
+    }
+
+    /**
+     * Set the counter to the value if it is lower, only writing when it changes
+     */
+    private void min(int index, long value) {
+        long current = counters.get(index);
+        while (value < current && !counters.compareAndSet(index, current, value)) {
+            current = counters.get(index);
+        }
+    }
+
+    /**
+     * Set the counter to the value if it is higher, only writing when it changes
+     */
+    private void max(int index, long value) {
+        long current = counters.get(index);
+        while (value > current && !counters.compareAndSet(index, current, value)) {
+            current = counters.get(index);
+        }
+    }
+
+    /**
+     * Capture the names and ids from the first event that has them
+     */
+    private void setDescriptors(ProvenanceEventRecordDTO event) {
+        if (processorName == null && event.getComponentName() != null) {
+            processorName = event.getComponentName();
+        }
+        if (processGroupId == null && event.getFeedProcessGroupId() != null) {
+            processGroupId = event.getFeedProcessGroupId();
+        }
+        if (clusterNodeId == null && event.getClusterNodeId() != null) {
+            clusterNodeId = event.getClusterNodeId();
+        }
+        if (clusterNodeAddress == null && event.getClusterNodeAddress() != null) {
+            clusterNodeAddress = event.getClusterNodeAddress();
+        }
+    }
+}
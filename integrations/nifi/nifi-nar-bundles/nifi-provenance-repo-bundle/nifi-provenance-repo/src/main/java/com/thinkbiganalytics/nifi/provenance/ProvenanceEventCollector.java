@@ -22,6 +22,7 @@ package com.thinkbiganalytics.nifi.provenance;
 
 import com.google.common.collect.Lists;
 import com.thinkbiganalytics.nifi.provenance.cache.FeedFlowFileCacheUtil;
+import com.thinkbiganalytics.nifi.provenance.cache.FeedFlowFileGuavaCache;
 import com.thinkbiganalytics.nifi.provenance.jms.ProvenanceEventActiveMqWriter;
 import com.thinkbiganalytics.nifi.provenance.model.BatchFeedProcessorEvents;
 import com.thinkbiganalytics.nifi.provenance.model.FeedFlowFile;
@@ -54,6 +55,8 @@ public class ProvenanceEventCollector {
     ProvenanceStatsCalculator statsCalculator;
     @Autowired
     FeedFlowFileCacheUtil cacheUtil;
+    @Autowired
+    FeedFlowFileGuavaCache flowFileGuavaCache;
     /**
      * The Map of Objects that will be grouped and sent over to Kylo as Batch Jobs/Steps for Operations Manager
      */
@@ -71,6 +74,14 @@ public class ProvenanceEventCollector {
      * Size of the group of events that will be batched and sent to Kylo
      */
     private Integer jmsEventGroupSize = 50;
+    /**
+     * The number of threads used to process the events.  If more than 1 the events are sharded by their root flow file across the threads
+     */
+    private Integer processingThreads = 1;
+    /**
+     * Processes the events on multiple threads when {@link #processingThreads} is more than 1
+     */
+    private volatile ProvenanceEventShardedProcessor shardedProcessor;
 
 
     @Autowired
@@ -107,9 +118,26 @@ public class ProvenanceEventCollector {
      * Process the event, adding it to the running {@link com.thinkbiganalytics.nifi.provenance.model.FeedFlowFile} , calculating statistics on the event, and if a Batch feed, grouped by Feed and
      * Processor, process the entire event for processing.
      *
+     * If configured with more than 1 {@link #getProcessingThreads()} the event is handed off to the thread processing its root flow file and may not be processed when this method returns.
+     * {@link #sendToJms()} will wait for all the events to be processed.
+     *
+     * @param event the event to process
+     * @throws InterruptedException if interrupted while handing the event off to its processing thread.  The event is not processed
+     */
+    public void process(ProvenanceEventRecordDTO event) throws InterruptedException {
+        if (event != null && getProcessingThreads() > 1) {
+            getShardedProcessor().submit(event);
+        } else {
+            processEvent(event);
+        }
+    }
+
+    /**
+     * Process the event on the current thread
+     *
      * @param event the event to process
      */
-    public void process(ProvenanceEventRecordDTO event) {
+    private void processEvent(ProvenanceEventRecordDTO event) {
         try {
             if (event != null) {
                 try {
@@ -172,8 +200,12 @@ public class ProvenanceEventCollector {
     /**
      * Send both the Statistics {@link com.thinkbiganalytics.nifi.provenance.model.stats.AggregatedFeedProcessorStatisticsHolder} and the Batched Provenance Events {@link
      * ProvenanceEventRecordDTOHolder } to JMS for Kylo Operations Manager to process
+     *
+     * @throws InterruptedException if interrupted while waiting for the events to be processed.  Nothing is sent
      */
-    public void sendToJms() {
+    public void sendToJms() throws InterruptedException {
+        //ensure all the events handed off to the processing threads are done
+        awaitProcessed();
         //update the collection time
         List<ProvenanceEventRecordDTO> eventsSentToJms = groupedBatchEventsByFeed.values().stream()
             .flatMap(feedProcessorEventAggregate -> feedProcessorEventAggregate.collectEventsToBeSentToJmsQueue().stream())
@@ -182,6 +214,28 @@ public class ProvenanceEventCollector {
         statsCalculator.sendStats();
     }
 
+    /**
+     * Wait for any events submitted to the processing threads to be processed
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitProcessed() throws InterruptedException {
+        ProvenanceEventShardedProcessor processor = shardedProcessor;
+        if (processor != null) {
+            processor.awaitProcessed();
+        }
+    }
+
+    /**
+     * Returns the processor that shards the events across the processing threads
+     */
+    private synchronized ProvenanceEventShardedProcessor getShardedProcessor() {
+        if (shardedProcessor == null) {
+            shardedProcessor = new ProvenanceEventShardedProcessor(getProcessingThreads(), flowFileGuavaCache, this::processEvent);
+        }
+        return shardedProcessor;
+    }
+
     /**
      * Send the Batched events over to JMS
      *
@@ -222,5 +276,25 @@ public class ProvenanceEventCollector {
         this.jmsEventGroupSize = jmsEventGroupSize;
     }
 
+    /**
+     * Returns the number of threads used to process events.
+     */
+    public Integer getProcessingThreads() {
+        return processingThreads == null || processingThreads < 1 ? 1 : processingThreads;
+    }
+
+    /**
+     * Set the number of threads used to process events.  If different from the current number of threads any events still being processed will finish first
+     *
+     * @throws InterruptedException if interrupted while waiting for the current threads to finish
+     */
+    public synchronized void setProcessingThreads(Integer processingThreads) throws InterruptedException {
+        this.processingThreads = processingThreads;
+        if (shardedProcessor != null && shardedProcessor.getThreads() != getProcessingThreads()) {
+            shardedProcessor.shutdown();
+            shardedProcessor = null;
+        }
+    }
+
 
 }
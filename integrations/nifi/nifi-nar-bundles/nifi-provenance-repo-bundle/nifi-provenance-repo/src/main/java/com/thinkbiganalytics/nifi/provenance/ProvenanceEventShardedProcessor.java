@@ -0,0 +1,261 @@
+package com.thinkbiganalytics.nifi.provenance;
+
+/*-
+ * #%L
+ * thinkbig-nifi-provenance-repo
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.nifi.provenance.cache.FeedFlowFileGuavaCache;
+import com.thinkbiganalytics.nifi.provenance.model.FeedFlowFile;
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Processes provenance events on a fixed number of worker threads, sharding the events by the root {@link FeedFlowFile} they belong to.
+ *
+ * Each shard is processed by a single thread in the order the events were submitted so the flow file graph for a given root flow file is only ever modified by one thread.
+ * The shard for an event is resolved on the submitting thread using the flow file relationships of the events submitted since the last {@link #awaitProcessed()} and falling back to the
+ * {@link FeedFlowFileGuavaCache} for flow files processed before that.
+ *
+ * Events that relate flow files from more than one shard (i.e. a merge of flow files from different root flow files) wait for all the shards to finish their work and are then processed
+ * on the submitting thread.
+ *
+ * If the submitting thread is interrupted while waiting on a shard the {@link InterruptedException} is thrown and the event is not processed.  The events already handed to the shards
+ * are still processed.
+ */
+public class ProvenanceEventShardedProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(ProvenanceEventShardedProcessor.class);
+
+    /**
+     * Max number of events waiting in each shard before the submitting thread blocks
+     */
+    private static final int SHARD_QUEUE_CAPACITY = 1000;
+
+    /**
+     * The cache holding the flow file graph for events that have already been processed
+     */
+    private final FeedFlowFileGuavaCache flowFileCache;
+
+    /**
+     * The function used to process each event
+     */
+    private final Consumer<ProvenanceEventRecordDTO> eventProcessor;
+
+    private final List<Shard> shards;
+
+    /**
+     * Map of flowfile id to its root flow file id for events that have been submitted but may not have been processed yet.
+     * Only accessed by the submitting thread
+     */
+    private final Map<String, String> submittedRootFlowFiles = new HashMap<>();
+
+    /**
+     * @param threads        the number of worker threads/shards
+     * @param flowFileCache  the cache used to find the root flow file for events that have already been processed
+     * @param eventProcessor the function to process each event
+     */
+    public ProvenanceEventShardedProcessor(int threads, FeedFlowFileGuavaCache flowFileCache, Consumer<ProvenanceEventRecordDTO> eventProcessor) {
+        this.flowFileCache = flowFileCache;
+        this.eventProcessor = eventProcessor;
+        this.shards = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Shard shard = new Shard(i);
+            shards.add(shard);
+            shard.start();
+        }
+        log.info("Created ProvenanceEventShardedProcessor with {} threads ", threads);
+    }
+
+    /**
+     * @return the number of worker threads processing the events
+     */
+    public int getThreads() {
+        return shards.size();
+    }
+
+    /**
+     * Submit the event to be processed by the shard of its root flow file.  This will block if the shard has too many events waiting to be processed.
+     *
+     * @param event the event to process
+     * @throws InterruptedException if interrupted while waiting for space in the shard, or for the other shards when the event relates flow files across shards
+     */
+    public void submit(ProvenanceEventRecordDTO event) throws InterruptedException {
+        String rootFlowFileId = findRootFlowFileId(event.getFlowFileUuid());
+        Set<Integer> shardIndexes = new HashSet<>();
+        if (rootFlowFileId != null) {
+            shardIndexes.add(shardIndex(rootFlowFileId));
+        }
+        if (event.getParentUuids() != null) {
+            for (String parent : event.getParentUuids()) {
+                String parentRootFlowFileId = findRootFlowFileId(parent);
+                if (parentRootFlowFileId != null) {
+                    shardIndexes.add(shardIndex(parentRootFlowFileId));
+                    if (rootFlowFileId == null) {
+                        rootFlowFileId = parentRootFlowFileId;
+                    }
+                }
+            }
+        }
+        if (rootFlowFileId == null) {
+            rootFlowFileId = event.getFlowFileUuid();
+        }
+
+        submittedRootFlowFiles.put(event.getFlowFileUuid(), rootFlowFileId);
+        if (event.getChildUuids() != null) {
+            for (String child : event.getChildUuids()) {
+                submittedRootFlowFiles.put(child, rootFlowFileId);
+            }
+        }
+
+        if (shardIndexes.size() > 1) {
+            //the event links flow files across shards.  Wait for the shards to finish and process it here
+            awaitProcessed();
+            processEvent(event);
+        } else {
+            shards.get(shardIndex(rootFlowFileId)).submit(event);
+        }
+    }
+
+    /**
+     * Wait for all the events submitted so far to be processed.
+     *
+     * @throws InterruptedException if interrupted while waiting.  The submitted events may still be being processed
+     */
+    public void awaitProcessed() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(shards.size());
+        for (Shard shard : shards) {
+            shard.submit(latch::countDown);
+        }
+        latch.await();
+        //all submitted events are now in the flow file cache
+        submittedRootFlowFiles.clear();
+    }
+
+    /**
+     * Stop the worker threads once they have processed the events submitted so far, and wait for them to finish
+     *
+     * @throws InterruptedException if interrupted while waiting.  The worker threads still process the events they were given before stopping
+     */
+    public void shutdown() throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.submit(shard::stop);
+        }
+        for (Shard shard : shards) {
+            shard.join();
+        }
+        submittedRootFlowFiles.clear();
+    }
+
+    /**
+     * Find the root flow file id for a given flow file
+     *
+     * @param flowFileId the flowfile id
+     * @return the id of the root flow file, or null if the flow file has not been seen yet
+     */
+    private String findRootFlowFileId(String flowFileId) {
+        String rootFlowFileId = submittedRootFlowFiles.get(flowFileId);
+        if (rootFlowFileId == null) {
+            FeedFlowFile feedFlowFile = flowFileCache.getEntry(flowFileId);
+            if (feedFlowFile != null) {
+                rootFlowFileId = feedFlowFile.getId();
+            }
+        }
+        return rootFlowFileId;
+    }
+
+    /**
+     * Returns the index of the shard processing the events of a root flow file
+     */
+    int shardIndex(String rootFlowFileId) {
+        return (rootFlowFileId.hashCode() & Integer.MAX_VALUE) % shards.size();
+    }
+
+    private void processEvent(ProvenanceEventRecordDTO event) {
+        try {
+            eventProcessor.accept(event);
+        } catch (Exception e) {
+            log.error("ERROR PROCESSING EVENT! {}.  ERROR: {} ", event, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * A single worker thread processing its queue of work in order
+     */
+    private class Shard {
+
+        private final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>(SHARD_QUEUE_CAPACITY);
+
+        private final Thread thread;
+
+        private volatile boolean running = true;
+
+        Shard(int index) {
+            thread = new Thread(this::run, "KyloProvenanceEventShard-" + index);
+            thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        void submit(ProvenanceEventRecordDTO event) throws InterruptedException {
+            submit(() -> processEvent(event));
+        }
+
+        void submit(Runnable work) throws InterruptedException {
+            queue.put(work);
+        }
+
+        /**
+         * Stops the worker thread.  This is run by the worker thread itself so everything queued before it is processed first
+         */
+        void stop() {
+            running = false;
+        }
+
+        void join() throws InterruptedException {
+            thread.join();
+        }
+
+        private void run() {
+            while (running) {
+                try {
+                    queue.take().run();
+                } catch (InterruptedException e) {
+                    //keep processing until stopped
+                } catch (Exception e) {
+                    log.error("Error in provenance event shard {} ", thread.getName(), e);
+                }
+            }
+        }
+    }
+}
@@ -28,8 +28,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Calculate Statistics pertaining to each Feed and Processor and send them off to JMS
+ *
+ * Statistics are counted per feed and processor in a {@link ProcessorStatsRingBuffer} of time buckets.  The buffers are kept between sends so adding an event does not allocate or lock.
+ * Each time the stats are sent, one {@link AggregatedFeedProcessorStatisticsHolder} is sent for each time bucket that has events.
+ *
+ * {@link #calculateStats(ProvenanceEventRecordDTO)} may be called concurrently by the {@link ProvenanceEventCollector} processing threads.
+ * {@link #sendStats()} should only be called once those threads have finished processing their events.
  */
 
 public class ProvenanceStatsCalculator {
@@ -37,9 +50,28 @@ public class ProvenanceStatsCalculator {
     private static final Logger log = LoggerFactory.getLogger(ProvenanceStatsCalculator.class);
 
     /**
-     * Object to hold onto the {@link com.thinkbiganalytics.nifi.provenance.model.stats.AggregatedProcessorStatistics} for each feed and send them onto Kylo via JMS ({@link this#sendStats()}
+     * Default length of time covered by each bucket
+     */
+    public static final long DEFAULT_BUCKET_MILLIS = 5000L;
+
+    /**
+     * Default number of buckets kept for each feed processor
+     */
+    public static final int DEFAULT_BUCKETS = 12;
+
+    /**
+     * Number of sends without events before the buffer for a feed processor is released
      */
-    private AggregatedFeedProcessorStatisticsHolder statsHolder;
+    private static final int MAX_IDLE_DRAINS = 60;
+
+    /**
+     * Map of the feed name to the processor id to the counters for that feed processor
+     */
+    private final ConcurrentMap<String, ConcurrentMap<String, ProcessorStatsRingBuffer>> feedProcessorStats = new ConcurrentHashMap<>();
+
+    private final long bucketMillis;
+
+    private final int buckets;
 
 
     /**
@@ -49,7 +81,16 @@ public class ProvenanceStatsCalculator {
     private ProvenanceEventActiveMqWriter provenanceEventActiveMqWriter;
 
     public ProvenanceStatsCalculator() {
-        statsHolder = new AggregatedFeedProcessorStatisticsHolder();
+        this(DEFAULT_BUCKET_MILLIS, DEFAULT_BUCKETS);
+    }
+
+    /**
+     * @param bucketMillis the length of time covered by each bucket
+     * @param buckets      the number of buckets kept for each feed processor
+     */
+    public ProvenanceStatsCalculator(long bucketMillis, int buckets) {
+        this.bucketMillis = bucketMillis;
+        this.buckets = buckets;
     }
 
 
@@ -57,15 +98,23 @@ public class ProvenanceStatsCalculator {
      * Send the stats to JMS
      */
     public void sendStats() {
-        if (statsHolder != null) {
-            if (provenanceEventActiveMqWriter != null) {
-                provenanceEventActiveMqWriter.writeStats(statsHolder);
-                //reset the statsHolder to get new Statistics
-                statsHolder = new AggregatedFeedProcessorStatisticsHolder();
-            }
+        if (provenanceEventActiveMqWriter != null) {
+            collectStats().forEach(provenanceEventActiveMqWriter::writeStats);
         }
     }
 
+    /**
+     * Drain the statistics gathered since the last collection, resetting the counters
+     *
+     * @return a holder for each time bucket that has events, ordered by time
+     */
+    public List<AggregatedFeedProcessorStatisticsHolder> collectStats() {
+        Map<Long, AggregatedFeedProcessorStatisticsHolder> holders = new TreeMap<>();
+        feedProcessorStats.values().forEach(processorStats -> processorStats.values().removeIf(buffer -> !buffer.drainTo(holders) && buffer.getIdleDrains() > MAX_IDLE_DRAINS));
+        feedProcessorStats.values().removeIf(Map::isEmpty);
+        return new ArrayList<>(holders.values());
+    }
+
 
     /**
      * Group the incoming provenance event and gather statistics from it.
@@ -76,7 +125,7 @@ public class ProvenanceStatsCalculator {
         String feedName = event.getFeedName();
         if (feedName != null) {
             try {
-                statsHolder.addStat(event);
+                getBuffer(feedName, event.getComponentId()).add(event);
             } catch (Exception e) {
                 log.error("Unable to add Statistics for Event {}.  Exception: {} ", event, e.getMessage(), e);
             }
@@ -85,5 +134,20 @@ public class ProvenanceStatsCalculator {
         }
     }
 
+    /**
+     * Find the buffer for the feed processor, only creating it the first time the processor is seen
+     */
+    private ProcessorStatsRingBuffer getBuffer(String feedName, String processorId) {
+        ConcurrentMap<String, ProcessorStatsRingBuffer> processorStats = feedProcessorStats.get(feedName);
+        if (processorStats == null) {
+            processorStats = feedProcessorStats.computeIfAbsent(feedName, name -> new ConcurrentHashMap<>());
+        }
+        ProcessorStatsRingBuffer buffer = processorStats.get(processorId);
+        if (buffer == null) {
+            buffer = processorStats.computeIfAbsent(processorId, id -> new ProcessorStatsRingBuffer(feedName, id, bucketMillis, buckets));
+        }
+        return buffer;
+    }
+
 
 }
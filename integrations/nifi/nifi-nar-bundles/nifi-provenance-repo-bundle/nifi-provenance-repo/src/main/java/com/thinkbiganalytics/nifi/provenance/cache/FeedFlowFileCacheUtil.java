@@ -35,6 +35,9 @@ import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Utility to build the FlowFile graph from an incoming Provenance Event and cache the FlowFile Graph.
+ *
+ * When the {@link com.thinkbiganalytics.nifi.provenance.ProvenanceEventCollector} is processing events on multiple threads this is called concurrently, but all the events for a given root
+ * {@link FeedFlowFile} are processed by the same thread.
  */
 public class FeedFlowFileCacheUtil {
 
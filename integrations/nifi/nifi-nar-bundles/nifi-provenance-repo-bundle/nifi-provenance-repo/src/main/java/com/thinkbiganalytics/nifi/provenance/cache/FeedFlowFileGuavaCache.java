@@ -39,6 +39,7 @@ import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
@@ -74,6 +75,11 @@ public class FeedFlowFileGuavaCache {
      */
     private Long PRINT_LOG_MILLIS = 60 * 5000L;
 
+    /**
+     * Function to load a flow file that was evicted from memory by the {@link FeedFlowFileMapDbCache}.
+     */
+    private volatile Function<String, FeedFlowFile> evictedFlowFileLoader;
+
     public FeedFlowFileGuavaCache() {
         cache = CacheBuilder.newBuilder().build();
         log.info("Created new FlowFileGuavaCache running timer every {} seconds to check and expire finished flow files", expireTimerCheckSeconds);
@@ -94,20 +100,40 @@ public class FeedFlowFileGuavaCache {
      * @return true if in the cache, false if not
      */
     public boolean isCached(String flowFileId) {
-        return cache.getIfPresent(flowFileId) != null;
+        return getEntry(flowFileId) != null;
     }
 
 
     /**
-     * Get a FeedFlowFile from the cache.
+     * Get a FeedFlowFile from the cache, loading it back into memory if it was evicted.
      * If the FeedFlowFile is not there it will return  null
      *
      * @return the FeedFlowFile, or null if not present
      */
     public FeedFlowFile getEntry(String id) {
+        FeedFlowFile flowFile = cache.getIfPresent(id);
+        if (flowFile == null && evictedFlowFileLoader != null) {
+            flowFile = evictedFlowFileLoader.apply(id);
+        }
+        return flowFile;
+    }
+
+    /**
+     * Get a FeedFlowFile only if it is in memory.
+     *
+     * @return the FeedFlowFile, or null if not in memory
+     */
+    public FeedFlowFile getCachedEntry(String id) {
         return cache.getIfPresent(id);
     }
 
+    /**
+     * Set the function used to load flow files that have been evicted from memory when they are not found in the cache
+     */
+    public void setEvictedFlowFileLoader(Function<String, FeedFlowFile> evictedFlowFileLoader) {
+        this.evictedFlowFileLoader = evictedFlowFileLoader;
+    }
+
 
     /**
      * Return all the FeedFlowFiles in the cache
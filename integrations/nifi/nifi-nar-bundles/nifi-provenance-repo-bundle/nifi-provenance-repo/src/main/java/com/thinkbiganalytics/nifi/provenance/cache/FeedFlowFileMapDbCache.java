@@ -31,6 +31,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
@@ -38,33 +43,53 @@ import java.util.concurrent.TimeUnit;
 import javax.annotation.PostConstruct;
 
 /**
- * Persist any running flowfiles to disk when NiFi shuts down to maintain the processing feed status when NiFi comes back up
+ * Persist the running flowfiles to a memory mapped MapDB file to maintain the processing feed status when NiFi comes back up.
+ *
+ * The running flowfiles are checkpointed to the file incrementally while NiFi is running via {@link #checkpointIfDue()}.  Only the root flow files that have changed since the last checkpoint
+ * are written, using the compact {@link FeedFlowFileSerializer}, and completed flow files are removed as they are invalidated from the {@link FeedFlowFileGuavaCache}.
+ * Shutdown only needs to write the flow files changed since the last checkpoint and on startup the file is loaded as is, without needing a full dump and reload.
+ *
+ * Root flow files that have not had an event for the configured idle time can also be evicted from the heap after they are checkpointed.  They are kept only in the memory mapped file and are
+ * loaded back into the {@link FeedFlowFileGuavaCache} the next time one of their flow files is looked up.
  */
 public class FeedFlowFileMapDbCache implements FeedFlowFileCacheListener {
 
     private static final Logger log = LoggerFactory.getLogger(FeedFlowFileMapDbCache.class);
 
     /**
-     * the in memory MapDb database
+     * Name of the map holding the flowfiles
      */
-    private DB inMemoryDb;
+    private static final String FEED_FLOW_FILES_MAP = "feedFlowFiles";
 
     /**
-     * The cache loaded from Disk an put into Memory.
+     * Name of the map used by previous versions that persisted the flowfiles with Java serialization.  This is migrated on startup
      */
-    private ConcurrentMap<String, FeedFlowFile> memFeedFlowFileCache;
+    private static final String LEGACY_FEED_FLOW_FILE_MAP = "feedFlowFile";
 
+    /**
+     * Name of the map of evicted flowfile ids to their root flowfile id
+     */
+    private static final String EVICTED_FLOW_FILE_ROOTS_MAP = "evictedFlowFileRoots";
 
     /**
      * the persistent mapdb database
      */
-    private DB persistentDb;
+    private DB db;
 
     /**
-     * The file that will be persisted to disk
+     * The persisted flowfiles by root flowfile id
      */
     private ConcurrentMap<String, FeedFlowFile> persistentFlowFileCache;
 
+    /**
+     * The root flowfile id for each flowfile id whose root has been evicted from the {@link FeedFlowFileGuavaCache}
+     */
+    private ConcurrentMap<String, String> evictedFlowFileRoots;
+
+    /**
+     * The last event id of each root flowfile when it was last checkpointed.  Used to find the flowfiles that have changed since the last checkpoint
+     */
+    private final Map<String, Long> checkpointedEventIds = new ConcurrentHashMap<>();
 
     @Autowired
     private FeedFlowFileGuavaCache cache;
@@ -73,120 +98,277 @@ public class FeedFlowFileMapDbCache implements FeedFlowFileCacheListener {
 
     private TimeUnit expireAfterUnit = TimeUnit.DAYS;
 
+    /**
+     * How often the running flowfiles should be checkpointed to disk.  0 or less will only persist on shutdown
+     */
+    private long checkpointIntervalMillis = 30000L;
+
+    private volatile long lastCheckpointTime = System.currentTimeMillis();
+
+    /**
+     * How long a root flowfile can go without an event before it is evicted from the heap.  0 or less will keep all the running flowfiles on the heap
+     */
+    private long evictIdleMillis = 0L;
+
 
     public FeedFlowFileMapDbCache(String fileLocation) {
         log.info("Initialize FeedFlowFileMapDbCache cache at: {}, keeping running flowfiles for {} days", fileLocation, expireAfterNumber);
 
         try {
-            //delete the file after its loaded/opened
-            inMemoryDb = DBMaker.fileDB(fileLocation).fileMmapEnable()
+            db = DBMaker.fileDB(fileLocation).fileMmapEnable()
                 .fileMmapEnableIfSupported() // Only enable mmap on supported platforms
                 .fileMmapPreclearDisable()   // Make mmap file faster
                 .cleanerHackEnable()
                 .checksumHeaderBypass()
-                .fileDeleteAfterOpen()
                 .closeOnJvmShutdown().make();
-            memFeedFlowFileCache =
-                (HTreeMap<String, FeedFlowFile>) inMemoryDb.hashMap("feedFlowFile").keySerializer(Serializer.STRING).valueSerializer(Serializer.JAVA).expireAfterCreate(expireAfterNumber,
-                                                                                                                                                                        expireAfterUnit)
-                    .createOrOpen();
+            persistentFlowFileCache = db.hashMap(FEED_FLOW_FILES_MAP, Serializer.STRING, new FeedFlowFileSerializer()).createOrOpen();
+            evictedFlowFileRoots = db.hashMap(EVICTED_FLOW_FILE_ROOTS_MAP, Serializer.STRING, Serializer.STRING).createOrOpen();
+            migrateLegacyFlowFiles();
 
-            //create a new db that will be used when persisting the data to disk
-            persistentDb = DBMaker.fileDB(fileLocation).fileMmapEnable()
-                .fileMmapEnableIfSupported() // Only enable mmap on supported platforms
-                .fileMmapPreclearDisable()   // Make mmap file faster
-                .cleanerHackEnable()
-                .checksumHeaderBypass()
-                .closeOnJvmShutdown().make();
-            persistentFlowFileCache =
-                (HTreeMap<String, FeedFlowFile>) persistentDb.hashMap("feedFlowFile").keySerializer(Serializer.STRING).valueSerializer(Serializer.JAVA)
-                    .createOrOpen();
-
-            log.info("Successfully created FeedFlowFileMapDbCache cache at: {},  with starting size of: {} ", fileLocation, memFeedFlowFileCache.size());
+            log.info("Successfully created FeedFlowFileMapDbCache cache at: {},  with starting size of: {} ", fileLocation, persistentFlowFileCache.size());
         } catch (Exception e) {
             log.error("Error creating mapdb cache. {}.  If NiFi goes down with flows in progress Kylo will not be able to connect the running flows on restart to their Kylo job executions",
                       e.getMessage(), e);
-            memFeedFlowFileCache = new ConcurrentHashMap<>();
+            db = null;
             persistentFlowFileCache = new ConcurrentHashMap<>();
+            evictedFlowFileRoots = new ConcurrentHashMap<>();
         }
     }
 
+    /**
+     * Move any flowfiles persisted by a previous version using Java serialization into the map using the {@link FeedFlowFileSerializer}
+     */
+    private void migrateLegacyFlowFiles() {
+        if (db.exists(LEGACY_FEED_FLOW_FILE_MAP)) {
+            HTreeMap<String, FeedFlowFile> legacy = db.hashMap(LEGACY_FEED_FLOW_FILE_MAP, Serializer.STRING, Serializer.JAVA).open();
+            log.info("Migrating {} flowfiles from the previous FeedFlowFileMapDbCache format ", legacy.size());
+            persistentFlowFileCache.putAll(legacy);
+            legacy.clear();
+            db.commit();
+        }
+    }
 
     @PostConstruct
     private void init() {
         cache.subscribe(this);
+        cache.setEvictedFlowFileLoader(this::loadEvictedFlowFile);
+    }
+
+    /**
+     * @param checkpointIntervalSeconds how often the running flowfiles should be checkpointed to disk. 0 or less will only persist on shutdown
+     */
+    public void setCheckpointIntervalSeconds(int checkpointIntervalSeconds) {
+        this.checkpointIntervalMillis = TimeUnit.SECONDS.toMillis(checkpointIntervalSeconds);
     }
 
+    /**
+     * @param evictIdleMinutes how long a root flowfile can go without an event before it is evicted from the heap. 0 or less will keep all the running flowfiles on the heap
+     */
+    public void setEvictIdleMinutes(int evictIdleMinutes) {
+        this.evictIdleMillis = TimeUnit.MINUTES.toMillis(evictIdleMinutes);
+    }
 
     /**
      * When the {@link FeedFlowFileGuavaCache} is invalidated then it is also removed from the persistent disk storage if it exists.
      */
     public void onInvalidate(FeedFlowFile flowFile) {
-        if (flowFile.isBuiltFromMapDb()) {
+        if (checkpointedEventIds.remove(flowFile.getId()) != null || flowFile.isBuiltFromMapDb()) {
             log.debug("Removing completed flowfile {} from mapDbCache ", flowFile.getId());
-            memFeedFlowFileCache.remove(flowFile.getId());
-            //remove any other references to this feed flowfile
-            if (flowFile.getChildFlowFiles() != null) {
-                flowFile.getChildFlowFiles().stream().forEach(flowFileId -> memFeedFlowFileCache.remove(flowFileId));
-            }
+            persistentFlowFileCache.remove(flowFile.getId());
         }
     }
 
     /**
      * Load the persisted cached back into the {@link FeedFlowFileGuavaCache}
+     * Flow files that have not had any events within the expire time are dropped.  Flow files that were evicted from the heap are left on disk until they are needed.
      */
     public int loadGuavaCache() {
-
-        memFeedFlowFileCache.values().stream().forEach(feedFlowFile -> {
-            feedFlowFile.setBuiltFromMapDb(true);
-            cache.add(feedFlowFile.getId(), feedFlowFile);
-            if (feedFlowFile.getActiveChildFlowFiles() != null) {
-                feedFlowFile.getActiveChildFlowFiles().stream().forEach(feedFlowFileId -> cache.add(feedFlowFileId, feedFlowFile));
+        long expireTime = System.currentTimeMillis() - expireAfterUnit.toMillis(expireAfterNumber);
+        int loaded = 0;
+        for (FeedFlowFile feedFlowFile : persistentFlowFileCache.values()) {
+            if (feedFlowFile.getLastEventTime() != null && feedFlowFile.getLastEventTime() < expireTime) {
+                log.info("Removing expired flowfile {} from mapDbCache.  The last event was at {} ", feedFlowFile.getId(), feedFlowFile.getLastEventTime());
+                persistentFlowFileCache.remove(feedFlowFile.getId());
+                flowFileIds(feedFlowFile).forEach(evictedFlowFileRoots::remove);
+                continue;
             }
-        });
-        return memFeedFlowFileCache.values().size();
+            checkpointedEventIds.put(feedFlowFile.getId(), checkpointEventId(feedFlowFile));
+            if (!evictedFlowFileRoots.containsKey(feedFlowFile.getId())) {
+                feedFlowFile.setBuiltFromMapDb(true);
+                cache.add(feedFlowFile.getId(), feedFlowFile);
+                if (feedFlowFile.getActiveChildFlowFiles() != null) {
+                    feedFlowFile.getActiveChildFlowFiles().stream().forEach(feedFlowFileId -> cache.add(feedFlowFileId, feedFlowFile));
+                }
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Load a flowfile that was evicted from the heap back into the {@link FeedFlowFileGuavaCache}
+     *
+     * @param flowFileId the id of the flowfile to find
+     * @return the root flowfile for the id, or null if the flowfile was not evicted
+     */
+    private FeedFlowFile loadEvictedFlowFile(String flowFileId) {
+        if (!evictedFlowFileRoots.containsKey(flowFileId)) {
+            return null;
+        }
+        synchronized (this) {
+            return loadEvictedRootFlowFile(flowFileId);
+        }
+    }
 
+    private FeedFlowFile loadEvictedRootFlowFile(String flowFileId) {
+        String rootFlowFileId = evictedFlowFileRoots.get(flowFileId);
+        if (rootFlowFileId == null) {
+            return null;
+        }
+        //another thread may have already loaded it
+        FeedFlowFile feedFlowFile = cache.getCachedEntry(flowFileId);
+        if (feedFlowFile != null) {
+            return feedFlowFile;
+        }
+        feedFlowFile = persistentFlowFileCache.get(rootFlowFileId);
+        if (feedFlowFile == null) {
+            evictedFlowFileRoots.remove(flowFileId);
+            return null;
+        }
+        feedFlowFile.setBuiltFromMapDb(true);
+        for (String id : flowFileIds(feedFlowFile)) {
+            cache.add(id, feedFlowFile);
+            evictedFlowFileRoots.remove(id);
+        }
+        log.debug("Loaded evicted flowfile {} from the mapDbCache ", rootFlowFileId);
+        return feedFlowFile;
+    }
 
+    /**
+     * Remove the root flowfiles that have not had an event within the idle time from the heap.
+     * They must be checkpointed before calling this.
+     */
+    private int evictIdleFlowFiles() {
+        long idleTime = System.currentTimeMillis() - evictIdleMillis;
+        int evicted = 0;
+        for (FeedFlowFile feedFlowFile : cache.getFlowFiles()) {
+            if (!feedFlowFile.isFeedComplete() && feedFlowFile.getLastEventTime() != null && feedFlowFile.getLastEventTime() < idleTime
+                && Objects.equals(checkpointedEventIds.get(feedFlowFile.getId()), checkpointEventId(feedFlowFile))) {
+                for (String id : flowFileIds(feedFlowFile)) {
+                    evictedFlowFileRoots.put(id, feedFlowFile.getId());
+                    cache.invalidate(id);
+                }
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * @return the root flowfile id and all its child flowfile ids
+     */
+    private Set<String> flowFileIds(FeedFlowFile feedFlowFile) {
+        Set<String> ids = new HashSet<>();
+        ids.add(feedFlowFile.getId());
+        if (feedFlowFile.getChildFlowFiles() != null) {
+            ids.addAll(feedFlowFile.getChildFlowFiles());
+        }
+        return ids;
     }
 
     /**
      * return the size of the MapDB Cache
      */
     public Integer size() {
-        return memFeedFlowFileCache.size();
+        return persistentFlowFileCache.size();
     }
 
 
     public Collection<FeedFlowFile> getCache() {
-        return memFeedFlowFileCache.values();
+        return persistentFlowFileCache.values();
     }
 
     /**
-     * Persist the {@link FeedFlowFileGuavaCache} to disk
+     * Checkpoint the running flowfiles if the checkpoint interval has passed since the last checkpoint.
+     * This should be called when no events are being processed so the flowfiles are not modified while they are written.
+     *
+     * @return the number of flowfiles written
      */
-    public int persistFlowFiles() {
-        Collection<FeedFlowFile> flowFiles = cache.getFlowFiles();
-        log.info("About to persist {}  flow files to disk via MapDB ", flowFiles.size());
-        flowFiles.stream().forEach(feedFlowFile -> cacheFlowFile(feedFlowFile));
-        log.info("Successfully persisted {}  flow files to disk via MapDB.  Persisted Map Size is: {} entries ", flowFiles.size(), persistentFlowFileCache.size());
-        if (flowFiles != null && !flowFiles.isEmpty()) {
-            if (inMemoryDb != null) {
-                inMemoryDb.commit();
-                inMemoryDb.close();
+    public int checkpointIfDue() {
+        if (checkpointIntervalMillis > 0 && System.currentTimeMillis() - lastCheckpointTime >= checkpointIntervalMillis) {
+            try {
+                return checkpoint();
+            } catch (Exception e) {
+                log.error("Error checkpointing the running flowfiles to the mapDbCache. {} ", e.getMessage(), e);
             }
-            if (persistentDb != null) {
-                persistentDb.commit();
-                persistentDb.close();
-                log.info("Successfully closed the flow file MapDB cache file.");
+        }
+        return 0;
+    }
+
+    /**
+     * Write the root flowfiles that have changed since the last checkpoint to disk and commit
+     *
+     * @return the number of flowfiles written
+     */
+    public synchronized int checkpoint() {
+        long start = System.currentTimeMillis();
+        int written = 0;
+        for (FeedFlowFile feedFlowFile : cache.getFlowFiles()) {
+            if (feedFlowFile.isFeedComplete()) {
+                //will be removed when its invalidated
+                continue;
+            }
+            Long eventId = checkpointEventId(feedFlowFile);
+            if (!Objects.equals(checkpointedEventIds.get(feedFlowFile.getId()), eventId)) {
+                try {
+                    persistentFlowFileCache.put(feedFlowFile.getId(), feedFlowFile);
+                    checkpointedEventIds.put(feedFlowFile.getId(), eventId);
+                    written++;
+                } catch (ConcurrentModificationException e) {
+                    //the flow file is being updated.  it will be written on the next checkpoint
+                    log.debug("Unable to checkpoint flowfile {} as it is being modified ", feedFlowFile.getId());
+                }
             }
         }
-        return flowFiles.size();
+        int evicted = evictIdleMillis > 0 ? evictIdleFlowFiles() : 0;
+        if (db != null && !db.isClosed()) {
+            db.commit();
+        }
+        lastCheckpointTime = System.currentTimeMillis();
+        if (written > 0 || evicted > 0) {
+            log.info("Checkpointed {} changed flow files to the mapDbCache and evicted {} idle flow files from memory in {} ms.  Persisted Map Size is: {} entries ", written, evicted,
+                     (lastCheckpointTime - start), persistentFlowFileCache.size());
+        }
+        return written;
+    }
+
+    /**
+     * Persist the flowfiles changed since the last checkpoint to disk and close the file.
+     *
+     * @return the number of root flowfiles persisted on disk
+     */
+    public int persistFlowFiles() {
+        int written = checkpoint();
+        log.info("Successfully persisted {} changed flow files to disk via MapDB.  Persisted Map Size is: {} entries ", written, persistentFlowFileCache.size());
+        int size = persistentFlowFileCache.size();
+        if (db != null && !db.isClosed()) {
+            db.close();
+            log.info("Successfully closed the flow file MapDB cache file.");
+        }
+        return size;
     }
 
 
     public void cacheFlowFile(FeedFlowFile flowFile) {
         persistentFlowFileCache.put(flowFile.getId(), flowFile);
+        checkpointedEventIds.put(flowFile.getId(), checkpointEventId(flowFile));
     }
 
+    /**
+     * The value used to determine if a flowfile has changed since it was last checkpointed
+     */
+    private Long checkpointEventId(FeedFlowFile flowFile) {
+        return flowFile.getLastEventId() != null ? flowFile.getLastEventId() : -1L;
+    }
 
 }
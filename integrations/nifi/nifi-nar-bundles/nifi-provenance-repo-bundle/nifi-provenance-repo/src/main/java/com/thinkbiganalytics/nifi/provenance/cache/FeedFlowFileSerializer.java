@@ -0,0 +1,50 @@
+package com.thinkbiganalytics.nifi.provenance.cache;
+
+/*-
+ * #%L
+ * thinkbig-nifi-provenance-repo
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.nifi.provenance.model.FeedFlowFile;
+
+import org.mapdb.DataInput2;
+import org.mapdb.DataOutput2;
+import org.mapdb.Serializer;
+
+import java.io.IOException;
+
+/**
+ * MapDB serializer writing the {@link FeedFlowFile} in its compact binary format via {@link FeedFlowFile#writeTo(java.io.DataOutput)}
+ */
+public class FeedFlowFileSerializer implements Serializer<FeedFlowFile> {
+
+    @Override
+    public void serialize(DataOutput2 out, FeedFlowFile value) throws IOException {
+        value.writeTo(out);
+    }
+
+    @Override
+    public FeedFlowFile deserialize(DataInput2 input, int available) throws IOException {
+        return FeedFlowFile.readFrom(input);
+    }
+
+    @Override
+    public boolean isTrusted() {
+        return true;
+    }
+}
@@ -51,6 +51,24 @@ public class NifiProvenanceConfig {
     @Value("${kylo.provenance.feedflowfile.mapdb.cache.location:/opt/nifi/feed-flowfile-cache.db}")
     private String feedFlowFileMapDbCacheLocation;
 
+    /**
+     * how often the running flowfiles are checkpointed to the map db cache file
+     **/
+    @Value("${kylo.provenance.feedflowfile.mapdb.checkpoint.interval.seconds:30}")
+    private Integer feedFlowFileMapDbCheckpointIntervalSeconds;
+
+    /**
+     * how long a running flowfile can go without an event before it is evicted from memory and only kept in the map db cache file.  0 keeps them in memory
+     **/
+    @Value("${kylo.provenance.feedflowfile.mapdb.evict.idle.minutes:0}")
+    private Integer feedFlowFileMapDbEvictIdleMinutes;
+
+    /**
+     * The codec used to encode the provenance JMS messages (binary or binary-deflate).  Blank sends serialized objects
+     **/
+    @Value("${kylo.provenance.jms.codec:}")
+    private String jmsCodec;
+
     @Bean
     public SpringApplicationContext springApplicationContext() {
         return new SpringApplicationContext();
@@ -76,7 +94,10 @@ public class NifiProvenanceConfig {
     @Bean
     public FeedFlowFileMapDbCache feedFlowFileMapDbCache() {
         String location = feedFlowFileMapDbCacheLocation;
-        return new FeedFlowFileMapDbCache(location);
+        FeedFlowFileMapDbCache cache = new FeedFlowFileMapDbCache(location);
+        cache.setCheckpointIntervalSeconds(feedFlowFileMapDbCheckpointIntervalSeconds);
+        cache.setEvictIdleMinutes(feedFlowFileMapDbEvictIdleMinutes);
+        return cache;
     }
 
     @Bean
@@ -91,7 +112,9 @@ public class NifiProvenanceConfig {
 
     @Bean
     public ProvenanceEventActiveMqWriter provenanceEventActiveMqWriter() {
-        return new ProvenanceEventActiveMqWriter();
+        ProvenanceEventActiveMqWriter writer = new ProvenanceEventActiveMqWriter();
+        writer.setCodecName(jmsCodec);
+        return writer;
     }
 
     @Bean
@@ -21,11 +21,14 @@ package com.thinkbiganalytics.nifi.provenance.jms;
  */
 
 import com.thinkbiganalytics.activemq.SendJmsMessage;
+import com.thinkbiganalytics.activemq.codec.CompactBinaryJmsMessageCodec;
+import com.thinkbiganalytics.activemq.codec.JmsMessageCodec;
 import com.thinkbiganalytics.nifi.activemq.Queues;
 import com.thinkbiganalytics.nifi.provenance.AggregationEventProcessingStats;
 import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTOHolder;
 import com.thinkbiganalytics.nifi.provenance.model.stats.AggregatedFeedProcessorStatisticsHolder;
 
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,6 +45,8 @@ import javax.annotation.PostConstruct;
  * 2 Queues are used.  The Queue names are constants shared with Kylo Operations Manager found in the {@link Queues} class.
  * Queues.PROVENANCE_EVENT_STATS_QUEUE  is the Statistics Queue name for creating the Summary statistics
  * Queues.FEED_MANAGER_QUEUE is the Batch Provenance Events Queue for creating the Jobs/Steps in Kylo
+ *
+ * By default the objects are sent as serialized ObjectMessages.  If a codec is configured the objects are sent as BytesMessages encoded with that codec.
  */
 public class ProvenanceEventActiveMqWriter {
 
@@ -54,6 +59,11 @@ public class ProvenanceEventActiveMqWriter {
 
     private Map<String, Set<JmsSendListener>> listeners = new HashMap<>();
 
+    /**
+     * The codec used to encode the messages, or null to send serialized ObjectMessages
+     */
+    private JmsMessageCodec codec;
+
     public ProvenanceEventActiveMqWriter() {
 
     }
@@ -62,6 +72,30 @@ public class ProvenanceEventActiveMqWriter {
         this.listeners.computeIfAbsent(listener.getDestination(), (d) -> new HashSet<JmsSendListener>()).add(listener);
     }
 
+    /**
+     * Set the codec used to encode the JMS messages by name.
+     * Supported values are {@link CompactBinaryJmsMessageCodec#BINARY} and {@link CompactBinaryJmsMessageCodec#BINARY_DEFLATE}.
+     * A blank value sends the objects as serialized ObjectMessages
+     *
+     * @param codecName the name of the codec
+     */
+    public void setCodecName(String codecName) {
+        if (StringUtils.isBlank(codecName)) {
+            this.codec = null;
+        } else if (CompactBinaryJmsMessageCodec.BINARY.equalsIgnoreCase(codecName.trim())) {
+            this.codec = new CompactBinaryJmsMessageCodec(false);
+        } else if (CompactBinaryJmsMessageCodec.BINARY_DEFLATE.equalsIgnoreCase(codecName.trim())) {
+            this.codec = new CompactBinaryJmsMessageCodec(true);
+        } else {
+            logger.warn("Unknown JMS codec {}.  Provenance will be sent as serialized objects ", codecName);
+            this.codec = null;
+        }
+    }
+
+    public JmsMessageCodec getCodec() {
+        return codec;
+    }
+
     @PostConstruct
     public void postConstruct() {
 
@@ -94,7 +128,7 @@ public class ProvenanceEventActiveMqWriter {
         try {
             if (stats.getEventCount().get() > 0) {
                 logger.info("SENDING AGGREGATED STAT to JMS {} ", stats);
-                sendJmsMessage.sendSerializedObjectToQueue(Queues.PROVENANCE_EVENT_STATS_QUEUE, stats);
+                sendJmsMessage.sendEncodedObjectToQueue(Queues.PROVENANCE_EVENT_STATS_QUEUE, stats, codec);
                 AggregationEventProcessingStats.addStreamingEvents(stats.getEventCount().intValue());
                 notifySuccess(Queues.PROVENANCE_EVENT_STATS_QUEUE, stats);
             }
@@ -112,7 +146,7 @@ public class ProvenanceEventActiveMqWriter {
     public void writeBatchEvents(ProvenanceEventRecordDTOHolder events) {
         try {
             logger.info("SENDING Events to JMS {} ", events);
-            sendJmsMessage.sendSerializedObjectToQueue(Queues.FEED_MANAGER_QUEUE, events);
+            sendJmsMessage.sendEncodedObjectToQueue(Queues.FEED_MANAGER_QUEUE, events, codec);
             AggregationEventProcessingStats.addBatchEvents(events.getEvents().size());
             notifySuccess(Queues.FEED_MANAGER_QUEUE, events);
         } catch (Exception e) {
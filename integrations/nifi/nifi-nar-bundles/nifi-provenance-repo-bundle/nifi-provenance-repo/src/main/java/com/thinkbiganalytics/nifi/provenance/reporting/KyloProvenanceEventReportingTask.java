@@ -56,6 +56,7 @@ import org.joda.time.DateTime;
 import org.springframework.beans.BeansException;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -128,6 +129,28 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
         .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
         .expressionLanguageSupported(true)
         .build();
+
+    protected static final PropertyDescriptor PREFETCH_PAGE_COUNT = new PropertyDescriptor.Builder()
+        .name("Prefetch page count")
+        .description(
+            "The number of pages of events, each the size of the Processing batch size, that are read from provenance ahead of the page currently being processed. "
+            + "When greater than 0 events are read on a separate thread so querying provenance overlaps processing and sending the events to Kylo, while holding no more than this many pages in memory. "
+            + "A value of 0 will read and process each batch one after the other.")
+        .defaultValue("0")
+        .required(false)
+        .addValidator(StandardValidators.NON_NEGATIVE_INTEGER_VALIDATOR)
+        .expressionLanguageSupported(true)
+        .build();
+    protected static final PropertyDescriptor PROCESSING_THREADS = new PropertyDescriptor.Builder()
+        .name("Processing threads")
+        .description(
+            "The number of threads used to build the flow file graph, calculate statistics and batch the events for Kylo. "
+            + "When greater than 1 the events are partitioned by their root flow file across the threads, keeping the events for a given flow file in order.")
+        .defaultValue("1")
+        .required(false)
+        .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+        .expressionLanguageSupported(true)
+        .build();
     PropertyDescriptor METADATA_SERVICE = new PropertyDescriptor.Builder()
         .name("Metadata Service")
         .description("Think Big metadata service")
@@ -186,6 +209,10 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
      * value from PROCESSING_BATCH_SIZE
      */
     private Integer processingBatchSize;
+    /**
+     * value from PREFETCH_PAGE_COUNT
+     */
+    private Integer prefetchPageCount;
     /**
      * value from LAST_EVENT_ID_NOT_FOUND_VALUE
      */
@@ -230,6 +257,8 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
         properties.add(LAST_EVENT_ID_NOT_FOUND_VALUE);
         properties.add(INITIAL_EVENT_ID_VALUE);
         properties.add(PROCESSING_BATCH_SIZE);
+        properties.add(PREFETCH_PAGE_COUNT);
+        properties.add(PROCESSING_THREADS);
         return properties;
     }
 
@@ -242,9 +271,16 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
         this.jmsEventGroupSize = context.getProperty(JMS_EVENT_GROUP_SIZE).asInteger();
         getProvenanceEventCollector().setMaxBatchFeedJobEventsPerSecond(this.maxBatchFeedJobEventsPerSecond);
         getProvenanceEventCollector().setJmsEventGroupSize(this.jmsEventGroupSize);
+        try {
+            getProvenanceEventCollector().setProcessingThreads(context.getProperty(PROCESSING_THREADS).asInteger());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InitializationException("Interrupted while waiting for the previous provenance processing threads to finish", e);
+        }
         Boolean rebuildOnRestart = context.getProperty(REBUILD_CACHE_ON_RESTART).asBoolean();
 
         this.processingBatchSize = context.getProperty(PROCESSING_BATCH_SIZE).asInteger();
+        this.prefetchPageCount = context.getProperty(PREFETCH_PAGE_COUNT).asInteger();
         this.lastEventIdNotFoundValue = LAST_EVENT_ID_NOT_FOUND_OPTION.valueOf(context.getProperty(LAST_EVENT_ID_NOT_FOUND_VALUE).getValue());
         this.initialEventIdValue = INITIAL_EVENT_ID_OPTION.valueOf(context.getProperty(INITIAL_EVENT_ID_VALUE).getValue());
 
@@ -547,33 +583,37 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
 
                 //reset the queryTime holder
                 nifiQueryTime = 0L;
-                while (recordCount > 0) {
-                    if (!isProcessing()) {
-                        break;
-                    }
-                    long min = lastEventId + 1;
-                    long max = (min + (batchSize - 1)) > maxEventId ? maxEventId : (min + (batchSize - 1));
-                    int batchAmount = new Long(max - (min < 0 ? 0 : min)).intValue() + 1;
-                    if (batchAmount <= 0) {
-                        break;
-                    } else {
-                        lastEventId = processEventsInRange(provenance, min, max);
-                        recordCount -= batchAmount;
-                        recordCount = recordCount < 0 ? 0 : recordCount;
-                        setLastEventId(lastEventId);
-
-                        if (lastLogTime == null || (DateTime.now().getMillis() - lastLogTime.getMillis() > logReportingTimeMs)) {
-                            lastLogTime = DateTime.now();
-                            getLogger().info(
-                                "KyloProvenanceEventReportingTask onTrigger Info: ReportingTask is in a long running process.  Currently processing Event id: {}.  {} events remaining to be processed. ",
-                                new Object[]{lastEventId, recordCount});
+                if (prefetchPageCount != null && prefetchPageCount > 0) {
+                    lastEventId = processEventsInPages(provenance, lastEventId, maxEventId, batchSize, prefetchPageCount);
+                } else {
+                    while (recordCount > 0) {
+                        if (!isProcessing()) {
+                            break;
+                        }
+                        long min = lastEventId + 1;
+                        long max = (min + (batchSize - 1)) > maxEventId ? maxEventId : (min + (batchSize - 1));
+                        int batchAmount = new Long(max - (min < 0 ? 0 : min)).intValue() + 1;
+                        if (batchAmount <= 0) {
+                            break;
+                        } else {
+                            lastEventId = processEventsInRange(provenance, min, max);
+                            recordCount -= batchAmount;
+                            recordCount = recordCount < 0 ? 0 : recordCount;
+                            setLastEventId(lastEventId);
+
+                            if (lastLogTime == null || (DateTime.now().getMillis() - lastLogTime.getMillis() > logReportingTimeMs)) {
+                                lastLogTime = DateTime.now();
+                                getLogger().info(
+                                    "KyloProvenanceEventReportingTask onTrigger Info: ReportingTask is in a long running process.  Currently processing Event id: {}.  {} events remaining to be processed. ",
+                                    new Object[]{lastEventId, recordCount});
+                            }
+                        }
+                        if (!isProcessing()) {
+                            break;
                         }
-                    }
-                    if (!isProcessing()) {
-                        break;
-                    }
 
 
+                    }
                 }
                 if (totalRecords > 0 && isProcessing()) {
                     long processingTime = (System.currentTimeMillis() - start);
@@ -584,6 +624,10 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
 
                 finishProcessing(totalRecords);
 
+            } catch (InterruptedIOException e) {
+                //the events after the last processed page will be processed on the next run
+                getLogger().warn("Interrupted while reading provenance events.  Aborting processing. " + e.getMessage());
+                Thread.currentThread().interrupt();
             } catch (IOException e) {
                 getLogger().error(e.getMessage(), e);
             } finally {
@@ -741,8 +785,6 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
      * @return the lastEventId processed
      */
     private Long processEventsInRange(ProvenanceEventRepository provenance, Long minEventId, Long maxEventId) throws IOException {
-        Long lastEventId = null;
-
         int recordCount = new Long(maxEventId - (minEventId < 0 ? 0 : minEventId)).intValue();
         currentProcessingMessage = "Finding all Events between " + minEventId + " - " + maxEventId;
 
@@ -756,6 +798,55 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
         long end = System.currentTimeMillis();
         nifiQueryTime += (end - start);
         Collections.sort(events, new ProvenanceEventRecordComparator());
+        return processEvents(events, minEventId);
+    }
+
+    /**
+     * processes all events inclusive in the range reading them from provenance in pages on a separate thread.
+     * The next page is read while the current page is processed and sent to JMS, and at most {@code prefetchPages} pages are held in memory waiting to be processed.
+     *
+     * @param provenance    the repository to query
+     * @param lastEventId   the last event id that was processed
+     * @param maxEventId    the maxEvent id to query
+     * @param pageSize      the number of events in each page
+     * @param prefetchPages the number of pages to read ahead of the page being processed
+     * @return the lastEventId processed
+     */
+    private Long processEventsInPages(ProvenanceEventRepository provenance, Long lastEventId, Long maxEventId, int pageSize, int prefetchPages) throws IOException {
+        DateTime lastLogTime = DateTime.now();
+        //how often to report the batch processing log when processing a lot of events
+        int logReportingTimeMs = 10000; //every 10 sec
+
+        try (ProvenanceEventPageReader reader = new ProvenanceEventPageReader(provenance, lastEventId + 1, maxEventId, pageSize, prefetchPages)) {
+            reader.start();
+            ProvenanceEventPageReader.EventPage page = null;
+            while (isProcessing() && (page = reader.nextPage()) != null) {
+                currentProcessingMessage = "Processing Events between " + page.getMinEventId() + " - " + page.getMaxEventId();
+                updateNifiFlowCache();
+                lastEventId = processEvents(page.getEvents(), page.getMinEventId());
+                setLastEventId(lastEventId);
+
+                if (DateTime.now().getMillis() - lastLogTime.getMillis() > logReportingTimeMs) {
+                    lastLogTime = DateTime.now();
+                    getLogger().info(
+                        "KyloProvenanceEventReportingTask onTrigger Info: ReportingTask is in a long running process.  Currently processing Event id: {}.  {} events remaining to be processed. ",
+                        new Object[]{lastEventId, maxEventId - lastEventId});
+                }
+            }
+            nifiQueryTime += reader.getQueryTime();
+        }
+        return lastEventId;
+    }
+
+    /**
+     * processes the events, which are expected to be sorted by event id, and sends the results to JMS
+     *
+     * @param events     the events to process
+     * @param minEventId the min event id of the range the events were queried from
+     * @return the lastEventId processed
+     */
+    private Long processEvents(List<ProvenanceEventRecord> events, Long minEventId) {
+        Long lastEventId = null;
         ProvenanceEventObjectPool pool = getProvenanceEventObjectPool();
         List<ProvenanceEventRecordDTO> pooledEvents = new ArrayList<>(events.size());
         try {
@@ -773,21 +864,29 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
             }
             //Send JMS off
             getProvenanceEventCollector().sendToJms();
+            //all the events are processed. write the changed flow files to disk
+            getFlowFileMapDbCache().checkpointIfDue();
+        } catch (InterruptedException e) {
+            getLogger().warn("Interrupted while processing Kylo ProvenanceEvents.  Aborting the processing of events after event id {} ", new Object[]{lastEventId});
+            Thread.currentThread().interrupt();
+            abortProcessing();
         } catch (Exception e) {
             getLogger().error("Error processing Kylo ProvenanceEvent ", e);
             abortProcessing();
         } finally {
-            //return the objects back to the pool
-            pooledEvents.stream().forEach(dto -> {
-                if (dto != null) {
-                    try {
-                        dto.reset();
-                        pool.returnObject(dto);
-                    } catch (Exception e) {
-                        e.printStackTrace();
+            //return the objects back to the pool once the processing threads are done with them
+            if (awaitEventsProcessed()) {
+                pooledEvents.stream().forEach(dto -> {
+                    if (dto != null) {
+                        try {
+                            dto.reset();
+                            pool.returnObject(dto);
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                        }
                     }
-                }
-            });
+                });
+            }
             pooledEvents.clear();
 
         }
@@ -797,6 +896,22 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
 
     }
 
+    /**
+     * Wait for the processing threads to be done with the events handed to them
+     *
+     * @return true if the events are processed, false if interrupted while waiting, in which case the events may still be in use
+     */
+    private boolean awaitEventsProcessed() {
+        try {
+            getProvenanceEventCollector().awaitProcessed();
+            return true;
+        } catch (InterruptedException e) {
+            getLogger().warn("Interrupted while waiting for the provenance events to be processed.  The events will not be returned to the pool ");
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     /**
      * Process the Event, calculate the  statistics and send it on to JMS for Kylo Ops manager processing
      * If the event is not found to be managed by Kylo it is returned as Null.
@@ -0,0 +1,229 @@
+package com.thinkbiganalytics.nifi.provenance.reporting;
+
+/*-
+ * #%L
+ * thinkbig-nifi-provenance-repo
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reads a range of provenance events from the {@link ProvenanceEventRepository} in fixed size pages on a background thread.
+ *
+ * The reader will only run ahead of the consumer by the configured number of prefetched pages. Once that many pages are waiting the reader blocks until the consumer takes the next page.
+ * This allows the query for the next page to overlap the processing and JMS sending of the current page while keeping the number of events held in memory bounded, regardless of how
+ * many events are backed up in provenance.
+ *
+ * Pages are returned in event id order via {@link #nextPage()} and the events within each page are sorted by event id.
+ */
+public class ProvenanceEventPageReader implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ProvenanceEventPageReader.class);
+
+    /**
+     * Marker placed on the queue when there are no more pages to read
+     */
+    private static final EventPage END_OF_PAGES = new EventPage(-1L, -1L, Collections.emptyList());
+
+    private static final Comparator<ProvenanceEventRecord> EVENT_ID_COMPARATOR = Comparator.comparingLong(ProvenanceEventRecord::getEventId);
+
+    private final ProvenanceEventRepository provenance;
+
+    /**
+     * The first event id in the range to read
+     */
+    private final long minEventId;
+
+    /**
+     * The last event id (inclusive) in the range to read
+     */
+    private final long maxEventId;
+
+    /**
+     * The max number of events queried from provenance at a time
+     */
+    private final int pageSize;
+
+    /**
+     * Pages that have been read, but not yet taken by the consumer
+     */
+    private final BlockingQueue<EventPage> pages;
+
+    /**
+     * Flag to indicate the reader should keep reading pages
+     */
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * total time spent querying provenance
+     */
+    private final AtomicLong queryTime = new AtomicLong(0L);
+
+    /**
+     * Error encountered by the reader thread.  This is thrown to the consumer once all the pages read before the error have been consumed
+     */
+    private volatile IOException readError;
+
+    private Thread readerThread;
+
+    /**
+     * @param provenance    the repository to query
+     * @param minEventId    the first event id to read
+     * @param maxEventId    the last event id to read, inclusive
+     * @param pageSize      the number of events to query at a time
+     * @param prefetchPages the number of pages allowed to be read ahead of the consumer
+     */
+    public ProvenanceEventPageReader(ProvenanceEventRepository provenance, long minEventId, long maxEventId, int pageSize, int prefetchPages) {
+        this.provenance = provenance;
+        this.minEventId = minEventId < 0 ? 0 : minEventId;
+        this.maxEventId = maxEventId;
+        this.pageSize = pageSize < 1 ? 500 : pageSize;
+        this.pages = new ArrayBlockingQueue<>(prefetchPages < 1 ? 1 : prefetchPages);
+    }
+
+    /**
+     * Start reading pages on the background thread
+     */
+    public void start() {
+        if (running.compareAndSet(false, true)) {
+            readerThread = new Thread(this::readPages, "KyloProvenanceEventPageReader");
+            readerThread.setDaemon(true);
+            readerThread.start();
+        }
+    }
+
+    /**
+     * Read each page in the range, blocking when the number of prefetched pages has been reached
+     */
+    private void readPages() {
+        long nextEventId = minEventId;
+        try {
+            while (running.get() && nextEventId <= maxEventId) {
+                long pageMax = Math.min(nextEventId + (pageSize - 1), maxEventId);
+                int recordCount = (int) (pageMax - nextEventId) + 1;
+
+                long start = System.currentTimeMillis();
+                List<ProvenanceEventRecord> events = provenance.getEvents(nextEventId, recordCount);
+                queryTime.addAndGet(System.currentTimeMillis() - start);
+
+                Collections.sort(events, EVENT_ID_COMPARATOR);
+                pages.put(new EventPage(nextEventId, pageMax, events));
+                nextEventId = pageMax + 1;
+            }
+        } catch (InterruptedException e) {
+            if (running.get()) {
+                //interrupted by something other than close().  Make sure the consumer does not treat the rest of the range as read
+                log.warn("Provenance page reader interrupted while reading events starting at {} ", nextEventId);
+                readError = new InterruptedIOException("Interrupted while reading provenance events starting at " + nextEventId);
+            }
+        } catch (IOException e) {
+            log.error("Error reading provenance events starting at {} ", nextEventId, e);
+            readError = e;
+        } finally {
+            try {
+                pages.put(END_OF_PAGES);
+            } catch (InterruptedException e) {
+                //the consumer has closed the reader
+            }
+        }
+    }
+
+    /**
+     * Take the next page of events, waiting for the reader if the page has not been read yet
+     *
+     * @return the next page of events, or null if all the pages in the range have been read
+     * @throws InterruptedIOException if interrupted while waiting for the page, or if the reader was interrupted before reading it
+     * @throws IOException            if the reader was unable to query provenance for the page
+     */
+    public EventPage nextPage() throws IOException {
+        try {
+            EventPage page = pages.take();
+            if (page == END_OF_PAGES) {
+                if (readError != null) {
+                    throw readError;
+                }
+                return null;
+            }
+            return page;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the next page of provenance events");
+        }
+    }
+
+    /**
+     * @return the total time in millis the reader has spent querying provenance
+     */
+    public long getQueryTime() {
+        return queryTime.get();
+    }
+
+    /**
+     * Stop reading and release any prefetched pages
+     */
+    @Override
+    public void close() {
+        if (running.compareAndSet(true, false)) {
+            if (readerThread != null) {
+                readerThread.interrupt();
+            }
+        }
+        pages.clear();
+    }
+
+    /**
+     * A page of events in the range {@code minEventId} - {@code maxEventId}
+     */
+    public static class EventPage {
+
+        private final long minEventId;
+        private final long maxEventId;
+        private final List<ProvenanceEventRecord> events;
+
+        public EventPage(long minEventId, long maxEventId, List<ProvenanceEventRecord> events) {
+            this.minEventId = minEventId;
+            this.maxEventId = maxEventId;
+            this.events = events;
+        }
+
+        public long getMinEventId() {
+            return minEventId;
+        }
+
+        public long getMaxEventId() {
+            return maxEventId;
+        }
+
+        public List<ProvenanceEventRecord> getEvents() {
+            return events;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.thinkbiganalytics.nifi.provenance;
+
+/*-
+ * #%L
+ * thinkbig-nifi-provenance-repo
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.nifi.provenance.cache.FeedFlowFileCacheUtil;
+import com.thinkbiganalytics.nifi.provenance.cache.FeedFlowFileGuavaCache;
+import com.thinkbiganalytics.nifi.provenance.jms.ProvenanceEventActiveMqWriter;
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTO;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tests the {@link ProvenanceEventCollector} hands the events off to its processing threads and waits for them before sending to JMS
+ */
+public class ProvenanceEventCollectorTest {
+
+    private ProvenanceEventCollector collector;
+
+    /**
+     * Map of event id to the thread that processed it
+     */
+    private final Map<Long, String> processingThreads = new ConcurrentHashMap<>();
+
+    @Before
+    public void setup() {
+        collector = new ProvenanceEventCollector(Mockito.mock(ProvenanceEventActiveMqWriter.class));
+        collector.cacheUtil = Mockito.mock(FeedFlowFileCacheUtil.class);
+        collector.statsCalculator = Mockito.mock(ProvenanceStatsCalculator.class);
+        collector.flowFileGuavaCache = Mockito.mock(FeedFlowFileGuavaCache.class);
+
+        Mockito.doAnswer(invocation -> {
+            ProvenanceEventRecordDTO event = (ProvenanceEventRecordDTO) invocation.getArguments()[0];
+            processingThreads.put(event.getEventId(), Thread.currentThread().getName());
+            Thread.sleep(1);
+            return null;
+        }).when(collector.cacheUtil).cacheAndBuildFlowFileGraph(Mockito.any(ProvenanceEventRecordDTO.class));
+    }
+
+    @After
+    public void shutdown() throws InterruptedException {
+        collector.setProcessingThreads(1);
+    }
+
+    /**
+     * Verify the events are processed on the processing threads and {@link ProvenanceEventCollector#sendToJms()} waits for them before sending the stats
+     */
+    @Test
+    public void testSendToJmsWaitsForProcessingThreads() throws InterruptedException {
+        collector.setProcessingThreads(4);
+        for (long i = 0; i < 100; i++) {
+            collector.process(newEvent(i, "root-" + (i % 10)));
+        }
+        collector.sendToJms();
+
+        Assert.assertEquals(100, processingThreads.size());
+        Assert.assertTrue(processingThreads.values().stream().allMatch(thread -> thread.startsWith("KyloProvenanceEventShard-")));
+        InOrder inOrder = Mockito.inOrder(collector.statsCalculator);
+        inOrder.verify(collector.statsCalculator, Mockito.times(100)).calculateStats(Mockito.any(ProvenanceEventRecordDTO.class));
+        inOrder.verify(collector.statsCalculator).sendStats();
+    }
+
+    /**
+     * Verify the events are processed on the calling thread with a single processing thread
+     */
+    @Test
+    public void testSingleThread() throws InterruptedException {
+        collector.setProcessingThreads(4);
+        collector.setProcessingThreads(1);
+        collector.process(newEvent(1L, "root"));
+
+        Assert.assertEquals(Thread.currentThread().getName(), processingThreads.get(1L));
+        Mockito.verify(collector.statsCalculator).calculateStats(Mockito.any(ProvenanceEventRecordDTO.class));
+    }
+
+    private ProvenanceEventRecordDTO newEvent(Long eventId, String flowFileId) {
+        ProvenanceEventRecordDTO event = new ProvenanceEventRecordDTO();
+        event.setEventId(eventId);
+        event.setEventType("CREATE");
+        event.setFlowFileUuid(flowFileId);
+        event.setFeedName("category.feed");
+        event.setStream(true);
+        return event;
+    }
+}
@@ -0,0 +1,248 @@
+package com.thinkbiganalytics.nifi.provenance;
+
+/*-
+ * #%L
+ * thinkbig-nifi-provenance-repo
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.nifi.provenance.cache.FeedFlowFileGuavaCache;
+import com.thinkbiganalytics.nifi.provenance.model.FeedFlowFile;
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTO;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Tests the routing, ordering and draining of events by the {@link ProvenanceEventShardedProcessor}
+ */
+public class ProvenanceEventShardedProcessorTest {
+
+    private static final int THREADS = 4;
+
+    private final FeedFlowFileGuavaCache flowFileCache = Mockito.mock(FeedFlowFileGuavaCache.class);
+
+    /**
+     * Map of event id to the thread that processed it
+     */
+    private final Map<Long, String> processingThreads = new ConcurrentHashMap<>();
+
+    /**
+     * The ids of the events, in the order they were processed
+     */
+    private final List<Long> processedEvents = new CopyOnWriteArrayList<>();
+
+    private ProvenanceEventShardedProcessor processor;
+
+    @After
+    public void shutdown() throws InterruptedException {
+        Thread.interrupted();
+        if (processor != null) {
+            processor.shutdown();
+        }
+    }
+
+    /**
+     * Verify the events of a root flow file and of its children are processed by the same shard
+     */
+    @Test
+    public void testRouting() throws InterruptedException {
+        processor = new ProvenanceEventShardedProcessor(THREADS, flowFileCache, recordingProcessor(0));
+
+        for (int root = 0; root < 20; root++) {
+            processor.submit(newEvent(root * 10L + 1, "root-" + root, null, Arrays.asList("child-" + root)));
+            processor.submit(newEvent(root * 10L + 2, "child-" + root, null, null));
+        }
+        processor.awaitProcessed();
+
+        for (int root = 0; root < 20; root++) {
+            Assert.assertEquals(shardThread("root-" + root), processingThreads.get(root * 10L + 1));
+            Assert.assertEquals(shardThread("root-" + root), processingThreads.get(root * 10L + 2));
+        }
+    }
+
+    /**
+     * Verify flow files processed before the last {@link ProvenanceEventShardedProcessor#awaitProcessed()} are routed by their root flow file in the cache
+     */
+    @Test
+    public void testRoutingFromCache() throws InterruptedException {
+        Mockito.when(flowFileCache.getEntry("cached-child")).thenReturn(new FeedFlowFile("cached-root"));
+        processor = new ProvenanceEventShardedProcessor(THREADS, flowFileCache, recordingProcessor(0));
+
+        processor.submit(newEvent(1L, "cached-child", null, null));
+        processor.awaitProcessed();
+
+        Assert.assertEquals(shardThread("cached-root"), processingThreads.get(1L));
+    }
+
+    /**
+     * Verify the events of each root flow file are processed in the order they were submitted
+     */
+    @Test
+    public void testOrderingPerShard() throws InterruptedException {
+        Map<String, List<Long>> eventsByRoot = new ConcurrentHashMap<>();
+        processor = new ProvenanceEventShardedProcessor(THREADS, flowFileCache, event -> {
+            eventsByRoot.computeIfAbsent(event.getFlowFileUuid(), root -> new CopyOnWriteArrayList<>()).add(event.getEventId());
+        });
+
+        long eventId = 0;
+        for (int i = 0; i < 100; i++) {
+            for (int root = 0; root < 10; root++) {
+                processor.submit(newEvent(eventId++, "root-" + root, null, null));
+            }
+        }
+        processor.awaitProcessed();
+
+        Assert.assertEquals(10, eventsByRoot.size());
+        for (List<Long> events : eventsByRoot.values()) {
+            Assert.assertEquals(100, events.size());
+            List<Long> sorted = new ArrayList<>(events);
+            Collections.sort(sorted);
+            Assert.assertEquals(sorted, events);
+        }
+    }
+
+    /**
+     * Verify an event merging flow files from different shards is processed on the submitting thread after the events submitted before it
+     */
+    @Test
+    public void testCrossShardMerge() throws InterruptedException {
+        processor = new ProvenanceEventShardedProcessor(THREADS, flowFileCache, recordingProcessor(1));
+        String rootA = "root-a";
+        String rootB = rootInOtherShard(rootA);
+
+        for (long i = 0; i < 50; i++) {
+            processor.submit(newEvent(i, (i % 2 == 0) ? rootA : rootB, null, null));
+        }
+        processor.submit(newEvent(100L, "merged", Arrays.asList(rootA, rootB), null));
+
+        Assert.assertEquals(Thread.currentThread().getName(), processingThreads.get(100L));
+        Assert.assertEquals(51, processedEvents.size());
+        Assert.assertEquals(Long.valueOf(100L), processedEvents.get(50));
+    }
+
+    /**
+     * Verify {@link ProvenanceEventShardedProcessor#awaitProcessed()} waits for all the submitted events
+     */
+    @Test
+    public void testAwaitProcessed() throws InterruptedException {
+        processor = new ProvenanceEventShardedProcessor(THREADS, flowFileCache, recordingProcessor(1));
+
+        for (long i = 0; i < 200; i++) {
+            processor.submit(newEvent(i, "root-" + (i % 7), null, null));
+        }
+        processor.awaitProcessed();
+
+        Assert.assertEquals(200, processedEvents.size());
+    }
+
+    /**
+     * Verify {@link ProvenanceEventShardedProcessor#shutdown()} processes the submitted events before stopping the threads
+     */
+    @Test
+    public void testShutdown() throws InterruptedException {
+        ProvenanceEventShardedProcessor processor = new ProvenanceEventShardedProcessor(THREADS, flowFileCache, recordingProcessor(1));
+
+        for (long i = 0; i < 200; i++) {
+            processor.submit(newEvent(i, "root-" + (i % 7), null, null));
+        }
+        processor.shutdown();
+
+        Assert.assertEquals(200, processedEvents.size());
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            Assert.assertFalse(thread.getName() + " is still running", thread.getName().startsWith("KyloProvenanceEventShard-"));
+        }
+    }
+
+    /**
+     * Verify an interrupted submit throws without processing the event, and the events submitted before are still processed
+     */
+    @Test
+    public void testInterrupted() throws InterruptedException {
+        processor = new ProvenanceEventShardedProcessor(THREADS, flowFileCache, recordingProcessor(0));
+        processor.submit(newEvent(1L, "root", null, null));
+
+        Thread.currentThread().interrupt();
+        try {
+            processor.submit(newEvent(2L, "root", null, null));
+            Assert.fail("Expected InterruptedException");
+        } catch (InterruptedException e) {
+            //expected
+        }
+
+        Thread.currentThread().interrupt();
+        try {
+            processor.awaitProcessed();
+            Assert.fail("Expected InterruptedException");
+        } catch (InterruptedException e) {
+            //expected
+        }
+
+        processor.awaitProcessed();
+        Assert.assertEquals(Arrays.asList(1L), processedEvents);
+    }
+
+    private Consumer<ProvenanceEventRecordDTO> recordingProcessor(long sleepMillis) {
+        AtomicInteger count = new AtomicInteger();
+        return event -> {
+            if (sleepMillis > 0 && count.incrementAndGet() % 10 == 0) {
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            processingThreads.put(event.getEventId(), Thread.currentThread().getName());
+            processedEvents.add(event.getEventId());
+        };
+    }
+
+    private String shardThread(String rootFlowFileId) {
+        return "KyloProvenanceEventShard-" + processor.shardIndex(rootFlowFileId);
+    }
+
+    private String rootInOtherShard(String rootFlowFileId) {
+        for (int i = 0; ; i++) {
+            String other = "root-" + i;
+            if (processor.shardIndex(other) != processor.shardIndex(rootFlowFileId)) {
+                return other;
+            }
+        }
+    }
+
+    private ProvenanceEventRecordDTO newEvent(Long eventId, String flowFileId, List<String> parents, List<String> children) {
+        ProvenanceEventRecordDTO event = new ProvenanceEventRecordDTO();
+        event.setEventId(eventId);
+        event.setEventType("CREATE");
+        event.setFlowFileUuid(flowFileId);
+        event.setParentUuids(parents);
+        event.setChildUuids(children);
+        return event;
+    }
+}
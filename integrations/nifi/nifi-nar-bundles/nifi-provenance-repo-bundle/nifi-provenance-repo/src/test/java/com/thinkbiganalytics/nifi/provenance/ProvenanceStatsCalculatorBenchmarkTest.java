@@ -0,0 +1,102 @@
+package com.thinkbiganalytics.nifi.provenance;
+
+/*-
+ * #%L
+ * thinkbig-nifi-provenance-repo
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTO;
+import com.thinkbiganalytics.nifi.provenance.model.stats.AggregatedFeedProcessorStatisticsHolder;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Compares the cost of adding events to the {@link ProvenanceStatsCalculator} ring buffers against the {@link AggregatedFeedProcessorStatisticsHolder}.
+ * Both are warmed up before they are measured, with one thread and with several threads adding at once.  The results are logged.
+ */
+@Ignore("Benchmark. Run manually to compare the stats implementations")
+public class ProvenanceStatsCalculatorBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ProvenanceStatsCalculatorBenchmarkTest.class);
+
+    private static final long BUCKET_MILLIS = 1000L;
+
+    private static final int EVENTS = 200000;
+
+    private static final int ITERATIONS = 5;
+
+    private static final int THREADS = 4;
+
+    @Test
+    public void testAddCost() throws Exception {
+        List<ProvenanceEventRecordDTO> events = new ArrayList<>();
+        int processors = ProvenanceStatsCalculatorTest.PROCESSOR_IDS.length;
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < EVENTS / processors; i++) {
+            events.addAll(ProvenanceStatsCalculatorTest.createJob(i * processors + 1, start + i, false));
+        }
+
+        //the first round warms up both implementations
+        for (int round = 0; round < 2; round++) {
+            for (int threads : new int[]{1, THREADS}) {
+                ProvenanceStatsCalculator calculator = new ProvenanceStatsCalculator(BUCKET_MILLIS, ProvenanceStatsCalculator.DEFAULT_BUCKETS);
+                long ringBuffer = measure(threads, events, calculator::calculateStats, calculator::collectStats);
+                AggregatedFeedProcessorStatisticsHolder[] holder = new AggregatedFeedProcessorStatisticsHolder[]{new AggregatedFeedProcessorStatisticsHolder()};
+                long holderAdd = measure(threads, events, event -> holder[0].addStat(event), () -> holder[0] = new AggregatedFeedProcessorStatisticsHolder());
+                if (round > 0) {
+                    log.info("ring buffer: {} ns/event, holder: {} ns/event to add with {} threads", ringBuffer, holderAdd, threads);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add all the events on each thread and collect the stats, returning the average nanoseconds per event added
+     */
+    private long measure(int threads, List<ProvenanceEventRecordDTO> events, Consumer<ProvenanceEventRecordDTO> add, Runnable collect) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long nanos = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int thread = 0; thread < threads; thread++) {
+                    futures.add(executor.submit(() -> events.forEach(add)));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                collect.run();
+                nanos += System.nanoTime() - start;
+            }
+            return nanos / ((long) ITERATIONS * threads * events.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
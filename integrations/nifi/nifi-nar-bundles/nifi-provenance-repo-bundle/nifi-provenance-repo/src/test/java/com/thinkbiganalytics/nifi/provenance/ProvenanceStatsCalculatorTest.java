@@ -0,0 +1,185 @@
+package com.thinkbiganalytics.nifi.provenance;
+
+/*-
+ * #%L
+ * thinkbig-nifi-provenance-repo
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.nifi.provenance.model.FeedFlowFile;
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTO;
+import com.thinkbiganalytics.nifi.provenance.model.stats.AggregatedFeedProcessorStatisticsHolder;
+import com.thinkbiganalytics.nifi.provenance.model.stats.AggregatedProcessorStatistics;
+import com.thinkbiganalytics.nifi.provenance.model.stats.GroupedStats;
+
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests the statistics gathered by the {@link ProvenanceStatsCalculator}
+ */
+public class ProvenanceStatsCalculatorTest {
+
+    private static final long BUCKET_MILLIS = 1000L;
+
+    private static final int JOBS = 1000;
+
+    private static final int THREADS = 4;
+
+    static final String[] PROCESSOR_IDS = new String[]{UUID.randomUUID().toString(), UUID.randomUUID().toString(), UUID.randomUUID().toString()};
+
+    @Test
+    public void testStatsByBucket() {
+        ProvenanceStatsCalculator calculator = new ProvenanceStatsCalculator(BUCKET_MILLIS, 4);
+        long start = 100 * BUCKET_MILLIS;
+        //3 jobs in the first bucket and 1 in the second
+        List<ProvenanceEventRecordDTO> events = new ArrayList<>();
+        events.addAll(createJob(1, start, false));
+        events.addAll(createJob(4, start + 100, true));
+        events.addAll(createJob(7, start + 200, false));
+        events.addAll(createJob(10, start + BUCKET_MILLIS, false));
+        events.forEach(calculator::calculateStats);
+
+        List<AggregatedFeedProcessorStatisticsHolder> holders = calculator.collectStats();
+        Assert.assertEquals(2, holders.size());
+        Assert.assertEquals(9, holders.get(0).getEventCount().get());
+        Assert.assertEquals(3, holders.get(1).getEventCount().get());
+
+        GroupedStats first = processorStats(holders.get(0), PROCESSOR_IDS[0]).getStats();
+        Assert.assertEquals(3, first.getTotalCount());
+        Assert.assertEquals(3, first.getJobsStarted());
+        Assert.assertEquals(3 * 1024, first.getBytesOut());
+        Assert.assertEquals(new DateTime(start), first.getMinTime());
+        Assert.assertEquals(new DateTime(start + 200), first.getMaxTime());
+        Assert.assertEquals(holders.get(0).getCollectionId(), first.getGroupKey());
+
+        GroupedStats last = processorStats(holders.get(0), PROCESSOR_IDS[2]).getStats();
+        Assert.assertEquals(3, last.getJobsFinished());
+        Assert.assertEquals(1, last.getJobsFailed());
+        Assert.assertEquals(1, last.getProcessorsFailed());
+        Assert.assertEquals(60, last.getJobDuration());
+        Assert.assertEquals(40, last.getSuccessfulJobDuration());
+        Assert.assertEquals(9, last.getMaxEventId());
+        Assert.assertEquals("category.feed", holders.get(0).getFeedStatistics().get("category.feed").getFeedName());
+
+        //the counters are reset once collected
+        Assert.assertTrue(calculator.collectStats().isEmpty());
+    }
+
+    @Test
+    public void testEventsOutsideTheRingAreMerged() {
+        ProvenanceStatsCalculator calculator = new ProvenanceStatsCalculator(BUCKET_MILLIS, 2);
+        createJob(1, 0, false).forEach(calculator::calculateStats);
+        createJob(4, 2 * BUCKET_MILLIS, false).forEach(calculator::calculateStats);
+
+        List<AggregatedFeedProcessorStatisticsHolder> holders = calculator.collectStats();
+        Assert.assertEquals(1, holders.size());
+        GroupedStats stats = processorStats(holders.get(0), PROCESSOR_IDS[0]).getStats();
+        Assert.assertEquals(2, stats.getTotalCount());
+        Assert.assertEquals(new DateTime(0), stats.getMinTime());
+        Assert.assertEquals(new DateTime(2 * BUCKET_MILLIS), stats.getMaxTime());
+    }
+
+    @Test
+    public void testConcurrentAdds() throws Exception {
+        ProvenanceStatsCalculator calculator = new ProvenanceStatsCalculator(BUCKET_MILLIS, ProvenanceStatsCalculator.DEFAULT_BUCKETS);
+        List<ProvenanceEventRecordDTO> events = new ArrayList<>();
+        long start = 100 * BUCKET_MILLIS;
+        for (int i = 0; i < JOBS; i++) {
+            events.addAll(createJob(i * PROCESSOR_IDS.length + 1, start + i, i % 10 == 0));
+        }
+
+        //each thread adds all the events
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                futures.add(executor.submit(() -> events.forEach(calculator::calculateStats)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long eventCount = 0;
+        long started = 0;
+        long finished = 0;
+        long failed = 0;
+        //the jobs span two buckets, and the first processor only runs in the first
+        for (AggregatedFeedProcessorStatisticsHolder holder : calculator.collectStats()) {
+            eventCount += holder.getEventCount().get();
+            AggregatedProcessorStatistics first = processorStats(holder, PROCESSOR_IDS[0]);
+            if (first != null) {
+                started += first.getStats().getJobsStarted();
+            }
+            AggregatedProcessorStatistics last = processorStats(holder, PROCESSOR_IDS[2]);
+            if (last != null) {
+                finished += last.getStats().getJobsFinished();
+                failed += last.getStats().getJobsFailed();
+            }
+        }
+        Assert.assertEquals((long) THREADS * events.size(), eventCount);
+        Assert.assertEquals((long) THREADS * JOBS, started);
+        Assert.assertEquals((long) THREADS * JOBS, finished);
+        Assert.assertEquals((long) THREADS * JOBS / 10, failed);
+    }
+
+    private AggregatedProcessorStatistics processorStats(AggregatedFeedProcessorStatisticsHolder holder, String processorId) {
+        return holder.getFeedStatistics().get("category.feed").getProcessorStats().get(processorId);
+    }
+
+    /**
+     * Create the events for a job running through each of the processors, 10ms apart
+     */
+    static List<ProvenanceEventRecordDTO> createJob(long firstEventId, long startTime, boolean failed) {
+        FeedFlowFile feedFlowFile = new FeedFlowFile(UUID.randomUUID().toString());
+        if (failed) {
+            feedFlowFile.incrementFailedEvents();
+        }
+        List<ProvenanceEventRecordDTO> events = new ArrayList<>();
+        for (int i = 0; i < PROCESSOR_IDS.length; i++) {
+            ProvenanceEventRecordDTO event = new ProvenanceEventRecordDTO();
+            event.setEventId(firstEventId + i);
+            event.setEventTime(new DateTime(startTime + i * 10));
+            event.setStartTime(event.getEventTime());
+            event.setEventDuration(10L);
+            event.setEventType(i == 0 ? "CREATE" : "ATTRIBUTES_MODIFIED");
+            event.setFeedName("category.feed");
+            event.setComponentId(PROCESSOR_IDS[i]);
+            event.setComponentName("processor" + i);
+            event.setOutputContentClaimFileSizeBytes(1024L);
+            event.setFeedFlowFile(feedFlowFile);
+            event.setIsFailure(failed && i == PROCESSOR_IDS.length - 1);
+            event.setIsEndOfJob(i == PROCESSOR_IDS.length - 1);
+            if (i == 0) {
+                feedFlowFile.setFirstEvent(event);
+            }
+            events.add(event);
+        }
+        return events;
+    }
+}
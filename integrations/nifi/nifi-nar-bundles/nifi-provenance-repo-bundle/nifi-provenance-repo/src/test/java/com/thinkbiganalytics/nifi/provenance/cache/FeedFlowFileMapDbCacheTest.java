@@ -0,0 +1,126 @@
+package com.thinkbiganalytics.nifi.provenance.cache;
+
+/*-
+ * #%L
+ * thinkbig-nifi-provenance-repo
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.nifi.provenance.model.FeedFlowFile;
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTO;
+
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.util.UUID;
+
+/**
+ * Test the incremental checkpointing and eviction of the {@link FeedFlowFileMapDbCache}
+ */
+public class FeedFlowFileMapDbCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCheckpointAndRestore() throws Exception {
+        File file = new File(folder.getRoot(), "feed-flowfile-cache.db");
+        FeedFlowFile flowFile = createFlowFile();
+        String childId = flowFile.getActiveChildFlowFiles().iterator().next();
+
+        FeedFlowFileGuavaCache guavaCache = new FeedFlowFileGuavaCache();
+        FeedFlowFileMapDbCache mapDbCache = createMapDbCache(file, guavaCache);
+        guavaCache.add(flowFile.getId(), flowFile);
+        guavaCache.add(childId, flowFile);
+
+        Assert.assertEquals(1, mapDbCache.checkpoint());
+        //nothing changed so nothing is written
+        Assert.assertEquals(0, mapDbCache.checkpoint());
+        Assert.assertEquals(1, mapDbCache.persistFlowFiles());
+
+        FeedFlowFileGuavaCache restoredGuavaCache = new FeedFlowFileGuavaCache();
+        FeedFlowFileMapDbCache restoredMapDbCache = createMapDbCache(file, restoredGuavaCache);
+        Assert.assertEquals(1, restoredMapDbCache.loadGuavaCache());
+        FeedFlowFile restored = restoredGuavaCache.getEntry(childId);
+        Assert.assertNotNull(restored);
+        Assert.assertEquals(flowFile.getId(), restored.getId());
+        Assert.assertEquals(flowFile.getFeedName(), restored.getFeedName());
+        Assert.assertEquals(flowFile.getLastEventId(), restored.getLastEventId());
+        Assert.assertEquals(flowFile.getChildFlowFiles(), restored.getChildFlowFiles());
+        Assert.assertEquals(flowFile.getPreviousEventTime(childId), restored.getPreviousEventTime(childId));
+        Assert.assertTrue(restored.isBuiltFromMapDb());
+        restoredMapDbCache.persistFlowFiles();
+    }
+
+    @Test
+    public void testEvictIdleFlowFiles() throws Exception {
+        File file = new File(folder.getRoot(), "feed-flowfile-evict.db");
+        FeedFlowFile flowFile = createFlowFile();
+        String childId = flowFile.getActiveChildFlowFiles().iterator().next();
+
+        FeedFlowFileGuavaCache guavaCache = new FeedFlowFileGuavaCache();
+        FeedFlowFileMapDbCache mapDbCache = createMapDbCache(file, guavaCache);
+        mapDbCache.setEvictIdleMinutes(1);
+        guavaCache.add(flowFile.getId(), flowFile);
+        guavaCache.add(childId, flowFile);
+
+        mapDbCache.checkpoint();
+        Assert.assertNull(guavaCache.getCachedEntry(flowFile.getId()));
+        Assert.assertNull(guavaCache.getCachedEntry(childId));
+
+        //looking up the child loads the root flow file back into memory
+        FeedFlowFile loaded = guavaCache.getEntry(childId);
+        Assert.assertNotNull(loaded);
+        Assert.assertEquals(flowFile.getId(), loaded.getId());
+        Assert.assertSame(loaded, guavaCache.getCachedEntry(flowFile.getId()));
+        mapDbCache.persistFlowFiles();
+    }
+
+    private FeedFlowFileMapDbCache createMapDbCache(File file, FeedFlowFileGuavaCache guavaCache) {
+        FeedFlowFileMapDbCache mapDbCache = new FeedFlowFileMapDbCache(file.getAbsolutePath());
+        ReflectionTestUtils.setField(mapDbCache, "cache", guavaCache);
+        ReflectionTestUtils.invokeMethod(mapDbCache, "init");
+        return mapDbCache;
+    }
+
+    /**
+     * @return a flow file with a single child whose last event was 10 minutes ago
+     */
+    private FeedFlowFile createFlowFile() {
+        FeedFlowFile flowFile = new FeedFlowFile(UUID.randomUUID().toString());
+        flowFile.setFeedName("category.feed");
+        flowFile.setFeedProcessGroupId(UUID.randomUUID().toString());
+        String childId = UUID.randomUUID().toString();
+        flowFile.addChildFlowFile(childId);
+        flowFile.assignFlowFileToParent(childId, flowFile.getId());
+
+        ProvenanceEventRecordDTO event = new ProvenanceEventRecordDTO();
+        event.setEventId(10L);
+        event.setFlowFileUuid(flowFile.getId());
+        event.setComponentId("processor-1");
+        event.setEventTime(DateTime.now().minusMinutes(10));
+        event.setEventType("CREATE");
+        flowFile.addEvent(event);
+        flowFile.setFirstEvent(event);
+        return flowFile;
+    }
+}
@@ -0,0 +1,70 @@
+package com.thinkbiganalytics.nifi.provenance.jms;
+
+/*-
+ * #%L
+ * thinkbig-nifi-provenance-repo
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.activemq.ObjectMapperSerializer;
+import com.thinkbiganalytics.activemq.codec.JmsMessageCodec;
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTOHolder;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the encode/decode cost of the provenance JMS codecs against JSON.
+ * Each codec is warmed up before it is measured.  The results are logged.
+ */
+@Ignore("Benchmark. Run manually to compare the codecs")
+public class ProvenanceEventCodecBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ProvenanceEventCodecBenchmarkTest.class);
+
+    private static final int EVENTS_PER_MESSAGE = 500;
+
+    private static final int ITERATIONS = 50;
+
+    private ObjectMapperSerializer objectMapperSerializer = new ObjectMapperSerializer();
+
+    @Test
+    public void testEncodeDecodeCost() {
+        ProvenanceEventRecordDTOHolder holder = ProvenanceEventCodecTest.createHolder(EVENTS_PER_MESSAGE);
+
+        log.info("json: {} bytes/event ", objectMapperSerializer.serialize(holder).getBytes().length / EVENTS_PER_MESSAGE);
+        measure("json", () -> objectMapperSerializer.deserialize(objectMapperSerializer.serialize(holder), ProvenanceEventRecordDTOHolder.class));
+        for (JmsMessageCodec codec : ProvenanceEventCodecTest.codecs()) {
+            log.info("{}: {} bytes/event ", codec.getName(), codec.encode(holder).length / EVENTS_PER_MESSAGE);
+            measure(codec.getName(), () -> codec.decode(codec.encode(holder)));
+        }
+    }
+
+    private void measure(String name, Runnable encodeDecode) {
+        for (int i = 0; i < ITERATIONS; i++) {
+            encodeDecode.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            encodeDecode.run();
+        }
+        long nanosPerEvent = (System.nanoTime() - start) / (ITERATIONS * EVENTS_PER_MESSAGE);
+        log.info("{}: {} ns/event to encode and decode ", name, nanosPerEvent);
+    }
+}
@@ -0,0 +1,176 @@
+package com.thinkbiganalytics.nifi.provenance.jms;
+
+/*-
+ * #%L
+ * thinkbig-nifi-provenance-repo
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.activemq.ObjectMapperSerializer;
+import com.thinkbiganalytics.activemq.codec.CompactBinaryJmsMessageCodec;
+import com.thinkbiganalytics.activemq.codec.JmsMessageCodec;
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTO;
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTOHolder;
+
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InvalidClassException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.management.BadAttributeValueExpException;
+
+/**
+ * Tests the provenance events sent to JMS are decoded to the same events by the {@link CompactBinaryJmsMessageCodec}
+ */
+public class ProvenanceEventCodecTest {
+
+    private static final int EVENTS_PER_MESSAGE = 500;
+
+    private ObjectMapperSerializer objectMapperSerializer = new ObjectMapperSerializer();
+
+    /**
+     * Verify every field of the events is decoded to the value that was encoded
+     */
+    @Test
+    public void testCodecRoundTrip() {
+        ProvenanceEventRecordDTOHolder holder = createHolder(10);
+        String expected = objectMapperSerializer.serialize(holder);
+        for (JmsMessageCodec codec : codecs()) {
+            ProvenanceEventRecordDTOHolder decoded = (ProvenanceEventRecordDTOHolder) codec.decode(codec.encode(holder));
+            Assert.assertNotSame(holder, decoded);
+            Assert.assertEquals(codec.getName(), holder.getBatchId(), decoded.getBatchId());
+            Assert.assertEquals(codec.getName(), holder.getEvents(), decoded.getEvents());
+            Assert.assertEquals(codec.getName(), expected, objectMapperSerializer.serialize(decoded));
+        }
+    }
+
+    /**
+     * Verify null fields, and equal strings that are written as a reference to the first one, are decoded to the original values
+     */
+    @Test
+    public void testCodecRoundTripSparseEvents() {
+        ProvenanceEventRecordDTO empty = new ProvenanceEventRecordDTO();
+        empty.setEventId(1L);
+        empty.setEventType("DROP");
+        ProvenanceEventRecordDTO shared = new ProvenanceEventRecordDTO();
+        shared.setEventId(2L);
+        shared.setEventType("CREATE");
+        shared.setFeedName(new String("category.feed"));
+        shared.setComponentName(new String("category.feed"));
+        List<ProvenanceEventRecordDTO> events = new ArrayList<>();
+        events.add(empty);
+        events.add(shared);
+        ProvenanceEventRecordDTOHolder holder = new ProvenanceEventRecordDTOHolder();
+        holder.setEvents(events);
+
+        String expected = objectMapperSerializer.serialize(holder);
+        for (JmsMessageCodec codec : codecs()) {
+            ProvenanceEventRecordDTOHolder decoded = (ProvenanceEventRecordDTOHolder) codec.decode(codec.encode(holder));
+            Assert.assertEquals(codec.getName(), expected, objectMapperSerializer.serialize(decoded));
+            Assert.assertNull(decoded.getEvents().get(0).getFeedName());
+            Assert.assertNull(decoded.getEvents().get(0).getAttributeMap());
+            Assert.assertEquals("category.feed", decoded.getEvents().get(1).getFeedName());
+            Assert.assertEquals("category.feed", decoded.getEvents().get(1).getComponentName());
+        }
+    }
+
+    /**
+     * Verify the codecs write fewer bytes than the JSON message
+     */
+    @Test
+    public void testBytesPerEvent() {
+        ProvenanceEventRecordDTOHolder holder = createHolder(EVENTS_PER_MESSAGE);
+        int jsonBytes = objectMapperSerializer.serialize(holder).getBytes().length;
+        for (JmsMessageCodec codec : codecs()) {
+            int bytes = codec.encode(holder).length;
+            Assert.assertTrue(codec.getName() + " should be smaller than json", bytes < jsonBytes);
+        }
+    }
+
+    /**
+     * Verify a class outside the allowed packages is rejected, even when it is nested in an allowed collection
+     */
+    @Test
+    public void testDecodeRejectsClassesNotAllowed() {
+        HashMap<String, Object> message = new HashMap<>();
+        message.put("value", new BadAttributeValueExpException("value"));
+        for (JmsMessageCodec codec : codecs()) {
+            byte[] bytes = codec.encode(message);
+            try {
+                codec.decode(bytes);
+                Assert.fail(codec.getName() + " should not decode " + BadAttributeValueExpException.class.getName());
+            } catch (RuntimeException e) {
+                Assert.assertTrue(codec.getName(), e.getCause() instanceof InvalidClassException);
+            }
+        }
+    }
+
+    static List<JmsMessageCodec> codecs() {
+        List<JmsMessageCodec> codecs = new ArrayList<>();
+        codecs.add(new CompactBinaryJmsMessageCodec(false));
+        codecs.add(new CompactBinaryJmsMessageCodec(true));
+        return codecs;
+    }
+
+    static ProvenanceEventRecordDTOHolder createHolder(int eventCount) {
+        String feedProcessGroupId = UUID.randomUUID().toString();
+        String[] componentIds = new String[]{UUID.randomUUID().toString(), UUID.randomUUID().toString(), UUID.randomUUID().toString()};
+        String[] componentNames = new String[]{"GetFile", "UpdateAttribute", "PutHDFS"};
+        List<ProvenanceEventRecordDTO> events = new ArrayList<>();
+        String jobFlowFileId = null;
+        for (int i = 0; i < eventCount; i++) {
+            int component = i % componentIds.length;
+            if (component == 0) {
+                jobFlowFileId = UUID.randomUUID().toString();
+            }
+            ProvenanceEventRecordDTO event = new ProvenanceEventRecordDTO();
+            event.setEventId((long) i);
+            event.setEventTime(new DateTime());
+            event.setEventDuration(10L);
+            event.setEventType(component == 0 ? "CREATE" : "ATTRIBUTES_MODIFIED");
+            event.setFlowFileUuid(jobFlowFileId);
+            event.setJobFlowFileId(jobFlowFileId);
+            event.setFileSize("1 KB");
+            event.setFileSizeBytes(1024L);
+            event.setGroupId(feedProcessGroupId);
+            event.setFeedProcessGroupId(feedProcessGroupId);
+            event.setFeedName("category.feed");
+            event.setComponentId(componentIds[component]);
+            event.setComponentName(componentNames[component]);
+            event.setComponentType(componentNames[component]);
+            event.setIsBatchJob(true);
+            event.setIsStartOfJob(component == 0);
+            Map<String, String> attributes = new HashMap<>();
+            attributes.put("path", "./");
+            attributes.put("filename", "userdata1.csv");
+            attributes.put("uuid", jobFlowFileId);
+            attributes.put("feed", "category.feed");
+            attributes.put("category", "category");
+            event.setAttributeMap(attributes);
+            events.add(event);
+        }
+        ProvenanceEventRecordDTOHolder holder = new ProvenanceEventRecordDTOHolder();
+        holder.setEvents(events);
+        return holder;
+    }
+}
@@ -0,0 +1,161 @@
+package com.thinkbiganalytics.nifi.provenance.reporting;
+
+/*-
+ * #%L
+ * thinkbig-nifi-provenance-repo
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventRepository;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Tests reading a range of provenance events in pages with the {@link ProvenanceEventPageReader}
+ */
+public class ProvenanceEventPageReaderTest {
+
+    private final ProvenanceEventRepository provenance = Mockito.mock(ProvenanceEventRepository.class);
+
+    @After
+    public void clearInterrupt() {
+        Thread.interrupted();
+    }
+
+    /**
+     * Verify the range is read in pages of the page size, with the events of each page sorted by event id
+     */
+    @Test
+    public void testPagesAcrossRange() throws IOException {
+        mockEvents();
+
+        try (ProvenanceEventPageReader reader = new ProvenanceEventPageReader(provenance, 1L, 25L, 10, 2)) {
+            reader.start();
+            assertPage(reader.nextPage(), 1L, 10L);
+            assertPage(reader.nextPage(), 11L, 20L);
+            assertPage(reader.nextPage(), 21L, 25L);
+            Assert.assertNull(reader.nextPage());
+        }
+
+        Mockito.verify(provenance).getEvents(1L, 10);
+        Mockito.verify(provenance).getEvents(11L, 10);
+        Mockito.verify(provenance).getEvents(21L, 5);
+    }
+
+    /**
+     * Verify the reader does not read more than the prefetched pages ahead of the consumer
+     */
+    @Test
+    public void testPrefetchLimit() throws Exception {
+        mockEvents();
+
+        try (ProvenanceEventPageReader reader = new ProvenanceEventPageReader(provenance, 1L, 100L, 10, 1)) {
+            reader.start();
+            Thread.sleep(200);
+            //one page waiting to be taken, and one page read but blocked until there is room
+            Mockito.verify(provenance, Mockito.times(2)).getEvents(Mockito.anyLong(), Mockito.anyInt());
+
+            assertPage(reader.nextPage(), 1L, 10L);
+            Thread.sleep(200);
+            Mockito.verify(provenance, Mockito.times(3)).getEvents(Mockito.anyLong(), Mockito.anyInt());
+        }
+    }
+
+    /**
+     * Verify an error reading a page is thrown to the consumer once the pages read before it are consumed
+     */
+    @Test
+    public void testReadError() throws IOException {
+        mockEvents();
+        IOException error = new IOException("Unable to read provenance");
+        Mockito.doThrow(error).when(provenance).getEvents(11L, 10);
+
+        try (ProvenanceEventPageReader reader = new ProvenanceEventPageReader(provenance, 1L, 25L, 10, 2)) {
+            reader.start();
+            assertPage(reader.nextPage(), 1L, 10L);
+            try {
+                reader.nextPage();
+                Assert.fail("Expected IOException");
+            } catch (IOException e) {
+                Assert.assertSame(error, e);
+            }
+        }
+    }
+
+    /**
+     * Verify an interrupted consumer gets an exception rather than the end of the range
+     */
+    @Test
+    public void testInterrupted() throws IOException {
+        mockEvents();
+
+        try (ProvenanceEventPageReader reader = new ProvenanceEventPageReader(provenance, 1L, 25L, 10, 2)) {
+            reader.start();
+            Thread.currentThread().interrupt();
+            try {
+                reader.nextPage();
+                Assert.fail("Expected InterruptedIOException");
+            } catch (InterruptedIOException e) {
+                Assert.assertTrue(Thread.currentThread().isInterrupted());
+            }
+        }
+    }
+
+    /**
+     * Mock the repository to return the events in the requested range in descending order
+     */
+    private void mockEvents() throws IOException {
+        Map<Long, ProvenanceEventRecord> eventsById = new HashMap<>();
+        for (long id = 1; id <= 100; id++) {
+            ProvenanceEventRecord event = Mockito.mock(ProvenanceEventRecord.class);
+            Mockito.when(event.getEventId()).thenReturn(id);
+            eventsById.put(id, event);
+        }
+
+        Mockito.when(provenance.getEvents(Mockito.anyLong(), Mockito.anyInt())).thenAnswer(invocation -> {
+            long first = (Long) invocation.getArguments()[0];
+            int count = (Integer) invocation.getArguments()[1];
+            List<ProvenanceEventRecord> events = new ArrayList<>(count);
+            for (long id = first + count - 1; id >= first; id--) {
+                events.add(eventsById.get(id));
+            }
+            return events;
+        });
+    }
+
+    private void assertPage(ProvenanceEventPageReader.EventPage page, long minEventId, long maxEventId) {
+        Assert.assertNotNull(page);
+        Assert.assertEquals(minEventId, page.getMinEventId());
+        Assert.assertEquals(maxEventId, page.getMaxEventId());
+        List<Long> expected = new ArrayList<>();
+        for (long id = minEventId; id <= maxEventId; id++) {
+            expected.add(id);
+        }
+        Assert.assertEquals(expected, page.getEvents().stream().map(ProvenanceEventRecord::getEventId).collect(Collectors.toList()));
+    }
+}
@@ -37,6 +37,7 @@ import java.util.Set;
 
 /**
  * Provenance events for Feeds not marked as "streaming" will be processed by this class in the KyloReportingTask of NiFi
+ * Events for the same feed and processor may be added from multiple processing threads so access to the collected events is synchronized
  */
 public class BatchFeedProcessorEvents implements Serializable {
 
@@ -94,7 +95,7 @@ public class BatchFeedProcessorEvents implements Serializable {
      * @param event the event to add to the batch
      * @return true if added, false if not
      */
-    public boolean add(ProvenanceEventRecordDTO event) {
+    public synchronized boolean add(ProvenanceEventRecordDTO event) {
         if (event.getComponentName() != null && processorName == null) {
             processorName = event.getComponentName();
         }
@@ -137,7 +138,7 @@ public class BatchFeedProcessorEvents implements Serializable {
      * @return returns true if successfully added, false if not.  It may return false if the event is suppressed
      * @see this#isSuppressEvent(ProvenanceEventRecordDTO)
      */
-    public boolean addEvent(ProvenanceEventRecordDTO event) {
+    public synchronized boolean addEvent(ProvenanceEventRecordDTO event) {
         if (!isSuppressEvent(event)) {
 
             if (lastEventTime == null) {
@@ -159,7 +160,7 @@ public class BatchFeedProcessorEvents implements Serializable {
      *
      * @return the list of events that have been sent
      */
-    public List<ProvenanceEventRecordDTO> collectEventsToBeSentToJmsQueue() {
+    public synchronized List<ProvenanceEventRecordDTO> collectEventsToBeSentToJmsQueue() {
         List<ProvenanceEventRecordDTO> events = null;
         try {
             events = new ArrayList<>(jmsEvents);
@@ -227,7 +228,7 @@ public class BatchFeedProcessorEvents implements Serializable {
      * @param maxEventsPerSecond the max number of events allowed per sec to be considered a batch job
      * @return this class
      */
-    public BatchFeedProcessorEvents setMaxEventsPerSecond(Integer maxEventsPerSecond) {
+    public synchronized BatchFeedProcessorEvents setMaxEventsPerSecond(Integer maxEventsPerSecond) {
         this.maxEventsPerSecond = maxEventsPerSecond;
         return this;
     }
@@ -22,11 +22,16 @@ package com.thinkbiganalytics.nifi.provenance.model;
 
 import org.joda.time.DateTime;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -38,6 +43,18 @@ public class FeedFlowFile implements Serializable {
 
     private static final long serialVersionUID = 6464904199959374630L;
 
+    /**
+     * Version of the format written by {@link #writeTo(DataOutput)}
+     */
+    private static final byte DATA_VERSION = 1;
+
+    /**
+     * markers written before each string by {@link #writeTo(DataOutput)}
+     */
+    private static final byte NULL_STRING = 0;
+    private static final byte UUID_STRING = 1;
+    private static final byte UTF_STRING = 2;
+
     /**
      * The ID of the Flow File
      */
@@ -342,6 +359,182 @@ public class FeedFlowFile implements Serializable {
     }
 
 
+    /**
+     * Write this flow file in a compact binary format.
+     * Flow file ids are written as 16 byte UUIDs rather than 36 character strings.
+     *
+     * @param out the output to write to
+     * @see #readFrom(DataInput)
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeByte(DATA_VERSION);
+        writeString(out, id);
+        out.writeBoolean(isStream);
+        writeString(out, feedName);
+        writeString(out, feedProcessGroupId);
+        writeStrings(out, activeChildFlowFiles);
+        writeStrings(out, childFlowFiles);
+        writeLong(out, firstEventId);
+        writeLong(out, firstEventStartTime);
+        writeString(out, firstEventProcessorId);
+        writeLong(out, lastEventId);
+        writeString(out, lastEventProcessorId);
+        writeLong(out, lastEventTime);
+        out.writeInt(failedEvents.get());
+        writeStrings(out, flowfilesStarted);
+        out.writeBoolean(isCurrentFlowFileComplete);
+        writeLongMap(out, flowFileLastEventTime);
+        writeLongMap(out, childFlowFileStartTimes);
+        if (flowFileIdToParentFlowFileId == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(flowFileIdToParentFlowFileId.size());
+            for (Map.Entry<String, String> entry : flowFileIdToParentFlowFileId.entrySet()) {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue());
+            }
+        }
+        out.writeBoolean(isBuiltFromMapDb);
+    }
+
+    /**
+     * Read a flow file written by {@link #writeTo(DataOutput)}
+     *
+     * @param in the input to read from
+     * @return the flow file
+     */
+    public static FeedFlowFile readFrom(DataInput in) throws IOException {
+        byte version = in.readByte();
+        if (version != DATA_VERSION) {
+            throw new IOException("Unsupported FeedFlowFile data version " + version);
+        }
+        FeedFlowFile flowFile = new FeedFlowFile(readString(in));
+        flowFile.isStream = in.readBoolean();
+        flowFile.feedName = readString(in);
+        flowFile.feedProcessGroupId = readString(in);
+        flowFile.activeChildFlowFiles = readStrings(in);
+        flowFile.childFlowFiles = readStrings(in);
+        flowFile.firstEventId = readLong(in);
+        flowFile.firstEventStartTime = readLong(in);
+        flowFile.firstEventProcessorId = readString(in);
+        flowFile.lastEventId = readLong(in);
+        flowFile.lastEventProcessorId = readString(in);
+        flowFile.lastEventTime = readLong(in);
+        flowFile.failedEvents.set(in.readInt());
+        flowFile.flowfilesStarted = readStrings(in);
+        flowFile.isCurrentFlowFileComplete = in.readBoolean();
+        flowFile.flowFileLastEventTime = readLongMap(in);
+        flowFile.childFlowFileStartTimes = readLongMap(in);
+        int parents = in.readInt();
+        if (parents >= 0) {
+            flowFile.flowFileIdToParentFlowFileId = new HashMap<>(parents);
+            for (int i = 0; i < parents; i++) {
+                flowFile.flowFileIdToParentFlowFileId.put(readString(in), readString(in));
+            }
+        }
+        flowFile.isBuiltFromMapDb = in.readBoolean();
+        return flowFile;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL_STRING);
+            return;
+        }
+        UUID uuid = toUuid(value);
+        if (uuid != null) {
+            out.writeByte(UUID_STRING);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            out.writeByte(UTF_STRING);
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        byte type = in.readByte();
+        if (type == UUID_STRING) {
+            return new UUID(in.readLong(), in.readLong()).toString();
+        } else if (type == UTF_STRING) {
+            return in.readUTF();
+        }
+        return null;
+    }
+
+    /**
+     * @return the UUID if the value is a lower case UUID that will be written back out as the same string, otherwise null
+     */
+    private static UUID toUuid(String value) {
+        if (value.length() != 36 || value.charAt(8) != '-' || value.charAt(13) != '-' || value.charAt(18) != '-' || value.charAt(23) != '-') {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(value);
+            return uuid.toString().equals(value) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void writeStrings(DataOutput out, Collection<String> values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static Set<String> readStrings(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        Set<String> values = new HashSet<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private static void writeLong(DataOutput out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeLongMap(DataOutput out, Map<String, Long> values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.size());
+        for (Map.Entry<String, Long> entry : values.entrySet()) {
+            writeString(out, entry.getKey());
+            writeLong(out, entry.getValue());
+        }
+    }
+
+    private static Map<String, Long> readLongMap(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        Map<String, Long> values = new HashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            values.put(readString(in), readLong(in));
+        }
+        return values;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("FeedFlowFile{");
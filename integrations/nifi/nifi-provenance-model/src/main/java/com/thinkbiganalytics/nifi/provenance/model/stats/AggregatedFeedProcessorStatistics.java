@@ -50,9 +50,10 @@ public class AggregatedFeedProcessorStatistics implements Serializable {
     }
 
     /**
-     * Add the event to compute statistics
+     * Add the event to compute statistics.
+     * Synchronized as events for the same feed may be processed by different threads
      */
-    public void addEventStats(ProvenanceEventRecordDTO event) {
+    public synchronized void addEventStats(ProvenanceEventRecordDTO event) {
         processorStats.computeIfAbsent(event.getComponentId(), processorId -> new AggregatedProcessorStatistics(processorId, event.getComponentName(), collectionId)).add(event);
         totalEvents++;
         if (event.getEventId() < minEventId) {
@@ -66,6 +67,24 @@ public class AggregatedFeedProcessorStatistics implements Serializable {
         }
     }
 
+    /**
+     * Add statistics that have already been aggregated for a processor
+     *
+     * @param processGroup        the feed process group id
+     * @param processorStatistics the processor statistics
+     */
+    public synchronized void addProcessorStats(String processGroup, AggregatedProcessorStatistics processorStatistics) {
+        processorStats.put(processorStatistics.getProcessorId(), processorStatistics);
+        GroupedStats stats = processorStatistics.getStats();
+        totalEvents += stats.getTotalCount();
+        if (stats.getMaxEventId() > maxEventId) {
+            maxEventId = stats.getMaxEventId();
+        }
+        if (StringUtils.isBlank(this.processGroup) && StringUtils.isNotBlank(processGroup)) {
+            this.processGroup = processGroup;
+        }
+    }
+
     public String getFeedName() {
         return feedName;
     }
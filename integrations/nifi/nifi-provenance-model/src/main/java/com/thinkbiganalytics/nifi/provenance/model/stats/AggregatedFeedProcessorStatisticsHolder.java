@@ -48,29 +48,63 @@ public class AggregatedFeedProcessorStatisticsHolder implements Serializable {
     }
 
     /**
-     * Add an event to generate statistics
+     * Add an event to generate statistics.
+     * This is safe to call from multiple threads
      */
     public void addStat(ProvenanceEventRecordDTO event) {
-        if (minTime == null || event.getEventTime().isBefore(minTime)) {
-            minTime = event.getEventTime();
-        }
-        if (maxTime == null || event.getEventTime().isAfter(maxTime)) {
-            maxTime = event.getEventTime();
-        }
         feedStatistics.computeIfAbsent(event.getFeedName(), (feedName) -> new AggregatedFeedProcessorStatistics(feedName, collectionId)).addEventStats(
             event);
 
-        if (event.getEventId() < minEventId) {
-            minEventId = event.getEventId();
-        }
-        if (event.getEventId() > maxEventId) {
-            maxEventId = event.getEventId();
+        synchronized (this) {
+            if (minTime == null || event.getEventTime().isBefore(minTime)) {
+                minTime = event.getEventTime();
+            }
+            if (maxTime == null || event.getEventTime().isAfter(maxTime)) {
+                maxTime = event.getEventTime();
+            }
+            if (event.getEventId() < minEventId) {
+                minEventId = event.getEventId();
+            }
+            if (event.getEventId() > maxEventId) {
+                maxEventId = event.getEventId();
+            }
         }
 
         eventCount.incrementAndGet();
     }
 
 
+    /**
+     * Add statistics that have already been aggregated for a processor in a feed.
+     * This is safe to call from multiple threads
+     *
+     * @param feedName            the feed name
+     * @param processGroup        the feed process group id
+     * @param processorStatistics the processor statistics.  The stats group key should be the {@link #getCollectionId()}
+     */
+    public void addProcessorStats(String feedName, String processGroup, AggregatedProcessorStatistics processorStatistics) {
+        feedStatistics.computeIfAbsent(feedName, (name) -> new AggregatedFeedProcessorStatistics(name, collectionId)).addProcessorStats(processGroup, processorStatistics);
+
+        GroupedStats stats = processorStatistics.getStats();
+        synchronized (this) {
+            if (minTime == null || (stats.getMinTime() != null && stats.getMinTime().isBefore(minTime))) {
+                minTime = stats.getMinTime();
+            }
+            if (maxTime == null || (stats.getMaxTime() != null && stats.getMaxTime().isAfter(maxTime))) {
+                maxTime = stats.getMaxTime();
+            }
+            if (stats.getMaxEventId() > maxEventId) {
+                maxEventId = stats.getMaxEventId();
+            }
+        }
+
+        eventCount.addAndGet(stats.getTotalCount());
+    }
+
+    public String getCollectionId() {
+        return collectionId;
+    }
+
     public AtomicLong getEventCount() {
         return eventCount;
     }
@@ -107,10 +107,18 @@ public class GroupedStats extends BaseStatistics implements Serializable {
         return minTime;
     }
 
+    public void setMinTime(DateTime minTime) {
+        this.minTime = minTime;
+    }
+
     public DateTime getMaxTime() {
         return maxTime;
     }
 
+    public void setMaxTime(DateTime maxTime) {
+        this.maxTime = maxTime;
+    }
+
     public String getGroupKey() {
         return groupKey;
     }
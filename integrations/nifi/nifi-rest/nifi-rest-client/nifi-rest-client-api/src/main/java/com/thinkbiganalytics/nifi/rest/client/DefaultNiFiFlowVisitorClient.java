@@ -45,6 +45,10 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 /**
  */
@@ -150,10 +154,15 @@ public class DefaultNiFiFlowVisitorClient implements NiFiFlowVisitorClient {
     }
 
     public List<NifiFlowProcessGroup> getFeedFlows(Collection<String> feedNames) {
+        return getFeedFlows(feedNames, null);
+    }
+
+    public List<NifiFlowProcessGroup> getFeedFlows(Collection<String> feedNames, ExecutorService executorService) {
         log.info("get Graph of Nifi Flows looking for {} ", feedNames == null ? "ALL Feeds " : feedNames);
         long start = System.currentTimeMillis();
         NifiConnectionOrderVisitorCache cache = new NifiConnectionOrderVisitorCache();
         List<NifiFlowProcessGroup> feedFlows = new ArrayList<>();
+        List<Supplier<NifiFlowProcessGroup>> feedFlowWalks = new ArrayList<>();
         ProcessGroupDTO processGroupEntity = restClient.processGroups().findRoot();
         ProcessGroupDTO root = processGroupEntity;
         //first level is the category
@@ -169,6 +178,7 @@ public class DefaultNiFiFlowVisitorClient implements NiFiFlowVisitorClient {
                 return o1.getName().compareTo(o2.getName());
             }
         }).forEach(category -> {
+            boolean reusable = TemplateCreationHelper.REUSABLE_TEMPLATES_PROCESS_GROUP_NAME.equalsIgnoreCase(category.getName());
             for (ProcessGroupDTO feedProcessGroup : category.getContents().getProcessGroups()) {
 
                 //second level is the feed
@@ -176,20 +186,46 @@ public class DefaultNiFiFlowVisitorClient implements NiFiFlowVisitorClient {
                 //if it is a versioned feed then strip the version to get the correct feed name
                 feedName = TemplateCreationHelper.parseVersionedProcessGroupName(feedName);
                 //if feednames are sent in, only add those that match or those in the reusable group
-                if ((feedNames == null || feedNames.isEmpty()) || (feedNames != null && (feedNames.contains(feedName) || TemplateCreationHelper.REUSABLE_TEMPLATES_PROCESS_GROUP_NAME
-                    .equalsIgnoreCase(category.getName())))) {
-                    NifiFlowProcessGroup feedFlow = getFeedFlow(feedProcessGroup.getId(), cache);
-                    feedFlow.setFeedName(feedName);
-                    feedFlows.add(feedFlow);
+                if ((feedNames == null || feedNames.isEmpty()) || (feedNames != null && (feedNames.contains(feedName) || reusable))) {
+                    final String flowFeedName = feedName;
+                    Supplier<NifiFlowProcessGroup> walk = () -> {
+                        NifiFlowProcessGroup feedFlow = getFeedFlow(feedProcessGroup.getId(), cache);
+                        feedFlow.setFeedName(flowFeedName);
+                        return feedFlow;
+                    };
+                    //the reusable flows are walked first so the feed flows connecting to them find them in the cache
+                    if (reusable || executorService == null) {
+                        feedFlows.add(walk.get());
+                    } else {
+                        feedFlowWalks.add(walk);
+                    }
                 }
             }
         });
+
+        if (!feedFlowWalks.isEmpty()) {
+            List<Future<NifiFlowProcessGroup>> walks = new ArrayList<>(feedFlowWalks.size());
+            try {
+                for (Supplier<NifiFlowProcessGroup> walk : feedFlowWalks) {
+                    walks.add(executorService.submit(walk::get));
+                }
+                for (Future<NifiFlowProcessGroup> walk : walks) {
+                    feedFlows.add(walk.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new NifiClientRuntimeException("Interrupted while walking the NiFi flows", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new NifiClientRuntimeException("Unable to walk the NiFi flows", e.getCause());
+            } finally {
+                walks.forEach(walk -> walk.cancel(true));
+            }
+        }
         long end = System.currentTimeMillis();
         log.info("finished Graph of Nifi Flows.  Returning {} flows, {} ", feedFlows.size(), (end - start) + " ms");
         return feedFlows;
     }
 
-
     //walk entire graph
     public List<NifiFlowProcessGroup> getFeedFlows() {
         return getFeedFlows(null);
@@ -63,9 +63,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -141,6 +143,15 @@ public class LegacyNifiRestClient implements NiFiFlowVisitorClient {
         return result;
     }
 
+    /**
+     * Returns the ids of the templates that have a matching Input Port in the template, without downloading the template XML.
+     */
+    public Set<String> getTemplateIdsMatchingInputPortName(final String inputPortName) {
+        return client.templates().findByInputPortName(inputPortName).stream()
+            .map(TemplateDTO::getId)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
     /**
      * return a template by Name, populated with its Flow snippet If not found it returns null
      */
@@ -1225,6 +1236,18 @@ public class LegacyNifiRestClient implements NiFiFlowVisitorClient {
         return client.flows().getFeedFlows(feedNames);
     }
 
+    /**
+     * Walks the entire graph, walking the feed flows concurrently using the specified executor
+     */
+    public List<NifiFlowProcessGroup> getFeedFlows(ExecutorService executorService) {
+        return getFeedFlows(null, executorService);
+    }
+
+    @Override
+    public List<NifiFlowProcessGroup> getFeedFlows(Collection<String> feedNames, ExecutorService executorService) {
+        return client.flows().getFeedFlows(feedNames, executorService);
+    }
+
 
     /**
      * Gets a transform for converting {@link NiFiPropertyDescriptor} objects to {@link PropertyDescriptorDTO}.
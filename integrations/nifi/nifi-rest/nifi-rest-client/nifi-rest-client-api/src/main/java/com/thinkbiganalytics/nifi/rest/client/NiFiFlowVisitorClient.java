@@ -31,6 +31,7 @@ import org.apache.nifi.web.api.dto.TemplateDTO;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 /**
  * REST client to get a NiFi flow as a graph of connected processors
@@ -51,6 +52,16 @@ public interface NiFiFlowVisitorClient {
 
     List<NifiFlowProcessGroup> getFeedFlows(Collection<String> feedNames);
 
+    /**
+     * Walks the flows of the specified feeds, or of all feeds if none are specified.  The reusable flows are walked first, then the feed flows are walked
+     * concurrently using the specified executor.
+     *
+     * @param feedNames       the category and feed names, or {@code null} for all feeds
+     * @param executorService the executor walking the feed flows, or {@code null} to walk them on the calling thread
+     * @return the graph of each flow
+     */
+    List<NifiFlowProcessGroup> getFeedFlows(Collection<String> feedNames, ExecutorService executorService);
+
     Set<ProcessorDTO> getProcessorsForFlow(String processGroupId);
 
     /**
@@ -32,9 +32,10 @@ import java.util.ArrayList;
  * Class to hold profile statistics for columns of bigdecimal data type <br>
  * [Hive data type: DECIMAL]
  */
-@SuppressWarnings("serial")
 public class BigDecimalColumnStatistics extends ColumnStatistics {
 
+    private static final long serialVersionUID = 1L;
+
     /* BigDecimal specific metrics */
     private BigDecimal max;
     private BigDecimal min;
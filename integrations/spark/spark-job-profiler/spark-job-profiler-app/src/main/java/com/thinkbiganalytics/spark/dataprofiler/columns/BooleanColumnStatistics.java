@@ -31,9 +31,10 @@ import java.util.ArrayList;
  * Class to hold profile statistics for columns of boolean data type <br>
  * [Hive data type: BOOLEAN]
  */
-@SuppressWarnings("serial")
 public class BooleanColumnStatistics extends ColumnStatistics {
 
+    private static final long serialVersionUID = 1L;
+
     /* Boolean specific metrics */
     private long trueCount;
     private long falseCount;
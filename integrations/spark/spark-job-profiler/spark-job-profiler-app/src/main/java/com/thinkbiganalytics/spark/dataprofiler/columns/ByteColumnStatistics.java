@@ -31,9 +31,10 @@ import java.util.ArrayList;
  * Class to hold profile statistics for columns of byte data type<br>
  * [Hive data type: TINYINT]
  */
-@SuppressWarnings("serial")
 public class ByteColumnStatistics extends ColumnStatistics {
 
+    private static final long serialVersionUID = 1L;
+
     /* Byte specific metrics */
     private byte max;
     private byte min;
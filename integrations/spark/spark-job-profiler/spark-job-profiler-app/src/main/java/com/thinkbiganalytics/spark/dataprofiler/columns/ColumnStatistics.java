@@ -24,6 +24,8 @@ import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerConfiguration;
 import com.thinkbiganalytics.spark.dataprofiler.model.MetricType;
 import com.thinkbiganalytics.spark.dataprofiler.output.OutputRow;
 import com.thinkbiganalytics.spark.dataprofiler.output.OutputWriter;
+import com.thinkbiganalytics.spark.dataprofiler.sketch.HyperLogLog;
+import com.thinkbiganalytics.spark.dataprofiler.sketch.SpaceSaving;
 import com.thinkbiganalytics.spark.dataprofiler.topn.TopNDataItem;
 import com.thinkbiganalytics.spark.dataprofiler.topn.TopNDataList;
 
@@ -37,15 +39,16 @@ import java.util.List;
 /**
  * Class to hold common profile statistics for columns of all data types
  */
-@SuppressWarnings("serial")
 public abstract class ColumnStatistics implements Serializable {
 
+    private static final long serialVersionUID = 1L;
+
     /* Schema information for column */
     final StructField columnField;
     /* Other variables */
     final DecimalFormat df;
     final OutputWriter outputWriter;
-    private final TopNDataList topNValues;
+    private TopNDataList topNValues;
     /* Common metrics for all data types */
     long nullCount;
     long totalCount;
@@ -54,6 +57,10 @@ public abstract class ColumnStatistics implements Serializable {
     private double percNullValues;
     private double percUniqueValues;
     private double percDuplicateValues;
+    /* Sketches for unique count and top n values, kept when profiling approximately or keeping a mergeable state (null otherwise) */
+    private HyperLogLog distinctValuesSketch;
+    private SpaceSaving frequentValuesSketch;
+    private boolean approximate;
 
 
     /**
@@ -75,6 +82,48 @@ public abstract class ColumnStatistics implements Serializable {
     }
 
 
+    /**
+     * Estimate the unique count and top n values with sketches.<br>
+     * Values can then be accommodated once per occurrence, rather than once per distinct value with its total count.
+     */
+    public void useApproximateCounts() {
+        keepMergeableState();
+        approximate = true;
+    }
+
+
+    /**
+     * Keep sketches of the unique and top n values alongside the exact counts.<br>
+     * Exact counts can only be combined for disjoint sets of values, whereas the sketches can be merged with the statistics of any other partition.
+     */
+    public void keepMergeableState() {
+        if (distinctValuesSketch == null) {
+            distinctValuesSketch = new HyperLogLog(ProfilerConfiguration.APPROXIMATE_DISTINCT_PRECISION);
+            frequentValuesSketch = new SpaceSaving(Math.max(ProfilerConfiguration.NUMBER_OF_TOP_N_VALUES, ProfilerConfiguration.APPROXIMATE_TOP_N_CAPACITY));
+        }
+    }
+
+
+    /**
+     * Check if the unique count and top n values are estimated
+     *
+     * @return true if estimated with sketches
+     */
+    public boolean isApproximate() {
+        return approximate;
+    }
+
+
+    /**
+     * Check if these statistics can be merged with the statistics of any other partition
+     *
+     * @return true if sketches are kept
+     */
+    public boolean isMergeable() {
+        return distinctValuesSketch != null;
+    }
+
+
     /**
      * Calculate common statistics by accommodating the value and frequency/count
      *
@@ -84,6 +133,21 @@ public abstract class ColumnStatistics implements Serializable {
     void accomodateCommon(Object columnValue, Long columnCount) {
 
         totalCount += columnCount;
+
+        if (isMergeable()) {
+            distinctValuesSketch.add(columnValue);
+            frequentValuesSketch.add(columnValue, columnCount);
+        }
+
+        if (isApproximate()) {
+            if (columnValue == null) {
+                nullCount += columnCount;
+            }
+
+            /* unique count, percentages and top n are resolved from the sketches when read */
+            return;
+        }
+
         uniqueCount += 1;
 
         if (columnValue == null) {
@@ -103,6 +167,20 @@ public abstract class ColumnStatistics implements Serializable {
      */
     void combineCommon(ColumnStatistics v_columnStatistics) {
 
+        if (isMergeable() && v_columnStatistics.isMergeable()) {
+            distinctValuesSketch.merge(v_columnStatistics.distinctValuesSketch);
+            frequentValuesSketch.merge(v_columnStatistics.frequentValuesSketch);
+        } else {
+            distinctValuesSketch = null;
+            frequentValuesSketch = null;
+        }
+
+        if (isApproximate()) {
+            totalCount += v_columnStatistics.totalCount;
+            nullCount += v_columnStatistics.nullCount;
+            return;
+        }
+
         totalCount += v_columnStatistics.totalCount;
         uniqueCount += v_columnStatistics.uniqueCount;
         nullCount += v_columnStatistics.nullCount;
@@ -151,6 +229,8 @@ public abstract class ColumnStatistics implements Serializable {
      */
     private void writeTopNInformation() {
 
+        resolveApproximateCounts();
+
         rows = new ArrayList<>();
         rows.add(new OutputRow(columnField.name(), String.valueOf(MetricType.TOP_N_VALUES), topNValues.printTopNItems()));
         outputWriter.addRows(rows);
@@ -175,6 +255,8 @@ public abstract class ColumnStatistics implements Serializable {
      */
     void writeStatisticsCommon() {
 
+        resolveApproximateCounts();
+
         writeColumnSchemaInformation();
 
         rows = new ArrayList<>();
@@ -197,6 +279,8 @@ public abstract class ColumnStatistics implements Serializable {
      */
     String getVerboseStatisticsCommon() {
 
+        resolveApproximateCounts();
+
         return getVerboseColumnSchemaInformation()
                + "\n"
                + "CommonStatistics ["
@@ -212,6 +296,21 @@ public abstract class ColumnStatistics implements Serializable {
     }
 
 
+    /*
+     * Set unique count, percentages and top n values from the sketches
+     */
+    private void resolveApproximateCounts() {
+
+        if (isApproximate()) {
+            uniqueCount = Math.min(distinctValuesSketch.estimate(), totalCount);
+            doPercentageCalculationsCommon();
+
+            topNValues = new TopNDataList(ProfilerConfiguration.NUMBER_OF_TOP_N_VALUES);
+            frequentValuesSketch.addTo(topNValues);
+        }
+    }
+
+
     /*
      * Do percentage calculations for common metrics
      */
@@ -239,6 +338,16 @@ public abstract class ColumnStatistics implements Serializable {
     }
 
 
+    /**
+     * Get the column schema
+     *
+     * @return field schema
+     */
+    public StructField getColumnField() {
+        return columnField;
+    }
+
+
     /**
      * Get null count
      *
@@ -265,6 +374,7 @@ public abstract class ColumnStatistics implements Serializable {
      * @return unique count
      */
     public long getUniqueCount() {
+        resolveApproximateCounts();
         return uniqueCount;
     }
 
@@ -275,6 +385,7 @@ public abstract class ColumnStatistics implements Serializable {
      * @return percentage of null values
      */
     public double getPercNullValues() {
+        resolveApproximateCounts();
         return percNullValues;
     }
 
@@ -285,6 +396,7 @@ public abstract class ColumnStatistics implements Serializable {
      * @return percentage of unique values
      */
     public double getPercUniqueValues() {
+        resolveApproximateCounts();
         return percUniqueValues;
     }
 
@@ -295,6 +407,7 @@ public abstract class ColumnStatistics implements Serializable {
      * @return percentage of duplicate values
      */
     public double getPercDuplicateValues() {
+        resolveApproximateCounts();
         return percDuplicateValues;
     }
 
@@ -305,6 +418,7 @@ public abstract class ColumnStatistics implements Serializable {
      * @return top n values
      */
     public TopNDataList getTopNValues() {
+        resolveApproximateCounts();
         return topNValues;
     }
 
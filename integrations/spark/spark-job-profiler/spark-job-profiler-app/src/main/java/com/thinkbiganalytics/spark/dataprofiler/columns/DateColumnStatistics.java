@@ -33,9 +33,10 @@ import java.util.ArrayList;
  * [Hive data type: DATE]
  */
 
-@SuppressWarnings("serial")
 public class DateColumnStatistics extends ColumnStatistics {
 
+    private static final long serialVersionUID = 1L;
+
     /* Date specific metrics */
     private Date maxDate;
     private Date minDate;
@@ -31,9 +31,10 @@ import java.util.ArrayList;
  * Class to hold profile statistics for columns of double data type <br>
  * [Hive data type: DOUBLE]
  */
-@SuppressWarnings("serial")
 public class DoubleColumnStatistics extends ColumnStatistics {
 
+    private static final long serialVersionUID = 1L;
+
     /* Double specific metrics */
     private double max;
     private double min;
@@ -31,9 +31,10 @@ import java.util.ArrayList;
  * Class to hold profile statistics for columns of float data type <br>
  * [Hive data type: FLOAT]
  */
-@SuppressWarnings("serial")
 public class FloatColumnStatistics extends ColumnStatistics {
 
+    private static final long serialVersionUID = 1L;
+
     /* Float specific metrics */
     private float max;
     private float min;
@@ -32,9 +32,10 @@ import java.util.ArrayList;
  * Class to hold profile statistics for columns of integer data type <br>
  * [Hive data type: INTEGER]
  */
-@SuppressWarnings("serial")
 public class IntegerColumnStatistics extends ColumnStatistics {
 
+    private static final long serialVersionUID = 1L;
+
     /* Integer specific metrics */
     private int max;
     private int min;
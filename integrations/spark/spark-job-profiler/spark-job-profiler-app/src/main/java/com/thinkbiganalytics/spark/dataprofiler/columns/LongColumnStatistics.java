@@ -31,9 +31,10 @@ import java.util.ArrayList;
  * Class to hold profile statistics for columns of integer data type <br>
  * [Hive data type: BIGINT]
  */
-@SuppressWarnings("serial")
 public class LongColumnStatistics extends ColumnStatistics {
 
+    private static final long serialVersionUID = 1L;
+
     /* Long specific metrics */
     private long max;
     private long min;
@@ -31,9 +31,10 @@ import java.util.ArrayList;
  * Class to hold profile statistics for columns of short data type <br>
  * [Hive data type: SMALLINT]
  */
-@SuppressWarnings("serial")
 public class ShortColumnStatistics extends ColumnStatistics {
 
+    private static final long serialVersionUID = 1L;
+
     /* Short specific metrics */
     private short max;
     private short min;
@@ -31,9 +31,10 @@ import java.util.ArrayList;
  * Class to hold profile statistics for columns of string data type <br>
  * [Hive data types: STRING, VARCHAR]
  */
-@SuppressWarnings("serial")
 public class StringColumnStatistics extends ColumnStatistics {
 
+    private static final long serialVersionUID = 1L;
+
     /* String specific metrics */
     private int maxLength;
     private int minLength;
@@ -36,9 +36,10 @@ import javax.annotation.Nullable;
  * Class to hold profile statistics for columns of timestamp data type <br>
  * [Hive data type: TIMESTAMP]
  */
-@SuppressWarnings("serial")
 public class TimestampColumnStatistics extends ColumnStatistics {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Records the maximum value of the column
      */
@@ -27,9 +27,10 @@ import org.apache.spark.sql.types.StructField;
  * Class to hold profile statistics for columns of unsupported data type<br>
  * [Hive data types: CHAR, BINARY, ARRAY, MAP, STRUCT, UNIONTYPE]
  */
-@SuppressWarnings("serial")
 public class UnsupportedColumnStatistics extends ColumnStatistics {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * One-argument constructor
      *
@@ -40,6 +40,9 @@ import com.thinkbiganalytics.spark.dataprofiler.model.SchemaInfo;
 import com.thinkbiganalytics.spark.dataprofiler.model.StatisticsModel;
 import com.thinkbiganalytics.spark.dataprofiler.output.OutputRow;
 import com.thinkbiganalytics.spark.dataprofiler.output.OutputWriter;
+import com.thinkbiganalytics.spark.dataprofiler.sketch.HyperLogLog;
+import com.thinkbiganalytics.spark.dataprofiler.sketch.SpaceSaving;
+import com.thinkbiganalytics.spark.dataprofiler.state.PartitionStateStore;
 import com.thinkbiganalytics.spark.dataprofiler.topn.TopNDataItem;
 import com.thinkbiganalytics.spark.dataprofiler.topn.TopNDataList;
 import com.thinkbiganalytics.spark.policy.FieldPolicyLoader;
@@ -58,6 +61,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -125,12 +129,29 @@ public class Profiler {
         log.info("[PROFILER-INFO] Analyzing profile statistics for: [" + queryString + "]");
         resultDF = sparkContextService.sql(hiveContext, queryString);
 
-        /* Update schema map and broadcast it*/
-        bSchemaMap = populateAndBroadcastSchemaMap(resultDF, sc);
+        StatisticsModel statisticsModel;
 
-        /* Get profile statistics and write to table */
-        StatisticsModel statisticsModel = profileStatistics(resultDF, bSchemaMap);
+        if (ProfilerConfiguration.PROFILE_WINDOW != null) {
+            /* Merge the stored partition states, and write to the table for the window */
+            statisticsModel = PartitionStateStore.mergeStates(resultDF);
+            ProfilerConfiguration.OUTPUT_TABLE_NAME = ProfilerConfiguration.OUTPUT_TABLE_NAME + "_" + ProfilerConfiguration.PROFILE_WINDOW;
+        } else {
+            /* Update schema map and broadcast it*/
+            bSchemaMap = populateAndBroadcastSchemaMap(resultDF, sc);
+
+            /* Get profile statistics, and keep the state of a processing partition for merging into windows */
+            statisticsModel = profileStatistics(resultDF, bSchemaMap);
+
+            if (statisticsModel != null && isKeepingPartitionState()) {
+                try {
+                    PartitionStateStore.writeState(statisticsModel, sc, hiveContext, sparkContextService);
+                } catch (IOException e) {
+                    log.error("[PROFILER-INFO] Unable to write partition state: " + e, e);
+                }
+            }
+        }
 
+        /* Write profile statistics to table */
         if (statisticsModel != null) {
             statisticsModel.writeModel(sc, hiveContext, sparkContextService);
         }
@@ -145,7 +166,20 @@ public class Profiler {
 
 
     public StatisticsModel profileStatistics(DataSet resultDF, Broadcast<Map<Integer, StructField>> bSchemaMap) {
-        return profilerStrategy.profileStatistics(resultDF, bSchemaMap);
+        if (ProfilerConfiguration.APPROXIMATE_PROFILE_MODE.equals(ProfilerConfiguration.PROFILE_MODE)) {
+            return profilerStrategy.profileApproximateStatistics(resultDF, bSchemaMap);
+        }
+        return profilerStrategy.profileStatistics(resultDF, bSchemaMap, isKeepingPartitionState());
+    }
+
+
+    /*
+     * Partition states are kept, if requested, when profiling a single processing partition
+     */
+    private boolean isKeepingPartitionState() {
+        return ProfilerConfiguration.KEEP_PARTITION_STATE
+               && ProfilerConfiguration.PROFILE_WINDOW == null
+               && !"ALL".equalsIgnoreCase(ProfilerConfiguration.INPUT_AND_OUTPUT_TABLE_PARTITION_KEY);
     }
 
 
@@ -164,6 +198,7 @@ public class Profiler {
         }
 
         String retVal;
+        String profileWindow = null;
 
         String profileObjectType = args[0];
         String profileObjectDesc = args[1];
@@ -178,6 +213,18 @@ public class Profiler {
             inputAndOutputTablePartitionKey = args[5];
         }
 
+        String profileMode = ProfilerConfiguration.EXACT_PROFILE_MODE;
+
+        if (args.length >= 7) {
+            profileMode = args[6];
+        }
+
+        String keepPartitionState = "false";
+
+        if (args.length >= 8) {
+            keepPartitionState = args[7];
+        }
+
         switch (profileObjectType) {
             case "table":
                 // Quote source table
@@ -204,6 +251,15 @@ public class Profiler {
             case "query":
                 retVal = profileObjectDesc;
                 break;
+            case "state":
+                if (!PartitionStateStore.isValidWindow(profileObjectDesc)) {
+                    log.error("Illegal command line argument for profile window (" + profileObjectDesc + ")");
+                    showCommandLineArgs();
+                    return null;
+                }
+                profileWindow = profileObjectDesc;
+                retVal = null;
+                break;
             default:
                 log.error("Illegal command line argument for object type (" + profileObjectType + ")");
                 showCommandLineArgs();
@@ -224,7 +280,32 @@ public class Profiler {
             return null;
         }
 
+        if (!ProfilerConfiguration.EXACT_PROFILE_MODE.equals(profileMode) && !ProfilerConfiguration.APPROXIMATE_PROFILE_MODE.equals(profileMode)) {
+            log.error("Illegal command line argument for profile mode (" + profileMode + ")");
+            showCommandLineArgs();
+            return null;
+        }
+
+        if (!"true".equalsIgnoreCase(keepPartitionState) && !"false".equalsIgnoreCase(keepPartitionState)) {
+            log.error("Illegal command line argument for keep state (" + keepPartitionState + ")");
+            showCommandLineArgs();
+            return null;
+        }
+
+        if (profileWindow != null) {
+            /* State table is named after the output table */
+            retVal = PartitionStateStore.getSelectStatesQuery(profileWindow, inputAndOutputTablePartitionKey);
+            if (retVal == null) {
+                log.error("Illegal command line argument for partition_key as end of profile window (" + inputAndOutputTablePartitionKey + ")");
+                showCommandLineArgs();
+                return null;
+            }
+        }
+
         ProfilerConfiguration.INPUT_AND_OUTPUT_TABLE_PARTITION_KEY = inputAndOutputTablePartitionKey;
+        ProfilerConfiguration.PROFILE_MODE = profileMode;
+        ProfilerConfiguration.PROFILE_WINDOW = profileWindow;
+        ProfilerConfiguration.KEEP_PARTITION_STATE = Boolean.parseBoolean(keepPartitionState);
 
         return retVal;
     }
@@ -281,6 +362,8 @@ public class Profiler {
         serializeClassesList.add(TopNDataList.class);
         serializeClassesList.add(OutputRow.class);
         serializeClassesList.add(OutputWriter.class);
+        serializeClassesList.add(HyperLogLog.class);
+        serializeClassesList.add(SpaceSaving.class);
 
         serializeClassesArray = new Class[serializeClassesList.size()];
         for (int i = 0; i < serializeClassesList.size(); i++) {
@@ -343,14 +426,16 @@ public class Profiler {
     private void showCommandLineArgs() {
 
         log.info("*** \nInfo: Required command line arguments:\n"
-                 + "1. object type: valid values are {table, query}\n"
-                 + "2. object description: valid values are {<database.table>, <query>}\n"
+                 + "1. object type: valid values are {table, query, state}\n"
+                 + "2. object description: valid values are {<database.table>, <query>} or, for state, the profile window {daily, weekly, alltime}\n"
                  + "3. n for top_n values: valid value is {<integer>}\n"
                  + "4. output table: valid values are {<table>, <database.table>}"
                  + "5. full path to policy file "
                  + "\n"
                  + "Info: Optional command line argument:\n"
-                 + "6. partition_key: valid value is {<string>}\n\n"
+                 + "6. partition_key: valid value is {<string>}, or for state the processing time the window ends at (ALL for alltime)\n"
+                 + "7. profile mode: valid values are {exact, approximate}\n"
+                 + "8. keep state: valid values are {true, false}. If true, the state of a processing partition is kept to merge into the daily, weekly and alltime windows\n\n"
                  + "(Note: Only alphanumeric and underscore characters for table names and partition key)"
                  + "\n***");
     }
@@ -104,6 +104,76 @@ public class ProfilerConfiguration {
     public static String OUTPUT_TABLE_PARTITION_COLUMN_NAME = "processing_dttm";
 
 
+    /**
+     * Profile mode that counts every distinct value exactly
+     */
+    public static final String EXACT_PROFILE_MODE = "exact";
+
+
+    /**
+     * Profile mode that estimates unique count and top-N values with sketches, without shuffling the distinct values
+     */
+    public static final String APPROXIMATE_PROFILE_MODE = "approximate";
+
+
+    /**
+     * Profile mode to run (exact or approximate)<br>
+     * An optional command line parameter
+     */
+    public static String PROFILE_MODE = EXACT_PROFILE_MODE;
+
+
+    /**
+     * Precision of the HyperLogLog sketch estimating unique count in approximate mode<br>
+     * 2^precision registers are kept per column, for a standard error of about 1.04 / sqrt(2^precision)
+     */
+    public static Integer APPROXIMATE_DISTINCT_PRECISION = 14;
+
+
+    /**
+     * Number of values tracked per column for top-N values in approximate mode
+     */
+    public static Integer APPROXIMATE_TOP_N_CAPACITY = 500;
+
+
+    /**
+     * Suffix of the table, named after the output table, that stores the mergeable statistics of each processing partition
+     */
+    public static final String STATE_TABLE_SUFFIX = "_state";
+
+
+    /**
+     * Profile window merging the partition states of the last day
+     */
+    public static final String DAILY_PROFILE_WINDOW = "daily";
+
+
+    /**
+     * Profile window merging the partition states of the last week
+     */
+    public static final String WEEKLY_PROFILE_WINDOW = "weekly";
+
+
+    /**
+     * Profile window merging the states of all partitions
+     */
+    public static final String ALL_TIME_PROFILE_WINDOW = "alltime";
+
+
+    /**
+     * Keep the mergeable state of a profiled processing partition in the state table<br>
+     * An optional command line parameter, off by default
+     */
+    public static Boolean KEEP_PARTITION_STATE = false;
+
+
+    /**
+     * Window of stored partition states to merge (daily, weekly or alltime)<br>
+     * Null when profiling the data itself
+     */
+    public static String PROFILE_WINDOW = null;
+
+
     /* no instantiation */
     private ProfilerConfiguration() {
 
@@ -125,6 +195,11 @@ public class ProfilerConfiguration {
         INPUT_AND_OUTPUT_TABLE_PARTITION_KEY = "partitionKey";
         INPUT_TABLE_PARTITION_COLUMN_NAME = "processing_dttm";
         OUTPUT_TABLE_PARTITION_COLUMN_NAME = "processing_dttm";
+        PROFILE_MODE = EXACT_PROFILE_MODE;
+        APPROXIMATE_DISTINCT_PRECISION = 14;
+        APPROXIMATE_TOP_N_CAPACITY = 500;
+        KEEP_PARTITION_STATE = false;
+        PROFILE_WINDOW = null;
     }
 
 }
@@ -38,7 +38,17 @@ public interface ProfilerStrategy {
      *
      * @param set        data frame to analyze
      * @param bSchemaMap schema map for schema lookup
+     * @param mergeable  true to also keep sketches of the column values, so the statistics can be merged with those of other partitions
      * @return StatisticsModel
      */
-    StatisticsModel profileStatistics(DataSet set, Broadcast<Map<Integer, StructField>> bSchemaMap);
+    StatisticsModel profileStatistics(DataSet set, Broadcast<Map<Integer, StructField>> bSchemaMap, boolean mergeable);
+
+    /**
+     * Profile statistics for data frame in a single pass over the rows, estimating unique count and top-N values with sketches
+     *
+     * @param set        data frame to analyze
+     * @param bSchemaMap schema map for schema lookup
+     * @return StatisticsModel, or null if there is no data
+     */
+    StatisticsModel profileApproximateStatistics(DataSet set, Broadcast<Map<Integer, StructField>> bSchemaMap);
 }
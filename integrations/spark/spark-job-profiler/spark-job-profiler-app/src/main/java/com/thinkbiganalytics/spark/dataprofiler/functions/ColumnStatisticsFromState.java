@@ -0,0 +1,47 @@
+package com.thinkbiganalytics.spark.dataprofiler.functions;
+
+/*-
+ * #%L
+ * thinkbig-spark-job-profiler-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.spark.dataprofiler.columns.ColumnStatistics;
+import com.thinkbiganalytics.spark.dataprofiler.state.PartitionStateStore;
+
+import org.apache.spark.api.java.function.PairFunction;
+import org.apache.spark.sql.Row;
+
+import scala.Tuple2;
+
+/**
+ * Get (column name, column statistics) from a stored partition state row
+ */
+@SuppressWarnings("serial")
+public class ColumnStatisticsFromState implements PairFunction<Row, String, ColumnStatistics> {
+
+    @Override
+    public Tuple2<String, ColumnStatistics> call(Row row) throws Exception {
+
+        ColumnStatistics columnStatistics = PartitionStateStore.deserialize(row.getString(1));
+
+        /* Unique count and top-N of values seen in several partitions can only be estimated from the sketches */
+        columnStatistics.useApproximateCounts();
+
+        return new Tuple2<>(row.getString(0), columnStatistics);
+    }
+}
@@ -0,0 +1,40 @@
+package com.thinkbiganalytics.spark.dataprofiler.functions;
+
+/*-
+ * #%L
+ * thinkbig-spark-job-profiler-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.spark.dataprofiler.columns.ColumnStatistics;
+
+import org.apache.spark.api.java.function.Function2;
+
+/**
+ * Combine the statistics of a column from two processing partitions
+ */
+
+@SuppressWarnings("serial")
+public class CombineColumnStatistics implements Function2<ColumnStatistics, ColumnStatistics, ColumnStatistics> {
+
+    public ColumnStatistics call(ColumnStatistics columnStatistics1, ColumnStatistics columnStatistics2) throws Exception {
+
+        columnStatistics1.combine(columnStatistics2);
+
+        return columnStatistics1;
+    }
+}
@@ -37,6 +37,7 @@ import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerSparkContextService
 import com.thinkbiganalytics.spark.dataprofiler.output.OutputWriter;
 
 import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.sql.Row;
 import org.apache.spark.sql.hive.HiveContext;
 import org.apache.spark.sql.types.DataType;
 import org.apache.spark.sql.types.StructField;
@@ -56,6 +57,53 @@ public class StatisticsModel implements Serializable {
 
     private static final Logger log = LoggerFactory.getLogger(StatisticsModel.class);
     private final Map<Integer, ColumnStatistics> columnStatisticsMap = new HashMap<>();
+    private final boolean approximate;
+    private final boolean mergeable;
+
+
+    /**
+     * Create a model that counts distinct values exactly
+     */
+    public StatisticsModel() {
+        this(false);
+    }
+
+
+    /**
+     * Create a model
+     *
+     * @param approximate true to estimate unique count and top n values with sketches
+     */
+    public StatisticsModel(boolean approximate) {
+        this(approximate, approximate);
+    }
+
+
+    /**
+     * Create a model
+     *
+     * @param approximate true to estimate unique count and top n values with sketches
+     * @param mergeable   true to keep sketches of the column values, so the statistics can be merged with those of other partitions
+     */
+    public StatisticsModel(boolean approximate, boolean mergeable) {
+        this.approximate = approximate;
+        this.mergeable = mergeable;
+    }
+
+
+    /**
+     * Include every column value of a row in calculation of profile statistics, each counted once
+     *
+     * @param row       row of the table
+     * @param schemaMap schema information of each column, by column index
+     */
+    public void addRow(Row row, Map<Integer, StructField> schemaMap) {
+
+        for (int i = 0; i < row.length(); i++) {
+            add(i, row.get(i), 1L, schemaMap.get(i));
+        }
+    }
+
 
     /**
      * Include a column value in calculation of profile statistics for the column
@@ -67,6 +115,45 @@ public class StatisticsModel implements Serializable {
      */
     public void add(Integer columnIndex, Object columnValue, Long columnCount, StructField columnField) {
 
+        ColumnStatistics currentColumnStatistics = columnStatisticsMap.get(columnIndex);
+
+        if (currentColumnStatistics == null) {
+            currentColumnStatistics = newColumnStatistics(columnField);
+            if (approximate) {
+                currentColumnStatistics.useApproximateCounts();
+            } else if (mergeable) {
+                currentColumnStatistics.keepMergeableState();
+            }
+            columnStatisticsMap.put(columnIndex, currentColumnStatistics);
+        }
+
+        currentColumnStatistics.accomodate(columnValue, columnCount);
+    }
+
+
+    /**
+     * Include the statistics of a column, combining with the statistics already held for the column
+     *
+     * @param columnIndex      numeric index of column (0-based)
+     * @param columnStatistics statistics of the column
+     */
+    public void add(Integer columnIndex, ColumnStatistics columnStatistics) {
+
+        ColumnStatistics currentColumnStatistics = columnStatisticsMap.get(columnIndex);
+
+        if (currentColumnStatistics != null) {
+            currentColumnStatistics.combine(columnStatistics);
+        } else {
+            columnStatisticsMap.put(columnIndex, columnStatistics);
+        }
+    }
+
+
+    /*
+     * Create the column statistics for the data type of the column
+     */
+    private ColumnStatistics newColumnStatistics(StructField columnField) {
+
         ColumnStatistics newColumnStatistics;
         DataType columnDataType = columnField.dataType();
 
@@ -211,12 +298,7 @@ public class StatisticsModel implements Serializable {
                 }
         }
 
-        if (!columnStatisticsMap.containsKey(columnIndex)) {
-            columnStatisticsMap.put(columnIndex, newColumnStatistics);
-        }
-
-        ColumnStatistics currentColumnStatistics = columnStatisticsMap.get(columnIndex);
-        currentColumnStatistics.accomodate(columnValue, columnCount);
+        return newColumnStatistics;
     }
 
 
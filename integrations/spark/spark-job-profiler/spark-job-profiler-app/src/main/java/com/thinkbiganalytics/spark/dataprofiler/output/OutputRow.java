@@ -28,9 +28,10 @@ import java.io.Serializable;
  *
  * ColumnName, MetricType, MetricValue
  */
-@SuppressWarnings("serial")
 public class OutputRow implements Serializable {
 
+    private static final long serialVersionUID = 1L;
+
     private String columnName;
     private String metricType;
     private String metricValue;
@@ -40,13 +40,14 @@ import java.util.List;
 /**
  * Class to write profile statistics result to Hive table
  */
-@SuppressWarnings("serial")
 public class OutputWriter implements Serializable {
 
+    private static final long serialVersionUID = 1L;
+
     private static final List<OutputRow> outputRows = new ArrayList<>();
     private static OutputWriter outputWriter = null;
-    private JavaSparkContext sc = null;
-    private HiveContext hiveContext = null;
+    private transient JavaSparkContext sc = null;
+    private transient HiveContext hiveContext = null;
 
 
     /* no direct instantiation */
@@ -0,0 +1,160 @@
+package com.thinkbiganalytics.spark.dataprofiler.sketch;
+
+/*-
+ * #%L
+ * thinkbig-spark-job-profiler-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HyperLogLog sketch to estimate the number of distinct values in a column<br>
+ * Sketches built on different partitions are merged by taking the maximum of each register.
+ */
+public class HyperLogLog implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /* Hash used for null, which is counted as a distinct value */
+    private static final long NULL_HASH = 0x9E3779B97F4A7C15L;
+
+    private final int precision;
+    private final byte[] registers;
+
+
+    /**
+     * Constructor to set the precision
+     *
+     * @param precision number of bits used to select a register (4 to 18). The standard error is about 1.04 / sqrt(2^precision).
+     */
+    public HyperLogLog(int precision) {
+
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precision must be between 4 and 18: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+
+    /**
+     * Include a value in the sketch
+     *
+     * @param value column value (may be null)
+     */
+    public void add(Object value) {
+
+        long hash = hash(value);
+        int index = (int) (hash >>> (64 - precision));
+        /* Set a sentinel bit so the rank is bounded when the remaining bits are all zero */
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+
+        if (registers[index] < rank) {
+            registers[index] = rank;
+        }
+    }
+
+
+    /**
+     * Merge another sketch with the same precision into this one
+     *
+     * @param other sketch to merge
+     */
+    public void merge(HyperLogLog other) {
+
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches with different precision: " + precision + " and " + other.precision);
+        }
+
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] < other.registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+
+    /**
+     * Get the estimated number of distinct values
+     *
+     * @return estimated distinct count
+     */
+    public long estimate() {
+
+        int m = registers.length;
+        double sum = 0.0d;
+        int zeros = 0;
+
+        for (byte register : registers) {
+            sum += 1.0d / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double alpha = 0.7213d / (1.0d + 1.079d / m);
+        double estimate = alpha * m * m / sum;
+
+        /* Linear counting is more accurate for small cardinalities */
+        if (estimate <= 2.5d * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+
+        return Math.round(estimate);
+    }
+
+
+    /*
+     * 64-bit hash of a column value
+     * Integral values hash on their numeric value, everything else on its string form (consistent with how values are grouped for exact counts)
+     */
+    static long hash(Object value) {
+
+        if (value == null) {
+            return NULL_HASH;
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return mix(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            return mix(Double.doubleToLongBits(((Number) value).doubleValue()));
+        } else {
+            /* FNV-1a over the UTF-8 bytes */
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : String.valueOf(value).getBytes(StandardCharsets.UTF_8)) {
+                hash ^= (b & 0xff);
+                hash *= 0x100000001b3L;
+            }
+            return mix(hash);
+        }
+    }
+
+
+    /*
+     * Finalization step of MurmurHash3 to spread the bits of the hash
+     */
+    private static long mix(long hash) {
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,151 @@
+package com.thinkbiganalytics.spark.dataprofiler.sketch;
+
+/*-
+ * #%L
+ * thinkbig-spark-job-profiler-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.spark.dataprofiler.topn.TopNDataList;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving summary to find the most frequent values in a column without counting every value<br>
+ * The summary keeps up to twice its capacity of candidate values. When it grows beyond that, it is pruned back to the capacity and the highest dropped count
+ * becomes the floor: the most a value that is not tracked could have been seen. Counts are over-estimated by at most the floor, and summaries built on
+ * different partitions are merged by adding counts, using the other summary's floor for values it does not track.
+ */
+public class SpaceSaving implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Comparator<Map.Entry<Object, Long>> BY_COUNT_DESCENDING = new Comparator<Map.Entry<Object, Long>>() {
+        @Override
+        public int compare(Map.Entry<Object, Long> e1, Map.Entry<Object, Long> e2) {
+            return Long.compare(e2.getValue(), e1.getValue());
+        }
+    };
+
+    private final int capacity;
+    private HashMap<Object, Long> counts = new HashMap<>();
+    private long floor = 0L;
+
+
+    /**
+     * Constructor to set the number of values tracked
+     *
+     * @param capacity number of candidate values to keep (should be well above N in top-N)
+     */
+    public SpaceSaving(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+
+    /**
+     * Include a value and its count
+     *
+     * @param value column value (may be null)
+     * @param count count/frequency
+     */
+    public void add(Object value, long count) {
+
+        Long current = counts.get(value);
+        counts.put(value, (current != null ? current : floor) + count);
+
+        if (counts.size() > 2 * capacity) {
+            prune();
+        }
+    }
+
+
+    /**
+     * Merge another summary into this one
+     *
+     * @param other summary to merge
+     */
+    public void merge(SpaceSaving other) {
+
+        HashMap<Object, Long> merged = new HashMap<>(Math.max(counts.size(), other.counts.size()) * 2);
+
+        for (Map.Entry<Object, Long> entry : counts.entrySet()) {
+            Long otherCount = other.counts.get(entry.getKey());
+            merged.put(entry.getKey(), entry.getValue() + (otherCount != null ? otherCount : other.floor));
+        }
+        for (Map.Entry<Object, Long> entry : other.counts.entrySet()) {
+            if (!counts.containsKey(entry.getKey())) {
+                merged.put(entry.getKey(), entry.getValue() + floor);
+            }
+        }
+
+        counts = merged;
+        floor += other.floor;
+
+        if (counts.size() > capacity) {
+            prune();
+        }
+    }
+
+
+    /**
+     * Add the most frequent values to a top-N list
+     *
+     * @param topNDataList list to populate
+     */
+    public void addTo(TopNDataList topNDataList) {
+
+        for (Map.Entry<Object, Long> entry : sortedEntries()) {
+            topNDataList.add(entry.getKey(), entry.getValue());
+        }
+    }
+
+
+    /*
+     * Keep the values with the highest counts and raise the floor to the highest dropped count
+     */
+    private void prune() {
+
+        List<Map.Entry<Object, Long>> entries = sortedEntries();
+        HashMap<Object, Long> kept = new HashMap<>(capacity * 4);
+
+        for (int i = 0; i < entries.size(); i++) {
+            Map.Entry<Object, Long> entry = entries.get(i);
+            if (i < capacity) {
+                kept.put(entry.getKey(), entry.getValue());
+            } else {
+                floor = Math.max(floor, entry.getValue());
+                break;
+            }
+        }
+
+        counts = kept;
+    }
+
+
+    private List<Map.Entry<Object, Long>> sortedEntries() {
+
+        List<Map.Entry<Object, Long>> entries = new ArrayList<>(counts.entrySet());
+        Collections.sort(entries, BY_COUNT_DESCENDING);
+        return entries;
+    }
+}
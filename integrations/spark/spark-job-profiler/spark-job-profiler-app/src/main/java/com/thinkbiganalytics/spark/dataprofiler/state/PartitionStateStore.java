@@ -0,0 +1,246 @@
+package com.thinkbiganalytics.spark.dataprofiler.state;
+
+/*-
+ * #%L
+ * thinkbig-spark-job-profiler-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.hive.util.HiveUtils;
+import com.thinkbiganalytics.spark.DataSet;
+import com.thinkbiganalytics.spark.dataprofiler.columns.ColumnStatistics;
+import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerConfiguration;
+import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerSparkContextService;
+import com.thinkbiganalytics.spark.dataprofiler.functions.ColumnStatisticsFromState;
+import com.thinkbiganalytics.spark.dataprofiler.functions.CombineColumnStatistics;
+import com.thinkbiganalytics.spark.dataprofiler.model.StatisticsModel;
+import com.thinkbiganalytics.spark.dataprofiler.output.OutputRow;
+
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.sql.hive.HiveContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.xml.bind.DatatypeConverter;
+
+import scala.Tuple2;
+
+/**
+ * Stores the statistics of each column per processing partition, in a serialized form that can be merged with other partitions.<br>
+ * States are kept in a Hive table named after the output table, and merged into daily, weekly or all-time profiles without reading the profiled data again.
+ */
+public class PartitionStateStore {
+
+    /* Length of the windows, in the milliseconds of the processing partition keys */
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final long WEEK_MILLIS = 7 * DAY_MILLIS;
+
+    /* Version of the serialized state, written before the statistics. Increment when the serialized form of the statistics changes incompatibly. */
+    static final int STATE_FORMAT_VERSION = 1;
+
+    /* no instantiation */
+    private PartitionStateStore() {
+    }
+
+
+    /**
+     * Get the name of the table holding partition states for the output table
+     *
+     * @param outputTableName name of the output table
+     * @return name of the state table
+     */
+    public static String getStateTableName(String outputTableName) {
+        return outputTableName + ProfilerConfiguration.STATE_TABLE_SUFFIX;
+    }
+
+
+    /**
+     * Check if a profile window is supported
+     *
+     * @param window profile window
+     * @return true if one of daily, weekly or alltime
+     */
+    public static boolean isValidWindow(String window) {
+        return ProfilerConfiguration.DAILY_PROFILE_WINDOW.equals(window)
+               || ProfilerConfiguration.WEEKLY_PROFILE_WINDOW.equals(window)
+               || ProfilerConfiguration.ALL_TIME_PROFILE_WINDOW.equals(window);
+    }
+
+
+    /**
+     * Get the query selecting the states of the partitions in a window
+     *
+     * @param window       daily, weekly or alltime
+     * @param windowEndKey partition key (processing time in milliseconds) at which the window ends, inclusive
+     * @return query returning (column name, state) rows, or null if the window end is not a valid processing time
+     */
+    public static String getSelectStatesQuery(String window, String windowEndKey) {
+
+        String partitionColumn = HiveUtils.quoteIdentifier(ProfilerConfiguration.OUTPUT_TABLE_PARTITION_COLUMN_NAME);
+        String query = "SELECT columnname, state FROM "
+                       + HiveUtils.quoteIdentifier(ProfilerConfiguration.OUTPUT_DB_NAME, getStateTableName(ProfilerConfiguration.OUTPUT_TABLE_NAME));
+
+        if (ProfilerConfiguration.ALL_TIME_PROFILE_WINDOW.equals(window) && "ALL".equalsIgnoreCase(windowEndKey)) {
+            return query;
+        }
+
+        long windowEnd;
+        try {
+            windowEnd = Long.parseLong(windowEndKey);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        query += " WHERE CAST(" + partitionColumn + " AS BIGINT) <= " + windowEnd;
+
+        if (ProfilerConfiguration.DAILY_PROFILE_WINDOW.equals(window)) {
+            query += " AND CAST(" + partitionColumn + " AS BIGINT) > " + (windowEnd - DAY_MILLIS);
+        } else if (ProfilerConfiguration.WEEKLY_PROFILE_WINDOW.equals(window)) {
+            query += " AND CAST(" + partitionColumn + " AS BIGINT) > " + (windowEnd - WEEK_MILLIS);
+        }
+
+        return query;
+    }
+
+
+    /**
+     * Merge the states of several partitions into a single model
+     *
+     * @param states (column name, state) rows
+     * @return merged model, or null if there are no states
+     */
+    public static StatisticsModel mergeStates(DataSet states) {
+
+        List<Tuple2<String, ColumnStatistics>> columns = states
+            .javaRDD()
+            .mapToPair(new ColumnStatisticsFromState())
+            .reduceByKey(new CombineColumnStatistics())
+            .collect();
+
+        if (columns.isEmpty()) {
+            return null;
+        }
+
+        /* Order columns by name, since partitions may have profiled the columns in different orders */
+        Map<String, ColumnStatistics> columnsByName = new TreeMap<>();
+        for (Tuple2<String, ColumnStatistics> column : columns) {
+            columnsByName.put(column._1(), column._2());
+        }
+
+        StatisticsModel statisticsModel = new StatisticsModel(true);
+        int columnIndex = 0;
+        for (ColumnStatistics columnStatistics : columnsByName.values()) {
+            statisticsModel.add(columnIndex++, columnStatistics);
+        }
+
+        return statisticsModel;
+    }
+
+
+    /**
+     * Write the state of each column of a model to the state table, replacing any state already stored for the partition
+     *
+     * @param statisticsModel model built with a mergeable state
+     * @param sc              JavaSparkContext
+     * @param hiveContext     HiveContext
+     * @param scs             ProfilerSparkContextService
+     * @throws IOException if a column state cannot be serialized
+     */
+    public static void writeState(StatisticsModel statisticsModel, JavaSparkContext sc, HiveContext hiveContext, ProfilerSparkContextService scs) throws IOException {
+
+        List<OutputRow> stateRows = new ArrayList<>();
+        for (ColumnStatistics columnStatistics : statisticsModel.getColumnStatisticsMap().values()) {
+            stateRows.add(new OutputRow(columnStatistics.getColumnField().name(),
+                                        columnStatistics.getColumnField().dataType().simpleString(),
+                                        serialize(columnStatistics)));
+        }
+
+        String stateTable = getStateTableName(ProfilerConfiguration.OUTPUT_TABLE_NAME);
+        String qualifiedStateTable = HiveUtils.quoteIdentifier(ProfilerConfiguration.OUTPUT_DB_NAME, stateTable);
+
+        JavaRDD<OutputRow> stateRowsRDD = sc.parallelize(stateRows);
+        DataSet stateRowsDF = scs.toDataSet(hiveContext, stateRowsRDD, OutputRow.class);
+
+        // Since Spark doesn't support partitions, write to temp table, then write to partitioned table
+        String tempTable = stateTable + "_" + System.currentTimeMillis();
+        stateRowsDF.registerTempTable(tempTable);
+
+        scs.sql(hiveContext, "CREATE TABLE IF NOT EXISTS " + qualifiedStateTable + "\n"
+                             + "(columnname STRING, datatype STRING, state STRING)\n"
+                             + "PARTITIONED BY (" + ProfilerConfiguration.OUTPUT_TABLE_PARTITION_COLUMN_NAME + " STRING)\n"
+                             + "STORED AS TEXTFILE");
+
+        scs.sql(hiveContext, "INSERT OVERWRITE TABLE " + qualifiedStateTable
+                             + " PARTITION (" + HiveUtils.quoteIdentifier(ProfilerConfiguration.OUTPUT_TABLE_PARTITION_COLUMN_NAME) + "="
+                             + HiveUtils.quoteString(ProfilerConfiguration.INPUT_AND_OUTPUT_TABLE_PARTITION_KEY) + ")"
+                             + " SELECT columnname,metrictype,metricvalue FROM " + HiveUtils.quoteIdentifier(tempTable));
+
+        System.out.println("[PROFILER-INFO] Partition state written to Hive table: "
+                           + ProfilerConfiguration.OUTPUT_DB_NAME + "." + stateTable
+                           + " Partition: (" + ProfilerConfiguration.OUTPUT_TABLE_PARTITION_COLUMN_NAME + "='" + ProfilerConfiguration.INPUT_AND_OUTPUT_TABLE_PARTITION_KEY + "')"
+                           + " [" + stateRows.size() + " rows]");
+    }
+
+
+    /**
+     * Serialize the statistics of a column, preceded by the version of the state format
+     *
+     * @param columnStatistics statistics of the column
+     * @return Base64 encoded state
+     * @throws IOException if the statistics cannot be serialized
+     */
+    public static String serialize(ColumnStatistics columnStatistics) throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeInt(STATE_FORMAT_VERSION);
+            out.writeObject(columnStatistics);
+        }
+        return DatatypeConverter.printBase64Binary(bytes.toByteArray());
+    }
+
+
+    /**
+     * Deserialize the statistics of a column
+     *
+     * @param state Base64 encoded state
+     * @return statistics of the column
+     * @throws IOException            if the state cannot be read, or was written in another version of the state format
+     * @throws ClassNotFoundException if the state refers to an unknown class
+     */
+    public static ColumnStatistics deserialize(String state) throws IOException, ClassNotFoundException {
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(DatatypeConverter.parseBase64Binary(state)))) {
+            int version = in.readInt();
+            if (version != STATE_FORMAT_VERSION) {
+                throw new InvalidClassException("Unsupported partition state version " + version + ", expected " + STATE_FORMAT_VERSION
+                                                + ". Profile the partition again to replace its state.");
+            }
+            return (ColumnStatistics) in.readObject();
+        }
+    }
+}
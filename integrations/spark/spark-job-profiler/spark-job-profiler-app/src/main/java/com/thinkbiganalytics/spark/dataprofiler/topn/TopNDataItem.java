@@ -27,9 +27,10 @@ import javax.annotation.Nonnull;
 /**
  * Class for an item in Top-N list<br>*
  */
-@SuppressWarnings("serial")
 public class TopNDataItem implements Serializable, Comparable<TopNDataItem> {
 
+    private static final long serialVersionUID = 1L;
+
     private Object value;
     private Long count;
 
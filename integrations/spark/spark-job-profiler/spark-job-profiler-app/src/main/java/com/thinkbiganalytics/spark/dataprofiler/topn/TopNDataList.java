@@ -29,9 +29,10 @@ import java.util.TreeSet;
 /**
  * Class to store top-N items<br>
  */
-@SuppressWarnings("serial")
 public class TopNDataList implements Serializable {
 
+    private static final long serialVersionUID = 1L;
+
     private final TreeSet<TopNDataItem> topNDataItemsForColumn;
     private int maxSize = ProfilerConfiguration.NUMBER_OF_TOP_N_VALUES;
     private Long lowestCountSoFar = Long.MAX_VALUE;
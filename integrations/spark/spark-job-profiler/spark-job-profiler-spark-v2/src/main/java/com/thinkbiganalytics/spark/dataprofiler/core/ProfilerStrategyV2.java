@@ -23,6 +23,7 @@ package com.thinkbiganalytics.spark.dataprofiler.core;
 import com.thinkbiganalytics.spark.DataSet;
 import com.thinkbiganalytics.spark.dataprofiler.functions.CombineModels;
 import com.thinkbiganalytics.spark.dataprofiler.functions.IndividualColumnValueCounts;
+import com.thinkbiganalytics.spark.dataprofiler.functions.PartitionLevelApproximateModels;
 import com.thinkbiganalytics.spark.dataprofiler.functions.PartitionLevelModels;
 import com.thinkbiganalytics.spark.dataprofiler.functions.TotalColumnValueCounts;
 import com.thinkbiganalytics.spark.dataprofiler.model.StatisticsModel;
@@ -44,7 +45,7 @@ import scala.Tuple2;
 public class ProfilerStrategyV2 implements ProfilerStrategy {
 
     @Override
-    public StatisticsModel profileStatistics(DataSet set, Broadcast<Map<Integer, StructField>> bSchemaMap) {
+    public StatisticsModel profileStatistics(DataSet set, Broadcast<Map<Integer, StructField>> bSchemaMap, boolean mergeable) {
         JavaPairRDD<Tuple2<Integer, Object>, Integer> columnValueCounts;
         StatisticsModel profileStatisticsModel = null;
 
@@ -55,7 +56,23 @@ public class ProfilerStrategyV2 implements ProfilerStrategy {
             .reduceByKey(new TotalColumnValueCounts());
 
         /* Generate the profile model */
-        JavaRDD<StatisticsModel> partitionLevelModels = columnValueCounts.mapPartitions(new PartitionLevelModels(bSchemaMap));
+        JavaRDD<StatisticsModel> partitionLevelModels = columnValueCounts.mapPartitions(new PartitionLevelModels(bSchemaMap, mergeable));
+
+        if (!partitionLevelModels.isEmpty()) {
+            profileStatisticsModel = partitionLevelModels.reduce(new CombineModels());
+        }
+
+        return profileStatisticsModel;
+    }
+
+    @Override
+    public StatisticsModel profileApproximateStatistics(DataSet set, Broadcast<Map<Integer, StructField>> bSchemaMap) {
+        StatisticsModel profileStatisticsModel = null;
+
+        /* Generate the profile model straight from the rows, with no shuffle of column values */
+        JavaRDD<StatisticsModel> partitionLevelModels = set
+            .javaRDD()
+            .mapPartitions(new PartitionLevelApproximateModels(bSchemaMap));
 
         if (!partitionLevelModels.isEmpty()) {
             profileStatisticsModel = partitionLevelModels.reduce(new CombineModels());
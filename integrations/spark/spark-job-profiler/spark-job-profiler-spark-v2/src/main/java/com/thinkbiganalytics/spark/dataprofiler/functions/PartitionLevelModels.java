@@ -42,15 +42,22 @@ public class PartitionLevelModels implements
                                   FlatMapFunction<Iterator<Tuple2<Tuple2<Integer, Object>, Integer>>, StatisticsModel> {
 
     private Map<Integer, StructField> schemaMap = new HashMap<>();
+    private boolean mergeable;
 
 
     public PartitionLevelModels(Broadcast<Map<Integer, StructField>> bSchemaMap) {
+        this(bSchemaMap, false);
+    }
+
+
+    public PartitionLevelModels(Broadcast<Map<Integer, StructField>> bSchemaMap, boolean mergeable) {
         schemaMap = bSchemaMap.value();
+        this.mergeable = mergeable;
     }
 
     @Override
     public Iterator<StatisticsModel> call(Iterator<Tuple2<Tuple2<Integer, Object>, Integer>> iter) throws Exception {
-        StatisticsModel statisticsModel = new StatisticsModel();
+        StatisticsModel statisticsModel = new StatisticsModel(false, mergeable);
 
         while (iter.hasNext()) {
             Tuple2<Tuple2<Integer, Object>, Integer> item = iter.next();
@@ -0,0 +1,142 @@
+package com.thinkbiganalytics.spark.dataprofiler.testcases;
+
+/*-
+ * #%L
+ * thinkbig-spark-job-profiler-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.spark.dataprofiler.columns.StringColumnStatistics;
+import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerTest;
+import com.thinkbiganalytics.spark.dataprofiler.model.StatisticsModel;
+import com.thinkbiganalytics.spark.dataprofiler.sketch.HyperLogLog;
+import com.thinkbiganalytics.spark.dataprofiler.sketch.SpaceSaving;
+import com.thinkbiganalytics.spark.dataprofiler.topn.TopNDataItem;
+import com.thinkbiganalytics.spark.dataprofiler.topn.TopNDataList;
+
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Iterator;
+
+/**
+ * Approximate (sketch-based) profiling Test Case 1
+ */
+public class ApproximateCase1Test extends ProfilerTest {
+
+    @BeforeClass
+    public static void setUpClass() {
+        System.out.println("\t*** Starting run for ApproximateCase1Test ***");
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        System.out.println("\t*** Completed run for ApproximateCase1Test ***");
+    }
+
+    @Test
+    public void testDistinctEstimate() {
+        HyperLogLog sketch = new HyperLogLog(14);
+        for (int i = 0; i < 100000; i++) {
+            sketch.add("value-" + i);
+            sketch.add("value-" + i);
+        }
+
+        Assert.assertEquals(100000.0d, sketch.estimate(), 100000 * 0.03d);
+    }
+
+    @Test
+    public void testDistinctEstimateSmall() {
+        HyperLogLog sketch = new HyperLogLog(14);
+        sketch.add("Cat");
+        sketch.add("Zebra");
+        sketch.add("Cat");
+        sketch.add(null);
+
+        Assert.assertEquals(3L, sketch.estimate());
+    }
+
+    @Test
+    public void testDistinctEstimateMerge() {
+        HyperLogLog sketch1 = new HyperLogLog(12);
+        HyperLogLog sketch2 = new HyperLogLog(12);
+        for (long i = 0; i < 60000; i++) {
+            sketch1.add(i);
+        }
+        for (long i = 40000; i < 100000; i++) {
+            sketch2.add(i);
+        }
+        sketch1.merge(sketch2);
+
+        Assert.assertEquals(100000.0d, sketch1.estimate(), 100000 * 0.06d);
+    }
+
+    @Test
+    public void testFrequentValuesMerge() {
+        SpaceSaving summary1 = new SpaceSaving(10);
+        SpaceSaving summary2 = new SpaceSaving(10);
+        for (int i = 0; i < 1000; i++) {
+            summary1.add("rare-" + i, 1L);
+            summary2.add("rare-" + (i + 1000), 1L);
+        }
+        summary1.add("A", 500L);
+        summary2.add("A", 300L);
+        summary1.add("B", 400L);
+        summary2.add("C", 350L);
+        summary1.merge(summary2);
+
+        TopNDataList topNList = new TopNDataList(3);
+        summary1.addTo(topNList);
+        Iterator<TopNDataItem> iterator = topNList.getTopNDataItemsForColumn().descendingIterator();
+
+        Assert.assertEquals("A", iterator.next().getValue());
+        Assert.assertEquals("B", iterator.next().getValue());
+        Assert.assertEquals("C", iterator.next().getValue());
+    }
+
+    @Test
+    public void testApproximateColumnStatistics() {
+        StructField field = DataTypes.createStructField("favoritepet", DataTypes.StringType, true);
+
+        StatisticsModel model1 = new StatisticsModel(true);
+        model1.add(0, "Cat", 1L, field);
+        model1.add(0, "Zebra", 1L, field);
+        model1.add(0, "Cat", 1L, field);
+
+        StatisticsModel model2 = new StatisticsModel(true);
+        model2.add(0, "Cat", 1L, field);
+        model2.add(0, null, 1L, field);
+
+        model1.combine(model2);
+        StringColumnStatistics stats = (StringColumnStatistics) model1.getColumnStatisticsMap().get(0);
+
+        Assert.assertTrue(stats.isApproximate());
+        Assert.assertEquals(5L, stats.getTotalCount());
+        Assert.assertEquals(3L, stats.getUniqueCount());
+        Assert.assertEquals(1L, stats.getNullCount());
+        Assert.assertEquals(20.0d, stats.getPercNullValues(), epsilon);
+        Assert.assertEquals("Zebra", stats.getLongestString());
+
+        TopNDataItem top = stats.getTopNValues().getTopNDataItemsForColumn().last();
+        Assert.assertEquals("Cat", top.getValue());
+        Assert.assertEquals(Long.valueOf(3), top.getCount());
+    }
+}
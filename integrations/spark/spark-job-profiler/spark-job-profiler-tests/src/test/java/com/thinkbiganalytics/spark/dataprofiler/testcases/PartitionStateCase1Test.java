@@ -0,0 +1,120 @@
+package com.thinkbiganalytics.spark.dataprofiler.testcases;
+
+/*-
+ * #%L
+ * thinkbig-spark-job-profiler-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.spark.dataprofiler.columns.ColumnStatistics;
+import com.thinkbiganalytics.spark.dataprofiler.columns.StringColumnStatistics;
+import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerConfiguration;
+import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerTest;
+import com.thinkbiganalytics.spark.dataprofiler.model.StatisticsModel;
+import com.thinkbiganalytics.spark.dataprofiler.state.PartitionStateStore;
+import com.thinkbiganalytics.spark.dataprofiler.topn.TopNDataItem;
+
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+
+import javax.xml.bind.DatatypeConverter;
+
+/**
+ * Partition State Test Case 1
+ */
+public class PartitionStateCase1Test extends ProfilerTest {
+
+    @BeforeClass
+    public static void setUpClass() {
+        System.out.println("\t*** Starting run for PartitionStateCase1Test ***");
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        System.out.println("\t*** Completed run for PartitionStateCase1Test ***");
+    }
+
+    @Test
+    public void testMergePartitionStates() throws Exception {
+        StructField field = DataTypes.createStructField("favoritepet", DataTypes.StringType, true);
+
+        /* Exact statistics of two processing partitions sharing the value "Cat" */
+        StatisticsModel partition1 = new StatisticsModel(false, true);
+        partition1.add(0, "Cat", 2L, field);
+        partition1.add(0, "Zebra", 1L, field);
+
+        StatisticsModel partition2 = new StatisticsModel(false, true);
+        partition2.add(0, "Cat", 3L, field);
+        partition2.add(0, "Alpaca", 1L, field);
+
+        Assert.assertEquals(2L, partition1.getColumnStatisticsMap().get(0).getUniqueCount());
+
+        ColumnStatistics merged = PartitionStateStore.deserialize(PartitionStateStore.serialize(partition1.getColumnStatisticsMap().get(0)));
+        ColumnStatistics other = PartitionStateStore.deserialize(PartitionStateStore.serialize(partition2.getColumnStatisticsMap().get(0)));
+        merged.useApproximateCounts();
+        other.useApproximateCounts();
+        merged.combine(other);
+
+        Assert.assertTrue(merged instanceof StringColumnStatistics);
+        Assert.assertEquals(7L, merged.getTotalCount());
+        Assert.assertEquals(3L, merged.getUniqueCount());
+        Assert.assertEquals("Alpaca", ((StringColumnStatistics) merged).getMinStringCase());
+
+        TopNDataItem top = merged.getTopNValues().getTopNDataItemsForColumn().last();
+        Assert.assertEquals("Cat", top.getValue());
+        Assert.assertEquals(Long.valueOf(5), top.getCount());
+    }
+
+    @Test(expected = InvalidClassException.class)
+    public void testUnsupportedStateVersion() throws Exception {
+        StructField field = DataTypes.createStructField("favoritepet", DataTypes.StringType, true);
+        StatisticsModel partition = new StatisticsModel(false, true);
+        partition.add(0, "Cat", 2L, field);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeInt(0);
+            out.writeObject(partition.getColumnStatisticsMap().get(0));
+        }
+        PartitionStateStore.deserialize(DatatypeConverter.printBase64Binary(bytes.toByteArray()));
+    }
+
+    @Test
+    public void testSelectStatesQuery() {
+        ProfilerConfiguration.initialize();
+        ProfilerConfiguration.OUTPUT_DB_NAME = "emp";
+        ProfilerConfiguration.OUTPUT_TABLE_NAME = "employee_profile";
+
+        Assert.assertEquals("SELECT columnname, state FROM `emp`.`employee_profile_state`"
+                            + " WHERE CAST(`processing_dttm` AS BIGINT) <= 1500000000000"
+                            + " AND CAST(`processing_dttm` AS BIGINT) > 1499913600000",
+                            PartitionStateStore.getSelectStatesQuery("daily", "1500000000000"));
+        Assert.assertEquals("SELECT columnname, state FROM `emp`.`employee_profile_state`",
+                            PartitionStateStore.getSelectStatesQuery("alltime", "ALL"));
+        Assert.assertNull(PartitionStateStore.getSelectStatesQuery("weekly", "ALL"));
+
+        ProfilerConfiguration.initialize();
+    }
+}
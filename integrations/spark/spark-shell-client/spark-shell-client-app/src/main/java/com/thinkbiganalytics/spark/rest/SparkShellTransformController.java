@@ -23,10 +23,13 @@ package com.thinkbiganalytics.spark.rest;
 import com.thinkbiganalytics.spark.metadata.TransformJob;
 import com.thinkbiganalytics.spark.rest.model.TransformRequest;
 import com.thinkbiganalytics.spark.rest.model.TransformResponse;
+import com.thinkbiganalytics.spark.rest.model.TransformResultPage;
 import com.thinkbiganalytics.spark.service.TransformService;
 
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
 
@@ -34,11 +37,13 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.script.ScriptException;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -146,6 +151,48 @@ public class SparkShellTransformController {
         }
     }
 
+    /**
+     * Fetches a page of rows from the results of a transformation.
+     *
+     * @param id      the destination table name
+     * @param offset  the index of the first row
+     * @param limit   the maximum number of rows
+     * @param columns comma-separated display names of the columns to include, or {@code null} for all columns
+     * @return the page of results
+     */
+    @GET
+    @Path("{table}/page")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation("Fetches a page of rows from the results of a transformation.")
+    @ApiResponses({
+                      @ApiResponse(code = 200, message = "Returns the values of the requested columns for the rows in the page.", response = TransformResultPage.class),
+                      @ApiResponse(code = 400, message = "The page or columns are not valid.", response = TransformResponse.class),
+                      @ApiResponse(code = 404, message = "The transformation does not exist.", response = TransformResponse.class),
+                      @ApiResponse(code = 500, message = "There was a problem accessing the data.", response = TransformResponse.class)
+                  })
+    @Nonnull
+    public Response getPage(@Nonnull @PathParam("table") final String id,
+                            @ApiParam("Index of the first row") @DefaultValue("0") @QueryParam("offset") final long offset,
+                            @ApiParam("Maximum number of rows") @DefaultValue("100") @QueryParam("limit") final int limit,
+                            @ApiParam("Comma-separated names of the columns to include") @Nullable @QueryParam("columns") final String columns) {
+        // Validate request
+        if (offset < 0 || limit <= 0) {
+            return error(Response.Status.BAD_REQUEST, "transform.invalidPage");
+        }
+
+        List<String> columnList = (columns != null && !columns.isEmpty()) ? Arrays.asList(columns.split(",")) : null;
+
+        // Fetch page
+        try {
+            TransformResultPage page = transformService.getPage(id, offset, limit, columnList);
+            return Response.ok(page).build();
+        } catch (IllegalArgumentException e) {
+            return error(Response.Status.NOT_FOUND, "transform.unknownTable");
+        } catch (Exception e) {
+            return error(Response.Status.INTERNAL_SERVER_ERROR, e.getMessage());
+        }
+    }
+
     /**
      * Generates an error response for the specified message.
      *
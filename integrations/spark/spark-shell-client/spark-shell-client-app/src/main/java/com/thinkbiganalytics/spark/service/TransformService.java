@@ -29,20 +29,30 @@ import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Queues;
 import com.google.common.util.concurrent.AbstractScheduledService;
+import com.thinkbiganalytics.discovery.model.DefaultQueryResultColumn;
+import com.thinkbiganalytics.discovery.schema.QueryResultColumn;
 import com.thinkbiganalytics.hive.util.HiveUtils;
 import com.thinkbiganalytics.kerberos.KerberosTicketConfiguration;
 import com.thinkbiganalytics.kerberos.KerberosTicketGenerator;
+import com.thinkbiganalytics.spark.DataSet;
 import com.thinkbiganalytics.spark.SparkContextService;
 import com.thinkbiganalytics.spark.metadata.TransformJob;
 import com.thinkbiganalytics.spark.repl.SparkScriptEngine;
 import com.thinkbiganalytics.spark.rest.model.TransformRequest;
 import com.thinkbiganalytics.spark.rest.model.TransformResponse;
+import com.thinkbiganalytics.spark.rest.model.TransformResultPage;
 import com.thinkbiganalytics.spark.shell.DatasourceProvider;
+import com.thinkbiganalytics.spark.util.DataTypeUtils;
 
 import org.apache.commons.lang3.StringEscapeUtils;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorConverters;
 import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.function.Function2;
 import org.apache.spark.sql.Row;
 import org.apache.spark.sql.SQLContext;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -50,15 +60,22 @@ import org.springframework.stereotype.Component;
 
 import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.script.ScriptException;
 
 import scala.Option;
@@ -95,6 +112,17 @@ public class TransformService extends AbstractScheduledService {
      * Maximum database size in bytes (soft limit)
      */
     private static final long MAX_BYTES = 10737418240L;
+
+    /**
+     * Prefix for display names that are different from the field name
+     */
+    private static final String DISPLAY_NAME_PREFIX = "col";
+
+    /**
+     * Pattern for field names that are used as display names
+     */
+    private static final Pattern FIELD_PATTERN = Pattern.compile("^[a-zA-Z_][a-zA-Z0-9_]*$");
+
     /**
      * Tables with cached results
      */
@@ -236,6 +264,87 @@ public class TransformService extends AbstractScheduledService {
         }
     }
 
+    /**
+     * Fetches a page of rows from the results of a transformation.
+     *
+     * <p>Only the requested rows and columns are sent to the driver. The number of rows in each partition of the cached results is computed on the first
+     * request and reused by later pages of the same table.</p>
+     *
+     * @param table   the table with the results
+     * @param offset  the index of the first row
+     * @param limit   the maximum number of rows
+     * @param columns the display names of the columns to include, or {@code null} for all columns. Unknown names are ignored.
+     * @return the page of results
+     * @throws IllegalArgumentException if the table does not exist
+     */
+    @Nonnull
+    public TransformResultPage getPage(@Nonnull final String table, final long offset, final int limit, @Nullable final List<String> columns) {
+        log.trace("entry params({}, {}, {}, {})", table, offset, limit, columns);
+
+        // Verify table
+        if (!this.cache.touch(table)) {
+            throw new IllegalArgumentException("Unknown table: " + table);
+        }
+
+        SQLContext context = this.engine.getSQLContext();
+        final JavaRDD<Row> rdd;
+        final StructType schema;
+
+        try {
+            DataSet dataSet = scs.toDataSet(context, table);
+            rdd = dataSet.javaRDD();
+            schema = dataSet.schema();
+        } catch (Exception e) {
+            log.debug("Results table not available {}: {}", table, e.toString());
+            throw new IllegalArgumentException("Unknown table: " + table);
+        }
+
+        // Select columns
+        List<QueryResultColumn> allColumns = toColumns(table, schema);
+        int[] indices = selectColumns(allColumns, columns);
+        List<QueryResultColumn> pageColumns = new ArrayList<>(indices.length);
+        ObjectInspectorConverters.Converter[] converters = new ObjectInspectorConverters.Converter[indices.length];
+        for (int i = 0; i < indices.length; ++i) {
+            pageColumns.add(allColumns.get(indices[i]));
+            converters[i] = DataTypeUtils.getHiveObjectConverter(schema.fields()[indices[i]].dataType());
+        }
+
+        // Find the first row of each partition
+        long[] partitionOffsets = this.cache.getPartitionOffsets(table);
+        if (partitionOffsets == null) {
+            List<Long> counts = rdd.mapPartitionsWithIndex(new PartitionRowCount(), false).collect();
+            partitionOffsets = new long[counts.size() + 1];
+            for (int i = 0; i < counts.size(); ++i) {
+                partitionOffsets[i + 1] = partitionOffsets[i] + counts.get(i);
+            }
+            this.cache.putPartitionOffsets(table, partitionOffsets);
+        }
+
+        // Fetch the rows and group the values by column
+        List<Object[]> rows = rdd.mapPartitionsWithIndex(new PageRows(partitionOffsets, offset, limit, indices), false).collect();
+
+        List<List<Object>> data = new ArrayList<>(indices.length);
+        for (int i = 0; i < indices.length; ++i) {
+            List<Object> values = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                values.add(converters[i].convert(row[i]));
+            }
+            data.add(values);
+        }
+
+        // Build response
+        TransformResultPage page = new TransformResultPage();
+        page.setColumns(pageColumns);
+        page.setData(data);
+        page.setOffset(offset);
+        page.setRowCount(rows.size());
+        page.setTable(table);
+        page.setTotalRows(partitionOffsets[partitionOffsets.length - 1]);
+
+        log.trace("exit with({})", page);
+        return page;
+    }
+
     @Override
     protected void runOneIteration() throws Exception {
         log.trace("entry");
@@ -367,6 +476,12 @@ public class TransformService extends AbstractScheduledService {
             this.cache.touch(request.getParent().getTable());
         }
 
+        if (request.getPageSize() != null) {
+            script.append("override def pageSize: Int = {");
+            script.append(request.getPageSize());
+            script.append("}\n");
+        }
+
         script.append("}\n");
         script.append("new Transform(tableName, true, sqlContext).run()\n");
 
@@ -407,6 +522,69 @@ public class TransformService extends AbstractScheduledService {
         }
     }
 
+    /**
+     * Describes the columns of a results table. Display names are generated the same way as for the rows in a {@link TransformResponse}.
+     *
+     * @param table  the table name
+     * @param schema the table schema
+     * @return the columns
+     */
+    @Nonnull
+    static List<QueryResultColumn> toColumns(@Nonnull final String table, @Nonnull final StructType schema) {
+        Set<String> fieldNames = new HashSet<>();
+        for (StructField field : schema.fields()) {
+            fieldNames.add(field.name());
+        }
+
+        List<QueryResultColumn> columns = new ArrayList<>(schema.fields().length);
+        int index = 1;
+
+        for (StructField field : schema.fields()) {
+            DefaultQueryResultColumn column = new DefaultQueryResultColumn();
+            column.setDataType(DataTypeUtils.getHiveObjectInspector(field.dataType()).getTypeName());
+            column.setHiveColumnLabel(field.name());
+            column.setTableName(table);
+
+            String name = field.name();
+            if (!FIELD_PATTERN.matcher(name).matches()) {
+                // Generate name for non-alphanumeric fields
+                do {
+                    name = DISPLAY_NAME_PREFIX + index;
+                    index += 1;
+                } while (fieldNames.contains(name));
+            }
+
+            column.setDisplayName(name);
+            column.setField(name);
+            columns.add(column);
+        }
+
+        return columns;
+    }
+
+    /**
+     * Finds the columns with the specified display names.
+     *
+     * @param columns      all columns of a results table
+     * @param displayNames the display names of the columns to select, or {@code null} for all columns. Unknown names are ignored.
+     * @return the indices of the selected columns, in table order
+     */
+    @Nonnull
+    static int[] selectColumns(@Nonnull final List<QueryResultColumn> columns, @Nullable final List<String> displayNames) {
+        List<Integer> selected = new ArrayList<>();
+        for (int i = 0; i < columns.size(); ++i) {
+            if (displayNames == null || displayNames.contains(columns.get(i).getDisplayName())) {
+                selected.add(i);
+            }
+        }
+
+        int[] indices = new int[selected.size()];
+        for (int i = 0; i < indices.length; ++i) {
+            indices[i] = selected.get(i);
+        }
+        return indices;
+    }
+
     /**
      * Generates a new, unique table name.
      *
@@ -484,6 +662,12 @@ public class TransformService extends AbstractScheduledService {
         @Nonnull
         private final Queue<String> expired = Queues.newConcurrentLinkedQueue();
 
+        /**
+         * Index of the first row of each partition, plus the total row count, for tables that have been paged
+         */
+        @Nonnull
+        private final ConcurrentMap<String, long[]> partitionOffsets = new ConcurrentHashMap<>();
+
         /**
          * Constructs a {@code TableCache}.
          */
@@ -540,8 +724,20 @@ public class TransformService extends AbstractScheduledService {
             };
         }
 
+        /**
+         * Gets the index of the first row of each partition of the specified table, followed by the total row count.
+         *
+         * @param name the table name
+         * @return the partition offsets, or {@code null} if not yet known
+         */
+        @Nullable
+        public long[] getPartitionOffsets(@Nonnull final String name) {
+            return this.partitionOffsets.get(name);
+        }
+
         @Override
         public void onRemoval(@Nonnull final RemovalNotification<String, Integer> notification) {
+            this.partitionOffsets.remove(notification.getKey());
             this.expired.add(notification.getKey());
         }
 
@@ -555,13 +751,24 @@ public class TransformService extends AbstractScheduledService {
             this.active.put(name, size);
         }
 
+        /**
+         * Sets the index of the first row of each partition of the specified table, followed by the total row count.
+         *
+         * @param name    the table name
+         * @param offsets the partition offsets
+         */
+        public void putPartitionOffsets(@Nonnull final String name, @Nonnull final long[] offsets) {
+            this.partitionOffsets.put(name, offsets);
+        }
+
         /**
          * Sets the specified table as being active.
          *
          * @param name the table name
+         * @return {@code true} if the table is active
          */
-        public void touch(@Nonnull final String name) {
-            this.active.getIfPresent(name);
+        public boolean touch(@Nonnull final String name) {
+            return this.active.getIfPresent(name) != null;
         }
 
         @Override
@@ -569,4 +776,81 @@ public class TransformService extends AbstractScheduledService {
             return value;
         }
     }
+
+    /**
+     * Counts the rows in each partition.
+     */
+    static class PartitionRowCount implements Function2<Integer, Iterator<Row>, Iterator<Long>> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Iterator<Long> call(final Integer partition, final Iterator<Row> rows) {
+            long count = 0;
+            while (rows.hasNext()) {
+                rows.next();
+                ++count;
+            }
+            return Collections.singletonList(count).iterator();
+        }
+    }
+
+    /**
+     * Selects the values of the requested columns for the rows in a page. Partitions outside the page are not read.
+     */
+    static class PageRows implements Function2<Integer, Iterator<Row>, Iterator<Object[]>> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Indices of the columns to select
+         */
+        @Nonnull
+        private final int[] columns;
+
+        /**
+         * Index of the row after the page
+         */
+        private final long end;
+
+        /**
+         * Index of the first row in the page
+         */
+        private final long offset;
+
+        /**
+         * Index of the first row of each partition, plus the total row count
+         */
+        @Nonnull
+        private final long[] partitionOffsets;
+
+        PageRows(@Nonnull final long[] partitionOffsets, final long offset, final int limit, @Nonnull final int[] columns) {
+            this.columns = columns;
+            this.end = offset + limit;
+            this.offset = offset;
+            this.partitionOffsets = partitionOffsets;
+        }
+
+        @Override
+        public Iterator<Object[]> call(final Integer partition, final Iterator<Row> rows) {
+            long index = partitionOffsets[partition];
+            if (index >= end || partitionOffsets[partition + 1] <= offset) {
+                return Collections.emptyIterator();
+            }
+
+            List<Object[]> page = new ArrayList<>();
+            while (index < end && rows.hasNext()) {
+                Row row = rows.next();
+                if (index >= offset) {
+                    Object[] values = new Object[columns.length];
+                    for (int i = 0; i < columns.length; ++i) {
+                        values[i] = row.get(columns[i]);
+                    }
+                    page.add(values);
+                }
+                ++index;
+            }
+            return page.iterator();
+        }
+    }
 }
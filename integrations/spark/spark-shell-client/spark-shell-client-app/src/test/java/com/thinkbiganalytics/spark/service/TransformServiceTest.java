@@ -20,6 +20,7 @@ package com.thinkbiganalytics.spark.service;
  * #L%
  */
 
+import com.thinkbiganalytics.discovery.schema.QueryResultColumn;
 import com.thinkbiganalytics.kerberos.KerberosTicketConfiguration;
 import com.thinkbiganalytics.spark.repl.SparkScriptEngine;
 import com.thinkbiganalytics.spark.rest.model.TransformRequest;
@@ -27,13 +28,21 @@ import com.thinkbiganalytics.spark.rest.model.TransformResponse;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.spark.SparkContext;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
 import org.apache.spark.sql.SQLContext;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructType;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
 
@@ -160,4 +169,169 @@ public class TransformServiceTest {
         TransformService service = new TransformService(Mockito.mock(SparkScriptEngine.class), kerberosTicketConfiguration, tracker);
         Assert.assertEquals(expected, service.toScript(request));
     }
+
+    /**
+     * Verify converting a transformation request with a page size to a Scala script.
+     */
+    @Test
+    public void toScriptWithPageSize() throws Exception {
+        // Build the request
+        TransformRequest request = new TransformRequest();
+        request.setScript("sqlContext.range(1,10)");
+        request.setPageSize(100);
+
+        // Test converting request to script
+        String expected = IOUtils.toString(getClass().getResourceAsStream("transform-service-script3.scala"), "UTF-8");
+
+        TransformJobTracker tracker = Mockito.mock(TransformJobTracker.class);
+        TransformService service = new TransformService(Mockito.mock(SparkScriptEngine.class), kerberosTicketConfiguration, tracker);
+        Assert.assertEquals(expected, service.toScript(request));
+    }
+
+    /**
+     * Verify fetching pages that span partitions.
+     */
+    @Test
+    public void getPageAcrossPartitions() throws Exception {
+        List<List<Row>> partitions = newPartitions(3, 2, 0, 4);
+        long[] offsets = partitionOffsets(partitions);
+        Assert.assertArrayEquals(new long[]{0, 3, 5, 5, 9}, offsets);
+
+        Assert.assertEquals(Arrays.asList(0L, 1L, 2L), ids(page(partitions, offsets, 0, 3, new int[]{0})));
+        Assert.assertEquals(Arrays.asList(2L, 3L, 4L, 5L, 6L), ids(page(partitions, offsets, 2, 5, new int[]{0})));
+        Assert.assertEquals(Arrays.asList(4L, 5L), ids(page(partitions, offsets, 4, 2, new int[]{0})));
+    }
+
+    /**
+     * Verify fetching pages at and past the end of the results.
+     */
+    @Test
+    public void getPagePastEnd() throws Exception {
+        List<List<Row>> partitions = newPartitions(3, 2, 0, 4);
+        long[] offsets = partitionOffsets(partitions);
+
+        Assert.assertEquals(Arrays.asList(7L, 8L), ids(page(partitions, offsets, 7, 10, new int[]{0})));
+        Assert.assertTrue(page(partitions, offsets, 9, 10, new int[]{0}).isEmpty());
+        Assert.assertTrue(page(partitions, offsets, 100, 10, new int[]{0}).isEmpty());
+    }
+
+    /**
+     * Verify partitions outside of a page are not read.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getPageSkipsPartitions() throws Exception {
+        Iterator<Row> rows = Mockito.mock(Iterator.class);
+        TransformService.PageRows pageRows = new TransformService.PageRows(new long[]{0, 3, 5, 5, 9}, 3, 2, new int[]{0});
+
+        Assert.assertFalse(pageRows.call(0, rows).hasNext());
+        Assert.assertFalse(pageRows.call(2, rows).hasNext());
+        Assert.assertFalse(pageRows.call(3, rows).hasNext());
+        Mockito.verifyZeroInteractions(rows);
+    }
+
+    /**
+     * Verify selecting the columns of a page by display name.
+     */
+    @Test
+    public void getPageColumns() throws Exception {
+        StructType schema = DataTypes.createStructType(Arrays.asList(DataTypes.createStructField("id", DataTypes.LongType, false),
+                                                                     DataTypes.createStructField("name", DataTypes.StringType, true),
+                                                                     DataTypes.createStructField("SUM(amount)", DataTypes.DoubleType, true)));
+        List<QueryResultColumn> columns = TransformService.toColumns("results", schema);
+
+        Assert.assertArrayEquals(new int[]{0, 1, 2}, TransformService.selectColumns(columns, null));
+        Assert.assertArrayEquals(new int[]{0, 2}, TransformService.selectColumns(columns, Arrays.asList("col1", "unknown", "id")));
+        Assert.assertArrayEquals(new int[0], TransformService.selectColumns(columns, Collections.singletonList("SUM(amount)")));
+
+        List<List<Row>> partitions = newPartitions(2, 2);
+        List<Object[]> page = page(partitions, partitionOffsets(partitions), 1, 2, TransformService.selectColumns(columns, Arrays.asList("col1", "name")));
+        Assert.assertEquals(2, page.size());
+        Assert.assertArrayEquals(new Object[]{"name1", 1.5}, page.get(0));
+        Assert.assertArrayEquals(new Object[]{"name2", 3.0}, page.get(1));
+    }
+
+    /**
+     * Verify the columns of a page have the same display names as the columns of a {@link TransformResponse}.
+     *
+     * <p>Uses the schema that {@code TransformScriptTest.runWithQueryResult} uses for the display names generated by {@code QueryResultRowTransform}.</p>
+     */
+    @Test
+    public void toColumns() {
+        StructType schema = DataTypes.createStructType(Arrays.asList(DataTypes.createStructField("id", DataTypes.LongType, true),
+                                                                     DataTypes.createStructField("SUM(amount)", DataTypes.DoubleType, true),
+                                                                     DataTypes.createStructField("LR(amount)", DataTypes.createArrayType(DataTypes.DoubleType), true),
+                                                                     DataTypes.createStructField("col2", DataTypes.StringType, true)));
+        List<QueryResultColumn> columns = TransformService.toColumns("target", schema);
+        Assert.assertEquals(4, columns.size());
+
+        assertColumn(columns.get(0), "bigint", "id", "id");
+        assertColumn(columns.get(1), "double", "col1", "SUM(amount)");
+        assertColumn(columns.get(2), "array<double>", "col3", "LR(amount)");
+        assertColumn(columns.get(3), "string", "col2", "col2");
+    }
+
+    private void assertColumn(@Nonnull final QueryResultColumn column, @Nonnull final String dataType, @Nonnull final String displayName, @Nonnull final String hiveColumnLabel) {
+        Assert.assertEquals(dataType, column.getDataType());
+        Assert.assertEquals(displayName, column.getDisplayName());
+        Assert.assertEquals(displayName, column.getField());
+        Assert.assertEquals(hiveColumnLabel, column.getHiveColumnLabel());
+        Assert.assertEquals("target", column.getTableName());
+    }
+
+    /**
+     * Creates partitions of (id, name, amount) rows with the specified number of rows, numbering the rows from 0.
+     */
+    @Nonnull
+    private List<List<Row>> newPartitions(final int... sizes) {
+        List<List<Row>> partitions = new ArrayList<>();
+        long id = 0;
+        for (int size : sizes) {
+            List<Row> rows = new ArrayList<>();
+            for (int i = 0; i < size; ++i, ++id) {
+                rows.add(RowFactory.create(id, "name" + id, id * 1.5));
+            }
+            partitions.add(rows);
+        }
+        return partitions;
+    }
+
+    /**
+     * Computes the partition offsets the way {@link TransformService#getPage} does.
+     */
+    @Nonnull
+    private long[] partitionOffsets(@Nonnull final List<List<Row>> partitions) throws Exception {
+        TransformService.PartitionRowCount rowCount = new TransformService.PartitionRowCount();
+        long[] offsets = new long[partitions.size() + 1];
+        for (int i = 0; i < partitions.size(); ++i) {
+            offsets[i + 1] = offsets[i] + rowCount.call(i, partitions.get(i).iterator()).next();
+        }
+        return offsets;
+    }
+
+    /**
+     * Collects a page from every partition, in partition order.
+     */
+    @Nonnull
+    private List<Object[]> page(@Nonnull final List<List<Row>> partitions, @Nonnull final long[] offsets, final long offset, final int limit, @Nonnull final int[] columns)
+        throws Exception {
+        TransformService.PageRows pageRows = new TransformService.PageRows(offsets, offset, limit, columns);
+        List<Object[]> page = new ArrayList<>();
+        for (int i = 0; i < partitions.size(); ++i) {
+            Iterator<Object[]> rows = pageRows.call(i, partitions.get(i).iterator());
+            while (rows.hasNext()) {
+                page.add(rows.next());
+            }
+        }
+        return page;
+    }
+
+    @Nonnull
+    private List<Long> ids(@Nonnull final List<Object[]> page) {
+        List<Long> ids = new ArrayList<>(page.size());
+        for (Object[] row : page) {
+            ids.add((Long) row[0]);
+        }
+        return ids;
+    }
 }
@@ -0,0 +1,5 @@
+class Transform (destination: String, sendResults: Boolean, sqlContext: org.apache.spark.sql.SQLContext) extends com.thinkbiganalytics.spark.metadata.TransformScript(destination, sendResults, sqlContext) {
+override def dataFrame: org.apache.spark.sql.DataFrame = {sqlContext.range(1,10)}
+override def pageSize: Int = {100}
+}
+new Transform(tableName, true, sqlContext).run()
@@ -67,6 +67,12 @@ abstract class TransformScript(destination: String, sendResults: Boolean, sqlCon
         throw new UnsupportedOperationException
     }
 
+    /** Gets the number of rows to include in the response. Further rows are fetched by page from the cached results.
+      *
+      * @return the page size, or -1 for all rows
+      */
+    protected def pageSize: Int = -1
+
     /** Writes the `DataFrame` results to a Hive table.
       *
       * @deprecated Replaced with `QueryResultCallable`
@@ -117,7 +123,8 @@ abstract class TransformScript(destination: String, sendResults: Boolean, sqlCon
 
             val transform = new QueryResultRowTransform(cache.schema)
             result.setColumns(JavaConversions.seqAsJavaList(transform.columns))
-            cache.collect().foreach(r => result.addRow(transform.apply(r)))
+            val rows = if (pageSize >= 0) cache.take(pageSize) else cache.collect()
+            rows.foreach(r => result.addRow(transform.apply(r)))
 
             // Build response object
             val response = new TransformResponse
@@ -286,6 +286,23 @@ public class HCatDataType implements Cloneable, Serializable {
             }
 
             Comparable nativeValue = toNativeValue(val);
+            return isNativeValueInRange(nativeValue, enforcePrecision);
+
+        } catch (InvalidFormatException | ClassCastException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Tests whether a value that has already been converted with {@link #toNativeValue(String)} fits the range, precision, and length of the hive data type.
+     * This allows callers that need the native value anyway to avoid parsing the string a second time.
+     *
+     * @param nativeValue      the native value
+     * @param enforcePrecision whether the scale of decimal values should be checked
+     * @return whether value is valid
+     */
+    public boolean isNativeValueInRange(Comparable nativeValue, boolean enforcePrecision) {
+        try {
             if (nativeValue != null) {
                 if (isnumeric) {
                     if (min != null && min.compareTo(nativeValue) > 0) {
@@ -299,18 +316,25 @@ public class HCatDataType implements Cloneable, Serializable {
                     }
 
                 } else if (isstring) {
-                    if (val.length() > maxlength) {
+                    if (nativeValue.toString().length() > maxlength) {
                         return false;
                     }
                 }
             }
 
-        } catch (InvalidFormatException | ClassCastException | IllegalArgumentException e) {
+        } catch (ClassCastException | IllegalArgumentException e) {
             return false;
         }
         return true;
     }
 
+    /**
+     * Whether the type is a date or timestamp, which are validated as strings rather than converted to a native value
+     */
+    public boolean isDateOrTimestamp() {
+        return convertibleType == Date.class || convertibleType == Timestamp.class;
+    }
+
     @Override
     public Object clone() throws CloneNotSupportedException {
         return super.clone();
@@ -213,4 +213,16 @@ public class HCatDataTypeTest {
         assertTrue(valid);
     }
 
+    @Test
+    public void testIsNativeValueInRange() throws Exception {
+        HCatDataType tinyintType = HCatDataType.createFromDataType("tinyint_type", "tinyint");
+        assertTrue(tinyintType.isNativeValueInRange(127, false));
+        assertFalse(tinyintType.isNativeValueInRange(128, false));
+        assertTrue(tinyintType.isNativeValueInRange(null, false));
+
+        HCatDataType varcharType = HCatDataType.createFromDataType("varchar_type", "varchar(3)");
+        assertTrue(varcharType.isNativeValueInRange("abc", false));
+        assertFalse(varcharType.isNativeValueInRange("abcd", false));
+    }
+
 }
@@ -33,12 +33,25 @@ public class CommandLineParams implements Serializable {
 
     private static final String DEFAULT_STORAGE_LEVEL = "MEMORY_AND_DISK";
 
+    /**
+     * Validates rows with a {@link ValidationPlan} compiled once per job instead of one row at a time
+     */
+    public static final String TYPED_VALIDATION_ENGINE = "typed";
+
+    private static final String DEFAULT_VALIDATION_ENGINE = "row";
+
     @Parameter(names = {"-h", "--hiveConf"}, description = "Hive configuration parameters", converter = ParameterConverter.class)
     private List<Param> hiveParams;
 
     @Parameter(names = "--storageLevel", description = "Storage for RDD persistance")
     private String storageLevel = DEFAULT_STORAGE_LEVEL;
 
+    @Parameter(names = "--validationEngine", description = "Validate-cleanse engine: row or typed")
+    private String validationEngine = DEFAULT_VALIDATION_ENGINE;
+
+    @Parameter(names = "--inlineCounts", description = "Count valid and invalid rows while they are cleansed instead of in a separate job, and write them with one multi-table insert")
+    private boolean inlineCounts = false;
+
     public List<Param> getHiveParams() {
         return hiveParams == null ? new ArrayList<Param>(0) : hiveParams;
     }
@@ -46,4 +59,12 @@ public class CommandLineParams implements Serializable {
     public String getStorageLevel() {
         return storageLevel;
     }
+
+    public String getValidationEngine() {
+        return validationEngine;
+    }
+
+    public boolean isInlineCounts() {
+        return inlineCounts;
+    }
 }
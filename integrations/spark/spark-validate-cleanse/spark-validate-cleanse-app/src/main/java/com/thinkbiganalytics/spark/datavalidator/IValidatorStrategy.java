@@ -21,6 +21,8 @@ package com.thinkbiganalytics.spark.datavalidator;
  */
 
 import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.sql.Row;
 
 /**
  * Validator Strategy interface (to enable support for Spark 1 and 2)
@@ -34,4 +36,19 @@ public interface IValidatorStrategy {
      * @return RDD containing counts of invalid columns, and total valid and invalid rows
      */
     JavaRDD<long[]> getCleansedRowResultPartitionCounts(JavaRDD<CleansedRowResult> cleansedRowResultJavaRDD, int schemaLength);
+
+    /**
+     * Cleanse and validate rows a partition at a time
+     * @param rows RDD containing the rows to validate
+     * @param plan the compiled policies and data types of the target table
+     * @return RDD containing result of cleaning rows of type {@link CleansedRowResult}
+     */
+    JavaRDD<CleansedRowResult> cleanseAndValidatePartitions(JavaRDD<Row> rows, ValidationPlan plan);
+
+    /**
+     * Create an accumulator for counts of invalid columns, and total valid and invalid rows, collected while the cleansed rows are written
+     * @param sc the spark context
+     * @return a registered accumulator
+     */
+    ValidationCountsAccumulator createValidationCountsAccumulator(JavaSparkContext sc);
 }
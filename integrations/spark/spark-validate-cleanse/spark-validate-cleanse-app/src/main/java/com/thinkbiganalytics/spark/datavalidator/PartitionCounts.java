@@ -0,0 +1,76 @@
+package com.thinkbiganalytics.spark.datavalidator;
+
+/*-
+ * #%L
+ * thinkbig-spark-validate-cleanse-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Invalid column counts and total valid and invalid rows, recorded per partition.
+ *
+ * <p>Counts are keyed by partition so that a partition that is computed more than once, because a task was retried or the rows were read by more than one
+ * output, replaces its earlier counts instead of adding to them.</p>
+ */
+public class PartitionCounts implements Serializable {
+
+    private final Map<Integer, long[]> counts = new HashMap<>();
+
+    /**
+     * Records the counts of a partition, replacing any counts recorded earlier for the same partition
+     */
+    public void put(int partitionId, long[] partitionCounts) {
+        counts.put(partitionId, partitionCounts);
+    }
+
+    /**
+     * Adds the counts recorded by another instance
+     */
+    public void merge(PartitionCounts other) {
+        counts.putAll(other.counts);
+    }
+
+    public boolean isEmpty() {
+        return counts.isEmpty();
+    }
+
+    public PartitionCounts copy() {
+        PartitionCounts copy = new PartitionCounts();
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * Sums the counts of all partitions
+     *
+     * @param schemaLength number of columns in schema
+     * @return counts of invalid columns, followed by total valid and invalid rows
+     */
+    public long[] sum(int schemaLength) {
+        long[] total = new long[schemaLength + 2];
+        for (long[] partitionCounts : counts.values()) {
+            for (int idx = 0; idx < total.length; idx++) {
+                total[idx] += partitionCounts[idx];
+            }
+        }
+        return total;
+    }
+}
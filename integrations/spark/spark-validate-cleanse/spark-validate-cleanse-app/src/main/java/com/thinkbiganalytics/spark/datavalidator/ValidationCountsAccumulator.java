@@ -0,0 +1,43 @@
+package com.thinkbiganalytics.spark.datavalidator;
+
+/*-
+ * #%L
+ * thinkbig-spark-validate-cleanse-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Serializable;
+
+/**
+ * Collects validation counts from the executors while the cleansed rows are written (to enable support for Spark 1 and 2)
+ */
+public interface ValidationCountsAccumulator extends Serializable {
+
+    /**
+     * Record the counts of one partition. Called on the executors.
+     * @param partitionId the partition index
+     * @param counts counts of invalid columns, followed by total valid and invalid rows
+     */
+    void add(int partitionId, long[] counts);
+
+    /**
+     * Sum of the counts of all partitions. Read on the driver once the rows have been written.
+     * @param schemaLength number of columns in schema
+     * @return counts of invalid columns, and total valid and invalid rows
+     */
+    long[] value(int schemaLength);
+}
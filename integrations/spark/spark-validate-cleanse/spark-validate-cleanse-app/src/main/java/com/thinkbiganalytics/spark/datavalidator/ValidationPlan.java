@@ -0,0 +1,322 @@
+package com.thinkbiganalytics.spark.datavalidator;
+
+/*-
+ * #%L
+ * thinkbig-spark-validate-cleanse-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.policy.FieldPolicy;
+import com.thinkbiganalytics.policy.standardization.AcceptsEmptyValues;
+import com.thinkbiganalytics.policy.standardization.StandardizationPolicy;
+import com.thinkbiganalytics.policy.validation.ValidationPolicy;
+import com.thinkbiganalytics.policy.validation.ValidationResult;
+import com.thinkbiganalytics.spark.util.InvalidFormatException;
+import com.thinkbiganalytics.spark.validation.HCatDataType;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
+
+import java.io.Serializable;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The field policies and column types of a validation job compiled into typed per-column validators.
+ *
+ * <p>The plan is built once on the driver and shipped to the executors, where it is applied to a whole partition at a time. Compared with
+ * {@link Validator#cleanseAndValidateRow(Row)} each value is converted to its native type at most once and the converted value is shared by the schema check and
+ * every validator, the parameter type of each validator is resolved up front, and nothing is allocated for a row that passes validation.</p>
+ */
+public class ValidationPlan implements Serializable {
+
+    private final ColumnValidator[] columns;
+
+    private ValidationPlan(ColumnValidator[] columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * Compiles the policies and data types of the target table, which must be in column order
+     *
+     * @param policies the field policy of each column
+     * @param schema   the data type of each column
+     * @return the validation plan
+     */
+    public static ValidationPlan compile(FieldPolicy[] policies, HCatDataType[] schema) {
+        ColumnValidator[] columns = new ColumnValidator[schema.length];
+        for (int idx = 0; idx < schema.length; idx++) {
+            columns[idx] = new ColumnValidator(policies[idx], schema[idx]);
+        }
+        return new ValidationPlan(columns);
+    }
+
+    /**
+     * Resolve the type of parameter accepted by a validator
+     */
+    static Class resolveValidatorParamType(Class<?> validatorClass) {
+        Object t = validatorClass.getGenericInterfaces()[0];
+        if (t instanceof ParameterizedType) {
+            ParameterizedType type = (ParameterizedType) t;
+            return (Class) type.getActualTypeArguments()[0];
+        } else {
+            return String.class;
+        }
+    }
+
+    /**
+     * Number of columns validated by this plan
+     */
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * Lazily cleanses and validates the rows of a partition
+     *
+     * @param rows the rows of the partition
+     * @return the results, computed as they are consumed
+     */
+    public Iterator<CleansedRowResult> cleanseAndValidate(final Iterator<Row> rows) {
+        return new Iterator<CleansedRowResult>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public CleansedRowResult next() {
+                return cleanseAndValidateRow(rows.next());
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Cleanses and validates a single row. The result is the same as {@link Validator#cleanseAndValidateRow(Row)}.
+     */
+    public CleansedRowResult cleanseAndValidateRow(Row row) {
+        final int schemaLength = columns.length;
+        final int rowLength = row.length();
+        int nulls = 1;
+
+        // Create placeholder for the new values plus two columns for validation and reject_reason
+        Object[] newValues = new Object[schemaLength + 2];
+        boolean[] columnsValid = new boolean[schemaLength];
+        List<ValidationResult> results = null;
+
+        for (int idx = 0; idx < schemaLength; idx++) {
+            // Extract the value (allowing for null or missing field for odd-ball data)
+            Object val = (idx == rowLength || row.isNullAt(idx) ? null : row.get(idx));
+            if (val == null) {
+                nulls++;
+            }
+
+            ColumnValidator column = columns[idx];
+            if (column.unchecked) {
+                newValues[idx] = val;
+                columnsValid[idx] = true;
+            } else {
+                Object fieldValue = column.standardize(val);
+                newValues[idx] = fieldValue;
+
+                ValidationResult result = column.validate(fieldValue);
+                columnsValid[idx] = result.isValid();
+                if (!columnsValid[idx]) {
+                    results = (results == null ? new ArrayList<ValidationResult>(2) : results);
+                    results.add(result);
+                }
+            }
+        }
+
+        // Return success unless all values were null.  That would indicate a blank line in the file.
+        if (nulls >= schemaLength) {
+            results = (results == null ? new ArrayList<ValidationResult>(1) : results);
+            results.add(ValidationResult.failRow("empty", "Row is empty"));
+        }
+        boolean rowValid = (results == null);
+
+        // Record the results in the appended columns, move processing partition value last
+        newValues[schemaLength + 1] = newValues[schemaLength - 1];
+        newValues[schemaLength] = toJSONArray(results);
+        newValues[schemaLength - 1] = (rowValid ? "1" : "0");
+
+        CleansedRowResult cleansedRowResult = new CleansedRowResult();
+        cleansedRowResult.row = RowFactory.create(newValues);
+        cleansedRowResult.columnsValid = columnsValid;
+        cleansedRowResult.rowIsValid = rowValid;
+        return cleansedRowResult;
+    }
+
+    private static String toJSONArray(List<ValidationResult> results) {
+        if (results == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < results.size(); i++) {
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append(results.get(i).toJSON());
+        }
+        return sb.append("]").toString();
+    }
+
+    /**
+     * Cleanses and validates the values of one column
+     */
+    static class ColumnValidator implements Serializable {
+
+        private final HCatDataType dataType;
+        private final boolean unchecked;
+        private final boolean checkSchema;
+        private final StandardizationPolicy[] standardizers;
+        private final boolean[] standardizerAcceptsEmpty;
+        private final ValidationPolicy notNullValidator;
+        private final boolean notNullAcceptsString;
+        private final ValidationPolicy[] validators;
+        private final boolean[] validatorAcceptsString;
+        private final ValidationResult incompatible;
+
+        ColumnValidator(FieldPolicy fieldPolicy, HCatDataType dataType) {
+            this.dataType = dataType;
+            this.unchecked = dataType.isUnchecked();
+            this.checkSchema = !fieldPolicy.shouldSkipSchemaValidation();
+
+            List<StandardizationPolicy> standardizationPolicies = fieldPolicy.getStandardizationPolicies();
+            this.standardizers = (standardizationPolicies != null ? standardizationPolicies.toArray(new StandardizationPolicy[0]) : new StandardizationPolicy[0]);
+            this.standardizerAcceptsEmpty = new boolean[standardizers.length];
+            for (int i = 0; i < standardizers.length; i++) {
+                standardizerAcceptsEmpty[i] = standardizers[i] instanceof AcceptsEmptyValues;
+            }
+
+            this.notNullValidator = fieldPolicy.getNotNullValidator();
+            this.notNullAcceptsString = (notNullValidator == null || resolveValidatorParamType(notNullValidator.getClass()) == String.class);
+
+            List<ValidationPolicy> validationPolicies = fieldPolicy.getValidators();
+            this.validators = (validationPolicies != null ? validationPolicies.toArray(new ValidationPolicy[0]) : new ValidationPolicy[0]);
+            this.validatorAcceptsString = new boolean[validators.length];
+            for (int i = 0; i < validators.length; i++) {
+                validatorAcceptsString[i] = resolveValidatorParamType(validators[i].getClass()) == String.class;
+            }
+
+            this.incompatible = ValidationResult.failField("incompatible", dataType.getName(), "Not convertible to " + dataType.getNativeType());
+        }
+
+        /**
+         * Applies the standardization policies
+         */
+        Object standardize(Object value) {
+            if (standardizers.length == 0) {
+                return value;
+            }
+            Object newValue = value;
+            boolean isEmpty = ((value == null) || (StringUtils.isEmpty(value.toString())));
+            for (int i = 0; i < standardizers.length; i++) {
+                if (isEmpty && !standardizerAcceptsEmpty[i]) {
+                    continue;
+                }
+                if (!standardizers[i].accepts(value)) {
+                    continue;
+                }
+                newValue = standardizers[i].convertRawValue(newValue);
+            }
+            return newValue;
+        }
+
+        /**
+         * Perform validation using both schema validation the validation policies
+         */
+        @SuppressWarnings("unchecked")
+        ValidationResult validate(Object fieldValue) {
+            // Values that are already of the column type are used as is, anything else is validated from its string form
+            Comparable nativeValue = null;
+            boolean converted = (fieldValue instanceof Comparable && !(fieldValue instanceof String) && dataType.getConvertibleType().isInstance(fieldValue));
+            if (converted) {
+                nativeValue = (Comparable) fieldValue;
+            }
+            String text = (fieldValue == null || converted ? null : fieldValue.toString());
+
+            if (!converted && StringUtils.isEmpty(text)) {
+                if (notNullValidator != null) {
+                    try {
+                        Object value = (notNullAcceptsString ? text : dataType.toNativeValue(text));
+                        if (!notNullValidator.validate(value)) {
+                            return ruleViolation(notNullValidator);
+                        }
+                    } catch (InvalidFormatException | ClassCastException e) {
+                        return incompatible;
+                    }
+                }
+                return Validator.VALID_RESULT;
+            }
+
+            // Verify new value is compatible with the target Hive schema e.g. integer, double (unless checking is disabled)
+            if (checkSchema && !converted) {
+                if (dataType.isDateOrTimestamp()) {
+                    if (!dataType.isValueConvertibleToType(text)) {
+                        return incompatible;
+                    }
+                } else {
+                    try {
+                        nativeValue = dataType.toNativeValue(text);
+                        converted = true;
+                    } catch (InvalidFormatException e) {
+                        return incompatible;
+                    }
+                }
+            }
+            if (checkSchema && converted && !dataType.isNativeValueInRange(nativeValue, false)) {
+                return incompatible;
+            }
+
+            // Validate type using provided validators
+            for (int i = 0; i < validators.length; i++) {
+                try {
+                    Object value;
+                    if (validatorAcceptsString[i]) {
+                        text = (text == null ? fieldValue.toString() : text);
+                        value = text;
+                    } else {
+                        if (!converted) {
+                            nativeValue = dataType.toNativeValue(text);
+                            converted = true;
+                        }
+                        value = nativeValue;
+                    }
+                    if (!validators[i].validate(value)) {
+                        return ruleViolation(validators[i]);
+                    }
+                } catch (InvalidFormatException | ClassCastException e) {
+                    return incompatible;
+                }
+            }
+            return Validator.VALID_RESULT;
+        }
+
+        private ValidationResult ruleViolation(ValidationPolicy validator) {
+            return ValidationResult.failFieldRule("rule", dataType.getName(), validator.getClass().getSimpleName(), "Rule violation");
+        }
+    }
+}
@@ -30,6 +30,7 @@ import com.thinkbiganalytics.policy.validation.ValidationPolicy;
 import com.thinkbiganalytics.policy.validation.ValidationResult;
 import com.thinkbiganalytics.spark.DataSet;
 import com.thinkbiganalytics.spark.SparkContextService;
+import com.thinkbiganalytics.spark.datavalidator.functions.InlinePartitionLevelCounts;
 import com.thinkbiganalytics.spark.datavalidator.functions.SumPartitionLevelCounts;
 import com.thinkbiganalytics.spark.policy.FieldPolicyLoader;
 import com.thinkbiganalytics.spark.util.InvalidFormatException;
@@ -56,7 +57,6 @@ import org.springframework.context.annotation.AnnotationConfigApplicationContext
 import org.springframework.stereotype.Component;
 
 import java.io.Serializable;
-import java.lang.reflect.ParameterizedType;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -136,6 +136,8 @@ public class Validator implements Serializable {
             System.out.println("Proper Usage is: <targetDatabase> <entity> <partition> <path-to-policy-file>");
             System.out.println("You can optionally add: --hiveConf hive.setting=value --hiveConf hive.other.setting=value");
             System.out.println("You can optionally add: --storageLevel rdd_persistence_level_value");
+            System.out.println("You can optionally add: --validationEngine typed");
+            System.out.println("You can optionally add: --inlineCounts");
             System.out.println("You provided " + args.length + " args which are (comma separated): " + StringUtils.join(args, ","));
             System.exit(1);
         }
@@ -194,52 +196,31 @@ public class Validator implements Serializable {
             StructType sourceSchema = createModifiedSchema(feedTablename);
             log.info("sourceSchema {}", sourceSchema);
 
-            log.info("Persistence level: {}", params.getStorageLevel());
-
             // Validate and cleanse input rows
-            JavaRDD<CleansedRowResult> cleansedRowResultRDD = rddData.map(new Function<Row, CleansedRowResult>() {
-                @Override
-                public CleansedRowResult call(Row row) throws Exception {
-                    return cleanseAndValidateRow(row);
-                }
-            }).persist(StorageLevel.fromString(params.getStorageLevel()));
-
-            // Return a new rdd based on whether values are valid or invalid
-            JavaRDD<Row> newResultsRDD = cleansedRowResultRDD.map(new Function<CleansedRowResult, Row>() {
-                @Override
-                public Row call(CleansedRowResult cleansedRowResult) throws Exception {
-                    return cleansedRowResult.row;
-                }
-            });
-
-            // Counts of invalid columns, total valid rows and total invalid rows
-            long[] fieldInvalidCounts = cleansedRowResultsValidationCounts(cleansedRowResultRDD, schema.length);
-
-            final DataSet validatedDF = scs.toDataSet(getHiveContext(), newResultsRDD, sourceSchema);
-
-            // Pull out just the valid or invalid records
-            DataSet invalidDF = null;
-            if (useDirectInsert) {
-                invalidDF = validatedDF.filter(VALID_INVALID_COL + " = '0'").drop(VALID_INVALID_COL).toDF();
+            JavaRDD<CleansedRowResult> cleansedRowResultRDD;
+            if (CommandLineParams.TYPED_VALIDATION_ENGINE.equalsIgnoreCase(params.getValidationEngine())) {
+                log.info("Using the typed validation engine");
+                cleansedRowResultRDD = validatorStrategy.cleanseAndValidatePartitions(rddData, ValidationPlan.compile(policies, schema));
             } else {
-                invalidDF = validatedDF.filter(VALID_INVALID_COL + " = '0'").drop(VALID_INVALID_COL).drop(PROCESSING_DTTM_COL).toDF();
+                cleansedRowResultRDD = rddData.map(new Function<Row, CleansedRowResult>() {
+                    @Override
+                    public CleansedRowResult call(Row row) throws Exception {
+                        return cleanseAndValidateRow(row);
+                    }
+                });
             }
-            writeToTargetTable(invalidDF, invalidTableName);
 
-            // Write out the valid records (dropping the two columns)
-            DataSet validDF = null;
-            if (useDirectInsert) {
-                validDF = validatedDF.filter(VALID_INVALID_COL + " = '1'").drop(VALID_INVALID_COL).drop(REJECT_REASON_COL).toDF();
+            // Counts of invalid columns, total valid rows and total invalid rows
+            long[] fieldInvalidCounts;
+            if (params.isInlineCounts()) {
+                fieldInvalidCounts = writeWithInlineCounts(cleansedRowResultRDD, sourceSchema);
             } else {
-                validDF = validatedDF.filter(VALID_INVALID_COL + " = '1'").drop(VALID_INVALID_COL).drop(REJECT_REASON_COL).drop(PROCESSING_DTTM_COL).toDF();
+                fieldInvalidCounts = writePersisted(cleansedRowResultRDD, sourceSchema);
             }
-            writeToTargetTable(validDF, validTableName);
 
             long validCount = fieldInvalidCounts[schema.length];
             long invalidCount = fieldInvalidCounts[schema.length + 1];
 
-            cleansedRowResultRDD.unpersist();
-
             log.info("Valid count {} invalid count {}", validCount, invalidCount);
 
             // Record the validation stats
@@ -251,6 +232,116 @@ public class Validator implements Serializable {
         }
     }
 
+    /**
+     * Persists the cleansed rows, counts them, and then writes the invalid and valid rows with separate inserts
+     */
+    private long[] writePersisted(JavaRDD<CleansedRowResult> cleansedRowResultRDD, StructType sourceSchema) throws Exception {
+        log.info("Persistence level: {}", params.getStorageLevel());
+        cleansedRowResultRDD.persist(StorageLevel.fromString(params.getStorageLevel()));
+
+        // Counts of invalid columns, total valid rows and total invalid rows
+        long[] fieldInvalidCounts = cleansedRowResultsValidationCounts(cleansedRowResultRDD, schema.length);
+
+        final DataSet validatedDF = scs.toDataSet(getHiveContext(), toRows(cleansedRowResultRDD), sourceSchema);
+
+        // Pull out just the valid or invalid records
+        DataSet invalidDF = null;
+        if (useDirectInsert) {
+            invalidDF = validatedDF.filter(VALID_INVALID_COL + " = '0'").drop(VALID_INVALID_COL).toDF();
+        } else {
+            invalidDF = validatedDF.filter(VALID_INVALID_COL + " = '0'").drop(VALID_INVALID_COL).drop(PROCESSING_DTTM_COL).toDF();
+        }
+        writeToTargetTable(invalidDF, invalidTableName);
+
+        // Write out the valid records (dropping the two columns)
+        DataSet validDF = null;
+        if (useDirectInsert) {
+            validDF = validatedDF.filter(VALID_INVALID_COL + " = '1'").drop(VALID_INVALID_COL).drop(REJECT_REASON_COL).toDF();
+        } else {
+            validDF = validatedDF.filter(VALID_INVALID_COL + " = '1'").drop(VALID_INVALID_COL).drop(REJECT_REASON_COL).drop(PROCESSING_DTTM_COL).toDF();
+        }
+        writeToTargetTable(validDF, validTableName);
+
+        cleansedRowResultRDD.unpersist();
+        return fieldInvalidCounts;
+    }
+
+    /**
+     * Persists the cleansed rows and writes the invalid and valid rows with one multi-table insert, counting invalid columns and valid and invalid rows with
+     * an accumulator as the rows are cleansed instead of with a separate counting job.
+     *
+     * <p>Spark SQL still runs each insert of a multi-table insert as its own job over the persisted rows, so this saves only the counting job of
+     * {@link #writePersisted(JavaRDD, StructType)}.</p>
+     */
+    private long[] writeWithInlineCounts(JavaRDD<CleansedRowResult> cleansedRowResultRDD, StructType sourceSchema) {
+        log.info("Writing valid and invalid rows with inline counts and persistence level: {}", params.getStorageLevel());
+        ValidationCountsAccumulator counts = validatorStrategy.createValidationCountsAccumulator(new JavaSparkContext(SparkContext.getOrCreate()));
+
+        JavaRDD<Row> newResultsRDD = toRows(countCleansedRowResults(cleansedRowResultRDD, schema.length, counts));
+        newResultsRDD.persist(StorageLevel.fromString(params.getStorageLevel()));
+        DataSet validatedDF = scs.toDataSet(getHiveContext(), newResultsRDD, sourceSchema);
+
+        String tempTable = validTableName + "_cleansed_" + System.currentTimeMillis();
+        validatedDF.registerTempTable(tempTable);
+
+        try {
+            if (useDirectInsert) {
+                getHiveContext().setConf("hive.exec.dynamic.partition", "true");
+                getHiveContext().setConf("hive.exec.dynamic.partition.mode", "nonstrict");
+                // Required for ORC and Parquet
+                getHiveContext().setConf("hive.optimize.index.filter", "false");
+            }
+
+            String sql = toMultiInsertSql(sourceSchema, tempTable);
+            log.info("Writing to targets {}", sql);
+            scs.sql(getHiveContext(), sql);
+        } finally {
+            getHiveContext().dropTempTable(tempTable);
+            newResultsRDD.unpersist();
+        }
+
+        return counts.value(schema.length);
+    }
+
+    /**
+     * Builds a statement that inserts the invalid and valid rows of the validated table into their target tables
+     */
+    protected String toMultiInsertSql(StructType sourceSchema, String validatedTable) {
+        List<String> columns = new ArrayList<>();
+        for (StructField field : sourceSchema.fields()) {
+            String name = field.name();
+            if (!name.equals(VALID_INVALID_COL) && !name.equals(REJECT_REASON_COL) && !name.equals(PROCESSING_DTTM_COL)) {
+                columns.add(HiveUtils.quoteIdentifier(name));
+            }
+        }
+        String selectFields = StringUtils.join(columns.toArray(new String[0]), ",");
+
+        // Direct insert appends to the dynamic partition like writeToTable, the legacy way overwrites the static partition
+        String insert = (useDirectInsert ? " INSERT INTO TABLE " : " INSERT OVERWRITE TABLE ");
+        String partitionSpec = (useDirectInsert ? " PARTITION (" + PROCESSING_DTTM_COL + ")" : " PARTITION (" + PROCESSING_DTTM_COL + "='" + partition + "')");
+        String partitionField = (useDirectInsert ? "," + HiveUtils.quoteIdentifier(PROCESSING_DTTM_COL) : "");
+
+        return "FROM " + HiveUtils.quoteIdentifier(validatedTable)
+               + insert + HiveUtils.quoteIdentifier(targetDatabase, invalidTableName) + partitionSpec
+               + " SELECT " + selectFields + "," + HiveUtils.quoteIdentifier(REJECT_REASON_COL) + partitionField
+               + " WHERE " + VALID_INVALID_COL + " = '0'"
+               + insert + HiveUtils.quoteIdentifier(targetDatabase, validTableName) + partitionSpec
+               + " SELECT " + selectFields + partitionField
+               + " WHERE " + VALID_INVALID_COL + " = '1'";
+    }
+
+    /**
+     * Return a new rdd based on whether values are valid or invalid
+     */
+    private JavaRDD<Row> toRows(JavaRDD<CleansedRowResult> cleansedRowResultRDD) {
+        return cleansedRowResultRDD.map(new Function<CleansedRowResult, Row>() {
+            @Override
+            public Row call(CleansedRowResult cleansedRowResult) throws Exception {
+                return cleansedRowResult.row;
+            }
+        });
+    }
+
     protected String toSelectFields(FieldPolicy[] policies1) {
         List<String> fields = new ArrayList<>();
         log.info("Building select statement for # of policies {}", policies1.length);
@@ -362,7 +453,7 @@ public class Validator implements Serializable {
             getHiveContext().setConf("hive.exec.dynamic.partition", "true");
             getHiveContext().setConf("hive.exec.dynamic.partition.mode", "nonstrict");
             // Required for ORC and Parquet
-            getHiveContext().setConf("set hive.optimize.index.filter", "false");
+            getHiveContext().setConf("hive.optimize.index.filter", "false");
 
             sourceDF.writeToTable(PROCESSING_DTTM_COL, qualifiedTable);
             return;
@@ -470,6 +561,13 @@ public class Validator implements Serializable {
         return finalCounts;
     }
 
+    /**
+     * Counts invalid columns, total valid and total invalid into the accumulator as the rows of each partition are read
+     */
+    public JavaRDD<CleansedRowResult> countCleansedRowResults(JavaRDD<CleansedRowResult> cleansedRowResultJavaRDD, int schemaLength, ValidationCountsAccumulator counts) {
+        return cleansedRowResultJavaRDD.mapPartitionsWithIndex(new InlinePartitionLevelCounts(schemaLength, counts), true);
+    }
+
     private String toJSONArray(List<ValidationResult> results) {
         // Convert to reject reasons to JSON
         StringBuffer sb = null;
@@ -554,14 +652,7 @@ public class Validator implements Serializable {
         Class expectedParamClazz = validatorParamType.get(validator.getClass());
         if (expectedParamClazz == null) {
             // Cache for future references
-
-            Object t = validator.getClass().getGenericInterfaces()[0];
-            if (t instanceof ParameterizedType) {
-                ParameterizedType type = (ParameterizedType) t;
-                expectedParamClazz = (Class) type.getActualTypeArguments()[0];
-            } else {
-                expectedParamClazz = String.class;
-            }
+            expectedParamClazz = ValidationPlan.resolveValidatorParamType(validator.getClass());
             validatorParamType.put(validator.getClass(), expectedParamClazz);
         }
         return expectedParamClazz;
@@ -0,0 +1,84 @@
+package com.thinkbiganalytics.spark.datavalidator.functions;
+
+/*-
+ * #%L
+ * kylo-spark-validate-cleanse-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.spark.datavalidator.CleansedRowResult;
+import com.thinkbiganalytics.spark.datavalidator.ValidationCountsAccumulator;
+
+import org.apache.spark.api.java.function.Function2;
+
+import java.util.Iterator;
+
+/**
+ * Count invalid columns, and total valid and invalid rows, as the cleansed rows of a partition pass through to the next stage. The counts are added to the
+ * accumulator once the partition has been fully read.
+ */
+public class InlinePartitionLevelCounts implements Function2<Integer, Iterator<CleansedRowResult>, Iterator<CleansedRowResult>> {
+
+    private final int schemaLen;
+    private final ValidationCountsAccumulator accumulator;
+
+    public InlinePartitionLevelCounts(int schemaLength, ValidationCountsAccumulator accumulator) {
+        this.schemaLen = schemaLength;
+        this.accumulator = accumulator;
+    }
+
+    @Override
+    public Iterator<CleansedRowResult> call(final Integer partitionId, final Iterator<CleansedRowResult> cleansedRowResultIterator) throws Exception {
+        final long[] validationCounts = new long[schemaLen + 2];
+
+        return new Iterator<CleansedRowResult>() {
+            private boolean recorded = false;
+
+            @Override
+            public boolean hasNext() {
+                boolean hasNext = cleansedRowResultIterator.hasNext();
+                if (!hasNext && !recorded) {
+                    recorded = true;
+                    accumulator.add(partitionId, validationCounts);
+                }
+                return hasNext;
+            }
+
+            @Override
+            public CleansedRowResult next() {
+                CleansedRowResult cleansedRowResult = cleansedRowResultIterator.next();
+
+                for (int idx = 0; idx < schemaLen; idx++) {
+                    if (!cleansedRowResult.columnsValid[idx]) {
+                        validationCounts[idx] = validationCounts[idx] + 1L;
+                    }
+                }
+                if (cleansedRowResult.rowIsValid) {
+                    validationCounts[schemaLen] = validationCounts[schemaLen] + 1L;
+                } else {
+                    validationCounts[schemaLen + 1] = validationCounts[schemaLen + 1] + 1L;
+                }
+                return cleansedRowResult;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
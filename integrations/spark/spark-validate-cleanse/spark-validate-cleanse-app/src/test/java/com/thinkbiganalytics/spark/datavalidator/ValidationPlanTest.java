@@ -0,0 +1,127 @@
+package com.thinkbiganalytics.spark.datavalidator;
+
+/*-
+ * #%L
+ * thinkbig-spark-validate-cleanse-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.policy.FieldPolicy;
+import com.thinkbiganalytics.policy.standardization.SimpleRegexReplacer;
+import com.thinkbiganalytics.policy.standardization.StandardizationPolicy;
+import com.thinkbiganalytics.policy.validation.RangeValidator;
+import com.thinkbiganalytics.policy.validation.ValidationPolicy;
+import com.thinkbiganalytics.spark.validation.HCatDataType;
+
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ValidationPlanTest {
+
+    private ValidationPlan plan;
+
+    @Before
+    public void setUp() {
+        List<ValidationPolicy> ageValidators = new ArrayList<>();
+        ageValidators.add(new RangeValidator(1, 100));
+        List<StandardizationPolicy> nameStandardizers = new ArrayList<>();
+        nameStandardizers.add(new SimpleRegexReplacer("(?i)foo", "bar"));
+
+        FieldPolicy[] policies = new FieldPolicy[]{
+            fieldPolicy("age", ageValidators, Collections.<StandardizationPolicy>emptyList()),
+            fieldPolicy("name", Collections.<ValidationPolicy>emptyList(), nameStandardizers),
+            fieldPolicy("processing_dttm", Collections.<ValidationPolicy>emptyList(), Collections.<StandardizationPolicy>emptyList())
+        };
+        HCatDataType[] schema = new HCatDataType[]{
+            HCatDataType.createFromDataType("age", "int"),
+            HCatDataType.createFromDataType("name", "varchar(10)"),
+            HCatDataType.createFromDataType("processing_dttm", "string")
+        };
+        plan = ValidationPlan.compile(policies, schema);
+    }
+
+    @Test
+    public void testValidRow() {
+        CleansedRowResult result = plan.cleanseAndValidateRow(RowFactory.create("50", "foo", "20001"));
+
+        assertTrue(result.rowIsValid);
+        assertArrayEquals(new boolean[]{true, true, true}, result.columnsValid);
+        assertEquals("50", result.row.get(0));
+        assertEquals("bar", result.row.get(1));
+        assertEquals("1", result.row.get(2));
+        assertEquals("", result.row.get(3));
+        assertEquals("20001", result.row.get(4));
+    }
+
+    @Test
+    public void testTypedValue() {
+        assertTrue(plan.cleanseAndValidateRow(RowFactory.create(50, "foo", "20001")).rowIsValid);
+        assertFalse(plan.cleanseAndValidateRow(RowFactory.create(500, "foo", "20001")).rowIsValid);
+    }
+
+    @Test
+    public void testInvalidColumns() {
+        CleansedRowResult outOfRange = plan.cleanseAndValidateRow(RowFactory.create("0", "name", "20001"));
+        assertFalse(outOfRange.rowIsValid);
+        assertArrayEquals(new boolean[]{false, true, true}, outOfRange.columnsValid);
+        assertEquals("0", outOfRange.row.get(2));
+        assertTrue(outOfRange.row.getString(3).contains("RangeValidator"));
+
+        CleansedRowResult incompatible = plan.cleanseAndValidateRow(RowFactory.create("abc", "a very long name", "20001"));
+        assertFalse(incompatible.rowIsValid);
+        assertArrayEquals(new boolean[]{false, false, true}, incompatible.columnsValid);
+        assertTrue(incompatible.row.getString(3).startsWith("["));
+        assertTrue(incompatible.row.getString(3).contains("incompatible"));
+    }
+
+    @Test
+    public void testEmptyRow() {
+        CleansedRowResult result = plan.cleanseAndValidateRow(RowFactory.create(null, null, "20001"));
+
+        assertFalse(result.rowIsValid);
+        assertArrayEquals(new boolean[]{true, true, true}, result.columnsValid);
+        assertTrue(result.row.getString(3).contains("empty"));
+    }
+
+    @Test
+    public void testCleanseAndValidatePartition() {
+        List<Row> rows = new ArrayList<>();
+        rows.add(RowFactory.create("1", "a", "20001"));
+        rows.add(RowFactory.create("101", "b", "20001"));
+
+        Iterator<CleansedRowResult> results = plan.cleanseAndValidate(rows.iterator());
+        assertTrue(results.next().rowIsValid);
+        assertFalse(results.next().rowIsValid);
+        assertFalse(results.hasNext());
+    }
+
+    private FieldPolicy fieldPolicy(String field, List<ValidationPolicy> validators, List<StandardizationPolicy> standardizers) {
+        return new FieldPolicy("emp", field, field, false, false, validators, standardizers, false, 0);
+    }
+}
@@ -30,6 +30,10 @@ import com.thinkbiganalytics.policy.validation.ValidationPolicy;
 import com.thinkbiganalytics.policy.validation.ValidationResult;
 import com.thinkbiganalytics.spark.validation.HCatDataType;
 
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.Metadata;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -40,7 +44,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -89,6 +95,49 @@ public class ValidatorTest {
         assertEquals("MEMORY_AND_DISK", defaultStorageLevel);
     }
 
+    @Test
+    public void testParseRemainingParametersInlineCounts() {
+        String[] args = {"targetDatabase", "entity", "partition", "path-to-policy-file", "--inlineCounts", "--validationEngine", "typed"};
+        CommandLineParams params = Validator.parseRemainingParameters(args, 4);
+        assertTrue(params.isInlineCounts());
+        assertEquals(CommandLineParams.TYPED_VALIDATION_ENGINE, params.getValidationEngine());
+
+        params = Validator.parseRemainingParameters(new String[]{"targetDatabase", "entity", "partition", "path-to-policy-file"}, 4);
+        assertFalse(params.isInlineCounts());
+    }
+
+    @Test
+    public void testMultiInsertSql() {
+        StructType sourceSchema = new StructType(new StructField[]{
+            new StructField("id", DataTypes.StringType, true, Metadata.empty()),
+            new StructField("name", DataTypes.StringType, true, Metadata.empty()),
+            new StructField("dlp_valid", DataTypes.StringType, true, Metadata.empty()),
+            new StructField("dlp_reject_reason", DataTypes.StringType, true, Metadata.empty()),
+            new StructField("processing_dttm", DataTypes.StringType, true, Metadata.empty())
+        });
+
+        assertEquals("FROM `cleansed`"
+                     + " INSERT INTO TABLE `emp`.`sampletable_invalid` PARTITION (processing_dttm)"
+                     + " SELECT `id`,`name`,`dlp_reject_reason`,`processing_dttm` WHERE dlp_valid = '0'"
+                     + " INSERT INTO TABLE `emp`.`sampletable_valid` PARTITION (processing_dttm)"
+                     + " SELECT `id`,`name`,`processing_dttm` WHERE dlp_valid = '1'",
+                     validator.toMultiInsertSql(sourceSchema, "cleansed"));
+    }
+
+    @Test
+    public void testPartitionCounts() {
+        PartitionCounts counts = new PartitionCounts();
+        counts.put(0, new long[]{1L, 0L, 3L, 1L});
+        counts.put(1, new long[]{0L, 2L, 1L, 2L});
+
+        // A recomputed partition replaces its earlier counts
+        PartitionCounts retry = new PartitionCounts();
+        retry.put(1, new long[]{0L, 2L, 1L, 2L});
+        counts.merge(retry);
+
+        assertArrayEquals(new long[]{1L, 2L, 4L, 3L}, counts.sum(2));
+    }
+
     @Test
     public void testParseRemainingParameters_missingParameters() {
         String[] args = {"targetDatabase", "entity", "partition", "path-to-policy-file"};
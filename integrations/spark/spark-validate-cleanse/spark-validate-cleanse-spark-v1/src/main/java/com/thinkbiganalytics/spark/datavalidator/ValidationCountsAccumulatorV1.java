@@ -0,0 +1,72 @@
+package com.thinkbiganalytics.spark.datavalidator;
+
+/*-
+ * #%L
+ * kylo-spark-validate-cleanse-spark-v1
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.spark.Accumulable;
+import org.apache.spark.AccumulableParam;
+import org.apache.spark.api.java.JavaSparkContext;
+
+/**
+ * Validation counts accumulator for Spark 1
+ */
+public class ValidationCountsAccumulatorV1 implements ValidationCountsAccumulator {
+
+    private final Accumulable<PartitionCounts, PartitionCounts> accumulable;
+
+    public ValidationCountsAccumulatorV1(JavaSparkContext sc) {
+        this.accumulable = sc.accumulable(new PartitionCounts(), new PartitionCountsParam());
+    }
+
+    @Override
+    public void add(int partitionId, long[] counts) {
+        PartitionCounts partitionCounts = new PartitionCounts();
+        partitionCounts.put(partitionId, counts);
+        accumulable.add(partitionCounts);
+    }
+
+    @Override
+    public long[] value(int schemaLength) {
+        return accumulable.value().sum(schemaLength);
+    }
+
+    /**
+     * Merges partition counts
+     */
+    private static class PartitionCountsParam implements AccumulableParam<PartitionCounts, PartitionCounts> {
+
+        @Override
+        public PartitionCounts addAccumulator(PartitionCounts result, PartitionCounts counts) {
+            result.merge(counts);
+            return result;
+        }
+
+        @Override
+        public PartitionCounts addInPlace(PartitionCounts result, PartitionCounts counts) {
+            result.merge(counts);
+            return result;
+        }
+
+        @Override
+        public PartitionCounts zero(PartitionCounts initialValue) {
+            return new PartitionCounts();
+        }
+    }
+}
@@ -20,9 +20,12 @@ package com.thinkbiganalytics.spark.datavalidator;
  * #L%
  */
 
+import com.thinkbiganalytics.spark.datavalidator.functions.CleanseAndValidatePartitionV1;
 import com.thinkbiganalytics.spark.datavalidator.functions.PartitionLevelCountsV1;
 
 import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.sql.Row;
 import org.springframework.stereotype.Component;
 
 import java.io.Serializable;
@@ -37,4 +40,14 @@ public class ValidatorStrategyV1 implements IValidatorStrategy, Serializable {
     public JavaRDD<long[]> getCleansedRowResultPartitionCounts(JavaRDD<CleansedRowResult> cleansedRowResultJavaRDD, int schemaLength) {
         return cleansedRowResultJavaRDD.mapPartitions(new PartitionLevelCountsV1(schemaLength));
     }
+
+    @Override
+    public JavaRDD<CleansedRowResult> cleanseAndValidatePartitions(JavaRDD<Row> rows, ValidationPlan plan) {
+        return rows.mapPartitions(new CleanseAndValidatePartitionV1(plan));
+    }
+
+    @Override
+    public ValidationCountsAccumulator createValidationCountsAccumulator(JavaSparkContext sc) {
+        return new ValidationCountsAccumulatorV1(sc);
+    }
 }
@@ -0,0 +1,73 @@
+package com.thinkbiganalytics.spark.datavalidator;
+
+/*-
+ * #%L
+ * kylo-spark-validate-cleanse-spark-v2
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.spark.util.AccumulatorV2;
+
+/**
+ * Validation counts accumulator for Spark 2
+ */
+public class ValidationCountsAccumulatorV2 extends AccumulatorV2<PartitionCounts, PartitionCounts> implements ValidationCountsAccumulator {
+
+    private PartitionCounts counts = new PartitionCounts();
+
+    @Override
+    public boolean isZero() {
+        return counts.isEmpty();
+    }
+
+    @Override
+    public AccumulatorV2<PartitionCounts, PartitionCounts> copy() {
+        ValidationCountsAccumulatorV2 copy = new ValidationCountsAccumulatorV2();
+        copy.counts = counts.copy();
+        return copy;
+    }
+
+    @Override
+    public void reset() {
+        counts = new PartitionCounts();
+    }
+
+    @Override
+    public void add(PartitionCounts partitionCounts) {
+        counts.merge(partitionCounts);
+    }
+
+    @Override
+    public void merge(AccumulatorV2<PartitionCounts, PartitionCounts> other) {
+        counts.merge(other.value());
+    }
+
+    @Override
+    public PartitionCounts value() {
+        return counts;
+    }
+
+    @Override
+    public void add(int partitionId, long[] partitionCounts) {
+        counts.put(partitionId, partitionCounts);
+    }
+
+    @Override
+    public long[] value(int schemaLength) {
+        return counts.sum(schemaLength);
+    }
+}
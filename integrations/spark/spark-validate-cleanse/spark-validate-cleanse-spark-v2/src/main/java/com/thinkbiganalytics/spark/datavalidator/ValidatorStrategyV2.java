@@ -20,9 +20,12 @@ package com.thinkbiganalytics.spark.datavalidator;
  * #L%
  */
 
+import com.thinkbiganalytics.spark.datavalidator.functions.CleanseAndValidatePartitionV2;
 import com.thinkbiganalytics.spark.datavalidator.functions.PartitionLevelCountsV2;
 
 import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.sql.Row;
 import org.springframework.stereotype.Component;
 
 import java.io.Serializable;
@@ -37,4 +40,16 @@ public class ValidatorStrategyV2 implements IValidatorStrategy, Serializable {
     public JavaRDD<long[]> getCleansedRowResultPartitionCounts(JavaRDD<CleansedRowResult> cleansedRowResultJavaRDD, int schemaLength) {
         return cleansedRowResultJavaRDD.mapPartitions(new PartitionLevelCountsV2(schemaLength));
     }
+
+    @Override
+    public JavaRDD<CleansedRowResult> cleanseAndValidatePartitions(JavaRDD<Row> rows, ValidationPlan plan) {
+        return rows.mapPartitions(new CleanseAndValidatePartitionV2(plan));
+    }
+
+    @Override
+    public ValidationCountsAccumulator createValidationCountsAccumulator(JavaSparkContext sc) {
+        ValidationCountsAccumulatorV2 accumulator = new ValidationCountsAccumulatorV2();
+        sc.sc().register(accumulator, "validationCounts");
+        return accumulator;
+    }
 }
@@ -0,0 +1,46 @@
+package com.thinkbiganalytics.spark.datavalidator.functions;
+
+/*-
+ * #%L
+ * kylo-spark-validate-cleanse-spark-v2
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.spark.datavalidator.CleansedRowResult;
+import com.thinkbiganalytics.spark.datavalidator.ValidationPlan;
+
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.apache.spark.sql.Row;
+
+import java.util.Iterator;
+
+/**
+ * Cleanse and validate the rows of a partition using a compiled validation plan (Spark 2)
+ */
+public class CleanseAndValidatePartitionV2 implements FlatMapFunction<Iterator<Row>, CleansedRowResult> {
+
+    private final ValidationPlan plan;
+
+    public CleanseAndValidatePartitionV2(ValidationPlan plan) {
+        this.plan = plan;
+    }
+
+    @Override
+    public Iterator<CleansedRowResult> call(final Iterator<Row> rowIterator) throws Exception {
+        return plan.cleanseAndValidate(rowIterator);
+    }
+}
@@ -21,6 +21,7 @@ package com.thinkbiganalytics.spark.datavalidator;
  */
 
 import org.apache.spark.SparkConf;
+import org.apache.spark.SparkContext;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.junit.Test;
@@ -29,6 +30,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 
 public class ValidatorV2Test {
 
@@ -64,4 +66,36 @@ public class ValidatorV2Test {
 
         assertArrayEquals(expectedOutput, output);
     }
+
+    @Test
+    public void testCountCleansedRowResultsV2() {
+        CleansedRowResult validRow = new CleansedRowResult();
+        validRow.rowIsValid = true;
+        validRow.columnsValid = new boolean[]{true, true};
+
+        CleansedRowResult invalidRow = new CleansedRowResult();
+        invalidRow.rowIsValid = false;
+        invalidRow.columnsValid = new boolean[]{false, true};
+
+        SparkConf conf = new SparkConf();
+        conf.setMaster("local[*]");
+        conf.setAppName("Validator Test - Spark 2");
+        JavaSparkContext sc = new JavaSparkContext(SparkContext.getOrCreate(conf));
+        try {
+            JavaRDD<CleansedRowResult> inputRDD = sc.parallelize(Arrays.asList(validRow, invalidRow, validRow, invalidRow, invalidRow), 3);
+
+            Validator validator = new Validator();
+            validator.setValidatorStrategy(new ValidatorStrategyV2());
+            ValidationCountsAccumulator counts = validator.validatorStrategy.createValidationCountsAccumulator(sc);
+
+            // Reading the rows twice must not count them twice
+            JavaRDD<CleansedRowResult> countedRDD = validator.countCleansedRowResults(inputRDD, 2, counts);
+            assertEquals(5L, countedRDD.count());
+            assertEquals(5L, countedRDD.count());
+
+            assertArrayEquals(new long[]{3L, 0L, 2L, 3L}, counts.value(2));
+        } finally {
+            sc.stop();
+        }
+    }
 }
@@ -0,0 +1,78 @@
+package com.thinkbiganalytics.metadata.api.event.entity;
+
+/*-
+ * #%L
+ * thinkbig-metadata-api
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.event.MetadataChange;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Describes a change to one or more entities in the metadata repository, identified by the ids of the changed entities.
+ *
+ * The ids include the entities containing the changed entity, so a change to a child of a feed also reports the feed and its category.
+ */
+public class EntityChange extends MetadataChange {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Set<String> entityIds;
+
+    public EntityChange(ChangeType change, Set<String> entityIds) {
+        this(change, "", entityIds);
+    }
+
+    public EntityChange(ChangeType change, String descr, Set<String> entityIds) {
+        super(change, descr);
+        this.entityIds = Collections.unmodifiableSet(new HashSet<>(entityIds));
+    }
+
+    public Set<String> getEntityIds() {
+        return entityIds;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.entityIds);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof EntityChange) {
+            EntityChange that = (EntityChange) obj;
+            return super.equals(that) &&
+                   Objects.equals(this.entityIds, that.entityIds);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Entity change ");
+        return sb
+            .append("(").append(getChange()).append(") - ")
+            .append("IDs: ").append(this.entityIds)
+            .toString();
+    }
+}
@@ -0,0 +1,47 @@
+package com.thinkbiganalytics.metadata.api.event.entity;
+
+/*-
+ * #%L
+ * thinkbig-metadata-api
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.event.AbstractMetadataEvent;
+
+import org.joda.time.DateTime;
+
+import java.security.Principal;
+
+/**
+ * Notifies listeners that entities were changed in the metadata repository, by this server or, when ModeShape is clustered, by another member of the cluster.
+ */
+public class EntityChangeEvent extends AbstractMetadataEvent<EntityChange> {
+
+    private static final long serialVersionUID = 1L;
+
+    public EntityChangeEvent(EntityChange data) {
+        super(data);
+    }
+
+    public EntityChangeEvent(EntityChange data, Principal user) {
+        super(data, user);
+    }
+
+    public EntityChangeEvent(EntityChange data, DateTime time, Principal user) {
+        super(data, time, user);
+    }
+}
@@ -34,6 +34,27 @@ public interface FeedManagerFeed<C extends FeedManagerCategory> extends Feed<C>
 
     void setJson(String json);
 
+    /**
+     * Gets the feed metadata in the compact binary form written by {@link #setBinaryJson(byte[])}.
+     *
+     * @return the binary feed metadata, or {@code null} if the feed metadata was last saved as JSON
+     */
+    byte[] getBinaryJson();
+
+    /**
+     * Stores the feed metadata in a compact binary form.  The JSON form is removed.
+     *
+     * @param data the binary feed metadata
+     */
+    void setBinaryJson(byte[] data);
+
+    /**
+     * Gets a version of the stored feed metadata that changes whenever the JSON or binary form changes, including changes that have not been saved yet.
+     *
+     * @return the version, or {@code null} if no feed metadata is stored
+     */
+    String getJsonVersion();
+
     FeedManagerTemplate getTemplate();
 
     void setTemplate(FeedManagerTemplate template);
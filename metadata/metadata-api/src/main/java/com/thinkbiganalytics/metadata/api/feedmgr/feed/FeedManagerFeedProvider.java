@@ -26,12 +26,49 @@ import com.thinkbiganalytics.metadata.api.feed.Feed;
 import com.thinkbiganalytics.metadata.api.feedmgr.category.FeedManagerCategory;
 import com.thinkbiganalytics.metadata.api.feedmgr.template.FeedManagerTemplate;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
 import java.util.List;
 
 /**
  */
 public interface FeedManagerFeedProvider extends BaseProvider<FeedManagerFeed, Feed.ID> {
 
+    /**
+     * Property of {@link #findPage(Pageable, String)} that sorts by the feed display name
+     */
+    String SORT_DISPLAY_NAME = "displayName";
+
+    /**
+     * Property of {@link #findPage(Pageable, String)} that sorts by the feed state
+     */
+    String SORT_STATE = "state";
+
+    /**
+     * Property of {@link #findPage(Pageable, String)} that sorts by the category display name
+     */
+    String SORT_CATEGORY = "category";
+
+    /**
+     * Property of {@link #findPage(Pageable, String)} that sorts by the template name
+     */
+    String SORT_TEMPLATE = "template";
+
+    /**
+     * Property of {@link #findPage(Pageable, String)} that sorts by the last modified time
+     */
+    String SORT_MODIFIED_TIME = "modifiedTime";
+
+    /**
+     * Finds one page of feeds with a single query.  The sorting, filtering and paging is done by the repository so only the feeds on the page are returned.
+     *
+     * @param pageable the page to return, sorted by one of the {@code SORT_} properties.  Feeds are sorted by the last modified time, newest first, if no sort is specified.
+     * @param filter   text the feed or category display name must contain, ignoring case, or {@code null} for all feeds
+     * @return the page of feeds
+     */
+    Page<FeedManagerFeed> findPage(Pageable pageable, String filter);
+
     FeedManagerFeed findBySystemName(String categorySystemName, String systemName);
 
     List<? extends FeedManagerFeed> findByTemplateId(FeedManagerTemplate.ID templateId);
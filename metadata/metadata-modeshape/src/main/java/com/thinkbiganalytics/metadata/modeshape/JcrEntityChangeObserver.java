@@ -0,0 +1,140 @@
+package com.thinkbiganalytics.metadata.modeshape;
+
+/*-
+ * #%L
+ * thinkbig-metadata-modeshape
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.event.MetadataChange.ChangeType;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
+import com.thinkbiganalytics.metadata.api.event.entity.EntityChange;
+import com.thinkbiganalytics.metadata.api.event.entity.EntityChangeEvent;
+import com.thinkbiganalytics.metadata.modeshape.security.ModeShapeReadOnlyPrincipal;
+import com.thinkbiganalytics.metadata.modeshape.security.OverrideCredentials;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+
+/**
+ * Publishes an {@link EntityChangeEvent} for every save to the metadata repository.
+ *
+ * ModeShape only delivers the observation events of a save made by another Kylo node when ModeShape itself is clustered, so caches of entity data must also
+ * send their evictions to the other nodes.  Each event reports the ids of the changed nodes and of their ancestors below /metadata.
+ */
+public class JcrEntityChangeObserver implements EventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(JcrEntityChangeObserver.class);
+
+    /**
+     * The path of the root node of the metadata entities
+     */
+    public static final String METADATA_PATH = "/metadata";
+
+    private static final int EVENT_TYPES = Event.NODE_ADDED | Event.NODE_REMOVED | Event.NODE_MOVED | Event.PROPERTY_ADDED | Event.PROPERTY_CHANGED | Event.PROPERTY_REMOVED;
+
+    @Inject
+    @Named("metadataJcrRepository")
+    private Repository repository;
+
+    @Inject
+    private MetadataEventService metadataEventService;
+
+    /**
+     * Session used to register the listener and to look up the ancestors of changed nodes.  Only the observation thread uses it.
+     */
+    private Session session;
+
+    /**
+     * Registers this listener with the metadata repository.
+     */
+    @PostConstruct
+    public void start() throws RepositoryException {
+        session = repository.login(OverrideCredentials.create(ModeShapeReadOnlyPrincipal.INSTANCE, MetadataAccess.SERVICE));
+        session.getWorkspace().getObservationManager().addEventListener(this, EVENT_TYPES, METADATA_PATH, true, null, null, false);
+    }
+
+    /**
+     * Removes this listener and closes its session.
+     */
+    @PreDestroy
+    public void stop() {
+        if (session != null) {
+            try {
+                session.getWorkspace().getObservationManager().removeEventListener(this);
+            } catch (RepositoryException e) {
+                log.warn("Unable to remove the metadata change listener", e);
+            }
+            session.logout();
+            session = null;
+        }
+    }
+
+    @Override
+    public void onEvent(EventIterator events) {
+        Set<String> entityIds = new HashSet<>();
+        Set<String> visitedPaths = new HashSet<>();
+        while (events.hasNext()) {
+            Event event = events.nextEvent();
+            try {
+                entityIds.add(event.getIdentifier());
+                boolean propertyEvent = (event.getType() & (Event.PROPERTY_ADDED | Event.PROPERTY_CHANGED | Event.PROPERTY_REMOVED)) != 0;
+                String nodePath = propertyEvent ? parentPath(event.getPath()) : event.getPath();
+                addAncestorIds(parentPath(nodePath), entityIds, visitedPaths);
+            } catch (RepositoryException e) {
+                log.debug("Unable to read the metadata change event {}", event, e);
+            }
+        }
+
+        if (!entityIds.isEmpty()) {
+            log.debug("Metadata entities changed: {}", entityIds);
+            metadataEventService.notify(new EntityChangeEvent(new EntityChange(ChangeType.UPDATE, entityIds)));
+        }
+    }
+
+    /**
+     * Adds the ids of the node at the path and its ancestors below /metadata that still exist.
+     */
+    private void addAncestorIds(String path, Set<String> entityIds, Set<String> visitedPaths) throws RepositoryException {
+        while (path != null && path.startsWith(METADATA_PATH + "/") && visitedPaths.add(path)) {
+            if (session.nodeExists(path)) {
+                entityIds.add(session.getNode(path).getIdentifier());
+            }
+            path = parentPath(path);
+        }
+    }
+
+    private String parentPath(String path) {
+        int index = path.lastIndexOf('/');
+        return index > 0 ? path.substring(0, index) : null;
+    }
+}
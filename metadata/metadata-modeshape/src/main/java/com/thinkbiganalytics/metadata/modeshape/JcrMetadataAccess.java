@@ -41,6 +41,7 @@ import com.thinkbiganalytics.metadata.modeshape.support.JcrVersionUtil;
 import org.modeshape.jcr.api.txn.TransactionManagerLookup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
@@ -49,10 +50,13 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.jcr.Credentials;
@@ -113,6 +117,44 @@ public class JcrMetadataAccess implements MetadataAccess {
     @Inject
     private TransactionManagerLookup txnLookup;
 
+    /**
+     * Maximum number of idle sessions kept for read-only transactions
+     */
+    @Value("${kylo.metadata.read.session.pool.size:16}")
+    private int readSessionPoolSize = 16;
+
+    /**
+     * Maximum time in seconds a session is used for read-only transactions before it is logged out
+     */
+    @Value("${kylo.metadata.read.session.pool.max-age:300}")
+    private long readSessionMaxAge = 300;
+
+    /**
+     * Sessions for read-only transactions
+     */
+    private JcrSessionPool readSessionPool;
+
+
+    @PostConstruct
+    public void init() {
+        readSessionPool = new JcrSessionPool(repository, readSessionPoolSize, readSessionMaxAge, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (readSessionPool != null) {
+            readSessionPool.close();
+        }
+    }
+
+    /**
+     * Gets the usage statistics of the sessions used by read-only transactions.
+     *
+     * @return the session pool statistics
+     */
+    public JcrSessionPool.Statistics getReadSessionPoolStatistics() {
+        return readSessionPool.getStatistics();
+    }
 
     public static boolean hasActiveSession() {
         return activeSession.get() != null;
@@ -309,24 +351,26 @@ public class JcrMetadataAccess implements MetadataAccess {
 
         if (session == null) {
             try {
-                activeSession.set(this.repository.login(creds));
-
-                TransactionManager txnMgr = this.txnLookup.getTransactionManager();
+                JcrSessionPool.PooledSession pooled = readSessionPool.borrow(creds);
+                activeSession.set(pooled.getSession());
 
                 try {
+                    TransactionManager txnMgr = this.txnLookup.getTransactionManager();
                     txnMgr.begin();
 
-                    return cmd.execute();
-                } finally {
                     try {
-                        txnMgr.rollback();
-                    } catch (SystemException e) {
-                        log.error("Failed to rollback transaction", e);
+                        return cmd.execute();
+                    } finally {
+                        try {
+                            txnMgr.rollback();
+                        } catch (SystemException e) {
+                            log.error("Failed to rollback transaction", e);
+                        }
                     }
-
-                    activeSession.get().refresh(false);
-                    activeSession.get().logout();
+                } finally {
+                    // Discards any changes before the session is reused
                     activeSession.remove();
+                    readSessionPool.release(pooled);
                 }
             } catch (SystemException | NotSupportedException | RepositoryException e) {
                 throw new MetadataAccessException("Failure accessing the metadata store", e);
@@ -0,0 +1,378 @@
+package com.thinkbiganalytics.metadata.modeshape;
+
+/*-
+ * #%L
+ * thinkbig-metadata-modeshape
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.modeshape.security.OverrideCredentials;
+import com.thinkbiganalytics.metadata.modeshape.security.SpringAuthenticationCredentials;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.Authentication;
+
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.jcr.Credentials;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+/**
+ * A pool of the sessions used by read-only transactions, keyed by the set of principals the session was logged in with.
+ *
+ * <p>A session is reset by discarding its pending changes when it is returned, and is logged out instead of being pooled if it has been open longer than
+ * the maximum age, or if the pool already holds the maximum number of idle sessions.  Credentials other than {@link SpringAuthenticationCredentials} and
+ * {@link OverrideCredentials} are not pooled.</p>
+ */
+public class JcrSessionPool {
+
+    private static final Logger log = LoggerFactory.getLogger(JcrSessionPool.class);
+
+    /**
+     * Repository for logging in new sessions
+     */
+    @Nonnull
+    private final Repository repository;
+
+    /**
+     * Maximum number of idle sessions, for all principals
+     */
+    private final int maxIdle;
+
+    /**
+     * Maximum time in milliseconds a session is used before it is logged out
+     */
+    private final long maxAge;
+
+    /**
+     * Idle sessions by principal key
+     */
+    @Nonnull
+    private final Map<Object, Deque<PooledSession>> idleSessions = new ConcurrentHashMap<>();
+
+    @Nonnull
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    @Nonnull
+    private final AtomicLong borrowCount = new AtomicLong();
+
+    @Nonnull
+    private final AtomicLong loginCount = new AtomicLong();
+
+    @Nonnull
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    @Nonnull
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    @Nonnull
+    private final AtomicLong logoutCount = new AtomicLong();
+
+    @Nonnull
+    private final AtomicLong totalLifetimeMillis = new AtomicLong();
+
+    @Nonnull
+    private final AtomicLong maxLifetimeMillis = new AtomicLong();
+
+    /**
+     * Constructs a {@code JcrSessionPool}.
+     *
+     * @param repository the repository for logging in new sessions
+     * @param maxIdle    the maximum number of idle sessions, or 0 to log out every session when it is returned
+     * @param maxAge     the maximum time a session is used before it is logged out
+     * @param unit       the unit of the maximum age
+     */
+    public JcrSessionPool(@Nonnull final Repository repository, final int maxIdle, final long maxAge, @Nonnull final TimeUnit unit) {
+        this.repository = repository;
+        this.maxIdle = maxIdle;
+        this.maxAge = unit.toMillis(maxAge);
+    }
+
+    /**
+     * Gets an idle session logged in with the same principals as the credentials, or logs in a new session.
+     *
+     * @param credentials the credentials of the session
+     * @return the session, to be returned with {@link #release(PooledSession)}
+     * @throws RepositoryException if a new session cannot be logged in
+     */
+    @Nonnull
+    public PooledSession borrow(@Nonnull final Credentials credentials) throws RepositoryException {
+        final long start = System.nanoTime();
+        final Object key = getKey(credentials);
+        PooledSession pooled = null;
+
+        final Deque<PooledSession> idle = (key != null) ? idleSessions.get(key) : null;
+        while (pooled == null && idle != null) {
+            final PooledSession candidate = idle.pollFirst();
+            if (candidate == null) {
+                break;
+            }
+            idleCount.decrementAndGet();
+            if (candidate.isExpired() || !candidate.session.isLive()) {
+                logout(candidate);
+            } else {
+                pooled = candidate;
+            }
+        }
+
+        if (pooled == null) {
+            pooled = new PooledSession(key, repository.login(credentials));
+            loginCount.incrementAndGet();
+        }
+
+        final long wait = System.nanoTime() - start;
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(wait);
+        maxWaitNanos.accumulateAndGet(wait, Math::max);
+        return pooled;
+    }
+
+    /**
+     * Returns a session to the pool, discarding any pending changes.
+     *
+     * @param pooled the session to return
+     */
+    public void release(@Nonnull final PooledSession pooled) {
+        boolean reusable = pooled.key != null && !pooled.isExpired() && pooled.session.isLive();
+        if (reusable) {
+            try {
+                pooled.session.refresh(false);
+            } catch (RepositoryException | RuntimeException e) {
+                log.debug("Unable to reset a pooled session; logging it out", e);
+                reusable = false;
+            }
+        }
+
+        if (reusable && reserveIdle()) {
+            idleSessions.computeIfAbsent(pooled.key, key -> new ConcurrentLinkedDeque<>()).offerFirst(pooled);
+        } else {
+            logout(pooled);
+        }
+    }
+
+    /**
+     * Logs out all idle sessions.
+     */
+    public void close() {
+        idleSessions.values().forEach(idle -> {
+            PooledSession pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                idleCount.decrementAndGet();
+                logout(pooled);
+            }
+        });
+    }
+
+    /**
+     * Gets the usage statistics of this pool.
+     *
+     * @return the statistics
+     */
+    @Nonnull
+    public Statistics getStatistics() {
+        final Statistics stats = new Statistics();
+        stats.idleSessions = idleCount.get();
+        stats.borrowCount = borrowCount.get();
+        stats.loginCount = loginCount.get();
+        stats.logoutCount = logoutCount.get();
+        stats.averageWaitMillis = (stats.borrowCount > 0) ? TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.get() / stats.borrowCount) / 1000.0 : 0;
+        stats.maxWaitMillis = TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get()) / 1000.0;
+        stats.averageLifetimeMillis = (stats.logoutCount > 0) ? totalLifetimeMillis.get() / stats.logoutCount : 0;
+        stats.maxLifetimeMillis = maxLifetimeMillis.get();
+        return stats;
+    }
+
+    /**
+     * Reserves a slot for an idle session, first logging out expired idle sessions if the pool is full.
+     */
+    private boolean reserveIdle() {
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            return true;
+        }
+        idleCount.decrementAndGet();
+
+        idleSessions.values().forEach(idle -> {
+            for (Iterator<PooledSession> iter = idle.iterator(); iter.hasNext(); ) {
+                final PooledSession pooled = iter.next();
+                if (pooled.isExpired() && idle.removeFirstOccurrence(pooled)) {
+                    idleCount.decrementAndGet();
+                    logout(pooled);
+                }
+            }
+        });
+
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            return true;
+        }
+        idleCount.decrementAndGet();
+        return false;
+    }
+
+    private void logout(@Nonnull final PooledSession pooled) {
+        try {
+            pooled.session.logout();
+        } catch (RuntimeException e) {
+            log.debug("Failed to logout a pooled session", e);
+        }
+
+        final long lifetime = System.currentTimeMillis() - pooled.created;
+        logoutCount.incrementAndGet();
+        totalLifetimeMillis.addAndGet(lifetime);
+        maxLifetimeMillis.accumulateAndGet(lifetime, Math::max);
+    }
+
+    /**
+     * Gets the principals of the credentials, or {@code null} if sessions for the credentials should not be pooled.
+     */
+    @Nullable
+    private Object getKey(@Nonnull final Credentials credentials) {
+        if (credentials instanceof SpringAuthenticationCredentials) {
+            final SpringAuthenticationCredentials springCredentials = (SpringAuthenticationCredentials) credentials;
+            final Authentication auth = springCredentials.getAuthentication();
+            return (auth != null && auth.isAuthenticated())
+                   ? Arrays.asList(auth.getName(), new HashSet<>(auth.getAuthorities()), springCredentials.getPrincipals())
+                   : null;
+        } else if (credentials instanceof OverrideCredentials) {
+            final OverrideCredentials overrideCredentials = (OverrideCredentials) credentials;
+            return Arrays.asList(overrideCredentials.getUserPrincipal(), overrideCredentials.getRolePrincipals());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * A session borrowed from a {@link JcrSessionPool}.
+     */
+    public class PooledSession {
+
+        /**
+         * Principals the session was logged in with
+         */
+        @Nullable
+        private final Object key;
+
+        /**
+         * The session
+         */
+        @Nonnull
+        private final Session session;
+
+        /**
+         * Time in milliseconds the session was logged in
+         */
+        private final long created = System.currentTimeMillis();
+
+        private PooledSession(@Nullable final Object key, @Nonnull final Session session) {
+            this.key = key;
+            this.session = session;
+        }
+
+        @Nonnull
+        public Session getSession() {
+            return session;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() - created > maxAge;
+        }
+    }
+
+    /**
+     * Usage statistics of a {@link JcrSessionPool}.
+     */
+    public static class Statistics {
+
+        private int idleSessions;
+        private long borrowCount;
+        private long loginCount;
+        private long logoutCount;
+        private double averageWaitMillis;
+        private double maxWaitMillis;
+        private long averageLifetimeMillis;
+        private long maxLifetimeMillis;
+
+        /**
+         * @return the number of idle sessions in the pool
+         */
+        public int getIdleSessions() {
+            return idleSessions;
+        }
+
+        /**
+         * @return the number of sessions borrowed from the pool
+         */
+        public long getBorrowCount() {
+            return borrowCount;
+        }
+
+        /**
+         * @return the number of sessions logged in because no idle session was available
+         */
+        public long getLoginCount() {
+            return loginCount;
+        }
+
+        /**
+         * @return the number of sessions logged out
+         */
+        public long getLogoutCount() {
+            return logoutCount;
+        }
+
+        /**
+         * @return the average time taken to get a session from the pool, including logging in new sessions
+         */
+        public double getAverageWaitMillis() {
+            return averageWaitMillis;
+        }
+
+        /**
+         * @return the longest time taken to get a session from the pool
+         */
+        public double getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        /**
+         * @return the average time between logging in and logging out the sessions
+         */
+        public long getAverageLifetimeMillis() {
+            return averageLifetimeMillis;
+        }
+
+        /**
+         * @return the longest time between logging in and logging out a session
+         */
+        public long getMaxLifetimeMillis() {
+            return maxLifetimeMillis;
+        }
+    }
+}
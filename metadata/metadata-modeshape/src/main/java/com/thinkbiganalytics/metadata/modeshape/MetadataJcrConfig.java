@@ -156,6 +156,11 @@ public class MetadataJcrConfig {
         return new JcrMetadataAccess();
     }
 
+    @Bean
+    public JcrEntityChangeObserver jcrEntityChangeObserver() {
+        return new JcrEntityChangeObserver();
+    }
+
     @Bean(initMethod = "configure")
     public MetadataJcrConfigurator jcrConfigurator(List<PostMetadataConfigAction> postConfigActions) {
         return new MetadataJcrConfigurator(postConfigActions);
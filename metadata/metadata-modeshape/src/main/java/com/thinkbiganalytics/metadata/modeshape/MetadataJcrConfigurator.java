@@ -25,14 +25,24 @@ package com.thinkbiganalytics.metadata.modeshape;
 
 import com.thinkbiganalytics.metadata.api.MetadataAccess;
 import com.thinkbiganalytics.metadata.api.PostMetadataConfigAction;
+import com.thinkbiganalytics.metadata.modeshape.category.JcrCategory;
 import com.thinkbiganalytics.metadata.modeshape.common.SecurityPaths;
 import com.thinkbiganalytics.metadata.modeshape.extension.ExtensionsConstants;
+import com.thinkbiganalytics.metadata.modeshape.feed.JcrFeed;
+import com.thinkbiganalytics.metadata.modeshape.feed.JcrFeedConnection;
+import com.thinkbiganalytics.metadata.modeshape.feed.JcrFeedDestination;
+import com.thinkbiganalytics.metadata.modeshape.feed.JcrFeedSource;
 import com.thinkbiganalytics.metadata.modeshape.security.AdminCredentials;
 import com.thinkbiganalytics.metadata.modeshape.security.JcrAccessControlUtil;
 import com.thinkbiganalytics.metadata.modeshape.security.ModeShapeAdminPrincipal;
 import com.thinkbiganalytics.metadata.modeshape.support.JcrUtil;
 import com.thinkbiganalytics.metadata.modeshape.support.JcrVersionUtil;
 
+import org.modeshape.jcr.api.Workspace;
+import org.modeshape.jcr.api.index.IndexColumnDefinitionTemplate;
+import org.modeshape.jcr.api.index.IndexDefinition;
+import org.modeshape.jcr.api.index.IndexDefinitionTemplate;
+import org.modeshape.jcr.api.index.IndexManager;
 import org.modeshape.jcr.api.nodetype.NodeTypeManager;
 import org.modeshape.jcr.security.SimplePrincipal;
 import org.slf4j.Logger;
@@ -42,6 +52,7 @@ import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.stream.Collectors;
@@ -70,6 +81,11 @@ import javax.jcr.version.VersionManager;
 public class MetadataJcrConfigurator {
 
     private static final Logger log = LoggerFactory.getLogger(MetadataJcrConfigurator.class);
+
+    /**
+     * The name of the index provider configured in the metadata-repository.json
+     */
+    public static final String INDEX_PROVIDER = "local";
     private final AtomicBoolean configured = new AtomicBoolean(false);
     @Inject
     private MetadataAccess metadataAccess;
@@ -92,6 +108,15 @@ public class MetadataJcrConfigurator {
             }
         }, MetadataAccess.SERVICE);
 
+        this.metadataAccess.commit(() -> {
+            try {
+                Session session = JcrMetadataAccess.getActiveSession();
+                ensureIndexes(session);
+            } catch (RepositoryException e) {
+                throw new MetadataRepositoryException("Could not create the metadata indexes", e);
+            }
+        }, MetadataAccess.SERVICE);
+
         this.metadataAccess.commit(() -> {
             try {
                 Session session = JcrMetadataAccess.getActiveSession();
@@ -206,6 +231,48 @@ public class MetadataJcrConfigurator {
         }
     }
 
+    /**
+     * Register the indexes used to look up feeds and categories by their properties rather than by navigating the tree
+     */
+    private void ensureIndexes(Session session) throws RepositoryException {
+        IndexManager indexMgr = ((Workspace) session.getWorkspace()).getIndexManager();
+        if (!indexMgr.getProviderNames().contains(INDEX_PROVIDER)) {
+            log.warn("The ModeShape index provider \"{}\" is not configured.  Feed lookups will not be indexed.", INDEX_PROVIDER);
+            return;
+        }
+
+        Map<String, IndexDefinition> existing = indexMgr.getIndexDefinitions();
+        List<IndexDefinition> indexes = new ArrayList<>();
+        addValueIndex(indexMgr, existing, indexes, "feedSystemName", JcrFeed.NODE_TYPE, JcrFeed.SYSTEM_NAME, PropertyType.STRING);
+        addValueIndex(indexMgr, existing, indexes, "feedCategory", JcrFeed.NODE_TYPE, JcrFeed.CATEGORY, PropertyType.REFERENCE);
+        addValueIndex(indexMgr, existing, indexes, "feedState", JcrFeed.NODE_TYPE, JcrFeed.STATE, PropertyType.STRING);
+        addValueIndex(indexMgr, existing, indexes, "feedSourceDatasource", JcrFeedSource.NODE_TYPE, JcrFeedConnection.DATASOURCE, PropertyType.WEAKREFERENCE);
+        addValueIndex(indexMgr, existing, indexes, "feedDestinationDatasource", JcrFeedDestination.NODE_TYPE, JcrFeedConnection.DATASOURCE, PropertyType.WEAKREFERENCE);
+        addValueIndex(indexMgr, existing, indexes, "categorySystemName", JcrCategory.NODE_TYPE, JcrCategory.SYSTEM_NAME, PropertyType.STRING);
+
+        if (!indexes.isEmpty()) {
+            log.info("Registering {} metadata indexes", indexes.size());
+            indexMgr.registerIndexes(indexes.toArray(new IndexDefinition[indexes.size()]), true);
+        }
+    }
+
+    private void addValueIndex(IndexManager indexMgr, Map<String, IndexDefinition> existing, List<IndexDefinition> indexes, String name, String nodeType, String property, int type) {
+        if (!existing.containsKey(name)) {
+            IndexColumnDefinitionTemplate column = indexMgr.createIndexColumnDefinitionTemplate();
+            column.setPropertyName(property);
+            column.setColumnType(type);
+
+            IndexDefinitionTemplate index = indexMgr.createIndexDefinitionTemplate();
+            index.setName(name);
+            index.setProviderName(INDEX_PROVIDER);
+            index.setKind(IndexDefinition.IndexKind.VALUE);
+            index.setNodeTypeName(nodeType);
+            index.setSynchronous(true);
+            index.setColumnDefinitions(column);
+            indexes.add(index);
+        }
+    }
+
     private void firePostConfigActions() {
         for (PostMetadataConfigAction action : this.postConfigActions) {
             // TODO: catch exceptions and continue?  Currently propagates runtime exceptions and will fail startup.
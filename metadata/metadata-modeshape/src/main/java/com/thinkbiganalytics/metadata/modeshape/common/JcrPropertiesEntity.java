@@ -26,6 +26,7 @@ package com.thinkbiganalytics.metadata.modeshape.common;
 import com.thinkbiganalytics.metadata.api.Propertied;
 import com.thinkbiganalytics.metadata.modeshape.MetadataRepositoryException;
 import com.thinkbiganalytics.metadata.modeshape.support.JcrPropertyUtil;
+import com.thinkbiganalytics.metadata.modeshape.support.JcrPropertyWriter;
 import com.thinkbiganalytics.metadata.modeshape.support.JcrUtil;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -37,6 +38,7 @@ import javax.jcr.Node;
 import javax.jcr.Property;
 import javax.jcr.RepositoryException;
 import javax.jcr.nodetype.ConstraintViolationException;
+import javax.jcr.nodetype.NodeType;
 
 /**
  *
@@ -86,13 +88,35 @@ public class JcrPropertiesEntity extends JcrEntity implements Propertied {
         return null;
     }
 
+    /**
+     * Sets the specified properties, writing the primary properties to this node and the others to the mixin bag of properties.  Properties whose value
+     * is unchanged are not written.
+     */
     public void setProperties(Map<String, Object> properties) {
+        try {
+            NodeType nodeType = this.node.getPrimaryNodeType();
+            JcrPropertyWriter nodeWriter = new JcrPropertyWriter(this.node);
+            JcrPropertyWriter propertiesWriter = null;
+
+            //add the properties as attrs
+            for (Map.Entry<String, Object> entry : properties.entrySet()) {
+                if (JcrPropertyUtil.hasProperty(nodeType, entry.getKey())) {
+                    nodeWriter.setProperty(entry.getKey(), entry.getValue());
+                } else {
+                    if (propertiesWriter == null) {
+                        propertiesWriter = new JcrPropertyWriter(getPropertiesObject().getNode());
+                    }
+                    propertiesWriter.setProperty(entry.getKey(), entry.getValue());
+                }
+            }
 
-        //add the properties as attrs
-        for (Map.Entry<String, Object> entry : properties.entrySet()) {
-            setProperty(entry.getKey(), entry.getValue());
+            nodeWriter.flush();
+            if (propertiesWriter != null) {
+                propertiesWriter.flush();
+            }
+        } catch (RepositoryException e) {
+            throw new MetadataRepositoryException("Unable to set Properties for this entity. ", e);
         }
-
     }
 
     /**
@@ -22,17 +22,27 @@ package com.thinkbiganalytics.metadata.modeshape.feed;
 
 import com.thinkbiganalytics.metadata.api.feedmgr.feed.FeedManagerFeed;
 import com.thinkbiganalytics.metadata.api.feedmgr.template.FeedManagerTemplate;
+import com.thinkbiganalytics.metadata.modeshape.MetadataRepositoryException;
 import com.thinkbiganalytics.metadata.modeshape.category.JcrCategory;
 import com.thinkbiganalytics.metadata.modeshape.category.JcrFeedManagerCategory;
 import com.thinkbiganalytics.metadata.modeshape.template.JcrFeedTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import javax.jcr.Binary;
 import javax.jcr.Node;
+import javax.jcr.RepositoryException;
 
 /**
  */
 public class JcrFeedManagerFeed<C extends JcrFeedManagerCategory> extends JcrFeed<C> implements FeedManagerFeed<C> {
 
     public static String FEED_JSON = "tba:json";
+    public static String FEED_BINARY_JSON = "tba:binaryJson";
     public static String PROCESS_GROUP_ID = "tba:processGroupId";
     public static String FEED_TEMPLATE = "tba:feedTemplate";
 
@@ -53,6 +63,51 @@ public class JcrFeedManagerFeed<C extends JcrFeedManagerCategory> extends JcrFee
     @Override
     public void setJson(String json) {
         setProperty(FEED_JSON, json);
+        setProperty(FEED_BINARY_JSON, null);
+    }
+
+    @Override
+    public byte[] getBinaryJson() {
+        return getProperty(FEED_BINARY_JSON, byte[].class, true);
+    }
+
+    @Override
+    public void setBinaryJson(byte[] data) {
+        setProperty(FEED_BINARY_JSON, data != null ? new ByteArrayInputStream(data) : null);
+        setProperty(FEED_JSON, null);
+    }
+
+    /**
+     * Uses the SHA-1 content hash ModeShape keeps for each binary value so the binary form is not read.  The JSON form of feeds that have not been saved since
+     * the binary form was introduced is hashed with SHA-1.
+     */
+    @Override
+    public String getJsonVersion() {
+        try {
+            if (this.node.hasProperty(FEED_BINARY_JSON)) {
+                Binary binary = this.node.getProperty(FEED_BINARY_JSON).getBinary();
+                try {
+                    return (binary instanceof org.modeshape.jcr.api.Binary) ? ((org.modeshape.jcr.api.Binary) binary).getHexHash() : null;
+                } finally {
+                    binary.dispose();
+                }
+            } else if (this.node.hasProperty(FEED_JSON)) {
+                return sha1Hex(this.node.getProperty(FEED_JSON).getString());
+            } else {
+                return null;
+            }
+        } catch (RepositoryException e) {
+            throw new MetadataRepositoryException("Failed to read the version of the feed JSON", e);
+        }
+    }
+
+    private static String sha1Hex(String json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(json.getBytes(StandardCharsets.UTF_8));
+            return String.format("%040x", new BigInteger(1, hash));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 algorithm not available.  Fatal (should be in the JDK).", e);
+        }
     }
 
     @Override
@@ -34,24 +34,37 @@ import com.thinkbiganalytics.metadata.api.feedmgr.template.FeedManagerTemplate;
 import com.thinkbiganalytics.metadata.modeshape.BaseJcrProvider;
 import com.thinkbiganalytics.metadata.modeshape.JcrMetadataAccess;
 import com.thinkbiganalytics.metadata.modeshape.MetadataRepositoryException;
+import com.thinkbiganalytics.metadata.modeshape.category.JcrCategory;
 import com.thinkbiganalytics.metadata.modeshape.common.EntityUtil;
 import com.thinkbiganalytics.metadata.modeshape.common.JcrEntity;
+import com.thinkbiganalytics.metadata.modeshape.common.JcrPropertyConstants;
 import com.thinkbiganalytics.metadata.modeshape.support.JcrQueryUtil;
+import com.thinkbiganalytics.metadata.modeshape.support.JcrUtil;
 
+import org.apache.commons.lang3.StringUtils;
 import org.joda.time.DateTime;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.Serializable;
 import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 import javax.jcr.query.QueryResult;
+import javax.jcr.query.RowIterator;
 
 /**
  */
@@ -138,6 +151,113 @@ public class JcrFeedManagerFeedProvider extends BaseJcrProvider<FeedManagerFeed,
 
     }
 
+    @Override
+    public Page<FeedManagerFeed> findPage(Pageable pageable, String filter) {
+        Sort.Order order = (pageable.getSort() != null && pageable.getSort().iterator().hasNext()) ? pageable.getSort().iterator().next()
+                                                                                                 : new Sort.Order(Sort.Direction.DESC, SORT_MODIFIED_TIME);
+        Map<String, String> bindParams = new HashMap<>();
+        String query = toPageQuery(order, filter, bindParams);
+
+        try {
+            RowIterator rows = JcrQueryUtil.query(getSession(), query, bindParams).getRows();
+            if (SORT_TEMPLATE.equals(order.getProperty())) {
+                return findPageByTemplate(rows, pageable, order);
+            }
+
+            long total = rows.getSize();
+            List<FeedManagerFeed> feeds = new ArrayList<>();
+            int position = 0;
+
+            // Only create entities for the rows on the page; the rest are just counted if the size is unknown
+            while (rows.hasNext() && (total < 0 || feeds.size() < pageable.getPageSize())) {
+                if (position >= pageable.getOffset() && feeds.size() < pageable.getPageSize()) {
+                    feeds.add(JcrUtil.createJcrObject(rows.nextRow().getNode("e"), JcrFeedManagerFeed.class));
+                } else {
+                    rows.nextRow();
+                }
+                position++;
+            }
+            return new PageImpl<>(feeds, pageable, total >= 0 ? total : position);
+        } catch (RepositoryException e) {
+            throw new MetadataRepositoryException("Unable to find a page of feeds.  Query is: " + query, e);
+        }
+    }
+
+    /**
+     * Sorts the feed nodes by the name of their template and returns the requested page.
+     * ModeShape cannot join the template reference to a node that is not referenceable so each distinct template is looked up once instead.
+     */
+    private Page<FeedManagerFeed> findPageByTemplate(RowIterator rows, Pageable pageable, Sort.Order order) throws RepositoryException {
+        Map<String, String> templateNames = new HashMap<>();
+        Map<Node, String> feedTemplateNames = new LinkedHashMap<>();
+        while (rows.hasNext()) {
+            Node feedNode = rows.nextRow().getNode("e");
+            String templateName = null;
+            if (feedNode.hasProperty(JcrFeedManagerFeed.FEED_TEMPLATE)) {
+                String templateId = feedNode.getProperty(JcrFeedManagerFeed.FEED_TEMPLATE).getString();
+                if (!templateNames.containsKey(templateId)) {
+                    Node templateNode = getSession().getNodeByIdentifier(templateId);
+                    templateNames.put(templateId, templateNode.hasProperty(JcrPropertyConstants.TITLE) ? templateNode.getProperty(JcrPropertyConstants.TITLE).getString().toLowerCase() : null);
+                }
+                templateName = templateNames.get(templateId);
+            }
+            feedTemplateNames.put(feedNode, templateName);
+        }
+
+        Comparator<String> names = order.isAscending() ? Comparator.naturalOrder() : Comparator.reverseOrder();
+        List<FeedManagerFeed> feeds = feedTemplateNames.entrySet().stream()
+            .sorted(Comparator.comparing(Map.Entry::getValue, Comparator.nullsLast(names)))
+            .skip(pageable.getOffset())
+            .limit(pageable.getPageSize())
+            .map(entry -> (FeedManagerFeed) JcrUtil.createJcrObject(entry.getKey(), JcrFeedManagerFeed.class))
+            .collect(Collectors.toList());
+        return new PageImpl<>(feeds, pageable, feedTemplateNames.size());
+    }
+
+    /**
+     * Builds the query for a page of feeds.  The category is joined to filter and sort by its name.
+     * The query is not ordered when sorting by template; see {@link #findPageByTemplate(RowIterator, Pageable, Sort.Order)}.
+     *
+     * @param order      the sort order
+     * @param filter     the text the feed or category display name must contain, matched literally, or {@code null}
+     * @param bindParams the map to add the bind variables to
+     * @return the JCR-SQL2 query
+     */
+    private String toPageQuery(Sort.Order order, String filter, Map<String, String> bindParams) {
+        StringBuilder query = new StringBuilder("SELECT e.* FROM [" + JcrFeed.NODE_TYPE + "] AS e ")
+            .append("JOIN [").append(JcrCategory.NODE_TYPE).append("] AS c ON ISCHILDNODE(e, c) ");
+
+        String orderBy;
+        switch (order.getProperty()) {
+            case SORT_DISPLAY_NAME:
+                orderBy = "LOWER(e.[" + JcrPropertyConstants.TITLE + "])";
+                break;
+            case SORT_STATE:
+                orderBy = "e.[" + JcrFeed.STATE + "]";
+                break;
+            case SORT_CATEGORY:
+                orderBy = "LOWER(c.[" + JcrPropertyConstants.TITLE + "])";
+                break;
+            case SORT_TEMPLATE:
+                orderBy = null;
+                break;
+            case SORT_MODIFIED_TIME:
+                orderBy = "e.[" + JcrPropertyConstants.MODIFIED_TIME + "]";
+                break;
+            default:
+                throw new IllegalArgumentException("Feeds cannot be sorted by " + order.getProperty());
+        }
+
+        if (StringUtils.isNotBlank(filter)) {
+            query.append("WHERE LOWER(e.[").append(JcrPropertyConstants.TITLE).append("]) LIKE $filter OR LOWER(c.[").append(JcrPropertyConstants.TITLE).append("]) LIKE $filter ");
+            bindParams.put("filter", "%" + JcrQueryUtil.escapeLike(filter.trim().toLowerCase()) + "%");
+        }
+        if (orderBy != null) {
+            query.append("ORDER BY ").append(orderBy).append(order.isAscending() ? " ASC" : " DESC");
+        }
+        return query.toString();
+    }
+
     public Feed.ID resolveId(Serializable fid) {
         return new JcrFeed.FeedId(fid);
     }
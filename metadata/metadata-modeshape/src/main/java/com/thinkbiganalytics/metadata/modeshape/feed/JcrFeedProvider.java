@@ -58,6 +58,7 @@ import com.thinkbiganalytics.metadata.modeshape.extension.ExtensionsConstants;
 import com.thinkbiganalytics.metadata.modeshape.sla.JcrServiceLevelAgreement;
 import com.thinkbiganalytics.metadata.modeshape.sla.JcrServiceLevelAgreementProvider;
 import com.thinkbiganalytics.metadata.modeshape.support.JcrPropertyUtil;
+import com.thinkbiganalytics.metadata.modeshape.support.JcrQueryUtil;
 import com.thinkbiganalytics.metadata.modeshape.support.JcrUtil;
 import com.thinkbiganalytics.metadata.modeshape.support.JcrVersionUtil;
 import com.thinkbiganalytics.metadata.sla.api.Metric;
@@ -80,17 +81,20 @@ import java.security.Principal;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
 import javax.jcr.Node;
-import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
+import javax.jcr.query.QueryResult;
+import javax.jcr.query.RowIterator;
 
 /**
  * A JCR provider for {@link Feed} objects.
@@ -623,16 +627,26 @@ public class JcrFeedProvider extends BaseJcrProvider<Feed, Feed.ID> implements F
     }
 
     public void populateInverseFeedDependencies() {
-        Map<Feed.ID, Feed> map = new HashMap<Feed.ID, Feed>();
+        // the used-by ids of each feed are read once, however many feeds depend on it
+        Map<Feed.ID, Set<Feed.ID>> usedByIds = new HashMap<>();
         List<Feed> feeds = getFeeds();
-        if (feeds != null) {
-            feeds.stream().forEach(feed -> map.put(feed.getId(), feed));
+        if (feeds == null) {
+            return;
+        }
+        for (Feed feed : feeds) {
+            List<Feed> dependentFeeds = feed.getDependentFeeds();
+            if (dependentFeeds != null) {
+                for (Feed depFeed : dependentFeeds) {
+                    Set<Feed.ID> usedBy = usedByIds.computeIfAbsent(depFeed.getId(), id -> {
+                        List<Feed> usedByFeeds = depFeed.getUsedByFeeds();
+                        return usedByFeeds != null ? usedByFeeds.stream().map(Feed::getId).collect(Collectors.toSet()) : new HashSet<>();
+                    });
+                    if (usedBy.add(feed.getId())) {
+                        depFeed.addUsedByFeed(feed);
+                    }
+                }
+            }
         }
-        feeds.stream().filter(feed -> feed.getDependentFeeds() != null && !feed.getDependentFeeds().isEmpty()).forEach(feed1 -> {
-            List<Feed> dependentFeeds = feed1.getDependentFeeds();
-            dependentFeeds.stream().filter(depFeed -> depFeed.getUsedByFeeds() == null || !depFeed.getUsedByFeeds().contains(feed1))
-                .forEach(depFeed -> depFeed.addUsedByFeed(feed1));
-        });
     }
 
     private static class Criteria extends AbstractMetadataCriteria<FeedCriteria> implements FeedCriteria, Predicate<Feed> {
@@ -643,46 +657,77 @@ public class JcrFeedProvider extends BaseJcrProvider<Feed, Feed.ID> implements F
         private String category;
 
         /**
-         * Selects by navigation rather than SQL
+         * Selects with a JCR-SQL2 query on the indexed feed, category and datasource properties rather than navigating every category and feed node
          */
         @Override
         public <E, J extends JcrObject> List<E> select(Session session, String typeName, Class<E> type, Class<J> jcrClass) {
+            Map<String, String> params = new HashMap<>();
+            String query = toQuery(params);
             try {
-                // Datasources are not currently used so only name comparison is necessary
-                Node feedsNode = session.getRootNode().getNode("metadata/feeds");
-                NodeIterator catItr = null;
-
-                if (this.category != null) {
-                    catItr = feedsNode.getNodes(this.category);
-                } else {
-                    catItr = feedsNode.getNodes();
+                QueryResult result = JcrQueryUtil.query(session, query, params);
+                // A feed is returned once for each matching source or destination so only keep the first, and stop once the limit is reached
+                Map<String, Feed<?>> feeds = new LinkedHashMap<>();
+                RowIterator rows = result.getRows();
+                while (rows.hasNext() && (getLimit() < 0 || feeds.size() < getLimit())) {
+                    Node feedNode = rows.nextRow().getNode("e");
+                    if (!feeds.containsKey(feedNode.getIdentifier())) {
+                        feeds.put(feedNode.getIdentifier(), JcrUtil.createJcrObject(feedNode, JcrFeed.class));
+                    }
                 }
+                return (List<E>) new ArrayList<>(feeds.values());
+            } catch (RepositoryException e) {
+                throw new MetadataRepositoryException("Failed to select feeds.  Query is: " + query, e);
+            }
+        }
 
-                List<Feed<?>> list = new ArrayList<Feed<?>>();
-
-                while (catItr.hasNext()) {
-                    Node catNode = (Node) catItr.next();
-                    NodeIterator feedItr = null;
-
-                    if (this.name != null) {
-                        feedItr = catNode.getNodes(this.name);
-                    } else {
-                        feedItr = catNode.getNodes();
-                    }
+        /**
+         * Build the query for this criteria
+         *
+         * <p>The source and destination joins return a row for each matching child so the limit can't be applied by the query when they are used.
+         * It is applied by {@link #select(Session, String, Class, Class)} after removing the duplicate feeds instead.</p>
+         *
+         * @param params the map to add the bind variables to
+         * @return the JCR-SQL2 query
+         */
+        private String toQuery(Map<String, String> params) {
+            StringBuilder query = new StringBuilder("SELECT e.* FROM [" + JcrFeed.NODE_TYPE + "] AS e ");
+            List<String> conditions = new ArrayList<>();
 
-                    while (feedItr.hasNext()) {
-                        Node feedNode = (Node) feedItr.next();
+            if (this.category != null) {
+                query.append("JOIN [").append(JcrCategory.NODE_TYPE).append("] AS c ON ISCHILDNODE(e, c) ");
+                conditions.add("c.[" + JcrCategory.SYSTEM_NAME + "] = $category");
+                params.put("category", this.category);
+            }
+            if (!this.sourceIds.isEmpty()) {
+                query.append("JOIN [").append(JcrFeedSource.NODE_TYPE).append("] AS s ON ISCHILDNODE(s, e) ");
+                conditions.add(idCondition("s", "source", this.sourceIds, params));
+            }
+            if (!this.destIds.isEmpty()) {
+                query.append("JOIN [").append(JcrFeedDestination.NODE_TYPE).append("] AS d ON ISCHILDNODE(d, e) ");
+                conditions.add(idCondition("d", "destination", this.destIds, params));
+            }
+            if (this.name != null) {
+                conditions.add("e.[" + JcrFeed.SYSTEM_NAME + "] = $name");
+                params.put("name", this.name);
+            }
 
-                        if (feedNode.getPrimaryNodeType().getName().equals("tba:feed")) {
-                            list.add(JcrUtil.createJcrObject(feedNode, JcrFeed.class));
-                        }
-                    }
-                }
+            if (!conditions.isEmpty()) {
+                query.append("WHERE ").append(conditions.stream().collect(Collectors.joining(" AND "))).append(" ");
+            }
+            if (this.sourceIds.isEmpty() && this.destIds.isEmpty()) {
+                applyLimit(query);
+            }
+            return query.toString();
+        }
 
-                return (List<E>) list;
-            } catch (RepositoryException e) {
-                throw new MetadataRepositoryException("Failed to select feeds", e);
+        private String idCondition(String alias, String paramPrefix, Set<Datasource.ID> ids, Map<String, String> params) {
+            List<String> variables = new ArrayList<>();
+            for (Datasource.ID id : ids) {
+                String variable = paramPrefix + variables.size();
+                params.put(variable, id.toString());
+                variables.add("$" + variable);
             }
+            return alias + ".[" + JcrFeedConnection.DATASOURCE + "] IN (" + variables.stream().collect(Collectors.joining(", ")) + ")";
         }
 
         @Override
@@ -61,6 +61,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -294,39 +295,22 @@ public class JcrPropertyUtil {
     }
 
     public static Node setProperties(Session session, Node entNode, Map<String, Object> props) {
-        ValueFactory factory;
-        try {
-            factory = session.getValueFactory();
-
-            if (props != null) {
-                JcrMetadataAccess.ensureCheckoutNode(entNode);
-                for (Map.Entry<String, Object> entry : props.entrySet()) {
-                    if (entry.getValue() instanceof JcrExtensiblePropertyCollection) {
-                        JcrExtensiblePropertyCollection propertyCollection = ((JcrExtensiblePropertyCollection) entry.getValue());
-                        propertyCollection.getCollectionType();
-                        Value[] values = new Value[propertyCollection.getCollection().size()];
-                        int i = 0;
-                        for (Object o : propertyCollection.getCollection()) {
-                            boolean weak = false;
-                            if (propertyCollection.getCollectionType() == PropertyType.WEAKREFERENCE) {
-                                weak = true;
-                            }
-                            Value value = createValue(session, o, weak);
-                            values[i] = value;
-                            i++;
-                        }
-                        entNode.setProperty(entry.getKey(), values);
-                    } else {
-                        Value value = asValue(factory, entry.getValue());
-                        entNode.setProperty(entry.getKey(), value);
-                    }
-                }
+        if (props != null) {
+            ValueFactory factory;
+            try {
+                factory = session.getValueFactory();
+            } catch (RepositoryException e) {
+                throw new MetadataRepositoryException("Failed to set properties", e);
             }
 
-            return entNode;
-        } catch (RepositoryException e) {
-            throw new MetadataRepositoryException("Failed to set properties", e);
+            JcrPropertyWriter propertyWriter = new JcrPropertyWriter(entNode);
+            for (Map.Entry<String, Object> entry : props.entrySet()) {
+                Object value = entry.getValue();
+                propertyWriter.setProperty(entry.getKey(), value instanceof JcrExtensiblePropertyCollection ? value : asValue(factory, value));
+            }
+            propertyWriter.flush();
         }
+        return entNode;
     }
 
     public static boolean hasProperty(NodeType type, String propName) {
@@ -464,9 +448,6 @@ public class JcrPropertyUtil {
 
     public static void setProperty(Node node, String name, Object value) {
         try {
-            //ensure checked out
-            JcrMetadataAccess.ensureCheckoutNode(node);
-
             if (node == null) {
                 throw new IllegalArgumentException("Cannot set a property on a null-node!");
             }
@@ -474,54 +455,141 @@ public class JcrPropertyUtil {
                 throw new IllegalArgumentException("Cannot set a property without a provided name");
             }
 
-            if (value == null) {
-                node.setProperty(name, (Value) null);
-            } else if (value instanceof Enum) {
-                node.setProperty(name, ((Enum) value).name());
-            } else if (value instanceof JcrObject) {
-                node.setProperty(name, ((JcrObject) value).getNode());
-            } else if (value instanceof Value) {
-                node.setProperty(name, (Value) value);
-            } else if (value instanceof Node) {
-                node.setProperty(name, (Node) value);
-            } else if (value instanceof Binary) {
-                node.setProperty(name, (Binary) value);
-            } else if (value instanceof Calendar) {
-                node.setProperty(name, (Calendar) value);
-            } else if (value instanceof DateTime) {
-                Calendar cal = Calendar.getInstance();
-                cal.setTime(((DateTime) value).toDate());
-                node.setProperty(name, cal);
-            } else if (value instanceof Date) {
-                Calendar cal = Calendar.getInstance();
-                cal.setTime((Date) value);
-                node.setProperty(name, cal);
-            } else if (value instanceof BigDecimal) {
-                node.setProperty(name, (BigDecimal) value);
-            } else if (value instanceof Long) {
-                node.setProperty(name, ((Long) value).longValue());
-            } else if (value instanceof Double) {
-                node.setProperty(name, (Double) value);
-            } else if (value instanceof Boolean) {
-                node.setProperty(name, (Boolean) value);
-            } else if (value instanceof InputStream) {
-                node.setProperty(name, (InputStream) value);
-            } else if (value instanceof Collection) {
-                String[] list = new String[((Collection<Object>) value).size()];
-                int pos = 0;
-                for (Object cal : (Collection<Object>) value) {
-                    list[pos] = cal.toString();
-                    pos += 1;
-                }
-                node.setProperty(name, list);
-            } else {
-                node.setProperty(name, value.toString());
+            // Unchanged values are skipped so they neither check out the node nor produce a change record
+            if (isSameValue(node, name, value)) {
+                return;
             }
+
+            //ensure checked out
+            JcrMetadataAccess.ensureCheckoutNode(node);
+            writeProperty(node, name, value);
         } catch (RepositoryException e) {
             throw new MetadataRepositoryException("Failed to set property value: " + name + "=" + value, e);
         }
     }
 
+    /**
+     * Writes the value to the property without checking out the node or comparing it to the current value.
+     */
+    static void writeProperty(Node node, String name, Object value) throws RepositoryException {
+        if (value == null) {
+            node.setProperty(name, (Value) null);
+        } else if (value instanceof JcrExtensiblePropertyCollection) {
+            node.setProperty(name, createValues(node.getSession(), (JcrExtensiblePropertyCollection) value));
+        } else if (value instanceof Enum) {
+            node.setProperty(name, ((Enum) value).name());
+        } else if (value instanceof JcrObject) {
+            node.setProperty(name, ((JcrObject) value).getNode());
+        } else if (value instanceof Value) {
+            node.setProperty(name, (Value) value);
+        } else if (value instanceof Node) {
+            node.setProperty(name, (Node) value);
+        } else if (value instanceof Binary) {
+            node.setProperty(name, (Binary) value);
+        } else if (value instanceof Calendar) {
+            node.setProperty(name, (Calendar) value);
+        } else if (value instanceof DateTime) {
+            Calendar cal = Calendar.getInstance();
+            cal.setTime(((DateTime) value).toDate());
+            node.setProperty(name, cal);
+        } else if (value instanceof Date) {
+            Calendar cal = Calendar.getInstance();
+            cal.setTime((Date) value);
+            node.setProperty(name, cal);
+        } else if (value instanceof BigDecimal) {
+            node.setProperty(name, (BigDecimal) value);
+        } else if (value instanceof Long) {
+            node.setProperty(name, ((Long) value).longValue());
+        } else if (value instanceof Double) {
+            node.setProperty(name, (Double) value);
+        } else if (value instanceof Boolean) {
+            node.setProperty(name, (Boolean) value);
+        } else if (value instanceof InputStream) {
+            node.setProperty(name, (InputStream) value);
+        } else if (value instanceof Collection) {
+            String[] list = new String[((Collection<Object>) value).size()];
+            int pos = 0;
+            for (Object cal : (Collection<Object>) value) {
+                list[pos] = cal.toString();
+                pos += 1;
+            }
+            node.setProperty(name, list);
+        } else {
+            node.setProperty(name, value.toString());
+        }
+    }
+
+    /**
+     * Determines if the property already holds the specified value, in which case writing it would be a no-op.  Values that cannot be compared, such
+     * as streams and binaries, are never considered the same.
+     */
+    static boolean isSameValue(Node node, String name, Object value) throws RepositoryException {
+        if (!node.hasProperty(name)) {
+            return value == null;
+        }
+        if (value == null || value instanceof InputStream || value instanceof Binary) {
+            return false;
+        }
+
+        Property prop = node.getProperty(name);
+        if (value instanceof JcrExtensiblePropertyCollection) {
+            return prop.isMultiple() && isSameValues(prop.getValues(), createValues(node.getSession(), (JcrExtensiblePropertyCollection) value));
+        } else if (value instanceof Collection) {
+            if (!prop.isMultiple() || prop.getValues().length != ((Collection<?>) value).size()) {
+                return false;
+            }
+            int pos = 0;
+            Value[] current = prop.getValues();
+            for (Object item : (Collection<?>) value) {
+                if (item == null || !current[pos].getString().equals(item.toString())) {
+                    return false;
+                }
+                pos += 1;
+            }
+            return true;
+        } else {
+            return !prop.isMultiple() && isSameValue(prop.getValue(), createValue(node.getSession(), value));
+        }
+    }
+
+    /**
+     * Compares two values, treating references and weak references to the same node as equal.
+     */
+    static boolean isSameValue(Value current, Value value) throws RepositoryException {
+        if (isReferenceType(current.getType()) && isReferenceType(value.getType())) {
+            return current.getString().equals(value.getString());
+        } else {
+            return current.equals(value);
+        }
+    }
+
+    private static boolean isSameValues(Value[] current, Value[] values) throws RepositoryException {
+        if (current.length != values.length) {
+            return false;
+        }
+        for (int i = 0; i < current.length; i++) {
+            if (!isSameValue(current[i], values[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isReferenceType(int type) {
+        return type == PropertyType.REFERENCE || type == PropertyType.WEAKREFERENCE;
+    }
+
+    private static Value[] createValues(Session session, JcrExtensiblePropertyCollection propertyCollection) {
+        boolean weak = propertyCollection.getCollectionType() == PropertyType.WEAKREFERENCE;
+        Value[] values = new Value[propertyCollection.getCollection().size()];
+        int i = 0;
+        for (Object o : propertyCollection.getCollection()) {
+            values[i] = createValue(session, o, weak);
+            i++;
+        }
+        return values;
+    }
+
     /**
      * Used to retrieve the referenced nodes from a multi-valued property of type (WEAK)REFERENCE
      */
@@ -556,8 +624,6 @@ public class JcrPropertyUtil {
 
     public static boolean addToSetProperty(Node node, String name, Object value, boolean weakReference) {
         try {
-            JcrMetadataAccess.ensureCheckoutNode(node);
-
             if (node == null) {
                 throw new IllegalArgumentException("Cannot set a property on a null-node!");
             }
@@ -565,35 +631,33 @@ public class JcrPropertyUtil {
                 throw new IllegalArgumentException("Cannot set a property without a provided name");
             }
 
-            Set<Value> values = null;
-
-            if (node.hasProperty(name)) {
-                values = Arrays.stream(node.getProperty(name).getValues()).map(v -> {
-                    if (PropertyType.REFERENCE == v.getType() && weakReference) {
-                        try {
-                            Node n = JcrPropertyUtil.asValue(v, node.getSession());
-                            return n.getSession().getValueFactory().createValue(n, true);
-                        } catch (RepositoryException e) {
-                            throw new MetadataRepositoryException("Failed to add to set property: " + name + "->" + value, e);
-                        }
-                    } else {
-                        return v;
-                    }
-                }).collect(Collectors.toSet());
-            } else {
-                values = new HashSet<>();
+            Value newVal = createValue(node.getSession(), value, weakReference);
+            Value[] current = node.hasProperty(name) ? node.getProperty(name).getValues() : new Value[0];
+            for (Value v : current) {
+                if (isSameValue(v, newVal)) {
+                    return false;
+                }
             }
 
-            Value newVal = createValue(node.getSession(), value, weakReference);
+            JcrMetadataAccess.ensureCheckoutNode(node);
+
+            ValueFactory factory = node.getSession().getValueFactory();
+            Set<Value> values = new LinkedHashSet<>();
+            for (Value v : current) {
+                if (PropertyType.REFERENCE == v.getType() && weakReference) {
+                    values.add(factory.createValue(v.getString(), PropertyType.WEAKREFERENCE));
+                } else {
+                    values.add(v);
+                }
+            }
+            values.add(newVal);
 
-            boolean result = values.add(newVal);
             if (weakReference) {
-                Property property = node.setProperty(name, (Value[]) values.stream().toArray(size -> new Value[size]), PropertyType.WEAKREFERENCE);
+                node.setProperty(name, values.toArray(new Value[values.size()]), PropertyType.WEAKREFERENCE);
             } else {
-                Property property = node.setProperty(name, (Value[]) values.stream().toArray(size -> new Value[size]));
+                node.setProperty(name, values.toArray(new Value[values.size()]));
             }
-
-            return result;
+            return true;
         } catch (RepositoryException e) {
             throw new MetadataRepositoryException("Failed to add to set property: " + name + "->" + value, e);
         }
@@ -601,7 +665,6 @@ public class JcrPropertyUtil {
 
     public static boolean removeAllFromSetProperty(Node node, String name) {
         try {
-            JcrMetadataAccess.ensureCheckoutNode(node);
             if (node == null) {
                 throw new IllegalArgumentException("Cannot remove a property from a null-node!");
             }
@@ -609,8 +672,12 @@ public class JcrPropertyUtil {
                 throw new IllegalArgumentException("Cannot remove a property without a provided name");
             }
 
-            Set<Value> values = new HashSet<>();
-            node.setProperty(name, (Value[]) values.stream().toArray(size -> new Value[size]));
+            if (node.hasProperty(name) && node.getProperty(name).isMultiple() && node.getProperty(name).getValues().length == 0) {
+                return true;
+            }
+
+            JcrMetadataAccess.ensureCheckoutNode(node);
+            node.setProperty(name, new Value[0]);
             return true;
 
         } catch (RepositoryException e) {
@@ -620,26 +687,31 @@ public class JcrPropertyUtil {
 
     public static boolean removeFromSetProperty(Node node, String name, Object value) {
         try {
-            JcrMetadataAccess.ensureCheckoutNode(node);
-
             if (node == null) {
                 throw new IllegalArgumentException("Cannot remove a property from a null-node!");
             }
             if (name == null) {
                 throw new IllegalArgumentException("Cannot remove a property without a provided name");
             }
-
-            Set<Value> values = new HashSet<>();
-
-            if (node.hasProperty(name)) {
-                values = Arrays.stream(node.getProperty(name).getValues()).collect(Collectors.toSet());
-            } else {
-                values = new HashSet<>();
+            if (!node.hasProperty(name)) {
+                return false;
             }
 
             Value existingVal = createValue(node.getSession(), value);
-            boolean result = values.remove(existingVal);
-            node.setProperty(name, (Value[]) values.stream().toArray(size -> new Value[size]));
+            List<Value> values = new ArrayList<>();
+            boolean result = false;
+            for (Value v : node.getProperty(name).getValues()) {
+                if (isSameValue(v, existingVal)) {
+                    result = true;
+                } else {
+                    values.add(v);
+                }
+            }
+
+            if (result) {
+                JcrMetadataAccess.ensureCheckoutNode(node);
+                node.setProperty(name, values.toArray(new Value[values.size()]));
+            }
             return result;
         } catch (RepositoryException e) {
             throw new MetadataRepositoryException("Failed to remove from set property: " + name + "->" + value, e);
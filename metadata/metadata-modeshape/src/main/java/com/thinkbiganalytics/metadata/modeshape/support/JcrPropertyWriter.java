@@ -0,0 +1,127 @@
+package com.thinkbiganalytics.metadata.modeshape.support;
+
+/*-
+ * #%L
+ * thinkbig-metadata-modeshape
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.modeshape.JcrMetadataAccess;
+import com.thinkbiganalytics.metadata.modeshape.MetadataRepositoryException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+
+/**
+ * Buffers changes to the properties of a node and writes them in a single pass.
+ *
+ * <p>When flushed, properties that already hold the buffered value are skipped, and the node is only checked out if at least one property actually
+ * changes.  This keeps saves of large entities from producing change records, index updates, and new versions for values that did not change.</p>
+ */
+public class JcrPropertyWriter {
+
+    /**
+     * Node to be updated
+     */
+    @Nonnull
+    private final Node node;
+
+    /**
+     * Buffered property values by name
+     */
+    @Nonnull
+    private final Map<String, Object> changes = new LinkedHashMap<>();
+
+    /**
+     * Constructs a {@code JcrPropertyWriter} for the specified node.
+     *
+     * @param node the node to be updated
+     */
+    public JcrPropertyWriter(@Nonnull final Node node) {
+        this.node = node;
+    }
+
+    /**
+     * Buffers the value of the specified property.  A {@code null} value removes the property.
+     *
+     * @param name  the property name
+     * @param value the new value
+     * @return this writer
+     */
+    @Nonnull
+    public JcrPropertyWriter setProperty(@Nonnull final String name, final Object value) {
+        changes.put(name, value);
+        return this;
+    }
+
+    /**
+     * Buffers the values of the specified properties.
+     *
+     * @param properties the property values by name
+     * @return this writer
+     */
+    @Nonnull
+    public JcrPropertyWriter setProperties(@Nonnull final Map<String, Object> properties) {
+        changes.putAll(properties);
+        return this;
+    }
+
+    /**
+     * Indicates if there are buffered changes that have not been flushed.
+     *
+     * @return {@code true} if there are buffered changes
+     */
+    public boolean isDirty() {
+        return !changes.isEmpty();
+    }
+
+    /**
+     * Writes the buffered properties whose values differ from those of the node, and clears the buffer.
+     *
+     * @return the names of the properties that were modified
+     * @throws MetadataRepositoryException if the properties cannot be written
+     */
+    @Nonnull
+    public List<String> flush() {
+        final List<String> modified = new ArrayList<>();
+        try {
+            for (Map.Entry<String, Object> entry : changes.entrySet()) {
+                if (!JcrPropertyUtil.isSameValue(node, entry.getKey(), entry.getValue())) {
+                    modified.add(entry.getKey());
+                }
+            }
+
+            if (!modified.isEmpty()) {
+                JcrMetadataAccess.ensureCheckoutNode(node);
+                for (String name : modified) {
+                    JcrPropertyUtil.writeProperty(node, name, changes.get(name));
+                }
+            }
+
+            changes.clear();
+            return modified;
+        } catch (RepositoryException e) {
+            throw new MetadataRepositoryException("Failed to set properties: " + changes.keySet(), e);
+        }
+    }
+}
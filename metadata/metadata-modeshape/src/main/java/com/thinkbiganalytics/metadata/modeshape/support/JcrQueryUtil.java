@@ -164,4 +164,22 @@ public class JcrQueryUtil {
         return results;
     }
 
+    /**
+     * Escapes the LIKE wildcards in a value so it is matched literally by a JCR-SQL2 LIKE.
+     * JCR-SQL2 has no ESCAPE clause, the escape character is always a backslash.
+     *
+     * @param value the value to match
+     * @return the value with each backslash, {@code %} and {@code _} escaped
+     */
+    public static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '\\' || c == '%' || c == '_') {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
 }
@@ -0,0 +1,111 @@
+package com.thinkbiganalytics.metadata.modeshape;
+
+/*-
+ * #%L
+ * thinkbig-metadata-modeshape
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.modeshape.security.AdminCredentials;
+import com.thinkbiganalytics.metadata.modeshape.security.OverrideCredentials;
+import com.thinkbiganalytics.security.UsernamePrincipal;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.jcr.Credentials;
+import javax.jcr.Repository;
+import javax.jcr.Session;
+
+/**
+ * Tests the reuse of sessions by the {@link JcrSessionPool}
+ */
+public class JcrSessionPoolTest {
+
+    private Repository repository;
+
+    @Before
+    public void setup() throws Exception {
+        repository = Mockito.mock(Repository.class);
+        Mockito.when(repository.login(Mockito.any(Credentials.class))).thenAnswer(invocation -> {
+            Session session = Mockito.mock(Session.class);
+            Mockito.when(session.isLive()).thenReturn(true);
+            return session;
+        });
+    }
+
+    @Test
+    public void testReuseByPrincipals() throws Exception {
+        JcrSessionPool pool = new JcrSessionPool(repository, 4, 5, TimeUnit.MINUTES);
+
+        JcrSessionPool.PooledSession service = pool.borrow(OverrideCredentials.create(MetadataAccess.SERVICE));
+        pool.release(service);
+        Mockito.verify(service.getSession()).refresh(false);
+        Mockito.verify(service.getSession(), Mockito.never()).logout();
+
+        JcrSessionPool.PooledSession reused = pool.borrow(OverrideCredentials.create(MetadataAccess.SERVICE));
+        Assert.assertSame(service.getSession(), reused.getSession());
+
+        JcrSessionPool.PooledSession user = pool.borrow(OverrideCredentials.create(new UsernamePrincipal("dladmin")));
+        Assert.assertNotSame(service.getSession(), user.getSession());
+
+        JcrSessionPool.Statistics stats = pool.getStatistics();
+        Assert.assertEquals(3, stats.getBorrowCount());
+        Assert.assertEquals(2, stats.getLoginCount());
+        Assert.assertEquals(0, stats.getIdleSessions());
+
+        pool.release(reused);
+        pool.release(user);
+        Assert.assertEquals(2, pool.getStatistics().getIdleSessions());
+
+        pool.close();
+        Mockito.verify(service.getSession()).logout();
+        Mockito.verify(user.getSession()).logout();
+        Assert.assertEquals(0, pool.getStatistics().getIdleSessions());
+        Assert.assertEquals(2, pool.getStatistics().getLogoutCount());
+    }
+
+    @Test
+    public void testLogoutWhenNotPooled() throws Exception {
+        // Credentials without principals are never pooled
+        JcrSessionPool pool = new JcrSessionPool(repository, 4, 5, TimeUnit.MINUTES);
+        JcrSessionPool.PooledSession admin = pool.borrow(new AdminCredentials());
+        pool.release(admin);
+        Mockito.verify(admin.getSession()).logout();
+
+        // Sessions past their maximum age are logged out
+        JcrSessionPool expiring = new JcrSessionPool(repository, 4, -1, TimeUnit.MILLISECONDS);
+        JcrSessionPool.PooledSession expired = expiring.borrow(OverrideCredentials.create(MetadataAccess.SERVICE));
+        expiring.release(expired);
+        Mockito.verify(expired.getSession()).logout();
+
+        // Sessions beyond the maximum number of idle sessions are logged out
+        JcrSessionPool full = new JcrSessionPool(repository, 1, 5, TimeUnit.MINUTES);
+        JcrSessionPool.PooledSession first = full.borrow(OverrideCredentials.create(MetadataAccess.SERVICE));
+        JcrSessionPool.PooledSession second = full.borrow(OverrideCredentials.create(MetadataAccess.SERVICE));
+        full.release(first);
+        full.release(second);
+        Mockito.verify(first.getSession(), Mockito.never()).logout();
+        Mockito.verify(second.getSession()).logout();
+        Assert.assertEquals(1, full.getStatistics().getIdleSessions());
+    }
+}
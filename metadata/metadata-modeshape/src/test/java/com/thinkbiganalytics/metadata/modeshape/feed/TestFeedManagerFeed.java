@@ -26,6 +26,8 @@ import com.thinkbiganalytics.metadata.api.category.CategoryProvider;
 import com.thinkbiganalytics.metadata.api.datasource.Datasource;
 import com.thinkbiganalytics.metadata.api.datasource.DatasourceProvider;
 import com.thinkbiganalytics.metadata.api.datasource.DerivedDatasource;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
+import com.thinkbiganalytics.metadata.api.event.entity.EntityChangeEvent;
 import com.thinkbiganalytics.metadata.api.feed.Feed;
 import com.thinkbiganalytics.metadata.api.feed.FeedDestination;
 import com.thinkbiganalytics.metadata.api.feed.FeedProvider;
@@ -42,15 +44,22 @@ import com.thinkbiganalytics.metadata.modeshape.ModeShapeEngineConfig;
 import com.thinkbiganalytics.metadata.modeshape.security.AdminCredentials;
 import com.thinkbiganalytics.support.FeedNameUtil;
 
+import org.joda.time.DateTime;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.mockito.invocation.Invocation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.testng.Assert;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -90,6 +99,9 @@ public class TestFeedManagerFeed {
     @Inject
     private FeedTestUtil feedTestUtil;
 
+    @Inject
+    private MetadataEventService metadataEventService;
+
 
     private boolean deleteTemplate(String templateName) {
         //try to delete the template.  This should fail since there are feeds attached to it
@@ -224,6 +236,129 @@ public class TestFeedManagerFeed {
 
     }
 
+    @Test
+    public void testFeedCriteria() {
+        String templateName = "my_template";
+        setupFeedAndTemplate("criteria_category_a", "criteria_feed", templateName);
+        setupFeedAndTemplate("criteria_category_b", "criteria_feed", templateName);
+
+        Datasource.ID sourceId = metadata.commit(() -> {
+            Feed feed = feedTestUtil.findFeed("criteria_category_b", "criteria_feed");
+            DerivedDatasource srcDatasource = datasourceProvider.ensureDatasource("criteria_source", "criteria source", DerivedDatasource.class);
+            feedProvider.ensureFeedSource(feed.getId(), srcDatasource.getId());
+            return srcDatasource.getId();
+        }, MetadataAccess.SERVICE);
+
+        metadata.read(() -> {
+            Feed feed = feedProvider.findBySystemName("criteria_category_a", "criteria_feed");
+            Assert.assertNotNull(feed);
+            Assert.assertEquals(feed.getCategory().getName(), "criteria_category_a");
+            Assert.assertNull(feedProvider.findBySystemName("criteria_category_a", "missing_feed"));
+
+            List<Feed> byName = feedProvider.getFeeds(feedProvider.feedCriteria().name("criteria_feed"));
+            Assert.assertEquals(byName.size(), 2);
+
+            List<Feed> bySource = feedProvider.getFeeds(feedProvider.feedCriteria().sourceDatasource(sourceId));
+            Assert.assertEquals(bySource.size(), 1);
+            Assert.assertEquals(bySource.get(0).getCategory().getName(), "criteria_category_b");
+
+            Assert.assertTrue(feedProvider.getFeeds(feedProvider.feedCriteria().destinationDatasource(sourceId)).isEmpty());
+        }, MetadataAccess.SERVICE);
+    }
+
+    @Test
+    public void testFeedPage() {
+        for (int i = 1; i <= 5; i++) {
+            setupFeedAndTemplate(i <= 3 ? "paging_category_a" : "paging_category_b", "paging_feed_" + i, i % 2 == 0 ? "paging_template_b" : "paging_template_a");
+        }
+
+        metadata.read(() -> {
+            Page<FeedManagerFeed> first = feedManagerFeedProvider.findPage(new PageRequest(0, 2, Sort.Direction.ASC, FeedManagerFeedProvider.SORT_DISPLAY_NAME), "paging_");
+            Assert.assertEquals(first.getTotalElements(), 5L);
+            Assert.assertEquals(first.getContent().size(), 2);
+            Assert.assertEquals(first.getContent().get(0).getName(), "paging_feed_1");
+            Assert.assertEquals(first.getContent().get(1).getName(), "paging_feed_2");
+
+            Page<FeedManagerFeed> last = feedManagerFeedProvider.findPage(new PageRequest(2, 2, Sort.Direction.ASC, FeedManagerFeedProvider.SORT_DISPLAY_NAME), "paging_");
+            Assert.assertEquals(last.getTotalElements(), 5L);
+            Assert.assertEquals(last.getContent().size(), 1);
+            Assert.assertEquals(last.getContent().get(0).getName(), "paging_feed_5");
+
+            Page<FeedManagerFeed> byCategory = feedManagerFeedProvider.findPage(new PageRequest(0, 5, Sort.Direction.DESC, FeedManagerFeedProvider.SORT_CATEGORY), "paging_");
+            Assert.assertEquals(byCategory.getContent().get(0).getCategory().getName(), "paging_category_b");
+            Assert.assertEquals(byCategory.getContent().get(4).getCategory().getName(), "paging_category_a");
+
+            Page<FeedManagerFeed> byTemplate = feedManagerFeedProvider.findPage(new PageRequest(0, 5, Sort.Direction.DESC, FeedManagerFeedProvider.SORT_TEMPLATE), "paging_");
+            Assert.assertEquals(byTemplate.getContent().size(), 5);
+            Assert.assertEquals(byTemplate.getContent().get(0).getTemplate().getName(), "paging_template_b");
+            Assert.assertEquals(byTemplate.getContent().get(4).getTemplate().getName(), "paging_template_a");
+
+            Page<FeedManagerFeed> filtered = feedManagerFeedProvider.findPage(new PageRequest(0, 10), "PAGING_FEED_3");
+            Assert.assertEquals(filtered.getTotalElements(), 1L);
+            Assert.assertEquals(filtered.getContent().get(0).getName(), "paging_feed_3");
+
+            // the LIKE wildcards in the filter are matched literally
+            Assert.assertEquals(feedManagerFeedProvider.findPage(new PageRequest(0, 10), "paging_feed_").getTotalElements(), 5L);
+            Assert.assertEquals(feedManagerFeedProvider.findPage(new PageRequest(0, 10), "paging%3").getTotalElements(), 0L);
+            Assert.assertEquals(feedManagerFeedProvider.findPage(new PageRequest(0, 10), "paging\\_feed").getTotalElements(), 0L);
+        }, MetadataAccess.SERVICE);
+    }
+
+    @Test
+    public void testFeedBinaryJson() {
+        setupFeedAndTemplate("binary_json_category", "binary_json_feed", "binary_json_template");
+
+        metadata.commit(() -> {
+            FeedManagerFeed feed = feedTestUtil.findFeed("binary_json_category", "binary_json_feed");
+            feed.setJson("{\"feedName\":\"binary_json_feed\"}");
+            String jsonVersion = feed.getJsonVersion();
+            Assert.assertNotNull(jsonVersion);
+
+            feed.setBinaryJson(new byte[]{1, 2, 3});
+            Assert.assertNull(feed.getJson());
+            Assert.assertEquals(feed.getBinaryJson(), new byte[]{1, 2, 3});
+            Assert.assertNotEquals(feed.getJsonVersion(), jsonVersion);
+            return feed.getId();
+        }, MetadataAccess.SERVICE);
+
+        metadata.read(() -> {
+            FeedManagerFeed feed = feedTestUtil.findFeed("binary_json_category", "binary_json_feed");
+            Assert.assertEquals(feed.getBinaryJson(), new byte[]{1, 2, 3});
+            String binaryVersion = feed.getJsonVersion();
+            Assert.assertEquals(feed.getJsonVersion(), binaryVersion);
+        }, MetadataAccess.SERVICE);
+    }
+
+    @Test
+    public void testFeedCriteriaLimitWithDuplicateSources() {
+        String templateName = "my_template";
+        setupFeedAndTemplate("limit_category", "limit_feed_a", templateName);
+        setupFeedAndTemplate("limit_category", "limit_feed_b", templateName);
+
+        List<Datasource.ID> sourceIds = metadata.commit(() -> {
+            DerivedDatasource src1 = datasourceProvider.ensureDatasource("limit_source_1", "limit source 1", DerivedDatasource.class);
+            DerivedDatasource src2 = datasourceProvider.ensureDatasource("limit_source_2", "limit source 2", DerivedDatasource.class);
+            // feed a matches both sources so the join returns it twice
+            Feed feedA = feedTestUtil.findFeed("limit_category", "limit_feed_a");
+            feedProvider.ensureFeedSource(feedA.getId(), src1.getId());
+            feedProvider.ensureFeedSource(feedA.getId(), src2.getId());
+            Feed feedB = feedTestUtil.findFeed("limit_category", "limit_feed_b");
+            feedProvider.ensureFeedSource(feedB.getId(), src1.getId());
+            return Arrays.asList(src1.getId(), src2.getId());
+        }, MetadataAccess.SERVICE);
+
+        metadata.read(() -> {
+            List<Feed> bySource = feedProvider.getFeeds(feedProvider.feedCriteria().sourceDatasource(sourceIds.get(0), sourceIds.get(1)));
+            Assert.assertEquals(bySource.size(), 2);
+
+            List<Feed> limited = feedProvider.getFeeds(feedProvider.feedCriteria().sourceDatasource(sourceIds.get(0), sourceIds.get(1)).limit(2));
+            Assert.assertEquals(limited.size(), 2);
+            Assert.assertNotEquals(limited.get(0).getId(), limited.get(1).getId());
+
+            Assert.assertEquals(feedProvider.getFeeds(feedProvider.feedCriteria().sourceDatasource(sourceIds.get(0), sourceIds.get(1)).limit(1)).size(), 1);
+        }, MetadataAccess.SERVICE);
+    }
+
     @Test
     public void testFeedTemplates() {
         String categorySystemName = "my_category";
@@ -264,5 +399,40 @@ public class TestFeedManagerFeed {
 
     }
 
+    /**
+     * Test that saving a feed updates its modified time and publishes an entity change event for the feed and its category
+     */
+    @Test
+    public void testEntityChangeEvents() throws InterruptedException {
+        String categorySystemName = "change_category";
+        String feedName = "change_feed";
+        setupFeedAndTemplate(categorySystemName, feedName, "my_template");
 
+        String[] ids = metadata.read(new AdminCredentials(), () -> {
+            FeedManagerFeed feed = feedTestUtil.findFeed(categorySystemName, feedName);
+            return new String[]{feed.getId().toString(), feed.getCategory().getId().toString(), String.valueOf(feed.getModifiedTime().getMillis())};
+        });
+        Thread.sleep(10);
+
+        metadata.commit(new AdminCredentials(), () -> {
+            FeedManagerFeed feed = feedTestUtil.findFeed(categorySystemName, feedName);
+            feed.setDescription("changed " + System.currentTimeMillis());
+        });
+        DateTime modifiedTime = metadata.read(new AdminCredentials(), () -> feedTestUtil.findFeed(categorySystemName, feedName).getModifiedTime());
+        Assert.assertTrue(modifiedTime.getMillis() > Long.parseLong(ids[2]));
+
+        long stopTime = System.currentTimeMillis() + 5000;
+        boolean notified = false;
+        while (!notified && System.currentTimeMillis() < stopTime) {
+            for (Invocation invocation : Mockito.mockingDetails(metadataEventService).getInvocations()) {
+                Object event = invocation.getArguments().length > 0 ? invocation.getArguments()[0] : null;
+                if (event instanceof EntityChangeEvent && ((EntityChangeEvent) event).getData().getEntityIds().contains(ids[0])
+                    && ((EntityChangeEvent) event).getData().getEntityIds().contains(ids[1])) {
+                    notified = true;
+                }
+            }
+            Thread.sleep(50);
+        }
+        Assert.assertTrue(notified);
+    }
 }
@@ -36,6 +36,9 @@ import java.util.Map;
 import javax.jcr.Node;
 import javax.jcr.Property;
 import javax.jcr.PropertyIterator;
+import javax.jcr.Session;
+import javax.jcr.Value;
+import javax.jcr.ValueFactory;
 
 public class JcrPropertyUtilTest {
 
@@ -116,4 +119,59 @@ public class JcrPropertyUtilTest {
         // Test required property
         JcrPropertyUtil.setUserProperties(Mockito.mock(Node.class), Collections.singleton(field), Collections.emptyMap());
     }
+
+    /**
+     * Verify unchanged values are not written.
+     */
+    @Test
+    public void setPropertyUnchanged() throws Exception {
+        final Value value = Mockito.mock(Value.class);
+        final Node node = mockNode(value);
+        final Property prop = Mockito.mock(Property.class);
+        Mockito.when(prop.getValue()).thenReturn(value);
+        Mockito.when(node.hasProperty("tba:title")).thenReturn(true);
+        Mockito.when(node.getProperty("tba:title")).thenReturn(prop);
+
+        JcrPropertyUtil.setProperty(node, "tba:title", "one");
+        Mockito.verify(node, Mockito.never()).setProperty(Mockito.anyString(), Mockito.any(Value.class));
+        Mockito.verify(node, Mockito.never()).getParent();
+    }
+
+    /**
+     * Verify adding an existing value to a set, or removing a missing value from it, does not rewrite the set.
+     */
+    @Test
+    public void setPropertyMembershipUnchanged() throws Exception {
+        final Value value = Mockito.mock(Value.class);
+        final Node node = mockNode(value);
+        final Property prop = Mockito.mock(Property.class);
+        Mockito.when(prop.isMultiple()).thenReturn(true);
+        Mockito.when(prop.getValues()).thenReturn(new Value[]{value});
+        Mockito.when(node.hasProperty("tba:tags")).thenReturn(true);
+        Mockito.when(node.getProperty("tba:tags")).thenReturn(prop);
+
+        Assert.assertFalse(JcrPropertyUtil.addToSetProperty(node, "tba:tags", "one"));
+
+        final Value other = Mockito.mock(Value.class);
+        Mockito.when(prop.getValues()).thenReturn(new Value[]{other});
+        Assert.assertFalse(JcrPropertyUtil.removeFromSetProperty(node, "tba:tags", "one"));
+
+        Mockito.verify(node, Mockito.never()).setProperty(Mockito.anyString(), Mockito.any(Value[].class));
+        Mockito.verify(node, Mockito.never()).getParent();
+    }
+
+    /**
+     * Creates a node whose session converts any string to the specified value.
+     */
+    private Node mockNode(final Value value) throws Exception {
+        final ValueFactory factory = Mockito.mock(ValueFactory.class);
+        Mockito.when(factory.createValue(Mockito.anyString())).thenReturn(value);
+
+        final Session session = Mockito.mock(Session.class);
+        Mockito.when(session.getValueFactory()).thenReturn(factory);
+
+        final Node node = Mockito.mock(Node.class);
+        Mockito.when(node.getSession()).thenReturn(session);
+        return node;
+    }
 }
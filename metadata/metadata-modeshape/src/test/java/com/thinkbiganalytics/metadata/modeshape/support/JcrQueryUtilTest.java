@@ -0,0 +1,40 @@
+package com.thinkbiganalytics.metadata.modeshape.support;
+
+/*-
+ * #%L
+ * thinkbig-metadata-modeshape
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JcrQueryUtilTest {
+
+    /**
+     * Verify the LIKE wildcards and the escape character are escaped.
+     */
+    @Test
+    public void escapeLike() {
+        Assert.assertEquals("feed", JcrQueryUtil.escapeLike("feed"));
+        Assert.assertEquals("my\\_feed", JcrQueryUtil.escapeLike("my_feed"));
+        Assert.assertEquals("100\\%", JcrQueryUtil.escapeLike("100%"));
+        Assert.assertEquals("a\\\\b", JcrQueryUtil.escapeLike("a\\b"));
+        Assert.assertEquals("\\\\\\%\\_", JcrQueryUtil.escapeLike("\\%_"));
+        Assert.assertEquals("", JcrQueryUtil.escapeLike(""));
+    }
+}
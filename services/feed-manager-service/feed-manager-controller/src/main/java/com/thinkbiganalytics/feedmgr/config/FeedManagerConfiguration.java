@@ -30,6 +30,8 @@ import com.thinkbiganalytics.feedmgr.nifi.SpringEnvironmentProperties;
 import com.thinkbiganalytics.feedmgr.rest.Model;
 import com.thinkbiganalytics.feedmgr.service.DefaultJobService;
 import com.thinkbiganalytics.feedmgr.service.EncryptionService;
+import com.thinkbiganalytics.feedmgr.service.EntitySnapshotCache;
+import com.thinkbiganalytics.feedmgr.service.EntitySnapshotCacheTopic;
 import com.thinkbiganalytics.feedmgr.service.FeedManagerMetadataService;
 import com.thinkbiganalytics.feedmgr.service.MetadataService;
 import com.thinkbiganalytics.feedmgr.service.UploadProgressService;
@@ -41,6 +43,7 @@ import com.thinkbiganalytics.feedmgr.service.datasource.DatasourceService;
 import com.thinkbiganalytics.feedmgr.service.feed.DefaultFeedManagerFeedService;
 import com.thinkbiganalytics.feedmgr.service.feed.ExportImportFeedService;
 import com.thinkbiganalytics.feedmgr.service.feed.FeedManagerFeedService;
+import com.thinkbiganalytics.feedmgr.service.feed.FeedLineageGraph;
 import com.thinkbiganalytics.feedmgr.service.feed.FeedManagerPreconditionService;
 import com.thinkbiganalytics.feedmgr.service.feed.FeedModelTransform;
 import com.thinkbiganalytics.feedmgr.service.feed.datasource.DerivedDatasourceFactory;
@@ -98,6 +101,21 @@ public class FeedManagerConfiguration {
         return new DefaultFeedManagerTemplateService();
     }
 
+    @Bean
+    public EntitySnapshotCache entitySnapshotCache() {
+        return new EntitySnapshotCache();
+    }
+
+    @Bean
+    public EntitySnapshotCacheTopic entitySnapshotCacheTopic() {
+        return new EntitySnapshotCacheTopic();
+    }
+
+    @Bean
+    public FeedLineageGraph feedLineageGraph() {
+        return new FeedLineageGraph();
+    }
+
     @Bean
     public FeedModelTransform feedModelTransformer() {
         return new FeedModelTransform();
@@ -50,17 +50,26 @@ import org.apache.nifi.web.api.dto.ReportingTaskDTO;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
@@ -75,12 +84,19 @@ import javax.inject.Inject;
  * Each Processor has an internal {@code flowId} generated why Kylo walks the flow This internal id is used to associate the Feed flow as a template with the Feed flow created when the feed is
  * saved/updated
  *
+ * Every change to the cache is recorded under a new, increasing version.  Each sync remembers the version it was last brought up to
+ * so only the entries changed since that version are sent to it, rather than diffing a full copy of the cache for every sync.
+ *
  * @see com.thinkbiganalytics.nifi.rest.visitor.NifiConnectionOrderVisitor
  */
 public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfigAction, NiFiProvenanceConstants {
 
     private static final Logger log = LoggerFactory.getLogger(NifiFlowCache.class);
 
+    /**
+     * The maximum number of versions kept in the change log.  Syncs that fall further behind than this are sent the full cache
+     */
+    private static final int MAX_CHANGE_LOG_SIZE = 10000;
 
     @Inject
     LegacyNifiRestClient nifiRestClient;
@@ -94,18 +110,28 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
     PropertyExpressionResolver propertyExpressionResolver;
     @Inject
     private NifiConnectionService nifiConnectionService;
-    private Map<String, String> feedNameToTemplateNameMap = new ConcurrentHashMap<>();
 
-    private Map<String, Map<String, List<NifiFlowProcessor>>> feedFlowIdProcessorMap = new ConcurrentHashMap<>();
+    /**
+     * Number of threads walking the NiFi flows when the cache is rebuilt
+     */
+    @Value("${kylo.feedmgr.nifi.flow.cache.rebuild.threads:4}")
+    private int rebuildThreads = 4;
 
-    private Map<String, Map<String, List<NifiFlowProcessor>>> feedProcessorIdProcessorMap = new ConcurrentHashMap<>();
+    /**
+     * The cached flows.  A rebuild populates a new state and swaps it in when complete, so readers keep using the previous state in the meantime
+     */
+    private volatile FlowCacheState state = new FlowCacheState();
 
-    private Map<String, NifiFlowProcessor> processorIdMap = new ConcurrentHashMap<>();
+    /**
+     * The updates applied while a rebuild is in progress.  These are replayed onto the rebuilt state before it is swapped in.
+     * Guarded by the {@link #changeLog}, as are the swap of the {@link #state} and the updates themselves.
+     */
+    private List<Function<FlowCacheState, FlowCacheChange>> rebuildUpdates = null;
 
     /**
      * Flag to mark if the cache is loaded or not This is used to determine if the cache is ready to be used
      */
-    private boolean loaded = false;
+    private volatile boolean loaded = false;
 
     /**
      * Flag to indicate we are connected to NiFi
@@ -117,25 +143,6 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
      */
     private boolean modeShapeAvailable = false;
 
-    private Map<String, String> processorIdToFeedProcessGroupId = new ConcurrentHashMap<>();
-
-    private Map<String, String> processorIdToFeedNameMap = new ConcurrentHashMap<>();
-    private Map<String, String> processorIdToProcessorName = new ConcurrentHashMap<>();
-    private Map<String, NiFiFlowCacheConnectionData> connectionIdToConnectionMap = new ConcurrentHashMap<>();
-    private Map<String, String> connectionIdCacheNameMap = new ConcurrentHashMap<>();
-
-    /**
-     * Set of the category.feed names for those that are just streaming feeds
-     */
-    private Set<String> streamingFeeds = new HashSet();
-
-    /**
-     * Set of the category.feed names
-     */
-    private Set<String> allFeeds = new HashSet<>();
-
-    private Map<String, Long> feedLastUpated = new ConcurrentHashMap<>();
-
     /**
      * Map of the sync id to cache
      * This is the cache of the items out there that others have built and will check/update themseleves based upon the base maps in the object
@@ -151,6 +158,22 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
 
     private DateTime lastUpdated = null;
 
+    /**
+     * Map of the version to the keys changed in that version.
+     * The change log, {@link #version} and {@link #oldestVersion} are guarded by the change log
+     */
+    private final NavigableMap<Long, FlowCacheChange> changeLog = new TreeMap<>();
+
+    /**
+     * The current version of the cache
+     */
+    private long version = 0L;
+
+    /**
+     * Syncs at or after this version can be brought up to date from the change log
+     */
+    private long oldestVersion = 0L;
+
     @PostConstruct
     private void init() {
         nifiConnectionService.subscribeConnectionListener(this);
@@ -240,6 +263,12 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
      */
     public NiFiFlowCacheSync getCache(String syncId) {
         NiFiFlowCacheSync sync = getSync(syncId);
+        if (!sync.isUnavailable()) {
+            NiFiFlowCacheSync cache = new NiFiFlowCacheSync(sync.getSyncId(), fullSnapshot());
+            cache.setVersion(sync.getVersion());
+            cache.setLastSync(sync.getLastSync());
+            return cache;
+        }
         return sync;
     }
 
@@ -260,40 +289,63 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
 
     /**
      * Rebuild the base cache that others will update from.
+     * The NiFi flows are walked concurrently and the cache is built into a new state, which replaces the current state once complete.
+     * Until then the syncs keep being served from the current state.  Only the entries that differ from the current state are versioned and sent to the syncs.
      */
     public synchronized void rebuildAll() {
-        loaded = false;
-
         try {
             ensureNiFiKyloReportingTask();
         } catch (Exception e) {
             log.error("Exception while trying to ensure KyloReportingTask {}", e.getMessage(), e);
         }
-        List<NifiFlowProcessGroup> allFlows = nifiRestClient.getFeedFlows();
-
-        List<RegisteredTemplate> templates = null;
-        clearAll();
-
-        templates = metadataAccess.read(() -> metadataService.getRegisteredTemplates(), MetadataAccess.SERVICE);
-        Map<String, RegisteredTemplate> feedTemplatesMap = new HashMap<>();
 
-        //populate the template mappings and feeds to determine if the feed uses a streaming or batch template
-        templates.stream().forEach(template -> populateTemplateMappingCache(template, feedTemplatesMap));
+        synchronized (changeLog) {
+            rebuildUpdates = new ArrayList<>();
+        }
+        ExecutorService executor = new DelegatingSecurityContextExecutorService(Executors.newFixedThreadPool(Math.max(1, rebuildThreads)));
+        try {
+            Future<List<RegisteredTemplate>> templates = executor.submit(() -> metadataAccess.read(() -> metadataService.getRegisteredTemplates(), MetadataAccess.SERVICE));
+            List<NifiFlowProcessGroup> allFlows = nifiRestClient.getFeedFlows(executor);
+
+            //the changes are found by comparing the rebuilt state to the current state once it is complete
+            FlowCacheState rebuilt = new FlowCacheState();
+            FlowCacheChange change = new FlowCacheChange();
+            Map<String, RegisteredTemplate> feedTemplatesMap = new HashMap<>();
+
+            //populate the template mappings and feeds to determine if the feed uses a streaming or batch template
+            templates.get().stream().forEach(template -> rebuilt.populateTemplateMappingCache(template, feedTemplatesMap, change));
+
+            allFlows.stream().forEach(nifiFlowProcessGroup -> {
+                RegisteredTemplate template = feedTemplatesMap.get(nifiFlowProcessGroup.getFeedName());
+                if (template != null) {
+                    rebuilt.updateFlow(nifiFlowProcessGroup.getFeedName(), template.isStream(), nifiFlowProcessGroup.getId(), nifiFlowProcessGroup.getProcessorMap().values(),
+                                       nifiFlowProcessGroup.getConnectionIdMap().values(), change);
+                } else {
+                    //this is possibly a reusable template.
+                    //update the processorid and connection name maps
+                    rebuilt.updateProcessorIdMaps(nifiFlowProcessGroup.getFeedName(), nifiFlowProcessGroup.getProcessorMap().values(), change);
+                    rebuilt.updateConnections(nifiFlowProcessGroup.getConnectionIdMap().values(), change);
+                }
+            });
 
-        allFlows.stream().forEach(nifiFlowProcessGroup -> {
-            RegisteredTemplate template = feedTemplatesMap.get(nifiFlowProcessGroup.getFeedName());
-            if (template != null) {
-                updateFlow(nifiFlowProcessGroup.getFeedName(), template.isStream(), nifiFlowProcessGroup);
-            } else {
-                //this is possibly a reusable template.
-                //update the processorid and connection name maps
-                updateProcessorIdMaps(nifiFlowProcessGroup.getFeedName(), nifiFlowProcessGroup.getProcessorMap().values());
-                this.connectionIdToConnectionMap.putAll(toConnectionIdMap(nifiFlowProcessGroup.getConnectionIdMap().values()));
+            synchronized (changeLog) {
+                rebuildUpdates.forEach(update -> update.apply(rebuilt));
+                FlowCacheChange rebuiltChange = rebuilt.changesFrom(state);
+                state = rebuilt;
+                recordChange(rebuiltChange);
             }
-        });
-        loaded = true;
-
-
+            loaded = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rebuilding the NiFi flow cache", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException("Unable to rebuild the NiFi flow cache", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            synchronized (changeLog) {
+                rebuildUpdates = null;
+            }
+        }
     }
 
     /**
@@ -302,16 +354,16 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
      */
     public void rebuildCacheWithRetry() {
         Exception lastError = null;
+        boolean rebuilt = false;
         int retries = 10;
         int waitTime = 5;
         for (int count = 1; count <= retries; ++count) {
             try {
                 log.info("Attempting to build the NiFiFlowCache");
                 rebuildAll();
-                if (loaded) {
-                    log.info("Successfully built the NiFiFlowCache");
-                    break;
-                }
+                rebuilt = true;
+                log.info("Successfully built the NiFiFlowCache");
+                break;
             } catch (final Exception e) {
                 log.error("Error attempting to build cache.  The system will attempt to retry {} more times.  Next attempt to rebuild in {} seconds.  The error was: {}. ", (retries - count), waitTime,
                           e.getMessage());
@@ -319,13 +371,28 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
                 Uninterruptibles.sleepUninterruptibly(waitTime, TimeUnit.SECONDS);
             }
         }
-        if (!loaded) {
+        if (!rebuilt) {
             log.error(
                 "Unable to build the NiFi Flow Cache!  You will need to manually rebuild the cache using the following url:  http://KYLO_HOST:PORT/proxy/v1/metadata/nifi-provenance/nifi-flow-cache/reset-cache ",
                 lastError);
         }
     }
 
+    /**
+     * Apply an update to the cache and version the keys it changed.
+     * An update made while the cache is being rebuilt is also applied to the rebuilt state, so it is not lost when that state is swapped in.
+     *
+     * @param update the update, returning the keys it changed
+     */
+    private void applyUpdate(Function<FlowCacheState, FlowCacheChange> update) {
+        synchronized (changeLog) {
+            recordChange(update.apply(state));
+            if (rebuildUpdates != null) {
+                rebuildUpdates.add(update);
+            }
+        }
+    }
+
 
     private NiFiFlowCacheSync previewUpdates(NiFiFlowCacheSync sync) {
         return syncAndReturnUpdates(sync, true);
@@ -364,89 +431,110 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
         if (!preview) {
             lastSyncTimeMap.put(sync.getSyncId(), DateTime.now());
         }
-        if (sync.needsUpdate(lastUpdated)) {
-            Map<String, String> processorIdToFeedNameMapCopy = ImmutableMap.copyOf(processorIdToFeedNameMap);
-            Map<String, String> processorIdToFeedProcessGroupIdCopy = ImmutableMap.copyOf(processorIdToFeedProcessGroupId);
-            Map<String, String> processorIdToProcessorNameCopy = ImmutableMap.copyOf(processorIdToProcessorName);
-            Set<String> streamingFeedsCopy = ImmutableSet.copyOf(streamingFeeds);
-            Set<String> allFeedsCopy = ImmutableSet.copyOf(allFeeds);
-            Map<String, NiFiFlowCacheConnectionData> connectionDataMapCopy = ImmutableMap.copyOf(connectionIdToConnectionMap);
-
-            //get feeds updated since last sync
-            NifiFlowCacheSnapshot latest = new NifiFlowCacheSnapshot.Builder()
-                .withProcessorIdToFeedNameMap(processorIdToFeedNameMapCopy)
-                .withProcessorIdToFeedProcessGroupId(processorIdToFeedProcessGroupIdCopy)
-                .withProcessorIdToProcessorName(processorIdToProcessorNameCopy)
-                .withStreamingFeeds(streamingFeedsCopy)
-                .withFeeds(allFeedsCopy)
-                .withConnections(connectionDataMapCopy)
-                .withSnapshotDate(lastUpdated).build();
-            return syncAndReturnUpdates(sync, latest, preview);
-        } else {
-            return NiFiFlowCacheSync.EMPTY(sync.getSyncId());
-        }
-    }
-
-
-    private NiFiFlowCacheSync syncAndReturnUpdates(NiFiFlowCacheSync sync, NifiFlowCacheSnapshot latest, boolean preview) {
-        if (latest != null && sync.needsUpdate(latest.getSnapshotDate())) {
-
-            NifiFlowCacheSnapshot updated = new NifiFlowCacheSnapshot.Builder()
-                .withProcessorIdToFeedNameMap(sync.getProcessorIdToFeedNameMapUpdatedSinceLastSync(latest.getProcessorIdToFeedNameMap()))
-                .withProcessorIdToFeedProcessGroupId(sync.getProcessorIdToProcessGroupIdUpdatedSinceLastSync(latest.getProcessorIdToFeedProcessGroupId()))
-                .withProcessorIdToProcessorName(sync.getProcessorIdToProcessorNameUpdatedSinceLastSync(latest.getProcessorIdToProcessorName()))
-                .withStreamingFeeds(latest.getAllStreamingFeeds())
-                .withConnections(sync.getConnectionIdToConnectionUpdatedSinceLastSync(latest.getConnectionIdToConnectionName(), latest.getConnectionIdToConnection()))
-                .withFeeds(sync.getFeedsUpdatedSinceLastSync(latest.getAllFeeds()))
-                .build();
-            //reset the pointers on this sync to be the latest
-            if (!preview) {
-                sync.setSnapshot(latest);
-                sync.setLastSync(latest.getSnapshotDate());
-
+        long currentVersion;
+        DateTime snapshotDate;
+        FlowCacheChange changes = null;
+        synchronized (changeLog) {
+            currentVersion = version;
+            snapshotDate = lastUpdated;
+            Long syncVersion = sync.getVersion();
+            if (syncVersion != null && syncVersion >= currentVersion) {
+                return NiFiFlowCacheSync.EMPTY(sync.getSyncId());
             }
-            NiFiFlowCacheSync updatedSync = new NiFiFlowCacheSync(sync.getSyncId(), updated);
-            updatedSync.setUpdated(true);
-            if (!preview) {
-                updatedSync.setLastSync(latest.getSnapshotDate());
+            if (syncVersion != null && syncVersion >= oldestVersion) {
+                changes = new FlowCacheChange();
+                for (FlowCacheChange change : changeLog.subMap(syncVersion, false, currentVersion, true).values()) {
+                    changes.addAll(change);
+                }
             }
-            return updatedSync;
-
         }
 
-        return NiFiFlowCacheSync.EMPTY(sync.getSyncId());
+        //a new or reset sync, or one that has fallen behind the change log, gets everything
+        NifiFlowCacheSnapshot updated = changes != null ? deltaSnapshot(changes) : fullSnapshot();
+        //reset the pointers on this sync to be the latest
+        if (!preview) {
+            sync.setVersion(currentVersion);
+            sync.setLastSync(snapshotDate);
+        }
+        NiFiFlowCacheSync updatedSync = new NiFiFlowCacheSync(sync.getSyncId(), updated);
+        updatedSync.setUpdated(true);
+        updatedSync.setVersion(currentVersion);
+        if (!preview) {
+            updatedSync.setLastSync(snapshotDate);
+        }
+        return updatedSync;
     }
 
-
     /**
-     * clears the current cache
-     ***/
-    private void clearAll() {
-        processorIdToFeedProcessGroupId.clear();
-        processorIdToFeedProcessGroupId.clear();
-        processorIdToProcessorName.clear();
-        connectionIdToConnectionMap.clear();
-        connectionIdCacheNameMap.clear();
-        streamingFeeds.clear();
-        allFeeds.clear();
-        feedNameToTemplateNameMap.clear();
+     * @return a copy of everything in the cache
+     */
+    private NifiFlowCacheSnapshot fullSnapshot() {
+        FlowCacheState current = state;
+        return new NifiFlowCacheSnapshot.Builder()
+            .withProcessorIdToFeedNameMap(ImmutableMap.copyOf(current.processorIdToFeedNameMap))
+            .withProcessorIdToFeedProcessGroupId(ImmutableMap.copyOf(current.processorIdToFeedProcessGroupId))
+            .withProcessorIdToProcessorName(ImmutableMap.copyOf(current.processorIdToProcessorName))
+            .withStreamingFeeds(ImmutableSet.copyOf(current.streamingFeeds))
+            .withFeeds(ImmutableSet.copyOf(current.allFeeds))
+            .withConnections(ImmutableMap.copyOf(current.connectionIdToConnectionMap))
+            .withSnapshotDate(lastUpdated).build();
     }
 
-    private void populateTemplateMappingCache(RegisteredTemplate template, Map<String, RegisteredTemplate> feedTemplatesMap) {
-
-        template.getFeedNames().stream().forEach(feedName -> {
-            if (feedTemplatesMap != null) {
-                feedTemplatesMap.put(feedName, template);
-            }
-            feedNameToTemplateNameMap.put(feedName, template.getTemplateName());
-            if (template.isStream()) {
-                streamingFeeds.add(feedName);
-            } else {
-                streamingFeeds.remove(feedName);
-            }
+    /**
+     * Build a snapshot with the current values of the changed keys.
+     * The streaming feeds are always sent in full as the client replaces its set with the one it receives.
+     *
+     * @param changes the keys changed since the last sync
+     * @return the snapshot with the changed entries
+     */
+    private NifiFlowCacheSnapshot deltaSnapshot(FlowCacheChange changes) {
+        FlowCacheState current = state;
+        Map<String, String> feedNames = new HashMap<>();
+        Map<String, String> processGroupIds = new HashMap<>();
+        Map<String, String> processorNames = new HashMap<>();
+        changes.processorIds.stream().forEach(processorId -> {
+            putIfNotNull(feedNames, processorId, current.processorIdToFeedNameMap.get(processorId));
+            putIfNotNull(processGroupIds, processorId, current.processorIdToFeedProcessGroupId.get(processorId));
+            putIfNotNull(processorNames, processorId, current.processorIdToProcessorName.get(processorId));
         });
+        Map<String, NiFiFlowCacheConnectionData> connections = new HashMap<>();
+        changes.connectionIds.stream().forEach(connectionId -> putIfNotNull(connections, connectionId, current.connectionIdToConnectionMap.get(connectionId)));
+        Set<String> feeds = changes.feedNames.stream().filter(current.allFeeds::contains).collect(Collectors.toSet());
+
+        return new NifiFlowCacheSnapshot.Builder()
+            .withProcessorIdToFeedNameMap(feedNames)
+            .withProcessorIdToFeedProcessGroupId(processGroupIds)
+            .withProcessorIdToProcessorName(processorNames)
+            .withStreamingFeeds(ImmutableSet.copyOf(current.streamingFeeds))
+            .withFeeds(feeds)
+            .withConnections(connections)
+            .build();
+    }
+
+    private static <V> void putIfNotNull(Map<String, V> map, String key, V value) {
+        if (value != null) {
+            map.put(key, value);
+        }
     }
 
+    /**
+     * Record the keys changed by an update under a new version of the cache
+     *
+     * @param change the changed keys
+     */
+    private void recordChange(FlowCacheChange change) {
+        if (change.isEmpty()) {
+            return;
+        }
+        synchronized (changeLog) {
+            version++;
+            changeLog.put(version, change);
+            while (changeLog.size() > MAX_CHANGE_LOG_SIZE) {
+                oldestVersion = changeLog.pollFirstEntry().getKey();
+            }
+            lastUpdated = DateTimeUtil.getNowUTCTime();
+        }
+    }
 
     /**
      * Ensure that there is a configured reporting task
@@ -525,23 +613,21 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
      * Called after someone updates/Registers a template in the UI using the template stepper
      * This is used to update the feed marker for streaming/batch feeds
      */
-    public synchronized void updateRegisteredTemplate(RegisteredTemplate template) {
-
-        populateTemplateMappingCache(template, null);
-
-        //update the processortype cachefeedNameToTemplateNameMap
-        List<String>
-            feedNames =
-            feedNameToTemplateNameMap.entrySet().stream().filter(entry -> entry.getValue().equalsIgnoreCase(template.getTemplateName())).map(entry -> entry.getKey()).collect(Collectors.toList());
-
-        log.info("Updated Template: {}, found {} associated feeds ", template.getTemplateName(), feedNames.size());
-        if (template.isStream()) {
-            streamingFeeds.addAll(feedNames);
-        } else {
-            streamingFeeds.removeAll(feedNames);
-        }
-        lastUpdated = DateTimeUtil.getNowUTCTime();
-
+    public void updateRegisteredTemplate(RegisteredTemplate template) {
+        applyUpdate(cacheState -> {
+            FlowCacheChange change = new FlowCacheChange();
+            cacheState.populateTemplateMappingCache(template, null, change);
+
+            //update the processortype cachefeedNameToTemplateNameMap
+            List<String>
+                feedNames =
+                cacheState.feedNameToTemplateNameMap.entrySet().stream().filter(entry -> entry.getValue().equalsIgnoreCase(template.getTemplateName())).map(entry -> entry.getKey())
+                    .collect(Collectors.toList());
+
+            log.info("Updated Template: {}, found {} associated feeds ", template.getTemplateName(), feedNames.size());
+            feedNames.stream().forEach(feedName -> cacheState.updateStreamingFeed(feedName, template.isStream(), change));
+            return change;
+        });
     }
 
 
@@ -552,13 +638,15 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
      * @param processors   processors to add to the cache
      */
     public void updateProcessorIdNames(String templateName, Collection<ProcessorDTO> processors) {
-
-        Map<String, String> processorIdToProcessorName = new HashMap<>();
-        processors.stream().forEach(flowProcessor -> {
-            processorIdToProcessorName.put(flowProcessor.getId(), flowProcessor.getName());
+        applyUpdate(cacheState -> {
+            FlowCacheChange change = new FlowCacheChange();
+            processors.stream().forEach(flowProcessor -> {
+                if (putIfChanged(cacheState.processorIdToProcessorName, flowProcessor.getId(), flowProcessor.getName())) {
+                    change.processorIds.add(flowProcessor.getId());
+                }
+            });
+            return change;
         });
-
-        this.processorIdToProcessorName.putAll(processorIdToProcessorName);
     }
 
     /**
@@ -578,7 +666,11 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
 
             });
         }
-        this.connectionIdToConnectionMap.putAll(toConnectionIdMap(connectionIdToConnectionMap.values()));
+        applyUpdate(cacheState -> {
+            FlowCacheChange change = new FlowCacheChange();
+            cacheState.updateConnections(connectionIdToConnectionMap.values(), change);
+            return change;
+        });
     }
 
 
@@ -592,7 +684,7 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
     public void updateFlow(FeedMetadata feed, NifiFlowProcessGroup feedProcessGroup) {
         // feedProcessGroup.calculateCriticalPathProcessors();
         String feedName = feed.getCategoryAndFeedName();
-        this.updateFlow(feedName, feed.getRegisteredTemplate().isStream(), feedProcessGroup.getId(), feedProcessGroup.getProcessorMap().values(), feedProcessGroup.getConnectionIdMap().values());
+        this.updateFlow(feedName, feed.getRegisteredTemplate().isStream(), feedProcessGroup);
     }
 
     /**
@@ -604,56 +696,37 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
      */
     public void updateFlow(String feedName, boolean isStream, NifiFlowProcessGroup feedProcessGroup) {
         //  feedProcessGroup.calculateCriticalPathProcessors();
-        this.updateFlow(feedName, isStream, feedProcessGroup.getId(), feedProcessGroup.getProcessorMap().values(), feedProcessGroup.getConnectionIdMap().values());
-    }
-
-
-    private void updateFlow(String feedName, boolean isStream, String feedProcessGroupId, Collection<NifiFlowProcessor> processors, Collection<NifiFlowConnection> connections) {
-        feedFlowIdProcessorMap.put(feedName, toFlowIdProcessorMap(processors));
-        feedProcessorIdProcessorMap.put(feedName, toProcessorIdProcessorMap(processors));
-
-        updateProcessorIdMaps(feedProcessGroupId, processors);
-        Map<String, String> processorIdToProcessGroupId = new HashMap<>();
-        Map<String, String> processorIdToProcessorName = new HashMap<>();
-        processors.stream().forEach(flowProcessor -> {
-            processorIdToProcessGroupId.put(flowProcessor.getId(), feedProcessGroupId);
-            processorIdToProcessorName.put(flowProcessor.getId(), flowProcessor.getName());
+        applyUpdate(cacheState -> {
+            FlowCacheChange change = new FlowCacheChange();
+            cacheState.updateFlow(feedName, isStream, feedProcessGroup.getId(), feedProcessGroup.getProcessorMap().values(), feedProcessGroup.getConnectionIdMap().values(), change);
+            return change;
         });
-        this.processorIdToFeedProcessGroupId.putAll(processorIdToProcessGroupId);
-        this.processorIdToProcessorName.putAll(processorIdToProcessorName);
-
-        connectionIdToConnectionMap.putAll(toConnectionIdMap(connections));
-
-        if (connections != null) {
-            Map<String, String> connectionIdToNameMap = connections.stream().collect(Collectors.toMap(conn -> conn.getConnectionIdentifier(), conn -> conn.getName()));
-            connectionIdCacheNameMap.putAll(connectionIdToNameMap);
-        }
+    }
 
-        processorIdMap.putAll(toProcessorIdMap(processors));
-        processorIdToFeedNameMap.putAll(toProcessorIdFeedNameMap(processors, feedName));
-        lastUpdated = DateTimeUtil.getNowUTCTime();
 
-        if (isStream) {
-            streamingFeeds.add(feedName);
+    /**
+     * Put the value in the map
+     *
+     * @return {@code true} if the value was added or differs from the previous value, {@code false} if it is unchanged
+     */
+    private static boolean putIfChanged(Map<String, String> map, String key, String value) {
+        if (key == null || value == null) {
+            return false;
         }
-        allFeeds.add(feedName);
-        feedLastUpated.put(feedName, lastUpdated.getMillis());
-
+        return !value.equals(map.put(key, value));
     }
 
-    private void updateProcessorIdMaps(String processGroupId, Collection<NifiFlowProcessor> processors) {
-        Map<String, String> processorIdToProcessGroupId = new HashMap<>();
-        Map<String, String> processorIdToProcessorName = new HashMap<>();
-        processors.stream().forEach(flowProcessor -> {
-            processorIdToProcessGroupId.put(flowProcessor.getId(), processGroupId);
-            processorIdToProcessorName.put(flowProcessor.getId(), flowProcessor.getName());
-        });
-        this.processorIdToFeedProcessGroupId.putAll(processorIdToProcessGroupId);
-        this.processorIdToProcessorName.putAll(processorIdToProcessorName);
-
+    /**
+     * Connections are equal by id only so compare the rest of the data
+     *
+     * @return {@code true} if the existing connection has the same name, source and destination as the connection
+     */
+    private static boolean isSameConnection(NiFiFlowCacheConnectionData existing, NiFiFlowCacheConnectionData connection) {
+        return existing != null && Objects.equals(existing.getName(), connection.getName()) && Objects.equals(existing.getSourceIdentifier(), connection.getSourceIdentifier())
+               && Objects.equals(existing.getDestinationIdentifier(), connection.getDestinationIdentifier());
     }
 
-    private Map<String, NiFiFlowCacheConnectionData> toConnectionIdMap(Collection<NifiFlowConnection> connections) {
+    private static Map<String, NiFiFlowCacheConnectionData> toConnectionIdMap(Collection<NifiFlowConnection> connections) {
         Map<String, NiFiFlowCacheConnectionData> connectionMap = new HashMap<>();
         connections.stream().forEach(conn -> {
             connectionMap
@@ -662,16 +735,16 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
         return connectionMap;
     }
 
-    private Map<String, NifiFlowProcessor> toProcessorIdMap(Collection<NifiFlowProcessor> processors) {
+    private static Map<String, NifiFlowProcessor> toProcessorIdMap(Collection<NifiFlowProcessor> processors) {
         return processors.stream().collect(Collectors.toMap(NifiFlowProcessor::getId, Function.identity()));
     }
 
-    private Map<String, String> toProcessorIdFeedNameMap(Collection<NifiFlowProcessor> processors, String feedName) {
+    private static Map<String, String> toProcessorIdFeedNameMap(Collection<NifiFlowProcessor> processors, String feedName) {
         return processors.stream().collect(Collectors.toMap(NifiFlowProcessor::getId, name -> feedName));
     }
 
 
-    private Map<String, List<NifiFlowProcessor>> toFlowIdProcessorMap(Collection<NifiFlowProcessor> processors) {
+    private static Map<String, List<NifiFlowProcessor>> toFlowIdProcessorMap(Collection<NifiFlowProcessor> processors) {
         if (processors != null && !processors.isEmpty()) {
             return processors.stream().filter(nifiFlowProcessor -> nifiFlowProcessor.getFlowId() != null).collect(Collectors.groupingBy(NifiFlowProcessor::getFlowId));
         }
@@ -679,7 +752,7 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
     }
 
 
-    private Map<String, List<NifiFlowProcessor>> toProcessorIdProcessorMap(Collection<NifiFlowProcessor> processors) {
+    private static Map<String, List<NifiFlowProcessor>> toProcessorIdProcessorMap(Collection<NifiFlowProcessor> processors) {
         if (processors != null && !processors.isEmpty()) {
             return processors.stream().collect(Collectors.groupingBy(NifiFlowProcessor::getId));
         }
@@ -687,7 +760,11 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
     }
 
     public CacheSummary cacheSummary() {
-        return CacheSummary.build(syncMap);
+        CacheSummary summary = CacheSummary.build(syncMap);
+        synchronized (changeLog) {
+            summary.setVersion(version);
+        }
+        return summary;
     }
 
     private void initExpireTimerThread() {
@@ -723,33 +800,181 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
         }
     }
 
+    /**
+     * The flows, processors and connections in the cache
+     */
+    private static class FlowCacheState {
+
+        private final Map<String, String> feedNameToTemplateNameMap = new ConcurrentHashMap<>();
+
+        private final Map<String, Map<String, List<NifiFlowProcessor>>> feedFlowIdProcessorMap = new ConcurrentHashMap<>();
+
+        private final Map<String, Map<String, List<NifiFlowProcessor>>> feedProcessorIdProcessorMap = new ConcurrentHashMap<>();
+
+        private final Map<String, NifiFlowProcessor> processorIdMap = new ConcurrentHashMap<>();
+
+        private final Map<String, String> processorIdToFeedProcessGroupId = new ConcurrentHashMap<>();
+
+        private final Map<String, String> processorIdToFeedNameMap = new ConcurrentHashMap<>();
+        private final Map<String, String> processorIdToProcessorName = new ConcurrentHashMap<>();
+        private final Map<String, NiFiFlowCacheConnectionData> connectionIdToConnectionMap = new ConcurrentHashMap<>();
+        private final Map<String, String> connectionIdCacheNameMap = new ConcurrentHashMap<>();
+
+        /**
+         * Set of the category.feed names for those that are just streaming feeds
+         */
+        private final Set<String> streamingFeeds = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Set of the category.feed names
+         */
+        private final Set<String> allFeeds = ConcurrentHashMap.newKeySet();
+
+        private final Map<String, Long> feedLastUpated = new ConcurrentHashMap<>();
+
+        private void populateTemplateMappingCache(RegisteredTemplate template, Map<String, RegisteredTemplate> feedTemplatesMap, FlowCacheChange change) {
+
+            template.getFeedNames().stream().forEach(feedName -> {
+                if (feedTemplatesMap != null) {
+                    feedTemplatesMap.put(feedName, template);
+                }
+                feedNameToTemplateNameMap.put(feedName, template.getTemplateName());
+                updateStreamingFeed(feedName, template.isStream(), change);
+            });
+        }
+
+        private void updateStreamingFeed(String feedName, boolean isStream, FlowCacheChange change) {
+            boolean changed = isStream ? streamingFeeds.add(feedName) : streamingFeeds.remove(feedName);
+            if (changed) {
+                change.feedNames.add(feedName);
+            }
+        }
+
+        private void updateFlow(String feedName, boolean isStream, String feedProcessGroupId, Collection<NifiFlowProcessor> processors, Collection<NifiFlowConnection> connections,
+                                FlowCacheChange change) {
+            feedFlowIdProcessorMap.put(feedName, toFlowIdProcessorMap(processors));
+            feedProcessorIdProcessorMap.put(feedName, toProcessorIdProcessorMap(processors));
+
+            updateProcessorIdMaps(feedProcessGroupId, processors, change);
+            processors.stream().forEach(flowProcessor -> {
+                if (putIfChanged(processorIdToFeedNameMap, flowProcessor.getId(), feedName)) {
+                    change.processorIds.add(flowProcessor.getId());
+                }
+            });
+
+            if (connections != null) {
+                updateConnections(connections, change);
+                Map<String, String> connectionIdToNameMap = connections.stream().collect(Collectors.toMap(conn -> conn.getConnectionIdentifier(), conn -> conn.getName()));
+                connectionIdCacheNameMap.putAll(connectionIdToNameMap);
+            }
+
+            processorIdMap.putAll(toProcessorIdMap(processors));
+
+            if (isStream) {
+                updateStreamingFeed(feedName, true, change);
+            }
+            if (allFeeds.add(feedName)) {
+                change.feedNames.add(feedName);
+            }
+            feedLastUpated.put(feedName, DateTimeUtil.getNowUTCTime().getMillis());
+
+        }
+
+        private void updateProcessorIdMaps(String processGroupId, Collection<NifiFlowProcessor> processors, FlowCacheChange change) {
+            processors.stream().forEach(flowProcessor -> {
+                boolean groupChanged = putIfChanged(processorIdToFeedProcessGroupId, flowProcessor.getId(), processGroupId);
+                boolean nameChanged = putIfChanged(processorIdToProcessorName, flowProcessor.getId(), flowProcessor.getName());
+                if (groupChanged || nameChanged) {
+                    change.processorIds.add(flowProcessor.getId());
+                }
+            });
+        }
+
+        private void updateConnections(Collection<NifiFlowConnection> connections, FlowCacheChange change) {
+            toConnectionIdMap(connections).values().stream().forEach(connection -> {
+                NiFiFlowCacheConnectionData existing = connectionIdToConnectionMap.put(connection.getConnectionIdentifier(), connection);
+                if (!isSameConnection(existing, connection)) {
+                    change.connectionIds.add(connection.getConnectionIdentifier());
+                }
+            });
+        }
+
+        /**
+         * Find the keys whose values differ from those of a previous state.
+         * Entries that are no longer in this state are not included, as the syncs keep what they already have for these.
+         *
+         * @param previous the previous state
+         * @return the changed keys
+         */
+        private FlowCacheChange changesFrom(FlowCacheState previous) {
+            FlowCacheChange change = new FlowCacheChange();
+            Set<String> processorIds = new HashSet<>(processorIdToFeedNameMap.keySet());
+            processorIds.addAll(processorIdToFeedProcessGroupId.keySet());
+            processorIds.addAll(processorIdToProcessorName.keySet());
+            processorIds.stream()
+                .filter(processorId -> !Objects.equals(processorIdToFeedNameMap.get(processorId), previous.processorIdToFeedNameMap.get(processorId))
+                                       || !Objects.equals(processorIdToFeedProcessGroupId.get(processorId), previous.processorIdToFeedProcessGroupId.get(processorId))
+                                       || !Objects.equals(processorIdToProcessorName.get(processorId), previous.processorIdToProcessorName.get(processorId)))
+                .forEach(change.processorIds::add);
+            connectionIdToConnectionMap.values().stream()
+                .filter(connection -> !isSameConnection(previous.connectionIdToConnectionMap.get(connection.getConnectionIdentifier()), connection))
+                .forEach(connection -> change.connectionIds.add(connection.getConnectionIdentifier()));
+            allFeeds.stream().filter(feedName -> !previous.allFeeds.contains(feedName)).forEach(change.feedNames::add);
+            streamingFeeds.stream().filter(feedName -> !previous.streamingFeeds.contains(feedName)).forEach(change.feedNames::add);
+            previous.streamingFeeds.stream().filter(feedName -> !streamingFeeds.contains(feedName)).forEach(change.feedNames::add);
+            return change;
+        }
+    }
+
+    /**
+     * The processor, connection and feed keys changed in a version of the cache
+     */
+    private static class FlowCacheChange {
+
+        private final Set<String> processorIds = new HashSet<>();
+        private final Set<String> connectionIds = new HashSet<>();
+        private final Set<String> feedNames = new HashSet<>();
+
+        private boolean isEmpty() {
+            return processorIds.isEmpty() && connectionIds.isEmpty() && feedNames.isEmpty();
+        }
+
+        private void addAll(FlowCacheChange change) {
+            processorIds.addAll(change.processorIds);
+            connectionIds.addAll(change.connectionIds);
+            feedNames.addAll(change.feedNames);
+        }
+    }
+
     public static class CacheSummary {
 
-        private Map<String, Integer> summary = new HashMap<>();
+        /**
+         * Map of the sync id to the version of the cache it has been synced to
+         */
+        private Map<String, Long> summary = new HashMap<>();
         private Integer cachedSyncIds;
+        private Long version;
 
         public CacheSummary() {
 
         }
 
-        private CacheSummary(Map<String, Integer> cacheIds) {
+        private CacheSummary(Map<String, Long> cacheIds) {
             this.summary = cacheIds;
             this.cachedSyncIds = cacheIds.keySet().size();
         }
 
         public static CacheSummary build(Map<String, NiFiFlowCacheSync> syncMap) {
-            Map<String, Integer>
-                cacheIds =
-                syncMap.entrySet().stream().collect(Collectors.toMap(stringNiFiFlowCacheSyncEntry -> stringNiFiFlowCacheSyncEntry.getKey(),
-                                                                     stringNiFiFlowCacheSyncEntry1 -> stringNiFiFlowCacheSyncEntry1.getValue().getSnapshot().getProcessorIdToFeedNameMap().size()));
+            Map<String, Long> cacheIds = new HashMap<>();
+            syncMap.entrySet().stream().forEach(entry -> cacheIds.put(entry.getKey(), entry.getValue().getVersion()));
             return new CacheSummary(cacheIds);
         }
 
-        public Map<String, Integer> getSummary() {
+        public Map<String, Long> getSummary() {
             return summary;
         }
 
-        public void setSummary(Map<String, Integer> summary) {
+        public void setSummary(Map<String, Long> summary) {
             this.summary = summary;
         }
 
@@ -760,5 +985,16 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
         public void setCachedSyncIds(Integer cachedSyncIds) {
             this.cachedSyncIds = cachedSyncIds;
         }
+
+        /**
+         * @return the current version of the cache
+         */
+        public Long getVersion() {
+            return version;
+        }
+
+        public void setVersion(Long version) {
+            this.version = version;
+        }
     }
 }
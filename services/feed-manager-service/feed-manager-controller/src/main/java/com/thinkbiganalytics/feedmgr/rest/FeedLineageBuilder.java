@@ -21,26 +21,31 @@ package com.thinkbiganalytics.feedmgr.rest;
  */
 
 import com.thinkbiganalytics.feedmgr.service.datasource.DatasourceModelTransform;
+import com.thinkbiganalytics.feedmgr.service.feed.FeedLineageGraph;
+import com.thinkbiganalytics.metadata.api.datasource.DatasourceProvider;
 import com.thinkbiganalytics.metadata.api.feed.Feed;
+import com.thinkbiganalytics.metadata.api.feed.FeedProvider;
 import com.thinkbiganalytics.metadata.rest.model.data.Datasource;
 import com.thinkbiganalytics.metadata.rest.model.feed.FeedDestination;
 import com.thinkbiganalytics.metadata.rest.model.feed.FeedSource;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 
+/**
+ * Builds the lineage of a feed from the {@link FeedLineageGraph}.  The graph finds the connected feeds and datasources, so each of them is read from the
+ * metadata store once and none of the references between them are followed.
+ */
 public class FeedLineageBuilder {
 
-    Map<String, Feed> processedDomainFeeds = new HashMap<>();
-    Map<String, com.thinkbiganalytics.metadata.rest.model.feed.Feed> restFeeds = new HashMap<>();
+    Map<String, com.thinkbiganalytics.metadata.rest.model.feed.Feed> restFeeds = new LinkedHashMap<>();
 
-    Map<String, Datasource> restDatasources = new HashMap<>();
+    Map<String, Datasource> restDatasources = new LinkedHashMap<>();
 
     /**
      * The {@code Datasource} transformer
@@ -56,116 +61,93 @@ public class FeedLineageBuilder {
     @Nonnull
     private final Model model;
 
+    /**
+     * The feed dependencies and datasources
+     */
+    @Nonnull
+    private final FeedLineageGraph graph;
+
+    @Nonnull
+    private final FeedProvider feedProvider;
+
+    @Nonnull
+    private final DatasourceProvider datasourceProvider;
+
+    /**
+     * The maximum number of edges from the feed, or a negative number for no limit
+     */
+    private final int maxDepth;
+
     /**
      * Constructs a {@code FeedLineageBuilder} for the specified feed.
      *
      * @param domainFeed          the feed
+     * @param maxDepth            the maximum number of edges from the feed to include, or a negative number to include the whole lineage
+     * @param graph               the feed dependencies and datasources
+     * @param feedProvider        the feed provider
+     * @param datasourceProvider  the datasource provider
      * @param model               the feed model transformer
      * @param datasourceTransform the datasource transformer
      */
-    public FeedLineageBuilder(Feed domainFeed, @Nonnull final Model model, @Nonnull final DatasourceModelTransform datasourceTransform) {
+    public FeedLineageBuilder(Feed domainFeed, int maxDepth, @Nonnull final FeedLineageGraph graph, @Nonnull final FeedProvider feedProvider,
+                              @Nonnull final DatasourceProvider datasourceProvider, @Nonnull final Model model, @Nonnull final DatasourceModelTransform datasourceTransform) {
         this.domainFeed = domainFeed;
+        this.maxDepth = maxDepth;
+        this.graph = graph;
+        this.feedProvider = feedProvider;
+        this.datasourceProvider = datasourceProvider;
         this.model = model;
         this.datasourceTransform = datasourceTransform;
-        build(this.domainFeed);
     }
 
 
     public com.thinkbiganalytics.metadata.rest.model.feed.Feed build() {
-        return build(this.domainFeed);
-    }
-
-    private Datasource buildDatasource(com.thinkbiganalytics.metadata.api.datasource.Datasource domainDatasource) {
-        Datasource ds = restDatasources.get(domainDatasource.getId().toString());
-        if (ds == null) {
-            // build the data source
-            ds = datasourceTransform.toDatasource(domainDatasource, DatasourceModelTransform.Level.BASIC);
-
-            restDatasources.put(ds.getId(), ds);
-            //populate the Feed relationships
-            if (domainDatasource.getFeedSources() != null) {
-
-                List<com.thinkbiganalytics.metadata.rest.model.feed.Feed> feedList = new ArrayList<>();
-                for (com.thinkbiganalytics.metadata.api.feed.FeedSource domainSrc : domainDatasource.getFeedSources()) {
-                    com.thinkbiganalytics.metadata.rest.model.feed.Feed feed = build(domainSrc.getFeed());
-                    feedList.add(feed);
+        final String feedId = domainFeed.getId().toString();
+        final FeedLineageGraph.Lineage lineage = graph.getLineage(feedId, maxDepth);
+
+        restFeeds.put(feedId, model.domainToFeed(domainFeed, false));
+        for (String id : lineage.getFeedIds()) {
+            if (!restFeeds.containsKey(id)) {
+                Feed feed = feedProvider.getFeed(feedProvider.resolveFeed(id));
+                if (feed != null) {
+                    restFeeds.put(id, model.domainToFeed(feed, false));
                 }
-                ds.getSourceForFeeds().addAll(feedList);
             }
-            if (domainDatasource.getFeedDestinations() != null) {
-                List<com.thinkbiganalytics.metadata.rest.model.feed.Feed> feedList = new ArrayList<>();
-                for (com.thinkbiganalytics.metadata.api.feed.FeedDestination domainDest : domainDatasource.getFeedDestinations()) {
-                    com.thinkbiganalytics.metadata.rest.model.feed.Feed feed = build(domainDest.getFeed());
-                    feedList.add(feed);
-                }
-                ds.getDestinationForFeeds().addAll(feedList);
+        }
+        for (String id : lineage.getDatasourceIds()) {
+            com.thinkbiganalytics.metadata.api.datasource.Datasource datasource = datasourceProvider.getDatasource(datasourceProvider.resolve(id));
+            if (datasource != null) {
+                restDatasources.put(id, datasourceTransform.toDatasource(datasource, DatasourceModelTransform.Level.BASIC));
             }
         }
-        return ds;
-
-    }
 
-    private com.thinkbiganalytics.metadata.rest.model.feed.Feed build(Feed domainFeed) {
-        com.thinkbiganalytics.metadata.rest.model.feed.Feed
-            feed =
-            restFeeds.containsKey(domainFeed.getId().toString()) ? restFeeds.get(domainFeed.getId().toString()) : model.domainToFeed(domainFeed);
-        restFeeds.put(feed.getId(), feed);
-
-        @SuppressWarnings("unchecked")
-        List<com.thinkbiganalytics.metadata.api.feed.FeedSource> sources = domainFeed.getSources();
-        Set<FeedSource> feedSources = new HashSet<FeedSource>();
-        if (sources != null) {
-
-            sources.stream().forEach(feedSource -> {
+        // Connect the feeds and datasources by the edges of the graph between them
+        restFeeds.forEach((id, feed) -> {
+            feed.setSources(graph.getSourceDatasourceIds(id).stream().filter(restDatasources::containsKey).map(dsId -> {
                 FeedSource src = new FeedSource();
-                Datasource ds = buildDatasource(feedSource.getDatasource());
-                src.setDatasource(ds);
-                feedSources.add(src);
-            });
-        }
-        feed.setSources(feedSources);
-        Set<FeedDestination> feedDestinations = new HashSet<FeedDestination>();
-        List<com.thinkbiganalytics.metadata.api.feed.FeedDestination> destinations = domainFeed.getDestinations();
-        if (destinations != null) {
-            destinations.stream().forEach(feedDestination -> {
+                src.setDatasource(restDatasources.get(dsId));
+                return src;
+            }).collect(Collectors.toSet()));
+            feed.setDestinations(graph.getDestinationDatasourceIds(id).stream().filter(restDatasources::containsKey).map(dsId -> {
                 FeedDestination dest = new FeedDestination();
-                Datasource ds = buildDatasource(feedDestination.getDatasource());
-                dest.setDatasource(ds);
-                feedDestinations.add(dest);
-            });
-        }
-        feed.setDestinations(feedDestinations);
-
-        if (domainFeed.getDependentFeeds() != null) {
-            List<Feed> depFeeds = domainFeed.getDependentFeeds();
-            depFeeds.stream().forEach(depFeed -> {
-                com.thinkbiganalytics.metadata.rest.model.feed.Feed restFeed = restFeeds.get(depFeed.getId().toString());
-                if (restFeed == null) {
-                    com.thinkbiganalytics.metadata.rest.model.feed.Feed depRestFeed = model.domainToFeed(depFeed);
-                    restFeeds.put(depRestFeed.getId(), depRestFeed);
-                    feed.getDependentFeeds().add(depRestFeed);
-                    build(depFeed);
-                } else {
-                    feed.getDependentFeeds().add(restFeed);
-                }
-
-            });
-        }
-        if (domainFeed.getUsedByFeeds() != null) {
-            List<Feed> usedByFeeds = domainFeed.getUsedByFeeds();
-            usedByFeeds.stream().forEach(usedByFeed -> {
-                com.thinkbiganalytics.metadata.rest.model.feed.Feed restFeed = restFeeds.get(usedByFeed.getId().toString());
-                if (restFeed == null) {
-                    com.thinkbiganalytics.metadata.rest.model.feed.Feed usedByRestFeed = model.domainToFeed(usedByFeed);
-                    restFeeds.put(usedByRestFeed.getId(), usedByRestFeed);
-                    feed.getUsedByFeeds().add(usedByRestFeed);
-                    build(usedByFeed);
-                } else {
-                    feed.getUsedByFeeds().add(restFeed);
-                }
+                dest.setDatasource(restDatasources.get(dsId));
+                return dest;
+            }).collect(Collectors.toSet()));
+            feed.getDependentFeeds().addAll(feedsOf(graph.getDependentFeedIds(id)));
+            feed.getUsedByFeeds().addAll(feedsOf(graph.getUsedByFeedIds(id)));
+        });
+        restDatasources.forEach((id, ds) -> {
+            ds.getSourceForFeeds().addAll(feedsOf(graph.getSourceForFeedIds(id)));
+            ds.getDestinationForFeeds().addAll(feedsOf(graph.getDestinationForFeedIds(id)));
+        });
+
+        return restFeeds.get(feedId);
+    }
 
-            });
-        }
-        return feed;
+    /**
+     * Gets the feeds of the lineage with the specified ids.
+     */
+    private Set<com.thinkbiganalytics.metadata.rest.model.feed.Feed> feedsOf(Collection<String> ids) {
+        return ids.stream().map(restFeeds::get).filter(feed -> feed != null).collect(Collectors.toSet());
     }
 }
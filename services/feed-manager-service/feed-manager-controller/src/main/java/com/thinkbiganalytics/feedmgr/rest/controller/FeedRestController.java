@@ -42,8 +42,11 @@ import com.thinkbiganalytics.feedmgr.service.template.RegisteredTemplateService;
 import com.thinkbiganalytics.feedmgr.sla.ServiceLevelAgreementService;
 import com.thinkbiganalytics.hive.service.HiveService;
 import com.thinkbiganalytics.hive.util.HiveUtils;
+import com.thinkbiganalytics.jobrepo.query.model.SearchResult;
+import com.thinkbiganalytics.jobrepo.query.model.transform.ModelUtils;
 import com.thinkbiganalytics.metadata.FeedPropertySection;
 import com.thinkbiganalytics.metadata.FeedPropertyType;
+import com.thinkbiganalytics.metadata.api.feedmgr.feed.FeedManagerFeedProvider;
 import com.thinkbiganalytics.metadata.rest.model.data.DatasourceDefinition;
 import com.thinkbiganalytics.metadata.rest.model.data.DatasourceDefinitions;
 import com.thinkbiganalytics.metadata.rest.model.feed.FeedLineageStyle;
@@ -67,6 +70,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.util.ReflectionUtils;
 import org.springframework.stereotype.Component;
 
@@ -90,6 +95,7 @@ import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.ClientErrorException;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
@@ -127,6 +133,21 @@ public class FeedRestController {
     private static final ResourceBundle STRINGS = ResourceBundle.getBundle("com.thinkbiganalytics.feedmgr.rest.controller.FeedMessages");
     private static final int MAX_LIMIT = 1000;
     private static final String NAMES = "/names";
+    private static final String SUMMARIES = "/summaries";
+
+    /**
+     * Maps the feed summary fields the UI sorts by to the properties the metadata repository can sort by
+     */
+    private static final Map<String, String> SUMMARY_SORT_PROPERTIES = new HashMap<>();
+
+    static {
+        SUMMARY_SORT_PROPERTIES.put("feedName", FeedManagerFeedProvider.SORT_DISPLAY_NAME);
+        SUMMARY_SORT_PROPERTIES.put("state", FeedManagerFeedProvider.SORT_STATE);
+        SUMMARY_SORT_PROPERTIES.put("category.name", FeedManagerFeedProvider.SORT_CATEGORY);
+        SUMMARY_SORT_PROPERTIES.put("categoryName", FeedManagerFeedProvider.SORT_CATEGORY);
+        SUMMARY_SORT_PROPERTIES.put("templateName", FeedManagerFeedProvider.SORT_TEMPLATE);
+        SUMMARY_SORT_PROPERTIES.put("updateDate", FeedManagerFeedProvider.SORT_MODIFIED_TIME);
+    }
 
     @Autowired
     @Qualifier("nifiRestClient")
@@ -314,6 +335,48 @@ public class FeedRestController {
         return Response.ok(feeds).build();
     }
 
+    @GET
+    @Path(SUMMARIES)
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation("Gets a page of feed summaries.")
+    @ApiResponses({
+                      @ApiResponse(code = 200, message = "Returns the feed summaries.", response = SearchResult.class),
+                      @ApiResponse(code = 400, message = "The sort field is not supported.", response = RestResponseStatus.class)
+                  })
+    public SearchResult getFeedSummaries(@QueryParam("sort") @DefaultValue("") String sort,
+                                         @QueryParam("limit") @DefaultValue("10") Integer limit,
+                                         @QueryParam("start") @DefaultValue("0") Integer start,
+                                         @QueryParam("filter") String filter) {
+        return ModelUtils.toSearchResult(getMetadataService().getFeedSummaryData(summaryPageRequest(start, limit, sort), filter));
+    }
+
+    /**
+     * Creates the page request for the feed summaries.
+     *
+     * @param start the index of the first feed
+     * @param limit the maximum number of feeds, or less than 1 for all feeds
+     * @param sort  the feed summary field to sort by, prefixed by {@code -} to sort descending
+     * @return the page request
+     */
+    private PageRequest summaryPageRequest(Integer start, Integer limit, String sort) {
+        int size = (limit != null && limit > 0) ? limit : Integer.MAX_VALUE;
+        int page = (start != null && start > 0) ? start / size : 0;
+        if (StringUtils.isNotBlank(sort)) {
+            Sort.Direction dir = Sort.Direction.ASC;
+            if (sort.startsWith("-")) {
+                dir = Sort.Direction.DESC;
+                sort = sort.substring(1);
+            }
+            String property = SUMMARY_SORT_PROPERTIES.get(sort);
+            if (property == null) {
+                throw new BadRequestException("Feeds cannot be sorted by " + sort);
+            }
+            return new PageRequest(page, size, dir, property);
+        } else {
+            return new PageRequest(page, size);
+        }
+    }
+
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @ApiOperation("Gets the list of feeds.")
@@ -26,6 +26,7 @@ import com.thinkbiganalytics.feedmgr.rest.Model;
 import com.thinkbiganalytics.feedmgr.security.FeedsAccessControl;
 import com.thinkbiganalytics.feedmgr.service.datasource.DatasourceModelTransform;
 import com.thinkbiganalytics.feedmgr.service.datasource.DatasourceService;
+import com.thinkbiganalytics.feedmgr.service.feed.FeedLineageGraph;
 import com.thinkbiganalytics.feedmgr.sla.ServiceLevelAgreementModelTransform;
 import com.thinkbiganalytics.metadata.api.MetadataAccess;
 import com.thinkbiganalytics.metadata.api.datasource.Datasource;
@@ -118,6 +119,9 @@ public class FeedsController {
     @Inject
     private DatasourceModelTransform datasourceTransform;
 
+    @Inject
+    private FeedLineageGraph feedLineageGraph;
+
     @GET
     @Path("{id}/initstatus")
     @Produces(MediaType.APPLICATION_JSON)
@@ -839,14 +843,15 @@ public class FeedsController {
                       @ApiResponse(code = 200, message = "Returns the feed lineage.", response = FeedLineage.class),
                       @ApiResponse(code = 400, message = "The id is not a valid UUID.", response = RestResponseStatus.class)
                   })
-    public FeedLineage getFeedLineage(@PathParam("feedId") final String feedId) {
+    public FeedLineage getFeedLineage(@PathParam("feedId") final String feedId,
+                                      @QueryParam("depth") @DefaultValue("-1") final int depth) {
 
         return this.metadata.read(() -> {
 
             com.thinkbiganalytics.metadata.api.feed.Feed domainFeed = feedProvider.getFeed(feedProvider.resolveFeed(feedId));
 
             if (domainFeed != null) {
-                FeedLineageBuilder builder = new FeedLineageBuilder(domainFeed, model, datasourceTransform);
+                FeedLineageBuilder builder = new FeedLineageBuilder(domainFeed, depth, feedLineageGraph, feedProvider, datasetProvider, model, datasourceTransform);
                 Feed feed = builder.build();//Model.DOMAIN_TO_FEED_WITH_DEPENDENCIES.apply(domainFeed);
                 return new FeedLineage(feed, datasourceService.getFeedLineageStyleMap());
             }
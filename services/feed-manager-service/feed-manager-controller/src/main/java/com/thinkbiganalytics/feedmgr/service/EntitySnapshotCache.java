@@ -0,0 +1,440 @@
+package com.thinkbiganalytics.feedmgr.service;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.thinkbiganalytics.json.ObjectMapperSerializer;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventListener;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
+import com.thinkbiganalytics.metadata.api.event.entity.EntityChangeEvent;
+import com.thinkbiganalytics.metadata.api.event.feed.FeedChangeEvent;
+import com.thinkbiganalytics.metadata.api.event.template.TemplateChangeEvent;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+/**
+ * Size-bounded cache of the REST model snapshots of feeds, categories and templates, keyed by the id of the entity.
+ *
+ * <p>Each snapshot is stamped with the modified time of its entity node.  A snapshot is only returned if the entity read in the current transaction still has
+ * the same modified time, so the cache never serves an entity older than the one in the repository.  Snapshots are also evicted when the
+ * {@link EntityChangeEvent} of ModeShape observation, or a feed or template change event, reports a change to the entity or to any of the entities the snapshot
+ * was built from, like the category and template of a feed.  The evictions are sent to the caches of the other Kylo nodes through the
+ * {@link InvalidationPublisher}, since ModeShape only delivers observation events to other nodes when it is clustered itself.</p>
+ *
+ * <p>The cached snapshots are never handed out.  Each caller receives its own copy, which it may change.  The JSON tokens of each snapshot are kept with it so
+ * a copy is read from the tokens without serializing the snapshot again.</p>
+ */
+public class EntitySnapshotCache {
+
+    private static final Logger log = LoggerFactory.getLogger(EntitySnapshotCache.class);
+
+    /**
+     * Copies the snapshots with the same configuration as the JSON of the entities, so unknown properties are ignored and Joda dates are copied.
+     */
+    private static final ObjectMapper mapper = ObjectMapperSerializer.newMapper(new JsonFactory());
+
+    private final MetadataEventListener<EntityChangeEvent> entityChangeListener = new EntityChangeListener();
+
+    private final MetadataEventListener<FeedChangeEvent> feedChangeListener = new FeedChangeListener();
+
+    private final MetadataEventListener<TemplateChangeEvent> templateChangeListener = new TemplateChangeListener();
+
+    /**
+     * Counts the invalidations so that a snapshot built while one of its entities changed is not cached
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Inject
+    MetadataEventService metadataEventService;
+
+    /**
+     * The maximum number of snapshots to keep.  0 disables the cache.
+     */
+    @Value("${kylo.feedmgr.snapshot.cache.size:1000}")
+    private long maximumSize = 1000;
+
+    private Cache<SnapshotKey, Snapshot<?>> cache;
+
+    /**
+     * Sends the evictions to the other Kylo nodes, or {@code null} if there are no other nodes to notify
+     */
+    private volatile InvalidationPublisher invalidationPublisher;
+
+    @PostConstruct
+    public void init() {
+        cache = CacheBuilder.newBuilder().maximumSize(Math.max(maximumSize, 0)).recordStats().build();
+        metadataEventService.addListener(entityChangeListener);
+        metadataEventService.addListener(feedChangeListener);
+        metadataEventService.addListener(templateChangeListener);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        metadataEventService.removeListener(entityChangeListener);
+        metadataEventService.removeListener(feedChangeListener);
+        metadataEventService.removeListener(templateChangeListener);
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public void setInvalidationPublisher(@Nullable final InvalidationPublisher invalidationPublisher) {
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    /**
+     * Gets a copy of the snapshot of the entity, building and caching the snapshot if it is missing or older than the entity.
+     *
+     * @param type         the type of snapshot
+     * @param id           the id of the entity
+     * @param modifiedTime the modified time of the entity node, or {@code null} if the snapshot should not be cached
+     * @param loader       builds the snapshot from the entity
+     * @param <T>          the type of the snapshot
+     * @return a copy of the snapshot, or {@code null} if the loader returns {@code null}
+     */
+    @Nullable
+    public <T> T get(@Nonnull final SnapshotType<T> type, @Nonnull final String id, @Nullable final DateTime modifiedTime, @Nonnull final Supplier<T> loader) {
+        return get(type, id, modifiedTime != null ? (Object) modifiedTime.getMillis() : null, loader);
+    }
+
+    /**
+     * Gets a copy of the snapshot of the entity, building and caching the snapshot if it is missing or its version does not equal the specified version.
+     *
+     * @param type    the type of snapshot
+     * @param id      the id of the entity
+     * @param version any value that changes whenever the snapshot would change, or {@code null} if the snapshot should not be cached
+     * @param loader  builds the snapshot from the entity
+     * @param <T>     the type of the snapshot
+     * @return a copy of the snapshot, or {@code null} if the loader returns {@code null}
+     */
+    @Nullable
+    public <T> T get(@Nonnull final SnapshotType<T> type, @Nonnull final String id, @Nullable final Object version, @Nonnull final Supplier<T> loader) {
+        if (maximumSize <= 0 || version == null) {
+            return loader.get();
+        }
+
+        final SnapshotKey key = new SnapshotKey(type.getName(), id);
+        final Snapshot<?> cached = cache.getIfPresent(key);
+        if (cached != null && cached.version.equals(version)) {
+            return type.copy(type.cast(cached.value), cached.tokens);
+        }
+
+        final long invalidationCount = invalidations.get();
+        final T value = loader.get();
+        if (value != null) {
+            final Set<String> dependencies = type.getDependencies(value);
+            final TokenBuffer tokens = tokensOf(value);
+            if (invalidationCount == invalidations.get()) {
+                // The loader may keep and change the value it returned, so the cache keeps its own copy
+                cache.put(key, new Snapshot<>(version, dependencies, type.copy(value, tokens), tokens));
+            }
+            return type.copy(value, tokens);
+        }
+        return null;
+    }
+
+    /**
+     * Evicts the snapshots of the entities and the snapshots built from them, here and on the other Kylo nodes.
+     *
+     * @param ids the entity ids
+     */
+    public void invalidate(@Nonnull final Collection<String> ids) {
+        if (ids.isEmpty() || cache == null) {
+            return;
+        }
+        evict(ids);
+        publish(ids);
+    }
+
+    public void invalidate(@Nonnull final String id) {
+        invalidate(Collections.singleton(id));
+    }
+
+    /**
+     * Evicts every snapshot, here and on the other Kylo nodes, i.e. when the user-defined fields that apply to all feeds or categories change.
+     */
+    public void invalidateAll() {
+        if (cache != null) {
+            evictAll();
+            publish(null);
+        }
+    }
+
+    /**
+     * Evicts the snapshots of the entities and the snapshots built from them from this cache only, i.e. for an eviction received from another node.
+     *
+     * @param ids the entity ids
+     */
+    void evict(@Nonnull final Collection<String> ids) {
+        if (ids.isEmpty() || cache == null) {
+            return;
+        }
+        log.debug("Evicting the snapshots of entities {}", ids);
+        invalidations.incrementAndGet();
+        cache.asMap().entrySet().removeIf(entry -> ids.contains(entry.getKey().id) || !Collections.disjoint(entry.getValue().dependencies, ids));
+    }
+
+    /**
+     * Evicts every snapshot from this cache only.
+     */
+    void evictAll() {
+        if (cache != null) {
+            invalidations.incrementAndGet();
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Sends the eviction to the other Kylo nodes.  A failure is logged but does not fail the change that caused the eviction.
+     */
+    private void publish(@Nullable final Collection<String> ids) {
+        final InvalidationPublisher publisher = invalidationPublisher;
+        if (publisher != null) {
+            try {
+                publisher.publish(ids);
+            } catch (final RuntimeException e) {
+                log.warn("Unable to send the eviction of the snapshots of entities {} to the other Kylo nodes", (ids != null) ? ids : "(all)", e);
+            }
+        }
+    }
+
+    /**
+     * Copies a value by writing it to a buffer of JSON tokens and reading it back.  Values that are not serialized to JSON are not copied.
+     *
+     * @param value the value to copy
+     * @param type  the class of the value
+     * @param <T>   the type of the value
+     * @return the copy
+     */
+    @Nonnull
+    public static <T> T copyOf(@Nonnull final T value, @Nonnull final Class<T> type) {
+        return readTokens(tokensOf(value), type);
+    }
+
+    /**
+     * Writes the value to a buffer of JSON tokens.  The buffer is not changed after this so any number of threads may read it.
+     */
+    @Nonnull
+    private static TokenBuffer tokensOf(@Nonnull final Object value) {
+        try {
+            final TokenBuffer buffer = new TokenBuffer(mapper, false);
+            mapper.writeValue(buffer, value);
+            return buffer;
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to serialize the " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    @Nonnull
+    private static <T> T readTokens(@Nonnull final TokenBuffer tokens, @Nonnull final Class<T> type) {
+        try {
+            return mapper.readValue(tokens.asParser(), type);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to copy the " + type.getSimpleName(), e);
+        }
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Sends the evictions of this cache to the caches of the other Kylo nodes.
+     */
+    public interface InvalidationPublisher {
+
+        /**
+         * Sends an eviction to the other Kylo nodes.
+         *
+         * @param ids the evicted entity ids, or {@code null} if every snapshot was evicted
+         */
+        void publish(@Nullable Collection<String> ids);
+    }
+
+    /**
+     * Describes how to cache one kind of snapshot.
+     *
+     * @param <T> the type of the snapshot
+     */
+    public static class SnapshotType<T> {
+
+        private final String name;
+
+        private final Class<T> type;
+
+        private final Function<T, Set<String>> dependencies;
+
+        private final BiConsumer<T, T> restore;
+
+        /**
+         * @param name         the unique name of this kind of snapshot
+         * @param type         the class of the snapshot
+         * @param dependencies the ids of the other entities the snapshot was built from
+         * @param restore      copies the values of a snapshot that are not serialized to JSON to the copy of the snapshot
+         */
+        public SnapshotType(@Nonnull final String name, @Nonnull final Class<T> type, @Nonnull final Function<T, Set<String>> dependencies,
+                            @Nonnull final BiConsumer<T, T> restore) {
+            this.name = name;
+            this.type = type;
+            this.dependencies = dependencies;
+            this.restore = restore;
+        }
+
+        public SnapshotType(@Nonnull final String name, @Nonnull final Class<T> type, @Nonnull final Function<T, Set<String>> dependencies) {
+            this(name, type, dependencies, (snapshot, copy) -> {
+            });
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        T cast(Object value) {
+            return type.cast(value);
+        }
+
+        Set<String> getDependencies(T value) {
+            final Set<String> ids = new HashSet<>(dependencies.apply(value));
+            ids.remove(null);
+            return ids;
+        }
+
+        T copy(T snapshot, TokenBuffer tokens) {
+            final T copy = readTokens(tokens, type);
+            restore.accept(snapshot, copy);
+            return copy;
+        }
+    }
+
+    private static class SnapshotKey {
+
+        private final String type;
+
+        private final String id;
+
+        SnapshotKey(String type, String id) {
+            this.type = type;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SnapshotKey)) {
+                return false;
+            }
+            SnapshotKey that = (SnapshotKey) o;
+            return type.equals(that.type) && id.equals(that.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, id);
+        }
+    }
+
+    private static class Snapshot<T> {
+
+        private final Object version;
+
+        private final Set<String> dependencies;
+
+        private final T value;
+
+        private final TokenBuffer tokens;
+
+        Snapshot(Object version, Set<String> dependencies, T value, TokenBuffer tokens) {
+            this.version = version;
+            this.dependencies = dependencies;
+            this.value = value;
+            this.tokens = tokens;
+        }
+    }
+
+    /**
+     * Evicts the entities changed in the metadata repository
+     */
+    private class EntityChangeListener implements MetadataEventListener<EntityChangeEvent> {
+
+        @Override
+        public void notify(@Nonnull final EntityChangeEvent event) {
+            invalidate(event.getData().getEntityIds());
+        }
+    }
+
+    /**
+     * Evicts the changed feeds
+     */
+    private class FeedChangeListener implements MetadataEventListener<FeedChangeEvent> {
+
+        @Override
+        public void notify(@Nonnull final FeedChangeEvent event) {
+            if (event.getData().getFeedId() != null) {
+                invalidate(event.getData().getFeedId().toString());
+            }
+        }
+    }
+
+    /**
+     * Evicts the changed templates
+     */
+    private class TemplateChangeListener implements MetadataEventListener<TemplateChangeEvent> {
+
+        @Override
+        public void notify(@Nonnull final TemplateChangeEvent event) {
+            if (event.getData().getTemplateId() != null) {
+                invalidate(event.getData().getTemplateId().toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.thinkbiganalytics.feedmgr.service;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.activemq.SendJmsMessage;
+import com.thinkbiganalytics.activemq.config.ActiveMqConstants;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jms.annotation.JmsListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+/**
+ * Keeps the {@link EntitySnapshotCache} of every Kylo node consistent by sending the evictions of this node to a JMS topic and evicting the snapshots
+ * reported by the other nodes.
+ */
+public class EntitySnapshotCacheTopic implements EntitySnapshotCache.InvalidationPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(EntitySnapshotCacheTopic.class);
+
+    /**
+     * The topic every Kylo node subscribes to
+     */
+    public static final String TOPIC = "thinkbig.feed-manager.snapshot-invalidation";
+
+    /**
+     * Identifies the messages sent by this node, which are also delivered back to it
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Inject
+    EntitySnapshotCache snapshotCache;
+
+    @Inject
+    SendJmsMessage sendJmsMessage;
+
+    @PostConstruct
+    public void init() {
+        snapshotCache.setInvalidationPublisher(this);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        snapshotCache.setInvalidationPublisher(null);
+    }
+
+    @Override
+    public void publish(@Nullable final Collection<String> ids) {
+        sendJmsMessage.sendObjectToTopic(TOPIC, new SnapshotInvalidation(nodeId, ids));
+    }
+
+    /**
+     * Evicts the snapshots reported by another node.  The eviction is not sent again.
+     *
+     * @param invalidation the eviction
+     */
+    @JmsListener(destination = TOPIC, containerFactory = ActiveMqConstants.JMS_TOPIC_CONTAINER_FACTORY)
+    public void receive(@Nonnull final SnapshotInvalidation invalidation) {
+        if (nodeId.equals(invalidation.getNodeId())) {
+            return;
+        }
+        log.debug("Received the eviction of the snapshots of entities {} from node {}", invalidation.getIds(), invalidation.getNodeId());
+        if (invalidation.getIds() == null) {
+            snapshotCache.evictAll();
+        } else {
+            snapshotCache.evict(invalidation.getIds());
+        }
+    }
+
+    /**
+     * The message sent for an eviction
+     */
+    public static class SnapshotInvalidation {
+
+        private String nodeId;
+
+        private List<String> ids;
+
+        public SnapshotInvalidation() {
+        }
+
+        /**
+         * @param nodeId the node that evicted the snapshots
+         * @param ids    the evicted entity ids, or {@code null} if every snapshot was evicted
+         */
+        public SnapshotInvalidation(String nodeId, Collection<String> ids) {
+            this.nodeId = nodeId;
+            this.ids = (ids != null) ? new ArrayList<>(ids) : null;
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public void setNodeId(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        public List<String> getIds() {
+            return ids;
+        }
+
+        public void setIds(List<String> ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public String toString() {
+            return "SnapshotInvalidation{nodeId=" + nodeId + ", ids=" + ids + "}";
+        }
+    }
+}
@@ -32,6 +32,8 @@ import com.thinkbiganalytics.feedmgr.rest.model.UserProperty;
 import com.thinkbiganalytics.nifi.rest.client.NifiClientRuntimeException;
 import com.thinkbiganalytics.nifi.rest.model.NifiProperty;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
@@ -140,6 +142,15 @@ public interface MetadataService {
      */
     List<FeedSummary> getFeedSummaryData();
 
+    /**
+     * Return one page of feed summaries.  The feeds are sorted, filtered and paged by the metadata repository.
+     *
+     * @param pageable the page to return, sorted by one of the {@link com.thinkbiganalytics.metadata.api.feedmgr.feed.FeedManagerFeedProvider} {@code SORT_} properties
+     * @param filter   text the feed or category name must contain, or {@code null} for all feeds
+     * @return the page of feed summaries
+     */
+    Page<FeedSummary> getFeedSummaryData(Pageable pageable, String filter);
+
     /**
      * Return a list of feeds in a given category
      *
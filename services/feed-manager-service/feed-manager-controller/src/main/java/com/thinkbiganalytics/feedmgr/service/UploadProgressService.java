@@ -51,6 +51,15 @@ public class UploadProgressService {
         //uploadProgress.invalidate(key);
     }
 
+    /**
+     * Removes the progress of an upload that is not polled by the user, such as the progress of each feed of a multi-feed import.
+     *
+     * @param key the upload key
+     */
+    public void discardUpload(String key) {
+        uploadProgress.invalidate(key);
+    }
+
 
     public UploadProgressMessage addUploadStatus(String uploadKey, String message) {
         return addUploadStatus(uploadKey, message, false, false);
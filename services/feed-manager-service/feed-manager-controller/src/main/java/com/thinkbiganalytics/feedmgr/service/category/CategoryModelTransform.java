@@ -22,6 +22,7 @@ package com.thinkbiganalytics.feedmgr.service.category;
 
 import com.thinkbiganalytics.feedmgr.rest.model.FeedCategory;
 import com.thinkbiganalytics.feedmgr.rest.model.FeedSummary;
+import com.thinkbiganalytics.feedmgr.service.EntitySnapshotCache;
 import com.thinkbiganalytics.feedmgr.service.UserPropertyTransform;
 import com.thinkbiganalytics.feedmgr.service.feed.FeedModelTransform;
 import com.thinkbiganalytics.metadata.api.category.Category;
@@ -38,6 +39,7 @@ import org.joda.time.DateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -51,6 +53,12 @@ import javax.inject.Inject;
  */
 public class CategoryModelTransform {
 
+    /**
+     * Snapshots of the Feed Manager categories.  The feed summaries are not serialized so they are restored from the snapshot.
+     */
+    private static final EntitySnapshotCache.SnapshotType<FeedCategory> CATEGORY_SNAPSHOT =
+        new EntitySnapshotCache.SnapshotType<>("category", FeedCategory.class, CategoryModelTransform::getSnapshotDependencies, CategoryModelTransform::restoreSnapshot);
+
     /**
      * Provider for categories
      */
@@ -66,6 +74,9 @@ public class CategoryModelTransform {
     @Inject
     private HadoopSecurityGroupProvider hadoopSecurityGroupProvider;
 
+    @Inject
+    private EntitySnapshotCache snapshotCache;
+
     /**
      * Transforms the specified Metadata category to a Feed Manager category.
      *
@@ -98,6 +109,22 @@ public class CategoryModelTransform {
      */
     @Nullable
     private FeedCategory domainToFeedCategory(@Nullable final FeedManagerCategory domainCategory, @Nonnull final Set<UserFieldDescriptor> userFields) {
+        if (domainCategory != null) {
+            return snapshotCache.get(CATEGORY_SNAPSHOT, domainCategory.getId().toString(), domainCategory.getModifiedTime(), () -> buildFeedCategory(domainCategory, userFields));
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Builds the Feed Manager category from the specified Metadata category.
+     *
+     * @param domainCategory the Metadata category
+     * @param userFields     the user-defined fields
+     * @return the Feed Manager category
+     */
+    @Nullable
+    private FeedCategory buildFeedCategory(@Nullable final FeedManagerCategory domainCategory, @Nonnull final Set<UserFieldDescriptor> userFields) {
         if (domainCategory != null) {
             FeedCategory category = new FeedCategory();
             category.setId(domainCategory.getId().toString());
@@ -138,6 +165,23 @@ public class CategoryModelTransform {
         }
     }
 
+    /**
+     * Gets the ids of the feeds that the snapshot of a category is built from.
+     */
+    private static Set<String> getSnapshotDependencies(@Nonnull final FeedCategory category) {
+        final Set<String> ids = new HashSet<>();
+        if (category.getFeeds() != null) {
+            category.getFeeds().forEach(feed -> ids.add(feed.getId()));
+        }
+        return ids;
+    }
+
+    private static void restoreSnapshot(@Nonnull final FeedCategory snapshot, @Nonnull final FeedCategory copy) {
+        if (snapshot.getFeeds() != null) {
+            copy.setFeeds(snapshot.getFeeds().stream().map(feed -> EntitySnapshotCache.copyOf(feed, FeedSummary.class)).collect(Collectors.toList()));
+        }
+    }
+
     /**
      * Transforms the specified Metadata category to a simple Feed Manager category.
      *
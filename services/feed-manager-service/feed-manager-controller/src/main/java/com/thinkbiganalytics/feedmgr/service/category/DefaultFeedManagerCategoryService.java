@@ -25,6 +25,7 @@ import com.thinkbiganalytics.feedmgr.rest.model.FeedCategory;
 import com.thinkbiganalytics.feedmgr.rest.model.UserField;
 import com.thinkbiganalytics.feedmgr.rest.model.UserProperty;
 import com.thinkbiganalytics.feedmgr.security.FeedsAccessControl;
+import com.thinkbiganalytics.feedmgr.service.EntitySnapshotCache;
 import com.thinkbiganalytics.feedmgr.service.UserPropertyTransform;
 import com.thinkbiganalytics.metadata.api.MetadataAccess;
 import com.thinkbiganalytics.metadata.api.MetadataCommand;
@@ -58,6 +59,9 @@ public class DefaultFeedManagerCategoryService implements FeedManagerCategorySer
     @Inject
     private AccessController accessController;
 
+    @Inject
+    private EntitySnapshotCache snapshotCache;
+
     @Override
     public Collection<FeedCategory> getCategories() {
         return metadataAccess.read((MetadataCommand<Collection<FeedCategory>>) () -> {
@@ -119,6 +123,7 @@ public class DefaultFeedManagerCategoryService implements FeedManagerCategorySer
         // Update user-defined fields (must be outside metadataAccess)
         final Set<UserFieldDescriptor> userFields = (category.getUserFields() != null) ? UserPropertyTransform.toUserFieldDescriptors(category.getUserFields()) : Collections.emptySet();
         categoryProvider.setFeedUserFields(domainId, userFields);
+        snapshotCache.invalidate(domainId.toString());
     }
 
     @Override
@@ -145,6 +150,7 @@ public class DefaultFeedManagerCategoryService implements FeedManagerCategorySer
         this.accessController.checkPermission(AccessController.SERVICES, FeedsAccessControl.ADMIN_CATEGORIES);
 
         categoryProvider.setUserFields(UserPropertyTransform.toUserFieldDescriptors(userFields));
+        snapshotCache.invalidateAll();
     }
 
     @Nonnull
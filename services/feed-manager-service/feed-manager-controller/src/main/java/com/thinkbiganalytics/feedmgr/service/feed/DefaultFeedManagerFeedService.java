@@ -31,11 +31,11 @@ import com.thinkbiganalytics.feedmgr.rest.model.UIFeed;
 import com.thinkbiganalytics.feedmgr.rest.model.UserField;
 import com.thinkbiganalytics.feedmgr.rest.model.UserProperty;
 import com.thinkbiganalytics.feedmgr.security.FeedsAccessControl;
+import com.thinkbiganalytics.feedmgr.service.EntitySnapshotCache;
 import com.thinkbiganalytics.feedmgr.service.UserPropertyTransform;
 import com.thinkbiganalytics.feedmgr.service.feed.datasource.DerivedDatasourceFactory;
 import com.thinkbiganalytics.feedmgr.service.template.FeedManagerTemplateService;
 import com.thinkbiganalytics.feedmgr.sla.ServiceLevelAgreementService;
-import com.thinkbiganalytics.json.ObjectMapperSerializer;
 import com.thinkbiganalytics.metadata.api.MetadataAccess;
 import com.thinkbiganalytics.metadata.api.datasource.Datasource;
 import com.thinkbiganalytics.metadata.api.datasource.DatasourceProvider;
@@ -77,6 +77,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.Serializable;
@@ -140,6 +142,8 @@ public class DefaultFeedManagerFeedService extends AbstractFeedManagerFeedServic
     private NiFiPropertyDescriptorTransform propertyDescriptorTransform;
     @Inject
     private DerivedDatasourceFactory derivedDatasourceFactory;
+    @Inject
+    private EntitySnapshotCache snapshotCache;
     // use autowired instead of Inject to allow null values.
     @Autowired(required = false)
     @Qualifier("hadoopAuthorizationService")
@@ -247,21 +251,26 @@ public class DefaultFeedManagerFeedService extends AbstractFeedManagerFeedServic
 
     }
 
+    @Override
+    public Page<FeedSummary> getFeedSummaryData(Pageable pageable, String filter) {
+        return metadataAccess.read(() -> {
+            this.accessController.checkPermission(AccessController.SERVICES, FeedsAccessControl.ACCESS_FEEDS);
+
+            return feedManagerFeedProvider.findPage(pageable, filter).map(feedModelTransform::domainToFeedSummary);
+        });
+    }
+
     @Override
     public List<FeedSummary> getFeedSummaryForCategory(final String categoryId) {
         return metadataAccess.read(() -> {
             this.accessController.checkPermission(AccessController.SERVICES, FeedsAccessControl.ACCESS_FEEDS);
 
-            List<FeedSummary> summaryList = new ArrayList<>();
             FeedManagerCategory.ID categoryDomainId = categoryProvider.resolveId(categoryId);
             List<? extends FeedManagerFeed> domainFeeds = feedManagerFeedProvider.findByCategoryId(categoryDomainId);
             if (domainFeeds != null && !domainFeeds.isEmpty()) {
-                List<FeedMetadata> feeds = feedModelTransform.domainToFeedMetadata(domainFeeds);
-                for (FeedMetadata feed : feeds) {
-                    summaryList.add(new FeedSummary(feed));
-                }
+                return feedModelTransform.domainToFeedSummary(domainFeeds);
             }
-            return summaryList;
+            return new ArrayList<>();
         });
 
     }
@@ -504,7 +513,7 @@ public class DefaultFeedManagerFeedService extends AbstractFeedManagerFeedServic
             if (domainFeed != null) {
                 feedMetadata = feedModelTransform.deserializeFeedMetadata(domainFeed,true);
                 feedMetadata.setState(FeedMetadata.STATE.ENABLED.name());
-                domainFeed.setJson(ObjectMapperSerializer.serialize(feedMetadata));
+                domainFeed.setBinaryJson(FeedMetadataSerializer.serialize(feedMetadata));
                 feedManagerFeedProvider.update(domainFeed);
             }
             if (enabled) {
@@ -528,7 +537,7 @@ public class DefaultFeedManagerFeedService extends AbstractFeedManagerFeedServic
             if (domainFeed != null) {
                 feedMetadata = feedModelTransform.deserializeFeedMetadata(domainFeed,false);
                 feedMetadata.setState(FeedMetadata.STATE.DISABLED.name());
-                domainFeed.setJson(ObjectMapperSerializer.serialize(feedMetadata));
+                domainFeed.setBinaryJson(FeedMetadataSerializer.serialize(feedMetadata));
                 feedManagerFeedProvider.update(domainFeed);
             }
             if (disabled) {
@@ -623,6 +632,7 @@ public class DefaultFeedManagerFeedService extends AbstractFeedManagerFeedServic
         this.accessController.checkPermission(AccessController.SERVICES, FeedsAccessControl.ADMIN_FEEDS);
 
         feedProvider.setUserFields(UserPropertyTransform.toUserFieldDescriptors(userFields));
+        snapshotCache.invalidateAll();
     }
 
     @Nonnull
@@ -57,17 +57,31 @@ import com.thinkbiganalytics.support.FeedNameUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
@@ -81,6 +95,11 @@ public class ExportImportFeedService {
 
     public static final String FEED_JSON_FILE = "feed.json";
 
+    /**
+     * Suffix of the exported feed files, and of the feed files within a multi-feed archive
+     */
+    public static final String FEED_ZIP_FILE_SUFFIX = ".feed.zip";
+
     @Inject
     MetadataService metadataService;
 
@@ -108,6 +127,12 @@ public class ExportImportFeedService {
     @Inject
     private DatasourceModelTransform datasourceTransform;
 
+    /**
+     * Number of threads used to validate the feeds of a multi-feed archive
+     */
+    @Value("${kylo.feedmgr.import.threads:4}")
+    private int importThreads = 4;
+
     //Export
 
     /**
@@ -145,12 +170,11 @@ public class ExportImportFeedService {
             feed.setUserDatasources(userDatasources);
         }
 
-        // Add feed json to template zip file
+        // Feed json is added after the template entries when the zip file is written
         final ExportImportTemplateService.ExportTemplate exportTemplate = exportImportTemplateService.exportTemplate(feed.getTemplateId());
         final String feedJson = ObjectMapperSerializer.serialize(feed);
 
-        final byte[] zipFile = ZipFileUtil.addToZip(exportTemplate.getFile(), feedJson, FEED_JSON_FILE);
-        return new ExportFeed(feed.getSystemFeedName() + ".feed.zip", zipFile);
+        return new ExportFeed(feed.getSystemFeedName() + FEED_ZIP_FILE_SUFFIX, exportTemplate, feedJson);
     }
 
     //Validate
@@ -386,50 +410,14 @@ public class ExportImportFeedService {
 
             metadata.getCategory().setSystemName(feedCategory);
 
-            ImportTemplateOptions importTemplateOptions = new ImportTemplateOptions();
-            importTemplateOptions.setImportComponentOptions(importOptions.getImportComponentOptions());
-            importTemplateOptions.findImportComponentOption(ImportComponent.TEMPLATE_DATA).setContinueIfExists(true);
-            ExportImportTemplateService.ImportTemplate importTemplate = feed.getTemplate();
-            importTemplate.setImportOptions(importTemplateOptions);
-            importTemplateOptions.setUploadKey(importOptions.getUploadKey());
-            importTemplate.setValid(true);
-            ExportImportTemplateService.ImportTemplate template = exportImportTemplateService.importZip(importTemplate);
+            ExportImportTemplateService.ImportTemplate template = importFeedTemplate(feed);
             if (template.isSuccess()) {
                 //import the feed
                 feed.setTemplate(template);
                 //now that we have the Feed object we need to create the instance of the feed
                 UploadProgressMessage uploadProgressMessage = uploadProgressService.addUploadStatus(importOptions.getUploadKey(), "Saving  and creating feed instance in NiFi");
                 NifiFeed nifiFeed = metadataAccess.commit(() -> {
-                    metadata.setIsNew(existingFeed == null ? true : false);
-                    metadata.setFeedId(existingFeed != null ? existingFeed.getFeedId() : null);
-                    metadata.setId(existingFeed != null ? existingFeed.getId() : null);
-                    //reassign the templateId to the newly registered template id
-                    metadata.setTemplateId(template.getTemplateId());
-                    if (metadata.getRegisteredTemplate() != null) {
-                        metadata.getRegisteredTemplate().setNifiTemplateId(template.getNifiTemplateId());
-                        metadata.getRegisteredTemplate().setId(template.getTemplateId());
-                    }
-                    //get/create category
-                    FeedCategory category = metadataService.getCategoryBySystemName(metadata.getCategory().getSystemName());
-                    if (category == null) {
-                        metadataService.saveCategory(metadata.getCategory());
-                    } else {
-                        metadata.setCategory(category);
-                    }
-                    if (importOptions.isDisableUponImport()) {
-                        metadata.setActive(false);
-                        metadata.setState(FeedMetadata.STATE.DISABLED.name());
-                    }
-
-                    //remap any preconditions to this new feed/category name.
-                    if (metadata.getSchedule().hasPreconditions()) {
-                        metadata.getSchedule().getPreconditions().stream()
-                            .flatMap(preconditionRule -> preconditionRule.getProperties().stream())
-                            .filter(fieldRuleProperty -> PolicyPropertyTypes.PROPERTY_TYPE.currentFeed.name().equals(fieldRuleProperty.getType()))
-                            .forEach(fieldRuleProperty -> fieldRuleProperty.setValue(metadata.getCategoryAndFeedName()));
-                    }
-
-                    return metadataService.createFeed(metadata);
+                    return createImportedFeed(metadata, existingFeed, template, importOptions);
                 });
                 if (nifiFeed != null) {
                     feed.setFeedName(nifiFeed.getFeedMetadata().getCategoryAndFeedName());
@@ -450,6 +438,291 @@ public class ExportImportFeedService {
         return feed;
     }
 
+    /**
+     * Imports the template of a validated feed.
+     *
+     * @param feed the validated feed
+     * @return the imported template
+     */
+    private ExportImportTemplateService.ImportTemplate importFeedTemplate(ImportFeed feed) throws Exception {
+        ImportFeedOptions importOptions = feed.getImportOptions();
+        ImportTemplateOptions importTemplateOptions = new ImportTemplateOptions();
+        importTemplateOptions.setImportComponentOptions(importOptions.getImportComponentOptions());
+        importTemplateOptions.findImportComponentOption(ImportComponent.TEMPLATE_DATA).setContinueIfExists(true);
+        ExportImportTemplateService.ImportTemplate importTemplate = feed.getTemplate();
+        importTemplate.setImportOptions(importTemplateOptions);
+        importTemplateOptions.setUploadKey(importOptions.getUploadKey());
+        importTemplate.setValid(true);
+        return exportImportTemplateService.importZip(importTemplate);
+    }
+
+    /**
+     * Saves an imported feed and creates its flow in NiFi.  This must be called within a metadata transaction.
+     *
+     * @param metadata      the feed to import
+     * @param existingFeed  the feed with the same name, or {@code null} if this is a new feed
+     * @param template      the imported template of the feed
+     * @param importOptions user options about what/how it should be imported
+     * @return the created feed
+     */
+    private NifiFeed createImportedFeed(FeedMetadata metadata, FeedMetadata existingFeed, ExportImportTemplateService.ImportTemplate template, ImportFeedOptions importOptions) {
+        metadata.setIsNew(existingFeed == null ? true : false);
+        metadata.setFeedId(existingFeed != null ? existingFeed.getFeedId() : null);
+        metadata.setId(existingFeed != null ? existingFeed.getId() : null);
+        //reassign the templateId to the newly registered template id
+        metadata.setTemplateId(template.getTemplateId());
+        if (metadata.getRegisteredTemplate() != null) {
+            metadata.getRegisteredTemplate().setNifiTemplateId(template.getNifiTemplateId());
+            metadata.getRegisteredTemplate().setId(template.getTemplateId());
+        }
+        //get/create category
+        FeedCategory category = metadataService.getCategoryBySystemName(metadata.getCategory().getSystemName());
+        if (category == null) {
+            metadataService.saveCategory(metadata.getCategory());
+        } else {
+            metadata.setCategory(category);
+        }
+        if (importOptions.isDisableUponImport()) {
+            metadata.setActive(false);
+            metadata.setState(FeedMetadata.STATE.DISABLED.name());
+        }
+
+        //remap any preconditions to this new feed/category name.
+        if (metadata.getSchedule().hasPreconditions()) {
+            metadata.getSchedule().getPreconditions().stream()
+                .flatMap(preconditionRule -> preconditionRule.getProperties().stream())
+                .filter(fieldRuleProperty -> PolicyPropertyTypes.PROPERTY_TYPE.currentFeed.name().equals(fieldRuleProperty.getType()))
+                .forEach(fieldRuleProperty -> fieldRuleProperty.setValue(metadata.getCategoryAndFeedName()));
+        }
+
+        return metadataService.createFeed(metadata);
+    }
+
+    //Bulk Import
+
+    /**
+     * Validate all the feeds of a multi-feed archive for importing.
+     *
+     * <p>The archive is read once and the feeds are validated in parallel.  Each feed is validated with its own copy of the options, and reports its progress under its own upload key.</p>
+     *
+     * @param fileName    the name of the archive
+     * @param inputStream the archive, containing one exported {@code .feed.zip} file per feed
+     * @param options     user options about what/how the feeds should be imported
+     * @return the feeds to import
+     */
+    public ImportFeeds validateFeedsForImport(final String fileName, InputStream inputStream, ImportFeedOptions options) throws IOException {
+        List<String> feedUploadKeys = new ArrayList<>();
+        try {
+            return validateFeedsForImport(fileName, inputStream, options, feedUploadKeys);
+        } finally {
+            feedUploadKeys.forEach(uploadProgressService::discardUpload);
+        }
+    }
+
+    /**
+     * Validate all the feeds of a multi-feed archive, recording the upload key of each feed so it can be discarded once the import is done.
+     *
+     * <p>Each feed is handed to the validation threads as soon as its entry is read from the archive.  Reading waits while every thread is busy, so at most one
+     * feed file per thread is held in memory at a time.</p>
+     */
+    private ImportFeeds validateFeedsForImport(final String fileName, InputStream inputStream, ImportFeedOptions options, List<String> feedUploadKeys) throws IOException {
+        this.accessController.checkPermission(AccessController.SERVICES, FeedsAccessControl.IMPORT_FEEDS);
+        UploadProgress progress = uploadProgressService.getUploadStatus(options.getUploadKey());
+        UploadProgressMessage statusMessage = uploadProgressService.addUploadStatus(options.getUploadKey(), "Reading and validating the feeds in " + fileName);
+        ImportFeeds importFeeds = new ImportFeeds(fileName);
+        int threads = Math.max(1, importThreads);
+        ExecutorService executor = new DelegatingSecurityContextExecutorService(Executors.newFixedThreadPool(threads));
+        Semaphore pendingFeeds = new Semaphore(threads);
+        try {
+            //a validate and an import section for each feed, added as the feeds are read
+            Set<String> sections = new HashSet<>();
+            List<Future<ImportFeed>> validations = new ArrayList<>();
+            int feedCount = ImportUtil.readZipEntries(inputStream, FEED_ZIP_FILE_SUFFIX, (feedFile, content) -> {
+                ImportFeedOptions feedOptions = copyImportOptions(options, options.getUploadKey() + "-" + validations.size());
+                feedUploadKeys.add(feedOptions.getUploadKey());
+                sections.add(bulkSection(ImportSection.Section.VALIDATE_FEED, feedFile));
+                sections.add(bulkSection(ImportSection.Section.IMPORT_FEED_DATA, feedFile));
+                progress.setSections(sections);
+                acquire(pendingFeeds);
+                validations.add(executor.submit(() -> {
+                    try {
+                        return validateFeedFileForImport(feedFile, content, feedOptions);
+                    } finally {
+                        pendingFeeds.release();
+                    }
+                }));
+                statusMessage.update("Read " + validations.size() + " feeds from " + fileName + ".");
+            });
+            if (feedCount == 0) {
+                statusMessage.update("Validation error. Feed import error. The zip file you uploaded does not contain any feed exports.", false);
+                throw new ImportFeedException("The zip file you uploaded does not contain any feed exports.");
+            }
+
+            for (Future<ImportFeed> validation : validations) {
+                ImportFeed importFeed = validation.get();
+                importFeeds.getFeeds().add(importFeed);
+                progress.completeSection(bulkSection(ImportSection.Section.VALIDATE_FEED, importFeed.getFileName()));
+                statusMessage.update("Validated " + importFeeds.getFeeds().size() + " of " + feedCount + " feeds.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            statusMessage.update("Validation error. Feed import was interrupted.", false);
+            throw new ImportFeedException("Feed import was interrupted.");
+        } catch (ExecutionException e) {
+            statusMessage.update("Validation error. Feed import error: " + e.getCause().getMessage(), false);
+            throw new ImportFeedException("Error validating the feeds in " + fileName + ".  " + e.getCause().getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+        statusMessage.update("Validated " + importFeeds.getValidCount() + " of " + importFeeds.getFeeds().size() + " feeds for import.", importFeeds.isValid());
+        return importFeeds;
+    }
+
+    /**
+     * Waits for a validation thread to be free before another feed file is read into memory.
+     */
+    private void acquire(Semaphore pendingFeeds) {
+        try {
+            pendingFeeds.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImportFeedException("Feed import was interrupted.");
+        }
+    }
+
+    /**
+     * Import all the feeds of a multi-feed archive.
+     *
+     * <p>The feeds are validated in parallel.  Each template is imported once, even when it is used by several feeds.  The valid feeds are then saved one at a time.</p>
+     *
+     * @param fileName      the name of the archive
+     * @param inputStream   the archive, containing one exported {@code .feed.zip} file per feed
+     * @param importOptions user options about what/how the feeds should be imported
+     * @return the imported feeds
+     */
+    public ImportFeeds importFeeds(final String fileName, InputStream inputStream, ImportFeedOptions importOptions) throws Exception {
+        List<String> feedUploadKeys = new ArrayList<>();
+        try {
+            return importFeeds(fileName, inputStream, importOptions, feedUploadKeys);
+        } finally {
+            feedUploadKeys.forEach(uploadProgressService::discardUpload);
+        }
+    }
+
+    private ImportFeeds importFeeds(final String fileName, InputStream inputStream, ImportFeedOptions importOptions, List<String> feedUploadKeys) throws Exception {
+        ImportFeeds importFeeds = validateFeedsForImport(fileName, inputStream, importOptions, feedUploadKeys);
+        UploadProgress progress = uploadProgressService.getUploadStatus(importOptions.getUploadKey());
+        List<ImportFeed> validFeeds = importFeeds.getFeeds().stream().filter(ImportFeed::isValid).collect(Collectors.toList());
+
+        //import each template once
+        UploadProgressMessage templateStatusMessage = uploadProgressService.addUploadStatus(importOptions.getUploadKey(), "Importing the templates of " + validFeeds.size() + " feeds.");
+        Map<String, ExportImportTemplateService.ImportTemplate> importedTemplates = new HashMap<>();
+        List<ImportFeed> feedsToSave = new ArrayList<>(validFeeds.size());
+        for (ImportFeed feed : validFeeds) {
+            String templateName = feed.getTemplate().getTemplateToImport().getTemplateName();
+            ExportImportTemplateService.ImportTemplate template = importedTemplates.get(templateName);
+            if (template == null) {
+                template = importFeedTemplate(feed);
+                if (template.isSuccess()) {
+                    importedTemplates.put(templateName, template);
+                }
+            }
+            feed.setTemplate(template);
+            if (template.isSuccess()) {
+                feedsToSave.add(feed);
+            } else {
+                FeedMetadata metadata = feed.getFeedToImport();
+                feed.setSuccess(false);
+                feed.addErrorMessage(metadata, "The feed " + FeedNameUtil.fullName(metadata.getCategory().getSystemName(), metadata.getSystemFeedName())
+                                               + " needs additional properties to be supplied before importing.");
+                progress.completeSection(bulkSection(ImportSection.Section.IMPORT_FEED_DATA, feed.getFileName()));
+            }
+        }
+        templateStatusMessage.update("Imported " + importedTemplates.size() + " templates.", feedsToSave.size() == validFeeds.size());
+
+        UploadProgressMessage statusMessage = saveImportedFeeds(feedsToSave, importOptions);
+        statusMessage.update("Imported " + importFeeds.getSuccessCount() + " of " + importFeeds.getFeeds().size() + " feeds.", importFeeds.isSuccess());
+        return importFeeds;
+    }
+
+    /**
+     * Saves the validated feeds of a multi-feed archive.
+     *
+     * <p>Each feed is saved in its own metadata transaction.  Creating a feed also creates its flow in NiFi, which rolling back the transaction would not undo, so a feed that
+     * fails is reported on its own and the other feeds are still saved.</p>
+     *
+     * @param feeds         the feeds to save, with their templates imported
+     * @param importOptions the options of the archive
+     * @return the status message of the save
+     */
+    UploadProgressMessage saveImportedFeeds(List<ImportFeed> feeds, ImportFeedOptions importOptions) {
+        UploadProgress progress = uploadProgressService.getUploadStatus(importOptions.getUploadKey());
+        UploadProgressMessage statusMessage = uploadProgressService.addUploadStatus(importOptions.getUploadKey(), "Saving and creating " + feeds.size() + " feeds in NiFi.");
+        int saved = 0;
+        for (ImportFeed feed : feeds) {
+            NifiFeed nifiFeed = null;
+            try {
+                nifiFeed = metadataAccess.commit(() -> {
+                    return createImportedFeed(feed);
+                });
+            } catch (Exception e) {
+                log.error("Unable to save the imported feed {}", feed.getFileName(), e);
+                feed.addErrorMessage(feed.getFeedToImport(), "Unable to save the feed. " + e.getMessage());
+            }
+
+            if (nifiFeed != null) {
+                feed.setFeedName(nifiFeed.getFeedMetadata().getCategoryAndFeedName());
+                feed.setNifiFeed(nifiFeed);
+            }
+            feed.setSuccess(nifiFeed != null && nifiFeed.isSuccess());
+            progress.completeSection(bulkSection(ImportSection.Section.IMPORT_FEED_DATA, feed.getFileName()));
+            statusMessage.update("Saved " + ++saved + " of " + feeds.size() + " feeds.");
+        }
+        return statusMessage;
+    }
+
+    /**
+     * Validates a single feed file of a multi-feed archive.  Errors are reported on the returned feed instead of being thrown so the other feeds can still be imported.
+     */
+    private ImportFeed validateFeedFileForImport(String fileName, byte[] content, ImportFeedOptions options) {
+        try {
+            return validateFeedForImport(fileName, content, options);
+        } catch (Exception e) {
+            log.error("Unable to validate the feed file {} for import", fileName, e);
+            ImportFeed importFeed = new ImportFeed(fileName);
+            importFeed.setImportOptions(options);
+            importFeed.setValid(false);
+            importFeed.addErrorMessage(null, e.getMessage());
+            return importFeed;
+        }
+    }
+
+    /**
+     * Saves a validated feed of a multi-feed archive, overwriting the feed with the same name if it exists.  This must be called within a metadata transaction.
+     */
+    private NifiFeed createImportedFeed(ImportFeed feed) {
+        FeedMetadata metadata = feed.getFeedToImport();
+        ImportFeedOptions importOptions = feed.getImportOptions();
+        String feedCategory = StringUtils.isNotBlank(importOptions.getCategorySystemName()) ? importOptions.getCategorySystemName() : metadata.getSystemCategoryName();
+        metadata.getCategory().setSystemName(feedCategory);
+        FeedMetadata existingFeed = metadataService.getFeedByName(feedCategory, metadata.getSystemFeedName());
+        return createImportedFeed(metadata, existingFeed, feed.getTemplate(), importOptions);
+    }
+
+    /**
+     * Copies the options for one of the feeds of a multi-feed archive.  Validating a feed adds its properties to the options so each feed needs its own copy.
+     */
+    private ImportFeedOptions copyImportOptions(ImportFeedOptions options, String uploadKey) {
+        ImportFeedOptions copy = ObjectMapperSerializer.deserialize(ObjectMapperSerializer.serialize(options), ImportFeedOptions.class);
+        copy.setUploadKey(uploadKey);
+        uploadProgressService.newUpload(uploadKey);
+        return copy;
+    }
+
+    private String bulkSection(ImportSection.Section section, String feedFileName) {
+        return section.name() + ":" + feedFileName;
+    }
+
     //Utility
 
     private void completeSection(ImportOptions options, ImportSection.Section section) {
@@ -478,22 +751,93 @@ public class ExportImportFeedService {
 
     //Internal classes
 
+    /**
+     * A feed export.  The zip file contains the template entries followed by the feed json and is written entry by entry to an output stream.
+     */
     public class ExportFeed {
 
         private String fileName;
-        private byte[] file;
+        private ExportImportTemplateService.ExportTemplate template;
+        private String feedJson;
+
+        public ExportFeed(String fileName, ExportImportTemplateService.ExportTemplate template, String feedJson) {
+            this.fileName = fileName;
+            this.template = template;
+            this.feedJson = feedJson;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        /**
+         * Build the whole zip file in memory.  Prefer {@link #writeTo(OutputStream)} when the export is sent to a stream.
+         *
+         * @return the zip file
+         */
+        public byte[] getFile() throws IOException {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            writeTo(baos);
+            return baos.toByteArray();
+        }
+
+        /**
+         * Write the zip file to the given stream.  The stream is closed once the zip file is complete.
+         *
+         * @param out the stream to write to
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            try (ZipOutputStream zos = new ZipOutputStream(out)) {
+                template.writeEntries(zos);
+                zos.putNextEntry(new ZipEntry(FEED_JSON_FILE));
+                zos.write(feedJson.getBytes());
+                zos.closeEntry();
+            }
+        }
+    }
+
+    public static class ImportFeeds {
+
+        private String fileName;
+        private List<ImportFeed> feeds = new ArrayList<>();
 
-        public ExportFeed(String fileName, byte[] file) {
+        public ImportFeeds() {
+        }
+
+        public ImportFeeds(String fileName) {
             this.fileName = fileName;
-            this.file = file;
         }
 
         public String getFileName() {
             return fileName;
         }
 
-        public byte[] getFile() {
-            return file;
+        public void setFileName(String fileName) {
+            this.fileName = fileName;
+        }
+
+        public List<ImportFeed> getFeeds() {
+            return feeds;
+        }
+
+        public void setFeeds(List<ImportFeed> feeds) {
+            this.feeds = feeds;
+        }
+
+        public boolean isValid() {
+            return feeds.stream().allMatch(ImportFeed::isValid);
+        }
+
+        public boolean isSuccess() {
+            return feeds.stream().allMatch(ImportFeed::isSuccess);
+        }
+
+        public long getValidCount() {
+            return feeds.stream().filter(ImportFeed::isValid).count();
+        }
+
+        public long getSuccessCount() {
+            return feeds.stream().filter(ImportFeed::isSuccess).count();
         }
     }
 
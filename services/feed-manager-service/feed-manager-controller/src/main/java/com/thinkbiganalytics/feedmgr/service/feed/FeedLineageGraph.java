@@ -0,0 +1,447 @@
+package com.thinkbiganalytics.feedmgr.service.feed;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.PostMetadataConfigAction;
+import com.thinkbiganalytics.metadata.api.event.MetadataChange;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventListener;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
+import com.thinkbiganalytics.metadata.api.event.entity.EntityChangeEvent;
+import com.thinkbiganalytics.metadata.api.event.feed.FeedChangeEvent;
+import com.thinkbiganalytics.metadata.api.feed.Feed;
+import com.thinkbiganalytics.metadata.api.feed.FeedDestination;
+import com.thinkbiganalytics.metadata.api.feed.FeedProvider;
+import com.thinkbiganalytics.metadata.api.feed.FeedSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+/**
+ * In-memory graph of the dependencies between feeds, and of the datasources each feed reads from and writes to, keyed by the ids of the feeds and datasources.
+ *
+ * <p>Every edge is kept in both directions so each neighbor lookup is a single map read.  The edge sets are immutable and are replaced when a feed changes, so
+ * lookups need no locking and the sets are returned to callers as is.  Only the updates are serialized.</p>
+ *
+ * <p>The graph is loaded once the metadata store has started.  After that each feed is reloaded on its own when a {@link FeedChangeEvent} or an
+ * {@link EntityChangeEvent} reports it changed.  A feed created on another member of a cluster is added when it is first found as a neighbor of a reloaded
+ * feed.</p>
+ */
+public class FeedLineageGraph implements PostMetadataConfigAction {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedLineageGraph.class);
+
+    private final MetadataEventListener<FeedChangeEvent> feedChangeListener = new FeedChangeListener();
+
+    private final MetadataEventListener<EntityChangeEvent> entityChangeListener = new EntityChangeListener();
+
+    /**
+     * The feeds by id
+     */
+    private final Map<String, FeedNode> feeds = new ConcurrentHashMap<>();
+
+    /**
+     * The ids of the feeds depending on each feed
+     */
+    private final Map<String, Set<String>> usedByFeeds = new ConcurrentHashMap<>();
+
+    /**
+     * The ids of the feeds reading from each datasource
+     */
+    private final Map<String, Set<String>> sourceForFeeds = new ConcurrentHashMap<>();
+
+    /**
+     * The ids of the feeds writing to each datasource
+     */
+    private final Map<String, Set<String>> destinationForFeeds = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    @Inject
+    MetadataEventService metadataEventService;
+
+    @Inject
+    MetadataAccess metadataAccess;
+
+    @Inject
+    FeedProvider feedProvider;
+
+    @PostConstruct
+    public void init() {
+        metadataEventService.addListener(feedChangeListener);
+        metadataEventService.addListener(entityChangeListener);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        metadataEventService.removeListener(feedChangeListener);
+        metadataEventService.removeListener(entityChangeListener);
+    }
+
+    /**
+     * Loads the graph once the metadata store has started.
+     */
+    @Override
+    public void run() {
+        load();
+    }
+
+    /**
+     * Loads the dependencies and datasources of every feed, replacing the current graph.
+     */
+    public synchronized void load() {
+        List<FeedNode> nodes = metadataAccess.read(() -> {
+            List<? extends Feed> domainFeeds = feedProvider.getFeeds();
+            return domainFeeds != null ? domainFeeds.stream().map(FeedLineageGraph::toNode).collect(Collectors.toList()) : Collections.<FeedNode>emptyList();
+        }, MetadataAccess.SERVICE);
+
+        feeds.clear();
+        usedByFeeds.clear();
+        sourceForFeeds.clear();
+        destinationForFeeds.clear();
+        nodes.forEach(this::putFeed);
+        loaded = true;
+        log.info("Loaded the lineage graph of {} feeds", feeds.size());
+    }
+
+    /**
+     * Reloads the specified feeds, removing those that no longer exist.  Feeds depending on a reloaded feed that are not in the graph yet are loaded as well.
+     *
+     * @param feedIds the ids of the feeds to reload
+     */
+    public synchronized void reload(@Nonnull final Collection<String> feedIds) {
+        if (!loaded) {
+            load();
+            return;
+        }
+        metadataAccess.read(() -> {
+            Deque<String> pending = new ArrayDeque<>(feedIds);
+            Set<String> visited = Sets.newHashSet();
+            while (!pending.isEmpty()) {
+                String feedId = pending.poll();
+                if (!visited.add(feedId)) {
+                    continue;
+                }
+                Feed domainFeed = feedProvider.getFeed(feedProvider.resolveFeed(feedId));
+                if (domainFeed == null) {
+                    removeFeed(feedId);
+                } else {
+                    putFeed(toNode(domainFeed));
+                    List<? extends Feed> usedBy = domainFeed.getUsedByFeeds();
+                    if (usedBy != null) {
+                        usedBy.stream().map(feed -> feed.getId().toString()).filter(id -> !feeds.containsKey(id)).forEach(pending::add);
+                    }
+                }
+            }
+        }, MetadataAccess.SERVICE);
+    }
+
+    /**
+     * Gets the ids of the feeds the specified feed depends on.
+     */
+    @Nonnull
+    public Set<String> getDependentFeedIds(@Nonnull final String feedId) {
+        FeedNode node = getFeed(feedId);
+        return node != null ? node.dependentFeedIds : ImmutableSet.of();
+    }
+
+    /**
+     * Gets the ids of the feeds depending on the specified feed.
+     */
+    @Nonnull
+    public Set<String> getUsedByFeedIds(@Nonnull final String feedId) {
+        return get(usedByFeeds, feedId);
+    }
+
+    /**
+     * Gets the ids of the datasources the specified feed reads from.
+     */
+    @Nonnull
+    public Set<String> getSourceDatasourceIds(@Nonnull final String feedId) {
+        FeedNode node = getFeed(feedId);
+        return node != null ? node.sourceDatasourceIds : ImmutableSet.of();
+    }
+
+    /**
+     * Gets the ids of the datasources the specified feed writes to.
+     */
+    @Nonnull
+    public Set<String> getDestinationDatasourceIds(@Nonnull final String feedId) {
+        FeedNode node = getFeed(feedId);
+        return node != null ? node.destinationDatasourceIds : ImmutableSet.of();
+    }
+
+    /**
+     * Gets the ids of the feeds reading from the specified datasource.
+     */
+    @Nonnull
+    public Set<String> getSourceForFeedIds(@Nonnull final String datasourceId) {
+        return get(sourceForFeeds, datasourceId);
+    }
+
+    /**
+     * Gets the ids of the feeds writing to the specified datasource.
+     */
+    @Nonnull
+    public Set<String> getDestinationForFeedIds(@Nonnull final String datasourceId) {
+        return get(destinationForFeeds, datasourceId);
+    }
+
+    /**
+     * Indicates if the feed is in the graph.
+     */
+    public boolean containsFeed(@Nonnull final String feedId) {
+        return getFeed(feedId) != null;
+    }
+
+    /**
+     * Finds the feeds and datasources connected to a feed by its dependencies and datasources, within the specified number of edges.  Following a feed to one
+     * of its datasources, or a datasource to one of its feeds, counts as one edge.
+     *
+     * @param feedId   the id of the feed
+     * @param maxDepth the maximum number of edges from the feed, or a negative number for no limit
+     * @return the ids of the connected feeds, starting with the specified feed, and of the connected datasources
+     */
+    @Nonnull
+    public Lineage getLineage(@Nonnull final String feedId, final int maxDepth) {
+        if (!containsFeed(feedId)) {
+            reload(Collections.singleton(feedId));
+        }
+
+        Set<String> feedIds = new LinkedHashSet<>();
+        Set<String> datasourceIds = new LinkedHashSet<>();
+        Deque<String> pendingFeeds = new ArrayDeque<>();
+        Deque<String> pendingDatasources = new ArrayDeque<>();
+        if (containsFeed(feedId)) {
+            feedIds.add(feedId);
+            pendingFeeds.add(feedId);
+        }
+
+        for (int depth = 0; (maxDepth < 0 || depth < maxDepth) && !(pendingFeeds.isEmpty() && pendingDatasources.isEmpty()); depth++) {
+            Deque<String> nextFeeds = new ArrayDeque<>();
+            Deque<String> nextDatasources = new ArrayDeque<>();
+            for (String id : pendingFeeds) {
+                addAll(getDependentFeedIds(id), feedIds, nextFeeds);
+                addAll(getUsedByFeedIds(id), feedIds, nextFeeds);
+                addAll(getSourceDatasourceIds(id), datasourceIds, nextDatasources);
+                addAll(getDestinationDatasourceIds(id), datasourceIds, nextDatasources);
+            }
+            for (String id : pendingDatasources) {
+                addAll(getSourceForFeedIds(id), feedIds, nextFeeds);
+                addAll(getDestinationForFeedIds(id), feedIds, nextFeeds);
+            }
+            pendingFeeds = nextFeeds;
+            pendingDatasources = nextDatasources;
+        }
+        return new Lineage(feedIds, datasourceIds);
+    }
+
+    /**
+     * Adds or replaces a feed and its edges.
+     */
+    synchronized void putFeed(@Nonnull final FeedNode node) {
+        FeedNode previous = feeds.put(node.feedId, node);
+        updateInverse(usedByFeeds, node.feedId, previous != null ? previous.dependentFeedIds : ImmutableSet.of(), node.dependentFeedIds);
+        updateInverse(sourceForFeeds, node.feedId, previous != null ? previous.sourceDatasourceIds : ImmutableSet.of(), node.sourceDatasourceIds);
+        updateInverse(destinationForFeeds, node.feedId, previous != null ? previous.destinationDatasourceIds : ImmutableSet.of(), node.destinationDatasourceIds);
+    }
+
+    /**
+     * Removes a feed and its edges.  Feeds depending on the removed feed keep their edge to it until they are reloaded.
+     */
+    synchronized void removeFeed(@Nonnull final String feedId) {
+        FeedNode previous = feeds.remove(feedId);
+        if (previous != null) {
+            updateInverse(usedByFeeds, feedId, previous.dependentFeedIds, ImmutableSet.of());
+            updateInverse(sourceForFeeds, feedId, previous.sourceDatasourceIds, ImmutableSet.of());
+            updateInverse(destinationForFeeds, feedId, previous.destinationDatasourceIds, ImmutableSet.of());
+        }
+    }
+
+    @Nullable
+    private FeedNode getFeed(@Nonnull final String feedId) {
+        ensureLoaded();
+        return feeds.get(feedId);
+    }
+
+    @Nonnull
+    private Set<String> get(@Nonnull final Map<String, Set<String>> edges, @Nonnull final String id) {
+        ensureLoaded();
+        return edges.getOrDefault(id, ImmutableSet.of());
+    }
+
+    /**
+     * Loads the graph if it is used before the metadata store has finished starting.
+     */
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    load();
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the feed from the inverse edges of the nodes it no longer points to, to the inverse edges of the nodes it now points to.
+     */
+    private void updateInverse(@Nonnull final Map<String, Set<String>> inverse, @Nonnull final String feedId, @Nonnull final Set<String> previous,
+                               @Nonnull final Set<String> current) {
+        for (String removed : Sets.difference(previous, current)) {
+            inverse.computeIfPresent(removed, (id, feedIds) -> {
+                Set<String> remaining = ImmutableSet.copyOf(Sets.difference(feedIds, Collections.singleton(feedId)));
+                return remaining.isEmpty() ? null : remaining;
+            });
+        }
+        for (String added : Sets.difference(current, previous)) {
+            inverse.merge(added, ImmutableSet.of(feedId), (feedIds, feed) -> ImmutableSet.<String>builder().addAll(feedIds).addAll(feed).build());
+        }
+    }
+
+    private static void addAll(@Nonnull final Set<String> ids, @Nonnull final Set<String> visited, @Nonnull final Deque<String> pending) {
+        for (String id : ids) {
+            if (visited.add(id)) {
+                pending.add(id);
+            }
+        }
+    }
+
+    @Nonnull
+    private static FeedNode toNode(@Nonnull final Feed<?> feed) {
+        return new FeedNode(feed.getId().toString(),
+                            ids(feed.getDependentFeeds(), dependentFeed -> dependentFeed.getId().toString()),
+                            ids(feed.getSources(), (FeedSource source) -> source.getDatasource() != null ? source.getDatasource().getId().toString() : null),
+                            ids(feed.getDestinations(), (FeedDestination dest) -> dest.getDatasource() != null ? dest.getDatasource().getId().toString() : null));
+    }
+
+    @Nonnull
+    private static <T> Set<String> ids(@Nullable final List<? extends T> values, @Nonnull final Function<T, String> id) {
+        return values != null ? ImmutableSet.copyOf(values.stream().map(id).filter(Objects::nonNull).iterator()) : ImmutableSet.of();
+    }
+
+    /**
+     * The outgoing edges of a feed
+     */
+    static class FeedNode {
+
+        private final String feedId;
+
+        private final Set<String> dependentFeedIds;
+
+        private final Set<String> sourceDatasourceIds;
+
+        private final Set<String> destinationDatasourceIds;
+
+        FeedNode(String feedId, Set<String> dependentFeedIds, Set<String> sourceDatasourceIds, Set<String> destinationDatasourceIds) {
+            this.feedId = feedId;
+            this.dependentFeedIds = ImmutableSet.copyOf(dependentFeedIds);
+            this.sourceDatasourceIds = ImmutableSet.copyOf(sourceDatasourceIds);
+            this.destinationDatasourceIds = ImmutableSet.copyOf(destinationDatasourceIds);
+        }
+    }
+
+    /**
+     * The ids of the feeds and datasources in the lineage of a feed
+     */
+    public static class Lineage {
+
+        private final Set<String> feedIds;
+
+        private final Set<String> datasourceIds;
+
+        Lineage(Set<String> feedIds, Set<String> datasourceIds) {
+            this.feedIds = Collections.unmodifiableSet(feedIds);
+            this.datasourceIds = Collections.unmodifiableSet(datasourceIds);
+        }
+
+        public Set<String> getFeedIds() {
+            return feedIds;
+        }
+
+        public Set<String> getDatasourceIds() {
+            return datasourceIds;
+        }
+    }
+
+    /**
+     * Reloads the created and changed feeds, and removes the deleted feeds
+     */
+    private class FeedChangeListener implements MetadataEventListener<FeedChangeEvent> {
+
+        @Override
+        public void notify(@Nonnull final FeedChangeEvent event) {
+            if (!loaded || event.getData().getFeedId() == null) {
+                return;
+            }
+            String feedId = event.getData().getFeedId().toString();
+            if (event.getData().getChange() == MetadataChange.ChangeType.DELETE) {
+                removeFeed(feedId);
+            } else {
+                reload(Collections.singleton(feedId));
+            }
+        }
+    }
+
+    /**
+     * Reloads the feeds of the graph changed in the metadata repository
+     */
+    private class EntityChangeListener implements MetadataEventListener<EntityChangeEvent> {
+
+        @Override
+        public void notify(@Nonnull final EntityChangeEvent event) {
+            if (!loaded) {
+                return;
+            }
+            List<String> feedIds = new ArrayList<>();
+            for (String id : event.getData().getEntityIds()) {
+                if (feeds.containsKey(id)) {
+                    feedIds.add(id);
+                }
+            }
+            if (!feedIds.isEmpty()) {
+                reload(feedIds);
+            }
+        }
+    }
+}
@@ -29,6 +29,9 @@ import com.thinkbiganalytics.feedmgr.rest.model.UserProperty;
 import com.thinkbiganalytics.metadata.api.feed.Feed;
 import com.thinkbiganalytics.policy.rest.model.FieldRuleProperty;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.List;
@@ -87,6 +90,15 @@ public interface FeedManagerFeedService {
      */
     List<FeedSummary> getFeedSummaryData();
 
+    /**
+     * Return one page of feed summaries.  The feeds are sorted, filtered and paged by the metadata repository.
+     *
+     * @param pageable the page to return, sorted by one of the {@link com.thinkbiganalytics.metadata.api.feedmgr.feed.FeedManagerFeedProvider} {@code SORT_} properties
+     * @param filter   text the feed or category name must contain, or {@code null} for all feeds
+     * @return the page of feed summaries
+     */
+    Page<FeedSummary> getFeedSummaryData(Pageable pageable, String filter);
+
     /**
      * Return a list of feeds in a given category
      *
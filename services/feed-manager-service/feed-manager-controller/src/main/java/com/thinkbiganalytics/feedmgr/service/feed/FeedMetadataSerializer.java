@@ -0,0 +1,87 @@
+package com.thinkbiganalytics.feedmgr.service.feed;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.thinkbiganalytics.feedmgr.rest.model.FeedMetadata;
+import com.thinkbiganalytics.json.ObjectMapperSerializer;
+
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Serializes the {@link FeedMetadata} stored with each feed in the compact binary form of JSON (Smile).
+ *
+ * <p>The binary form has the same structure as the JSON but stores numbers in binary and writes repeated property names and short values, like the NiFi
+ * property names and processor types, once and back references after that.  It is smaller and is parsed without decoding text.  Feeds saved before the
+ * binary form was introduced are read from their JSON until they are saved again.</p>
+ */
+public class FeedMetadataSerializer {
+
+    /**
+     * Reads and writes the binary form with the same configuration as the JSON, so unknown properties are ignored and Joda dates are read and written the same way.
+     */
+    private static final ObjectMapper mapper = ObjectMapperSerializer.newMapper(new SmileFactory().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES));
+
+    private FeedMetadataSerializer() {
+    }
+
+    /**
+     * Serializes the feed metadata to the binary form.
+     *
+     * @param feedMetadata the feed metadata
+     * @return the binary form
+     */
+    @Nonnull
+    public static byte[] serialize(@Nonnull final FeedMetadata feedMetadata) {
+        try {
+            return mapper.writeValueAsBytes(feedMetadata);
+        } catch (IOException e) {
+            throw new RuntimeException("Error serializing the feed metadata", e);
+        }
+    }
+
+    /**
+     * Deserializes the feed metadata from the binary form, or from the JSON form if there is no binary form.
+     *
+     * @param binary the binary form, or {@code null}
+     * @param json   the JSON form, or {@code null}
+     * @return the feed metadata, or {@code null} if both forms are {@code null}
+     */
+    @Nullable
+    public static FeedMetadata deserialize(@Nullable final byte[] binary, @Nullable final String json) {
+        if (binary != null) {
+            try {
+                return mapper.readValue(binary, FeedMetadata.class);
+            } catch (IOException e) {
+                throw new RuntimeException("Error deserializing the feed metadata", e);
+            }
+        } else if (json != null) {
+            return ObjectMapperSerializer.deserialize(json, FeedMetadata.class);
+        } else {
+            return null;
+        }
+    }
+}
@@ -29,11 +29,11 @@ import com.thinkbiganalytics.feedmgr.rest.model.RegisteredTemplate;
 import com.thinkbiganalytics.feedmgr.rest.model.Tag;
 import com.thinkbiganalytics.feedmgr.rest.model.UserProperty;
 import com.thinkbiganalytics.feedmgr.service.EncryptionService;
+import com.thinkbiganalytics.feedmgr.service.EntitySnapshotCache;
 import com.thinkbiganalytics.feedmgr.service.UserPropertyTransform;
 import com.thinkbiganalytics.feedmgr.service.category.CategoryModelTransform;
 import com.thinkbiganalytics.feedmgr.service.template.TemplateModelTransform;
 import com.thinkbiganalytics.hive.service.HiveService;
-import com.thinkbiganalytics.json.ObjectMapperSerializer;
 import com.thinkbiganalytics.metadata.api.category.Category;
 import com.thinkbiganalytics.metadata.api.extension.UserFieldDescriptor;
 import com.thinkbiganalytics.metadata.api.feed.Feed;
@@ -53,6 +53,7 @@ import org.apache.commons.lang3.StringUtils;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -67,6 +68,18 @@ import javax.inject.Inject;
  */
 public class FeedModelTransform {
 
+    /**
+     * Snapshots of the Feed Manager feeds.  The feed names of the registered template are not serialized so they are restored from the snapshot.
+     */
+    private static final EntitySnapshotCache.SnapshotType<FeedMetadata> FEED_SNAPSHOT =
+        new EntitySnapshotCache.SnapshotType<>("feed", FeedMetadata.class, FeedModelTransform::getSnapshotDependencies, FeedModelTransform::restoreSnapshot);
+
+    /**
+     * The parsed feed metadata stored with each feed, versioned by the stored form so a feed is only parsed again after its metadata is saved
+     */
+    private static final EntitySnapshotCache.SnapshotType<FeedMetadata> FEED_METADATA_SNAPSHOT =
+        new EntitySnapshotCache.SnapshotType<>("feedMetadata", FeedMetadata.class, feed -> Collections.emptySet());
+
     @Inject
     FeedManagerCategoryProvider categoryProvider;
 
@@ -94,6 +107,9 @@ public class FeedModelTransform {
     @Inject
     private EncryptionService encryptionService;
 
+    @Inject
+    private EntitySnapshotCache snapshotCache;
+
     /**
      *
      * @param feedMetadata
@@ -189,7 +205,7 @@ public class FeedModelTransform {
         //clear out the state as that
         prepareForSave(feedMetadata);
 
-        domain.setJson(ObjectMapperSerializer.serialize(feedMetadata));
+        domain.setBinaryJson(FeedMetadataSerializer.serialize(feedMetadata));
 
         if (domain.getTemplate() == null) {
             FeedManagerTemplate.ID templateId = templateProvider.resolveId(feedMetadata.getTemplateId());
@@ -246,8 +262,8 @@ public class FeedModelTransform {
     }
 
     public FeedMetadata deserializeFeedMetadata(FeedManagerFeed domain, boolean clearSensitiveProperties) {
-        String json = domain.getJson();
-        FeedMetadata feedMetadata = ObjectMapperSerializer.deserialize(json, FeedMetadata.class);
+        FeedMetadata feedMetadata = snapshotCache.get(FEED_METADATA_SNAPSHOT, domain.getId().toString(), domain.getJsonVersion(),
+                                                      () -> FeedMetadataSerializer.deserialize(domain.getBinaryJson(), domain.getJson()));
         if (clearSensitiveProperties) {
             clearSensitivePropertyValues(feedMetadata);
         }
@@ -268,6 +284,20 @@ public class FeedModelTransform {
      */
     @Nonnull
     private FeedMetadata domainToFeedMetadata(@Nonnull final FeedManagerFeed<?> domain, @Nullable final Map<Category, Set<UserFieldDescriptor>> userFieldMap) {
+        // The modified time only changes when the feed is saved so the version of the feed metadata is included for changes in the current transaction
+        final String version = (domain.getModifiedTime() != null) ? domain.getModifiedTime().getMillis() + "/" + domain.getJsonVersion() : null;
+        return snapshotCache.get(FEED_SNAPSHOT, domain.getId().toString(), version, () -> buildFeedMetadata(domain, userFieldMap));
+    }
+
+    /**
+     * Builds the Feed Manager feed from the specified Metadata feed.
+     *
+     * @param domain       the Metadata feed
+     * @param userFieldMap cache map from category to user-defined fields, or {@code null}
+     * @return the Feed Manager feed
+     */
+    @Nonnull
+    private FeedMetadata buildFeedMetadata(@Nonnull final FeedManagerFeed<?> domain, @Nullable final Map<Category, Set<UserFieldDescriptor>> userFieldMap) {
 
         FeedMetadata feed = deserializeFeedMetadata(domain, false);
         feed.setId(domain.getId().toString());
@@ -332,6 +362,27 @@ public class FeedModelTransform {
         return feed;
     }
 
+    /**
+     * Gets the ids of the template, category and using feeds that the snapshot of a feed is built from.
+     */
+    private static Set<String> getSnapshotDependencies(@Nonnull final FeedMetadata feed) {
+        final Set<String> ids = new HashSet<>();
+        ids.add(feed.getTemplateId());
+        if (feed.getCategory() != null) {
+            ids.add(feed.getCategory().getId());
+        }
+        if (feed.getUsedByFeeds() != null) {
+            feed.getUsedByFeeds().forEach(usedBy -> ids.add(usedBy.getId()));
+        }
+        return ids;
+    }
+
+    private static void restoreSnapshot(@Nonnull final FeedMetadata snapshot, @Nonnull final FeedMetadata copy) {
+        if (snapshot.getRegisteredTemplate() != null && snapshot.getRegisteredTemplate().getFeedNames() != null && copy.getRegisteredTemplate() != null) {
+            copy.getRegisteredTemplate().setFeedNames(new HashSet<>(snapshot.getRegisteredTemplate().getFeedNames()));
+        }
+    }
+
     /**
      * Transforms the specified Metadata feed to a Feed Manager feed summary.
      *
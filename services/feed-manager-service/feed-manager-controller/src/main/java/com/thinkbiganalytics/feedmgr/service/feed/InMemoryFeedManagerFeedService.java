@@ -34,20 +34,30 @@ import com.thinkbiganalytics.feedmgr.service.FileObjectPersistence;
 import com.thinkbiganalytics.feedmgr.service.category.FeedManagerCategoryService;
 import com.thinkbiganalytics.feedmgr.service.template.FeedManagerTemplateService;
 import com.thinkbiganalytics.metadata.api.feed.Feed;
+import com.thinkbiganalytics.metadata.api.feedmgr.feed.FeedManagerFeedProvider;
 import com.thinkbiganalytics.nifi.rest.client.LegacyNifiRestClient;
 import com.thinkbiganalytics.policy.rest.model.FieldRuleProperty;
 import com.thinkbiganalytics.rest.model.LabelValue;
 
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 import javax.annotation.PostConstruct;
@@ -113,6 +123,37 @@ public class InMemoryFeedManagerFeedService extends AbstractFeedManagerFeedServi
     }
 
 
+    @Override
+    public Page<FeedSummary> getFeedSummaryData(Pageable pageable, String filter) {
+        Sort.Order order = (pageable.getSort() != null && pageable.getSort().iterator().hasNext()) ? pageable.getSort().iterator().next()
+                                                                                                 : new Sort.Order(Sort.Direction.DESC, FeedManagerFeedProvider.SORT_MODIFIED_TIME);
+        Comparator<FeedSummary> comparator = Comparator.comparing(summarySortKey(order.getProperty()), Comparator.nullsLast(Comparator.naturalOrder()));
+        List<FeedSummary> summaries = getFeedSummaryData().stream()
+            .filter(summary -> StringUtils.isBlank(filter) || StringUtils.containsIgnoreCase(summary.getFeedName(), filter.trim())
+                               || StringUtils.containsIgnoreCase(summary.getCategoryName(), filter.trim()))
+            .sorted(order.isAscending() ? comparator : comparator.reversed())
+            .collect(Collectors.toList());
+        List<FeedSummary> page = summaries.stream().skip(pageable.getOffset()).limit(pageable.getPageSize()).collect(Collectors.toList());
+        return new PageImpl<>(page, pageable, summaries.size());
+    }
+
+    private Function<FeedSummary, Comparable> summarySortKey(String property) {
+        switch (property) {
+            case FeedManagerFeedProvider.SORT_DISPLAY_NAME:
+                return summary -> StringUtils.lowerCase(summary.getFeedName());
+            case FeedManagerFeedProvider.SORT_STATE:
+                return FeedSummary::getState;
+            case FeedManagerFeedProvider.SORT_CATEGORY:
+                return summary -> StringUtils.lowerCase(summary.getCategoryName());
+            case FeedManagerFeedProvider.SORT_TEMPLATE:
+                return summary -> StringUtils.lowerCase(summary.getTemplateName());
+            case FeedManagerFeedProvider.SORT_MODIFIED_TIME:
+                return FeedSummary::getUpdateDate;
+            default:
+                throw new IllegalArgumentException("Feeds cannot be sorted by " + property);
+        }
+    }
+
     public List<FeedSummary> getFeedSummaryForCategory(String categoryId) {
         List<FeedSummary> summaryList = new ArrayList<>();
         FeedCategory category = categoryProvider.getCategoryById(categoryId);
@@ -73,13 +73,17 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -128,6 +132,13 @@ public class ExportImportTemplateService {
 
     //Export Methods
 
+    /**
+     * Prepare the export of a template.  The NiFi template XML is downloaded once here so a missing template fails before the export is written.
+     * Any connecting reusable templates are not downloaded until the export is written.
+     *
+     * @param templateId the registered template id or NiFi template id
+     * @return the export that can be written as a zip file
+     */
     public ExportTemplate exportTemplate(String templateId) {
         this.accessController.checkPermission(AccessController.SERVICES, FeedsAccessControl.EXPORT_TEMPLATES);
 
@@ -135,79 +146,62 @@ public class ExportImportTemplateService {
             template =
             registeredTemplateService.findRegisteredTemplate(new RegisteredTemplateRequest.Builder().templateId(templateId).nifiTemplateId(templateId).includeSensitiveProperties(true).build());
         if (template != null) {
-            List<String> connectingReusableTemplates = new ArrayList<>();
-            Set<String> connectedTemplateIds = new HashSet<>();
+            Set<String> connectedTemplateIds = new LinkedHashSet<>();
             //if this template uses any reusable templates then export those reusable ones as well
             if (template.usesReusableTemplate()) {
                 List<ReusableTemplateConnectionInfo> reusableTemplateConnectionInfos = template.getReusableTemplateConnections();
                 for (ReusableTemplateConnectionInfo reusableTemplateConnectionInfo : reusableTemplateConnectionInfos) {
                     String inputName = reusableTemplateConnectionInfo.getReusableTemplateInputPortName();
                     //find the template that has the input port name?
-                    Map<String, String> map = nifiRestClient.getTemplatesAsXmlMatchingInputPortName(inputName);
-                    if (map != null && !map.isEmpty()) {
-                        //get the first one??
-                        for (Map.Entry<String, String> entry : map.entrySet()) {
-                            String portTemplateId = entry.getKey();
-                            if (!connectedTemplateIds.contains(portTemplateId)) {
-                                connectedTemplateIds.add(portTemplateId);
-                                connectingReusableTemplates.add(entry.getValue());
-                            }
-                        }
-                    }
+                    connectedTemplateIds.addAll(nifiRestClient.getTemplateIdsMatchingInputPortName(inputName));
                 }
             }
 
             String templateXml = null;
             try {
-                if (template != null) {
-                    try {
-                        templateXml = nifiRestClient.getTemplateXml(template.getNifiTemplateId());
-                    } catch (NifiClientRuntimeException e) {
-                        TemplateDTO templateDTO = nifiRestClient.getTemplateByName(template.getTemplateName());
-                        if (templateDTO != null) {
-                            templateXml = nifiRestClient.getTemplateXml(templateDTO.getId());
-                        }
+                try {
+                    templateXml = nifiRestClient.getTemplateXml(template.getNifiTemplateId());
+                } catch (NifiClientRuntimeException e) {
+                    TemplateDTO templateDTO = nifiRestClient.getTemplateByName(template.getTemplateName());
+                    if (templateDTO != null) {
+                        templateXml = nifiRestClient.getTemplateXml(templateDTO.getId());
                     }
                 }
             } catch (Exception e) {
                 throw new UnsupportedOperationException("Unable to find Nifi Template for " + templateId);
             }
+            if (templateXml == null) {
+                throw new UnsupportedOperationException("Unable to find Nifi Template for " + templateId);
+            }
 
-            //create a zip file with the template and xml
-            byte[] zipFile = zip(template, templateXml, connectingReusableTemplates);
-
-            return new ExportTemplate(SystemNamingService.generateSystemName(template.getTemplateName()) + ".template.zip", zipFile);
+            return new ExportTemplate(SystemNamingService.generateSystemName(template.getTemplateName()) + ".template.zip", template, templateXml, new ArrayList<>(connectedTemplateIds));
 
         } else {
             throw new UnsupportedOperationException("Unable to find Template for " + templateId);
         }
     }
 
-    private byte[] zip(RegisteredTemplate template, String nifiTemplateXml, List<String> reusableTemplateXmls) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
-
-            ZipEntry entry = new ZipEntry(NIFI_TEMPLATE_XML_FILE);
-            zos.putNextEntry(entry);
-            zos.write(nifiTemplateXml.getBytes());
-            zos.closeEntry();
-            int reusableTemplateNumber = 0;
-            for (String reusableTemplateXml : reusableTemplateXmls) {
-                entry = new ZipEntry(String.format("%s_%s.xml", NIFI_CONNECTING_REUSABLE_TEMPLATE_XML_FILE, reusableTemplateNumber++));
-                zos.putNextEntry(entry);
-                zos.write(reusableTemplateXml.getBytes());
-                zos.closeEntry();
-            }
-            entry = new ZipEntry(TEMPLATE_JSON_FILE);
-            zos.putNextEntry(entry);
-            String json = ObjectMapperSerializer.serialize(template);
-            zos.write(json.getBytes());
-            zos.closeEntry();
-
-        } catch (IOException ioe) {
-            throw new RuntimeException(ioe);
+    /**
+     * Download the NiFi template XML and write it to the current zip entry
+     */
+    private void downloadTemplateXml(ZipOutputStream zos, String nifiTemplateId) throws IOException {
+        String templateXml;
+        try {
+            templateXml = nifiRestClient.getTemplateXml(nifiTemplateId);
+        } catch (NifiClientRuntimeException e) {
+            throw new IOException("Unable to download the Nifi Template " + nifiTemplateId, e);
         }
-        return baos.toByteArray();
+        writeTemplateXml(zos, templateXml);
+    }
+
+    /**
+     * Write the NiFi template XML to the current zip entry
+     */
+    private void writeTemplateXml(ZipOutputStream zos, String templateXml) throws IOException {
+        // write through the zip stream rather than copying the xml into another byte array
+        Writer writer = new OutputStreamWriter(zos);
+        writer.write(templateXml);
+        writer.flush();
     }
 
     //Validation Methods
@@ -469,7 +463,8 @@ public class ExportImportTemplateService {
                 //create a temp instance of this template to assess if it has any sensitive properties
                 String templateName = NifiTemplateParser.getTemplateName(importTemplate.getNifiTemplateXml());
                 String reusableTemplateName = templateName;
-                templateName += "_" + System.currentTimeMillis();
+                //feeds may be validated in parallel, so the time alone does not make the name unique
+                templateName += "_" + System.currentTimeMillis() + "_" + UUID.randomUUID();
                 String templateXml = NifiTemplateParser.updateTemplateName(importTemplate.getNifiTemplateXml(), templateName);
 
                 TemplateDTO temporaryTemplate = nifiRestClient.importTemplate(templateName, templateXml);
@@ -1156,22 +1151,74 @@ public class ExportImportTemplateService {
         }
     }
 
+    /**
+     * A template export.  The zip file is written entry by entry to an output stream so the NiFi template XML is never held in memory for the whole archive.
+     */
     public class ExportTemplate {
 
         private String fileName;
-        private byte[] file;
+        private RegisteredTemplate template;
+        private String nifiTemplateXml;
+        private List<String> reusableTemplateIds;
 
-        public ExportTemplate(String fileName, byte[] file) {
+        public ExportTemplate(String fileName, RegisteredTemplate template, String nifiTemplateXml, List<String> reusableTemplateIds) {
             this.fileName = fileName;
-            this.file = file;
+            this.template = template;
+            this.nifiTemplateXml = nifiTemplateXml;
+            this.reusableTemplateIds = reusableTemplateIds;
         }
 
         public String getFileName() {
             return fileName;
         }
 
+        /**
+         * Build the whole zip file in memory.  Prefer {@link #writeTo(OutputStream)} when the export is sent to a stream.
+         *
+         * @return the zip file
+         */
         public byte[] getFile() {
-            return file;
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            try {
+                writeTo(baos);
+            } catch (IOException ioe) {
+                throw new RuntimeException(ioe);
+            }
+            return baos.toByteArray();
+        }
+
+        /**
+         * Write the zip file to the given stream.  The stream is closed once the zip file is complete.
+         *
+         * @param out the stream to write to
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            try (ZipOutputStream zos = new ZipOutputStream(out)) {
+                writeEntries(zos);
+            }
+        }
+
+        /**
+         * Write the template entries to an open zip stream, fetching each connecting reusable template XML just before its entry is written.
+         *
+         * @param zos the zip stream to add the entries to
+         */
+        public void writeEntries(ZipOutputStream zos) throws IOException {
+            zos.putNextEntry(new ZipEntry(NIFI_TEMPLATE_XML_FILE));
+            writeTemplateXml(zos, nifiTemplateXml);
+            zos.closeEntry();
+
+            int reusableTemplateNumber = 0;
+            for (String reusableTemplateId : reusableTemplateIds) {
+                zos.putNextEntry(new ZipEntry(String.format("%s_%s.xml", NIFI_CONNECTING_REUSABLE_TEMPLATE_XML_FILE, reusableTemplateNumber++)));
+                downloadTemplateXml(zos, reusableTemplateId);
+                zos.closeEntry();
+            }
+
+            zos.putNextEntry(new ZipEntry(TEMPLATE_JSON_FILE));
+            String json = ObjectMapperSerializer.serialize(template);
+            zos.write(json.getBytes());
+            zos.closeEntry();
         }
     }
 
@@ -24,6 +24,7 @@ import com.google.common.base.Function;
 import com.google.common.collect.Collections2;
 import com.thinkbiganalytics.feedmgr.rest.model.RegisteredTemplate;
 import com.thinkbiganalytics.feedmgr.service.EncryptionService;
+import com.thinkbiganalytics.feedmgr.service.EntitySnapshotCache;
 import com.thinkbiganalytics.json.ObjectMapperSerializer;
 import com.thinkbiganalytics.metadata.api.feedmgr.feed.FeedManagerFeed;
 import com.thinkbiganalytics.metadata.api.feedmgr.template.FeedManagerTemplate;
@@ -32,6 +33,8 @@ import com.thinkbiganalytics.support.FeedNameUtil;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -42,9 +45,25 @@ import javax.inject.Inject;
  */
 public class TemplateModelTransform {
 
+    /**
+     * Snapshots of the registered templates without their sensitive property values
+     */
+    private static final EntitySnapshotCache.SnapshotType<RegisteredTemplate> TEMPLATE_SNAPSHOT =
+        new EntitySnapshotCache.SnapshotType<>("template", RegisteredTemplate.class, template -> Collections.emptySet());
+
+    /**
+     * Snapshots of the registered templates with the names of their feeds, which are not serialized so they are restored from the snapshot
+     */
+    private static final EntitySnapshotCache.SnapshotType<RegisteredTemplate> TEMPLATE_WITH_FEED_NAMES_SNAPSHOT =
+        new EntitySnapshotCache.SnapshotType<>("templateWithFeedNames", RegisteredTemplate.class, template -> Collections.emptySet(),
+                                               (snapshot, copy) -> copy.setFeedNames(snapshot.getFeedNames() != null ? new HashSet<>(snapshot.getFeedNames()) : null));
+
     @Inject
     private EncryptionService encryptionService;
 
+    @Inject
+    private EntitySnapshotCache snapshotCache;
+
     public enum TEMPLATE_TRANSFORMATION_TYPE {
         WITH_FEED_NAMES, WITHOUT_FEED_NAMES, WITH_SENSITIVE_DATA
     }
@@ -161,31 +180,47 @@ public class TemplateModelTransform {
         return new Function<FeedManagerTemplate, RegisteredTemplate>() {
             @Override
             public RegisteredTemplate apply(FeedManagerTemplate domain) {
-                String json = domain.getJson();
-                RegisteredTemplate template = deserialize(json, includeEncryptedProperties);
-                template.setId(domain.getId().toString());
-                template.setState(domain.getState().name());
-                template.setNifiTemplateId(domain.getNifiTemplateId());
-                List<FeedManagerFeed> feeds = domain.getFeeds();
-                template.setFeedsCount(feeds == null ? 0 : feeds.size());
-                template.setStream(domain.isStream());
-                if (includeFeedNames && feeds != null) {
-                    template.setFeedNames(feeds.stream().map(feedManagerFeed -> FeedNameUtil.fullName(feedManagerFeed.getCategory().getName(), feedManagerFeed.getName())).collect(
-                        Collectors.toSet()));
-                }
-                if (domain.getCreatedTime() != null) {
-                    template.setCreateDate(domain.getCreatedTime().toDate());
+                if (includeEncryptedProperties) {
+                    return buildRegisteredTemplate(domain, includeFeedNames, true);
                 }
-                if (domain.getModifiedTime() != null) {
-                    template.setUpdateDate(domain.getModifiedTime().toDate());
-                }
-                template.setOrder(domain.getOrder());
-                return template;
+                return snapshotCache.get(includeFeedNames ? TEMPLATE_WITH_FEED_NAMES_SNAPSHOT : TEMPLATE_SNAPSHOT, domain.getId().toString(), domain.getModifiedTime(),
+                                         () -> buildRegisteredTemplate(domain, includeFeedNames, false));
             }
         };
 
     }
 
+    /**
+     * Builds the registered template from the domain template
+     *
+     * @param domain                     the domain template
+     * @param includeFeedNames           true to include the names of the feeds using the template
+     * @param includeEncryptedProperties if true the encrypted properties will be returned.  false will set the property values to ""
+     * @return the registered template
+     */
+    private RegisteredTemplate buildRegisteredTemplate(FeedManagerTemplate domain, boolean includeFeedNames, boolean includeEncryptedProperties) {
+        String json = domain.getJson();
+        RegisteredTemplate template = deserialize(json, includeEncryptedProperties);
+        template.setId(domain.getId().toString());
+        template.setState(domain.getState().name());
+        template.setNifiTemplateId(domain.getNifiTemplateId());
+        List<FeedManagerFeed> feeds = domain.getFeeds();
+        template.setFeedsCount(feeds == null ? 0 : feeds.size());
+        template.setStream(domain.isStream());
+        if (includeFeedNames && feeds != null) {
+            template.setFeedNames(feeds.stream().map(feedManagerFeed -> FeedNameUtil.fullName(feedManagerFeed.getCategory().getName(), feedManagerFeed.getName())).collect(
+                Collectors.toSet()));
+        }
+        if (domain.getCreatedTime() != null) {
+            template.setCreateDate(domain.getCreatedTime().toDate());
+        }
+        if (domain.getModifiedTime() != null) {
+            template.setUpdateDate(domain.getModifiedTime().toDate());
+        }
+        template.setOrder(domain.getOrder());
+        return template;
+    }
+
     public List<RegisteredTemplate> domainToRegisteredTemplateWithFeedNames(Collection<FeedManagerTemplate> domain) {
         return new ArrayList<>(Collections2.transform(domain, DOMAIN_TO_REGISTERED_TEMPLATE));
     }
@@ -194,6 +194,30 @@ public class ImportUtil {
         });
     }
 
+    /**
+     * Reads the entries of a zip file whose names end with the specified suffix, passing each one to the handler as soon as it is read.
+     * The stream is read once, in order, and only the entry being handled is held in memory.
+     *
+     * @param inputStream the zip file
+     * @param suffix      the suffix of the entries to read, such as {@code .feed.zip}
+     * @param handler     called with the name and contents of each matching entry, in the order they appear in the zip file
+     * @return the number of matching entries
+     */
+    public static int readZipEntries(InputStream inputStream, String suffix, ZipEntryHandler handler) throws IOException {
+        int count = 0;
+        try (ZipInputStream zis = new ZipInputStream(inputStream)) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                if (!entry.isDirectory() && entry.getName().toLowerCase().endsWith(suffix)) {
+                    handler.handle(entry.getName(), streamToByteArray(zis));
+                    count++;
+                }
+                zis.closeEntry();
+            }
+        }
+        return count;
+    }
+
     public static byte[] streamToByteArray(InputStream inputStream) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         byte[] buf = new byte[1024];
@@ -205,4 +229,16 @@ public class ImportUtil {
         return content;
     }
 
+    /**
+     * Receives the entries read by {@link #readZipEntries(InputStream, String, ZipEntryHandler)}
+     */
+    @FunctionalInterface
+    public interface ZipEntryHandler {
+
+        /**
+         * @param name    the entry name
+         * @param content the entry contents
+         */
+        void handle(String name, byte[] content) throws IOException;
+    }
 }
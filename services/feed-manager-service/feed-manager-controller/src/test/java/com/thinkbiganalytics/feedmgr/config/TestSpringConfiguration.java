@@ -26,6 +26,7 @@ import com.thinkbiganalytics.feedmgr.nifi.PropertyExpressionResolver;
 import com.thinkbiganalytics.feedmgr.nifi.SpringEnvironmentProperties;
 import com.thinkbiganalytics.feedmgr.rest.Model;
 import com.thinkbiganalytics.feedmgr.service.EncryptionService;
+import com.thinkbiganalytics.feedmgr.service.EntitySnapshotCache;
 import com.thinkbiganalytics.feedmgr.service.MetadataService;
 import com.thinkbiganalytics.feedmgr.service.category.CategoryModelTransform;
 import com.thinkbiganalytics.feedmgr.service.category.FeedManagerCategoryService;
@@ -49,6 +50,7 @@ import com.thinkbiganalytics.metadata.api.MetadataExecutionException;
 import com.thinkbiganalytics.metadata.api.MetadataRollbackAction;
 import com.thinkbiganalytics.metadata.api.MetadataRollbackCommand;
 import com.thinkbiganalytics.metadata.api.datasource.DatasourceProvider;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
 import com.thinkbiganalytics.metadata.api.feed.FeedProvider;
 import com.thinkbiganalytics.metadata.api.feedmgr.category.FeedManagerCategoryProvider;
 import com.thinkbiganalytics.metadata.api.feedmgr.feed.FeedManagerFeedProvider;
@@ -362,6 +364,16 @@ public class TestSpringConfiguration {
         return new RegisteredTemplateService();
     }
 
+    @Bean
+    EntitySnapshotCache entitySnapshotCache() {
+        return new EntitySnapshotCache();
+    }
+
+    @Bean
+    MetadataEventService metadataEventService() {
+        return Mockito.mock(MetadataEventService.class);
+    }
+
     @Bean
     FeedModelTransform feedModelTransform() {
         return new FeedModelTransform();
@@ -0,0 +1,144 @@
+package com.thinkbiganalytics.feedmgr.nifi;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.feedmgr.rest.model.RegisteredTemplate;
+import com.thinkbiganalytics.feedmgr.service.MetadataService;
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.MetadataCommand;
+import com.thinkbiganalytics.metadata.rest.model.nifi.NiFiFlowCacheSync;
+import com.thinkbiganalytics.nifi.rest.client.LegacyNifiRestClient;
+import com.thinkbiganalytics.nifi.rest.model.flow.NifiFlowConnection;
+import com.thinkbiganalytics.nifi.rest.model.flow.NifiFlowProcessGroup;
+import com.thinkbiganalytics.nifi.rest.model.flow.NifiFlowProcessor;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Tests the versioned updates sent to the syncs of the {@link NifiFlowCache}
+ */
+public class NifiFlowCacheTest {
+
+    private NifiFlowCache nifiFlowCache;
+
+    private List<NifiFlowProcessGroup> flows = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        nifiFlowCache = new NifiFlowCache();
+        nifiFlowCache.nifiRestClient = Mockito.mock(LegacyNifiRestClient.class);
+        nifiFlowCache.metadataService = Mockito.mock(MetadataService.class);
+        nifiFlowCache.metadataAccess = Mockito.mock(MetadataAccess.class);
+
+        RegisteredTemplate template = new RegisteredTemplate();
+        template.setTemplateName("template");
+        template.setFeedNames(Collections.singleton("category.feed"));
+        Mockito.when(nifiFlowCache.nifiRestClient.getFeedFlows(Mockito.any(ExecutorService.class))).thenReturn(flows);
+        Mockito.when(nifiFlowCache.metadataAccess.read(Mockito.any(MetadataCommand.class), Mockito.<Principal>anyVararg())).thenReturn(Collections.singletonList(template));
+
+        flows.add(processGroup("group1", "category.feed", "processor1", "connection1"));
+        nifiFlowCache.rebuildAll();
+    }
+
+    @Test
+    public void testNewSyncReceivesEverything() {
+        NiFiFlowCacheSync sync = nifiFlowCache.syncAndReturnUpdates("sync1");
+        Assert.assertTrue(sync.isUpdated());
+        Assert.assertEquals("category.feed", sync.getSnapshot().getProcessorIdToFeedNameMap().get("processor1"));
+        Assert.assertEquals("group1", sync.getSnapshot().getProcessorIdToFeedProcessGroupId().get("processor1"));
+        Assert.assertTrue(sync.getSnapshot().getConnectionIdToConnection().containsKey("connection1"));
+        Assert.assertTrue(sync.getSnapshot().getAllFeeds().contains("category.feed"));
+    }
+
+    @Test
+    public void testSyncReceivesOnlyChanges() {
+        nifiFlowCache.syncAndReturnUpdates("sync1");
+        Assert.assertFalse(nifiFlowCache.syncAndReturnUpdates("sync1").isUpdated());
+
+        nifiFlowCache.updateFlow("category.feed2", true, processGroup("group2", "category.feed2", "processor2", "connection2"));
+        NiFiFlowCacheSync sync = nifiFlowCache.syncAndReturnUpdates("sync1");
+        Assert.assertTrue(sync.isUpdated());
+        Assert.assertEquals(Collections.singleton("processor2"), sync.getSnapshot().getProcessorIdToFeedNameMap().keySet());
+        Assert.assertEquals(Collections.singleton("connection2"), sync.getSnapshot().getConnectionIdToConnection().keySet());
+        Assert.assertEquals(Collections.singleton("category.feed2"), sync.getSnapshot().getAllFeeds());
+        Assert.assertEquals(Collections.singleton("category.feed2"), sync.getSnapshot().getAllStreamingFeeds());
+
+        Assert.assertFalse(nifiFlowCache.syncAndReturnUpdates("sync1").isUpdated());
+    }
+
+    @Test
+    public void testRebuildOnlyVersionsChangedEntries() {
+        nifiFlowCache.syncAndReturnUpdates("sync1");
+
+        nifiFlowCache.rebuildAll();
+        Assert.assertFalse(nifiFlowCache.syncAndReturnUpdates("sync1").isUpdated());
+
+        flows.get(0).getProcessorMap().get("processor1").setName("renamed");
+        nifiFlowCache.rebuildAll();
+        NiFiFlowCacheSync sync = nifiFlowCache.syncAndReturnUpdates("sync1");
+        Assert.assertTrue(sync.isUpdated());
+        Assert.assertEquals("renamed", sync.getSnapshot().getProcessorIdToProcessorName().get("processor1"));
+        Assert.assertTrue(sync.getSnapshot().getConnectionIdToConnection().isEmpty());
+    }
+
+    @Test
+    public void testRebuildReplacesRemovedFlows() {
+        flows.set(0, processGroup("group2", "category.feed", "processor2", "connection2"));
+        nifiFlowCache.rebuildAll();
+        Assert.assertTrue(nifiFlowCache.isAvailable());
+
+        NiFiFlowCacheSync sync = nifiFlowCache.getCache("sync1");
+        Assert.assertEquals(Collections.singleton("processor2"), sync.getSnapshot().getProcessorIdToFeedNameMap().keySet());
+        Assert.assertEquals(Collections.singleton("connection2"), sync.getSnapshot().getConnectionIdToConnection().keySet());
+        Assert.assertEquals("group2", sync.getSnapshot().getProcessorIdToFeedProcessGroupId().get("processor2"));
+    }
+
+    @Test
+    public void testRefreshReturnsEverything() {
+        nifiFlowCache.syncAndReturnUpdates("sync1");
+        NiFiFlowCacheSync sync = nifiFlowCache.refreshAll("sync1");
+        Assert.assertTrue(sync.isUpdated());
+        Assert.assertEquals("category.feed", sync.getSnapshot().getProcessorIdToFeedNameMap().get("processor1"));
+    }
+
+    private NifiFlowProcessGroup processGroup(String groupId, String feedName, String processorId, String connectionId) {
+        NifiFlowProcessGroup group = new NifiFlowProcessGroup(groupId, feedName);
+        group.setFeedName(feedName);
+        Map<String, NifiFlowProcessor> processors = new HashMap<>();
+        processors.put(processorId, new NifiFlowProcessor(processorId, processorId));
+        group.setProcessorMap(processors);
+        Map<String, NifiFlowConnection> connections = new HashMap<>();
+        connections.put(connectionId, new NifiFlowConnection(connectionId, connectionId, processorId, processorId));
+        group.setConnectionIdMap(connections);
+        return group;
+    }
+}
@@ -0,0 +1,221 @@
+package com.thinkbiganalytics.feedmgr.service;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.feedmgr.rest.model.FeedCategory;
+import com.thinkbiganalytics.feedmgr.rest.model.FeedMetadata;
+import com.thinkbiganalytics.feedmgr.rest.model.RegisteredTemplate;
+import com.thinkbiganalytics.json.ObjectMapperSerializer;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
+import com.thinkbiganalytics.metadata.rest.model.data.HiveTableDatasource;
+import com.thinkbiganalytics.nifi.rest.model.NifiProperty;
+
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the versioning, invalidation and copying of the snapshots in the {@link EntitySnapshotCache}
+ */
+public class EntitySnapshotCacheTest {
+
+    private static final EntitySnapshotCache.SnapshotType<FeedMetadata> FEED_SNAPSHOT =
+        new EntitySnapshotCache.SnapshotType<>("feed", FeedMetadata.class, feed -> Collections.singleton(feed.getCategory().getId()),
+                                               (snapshot, copy) -> copy.getRegisteredTemplate().setFeedNames(new HashSet<>(snapshot.getRegisteredTemplate().getFeedNames())));
+
+    private EntitySnapshotCache cache;
+
+    private AtomicInteger loads = new AtomicInteger();
+
+    @Before
+    public void setup() {
+        cache = new EntitySnapshotCache();
+        cache.metadataEventService = Mockito.mock(MetadataEventService.class);
+        cache.init();
+    }
+
+    @Test
+    public void testSnapshotIsReusedUntilModified() {
+        DateTime modified = new DateTime(1000L);
+        FeedMetadata first = cache.get(FEED_SNAPSHOT, "feed1", modified, () -> createFeed("feed1"));
+        FeedMetadata second = cache.get(FEED_SNAPSHOT, "feed1", modified, () -> createFeed("feed1"));
+        Assert.assertEquals(1, loads.get());
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(ObjectMapperSerializer.serialize(first), ObjectMapperSerializer.serialize(second));
+        Assert.assertEquals(first.getRegisteredTemplate().getFeedNames(), second.getRegisteredTemplate().getFeedNames());
+
+        cache.get(FEED_SNAPSHOT, "feed1", new DateTime(2000L), () -> createFeed("feed1"));
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testSnapshotIsReusedUntilVersionChanges() {
+        cache.get(FEED_SNAPSHOT, "feed1", "hash1", () -> createFeed("feed1"));
+        cache.get(FEED_SNAPSHOT, "feed1", "hash1", () -> createFeed("feed1"));
+        Assert.assertEquals(1, loads.get());
+
+        cache.get(FEED_SNAPSHOT, "feed1", "hash2", () -> createFeed("feed1"));
+        Assert.assertEquals(2, loads.get());
+
+        cache.get(FEED_SNAPSHOT, "feed1", (Object) null, () -> createFeed("feed1"));
+        cache.get(FEED_SNAPSHOT, "feed1", (Object) null, () -> createFeed("feed1"));
+        Assert.assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void testCopiesAreIndependent() {
+        DateTime modified = new DateTime(1000L);
+        FeedMetadata first = cache.get(FEED_SNAPSHOT, "feed1", modified, () -> createFeed("feed1"));
+        first.setDescription("changed");
+        first.getProperties().get(0).setValue("changed");
+
+        FeedMetadata second = cache.get(FEED_SNAPSHOT, "feed1", modified, () -> createFeed("feed1"));
+        Assert.assertEquals("description", second.getDescription());
+        Assert.assertEquals("value0", second.getProperties().get(0).getValue());
+    }
+
+    @Test
+    public void testInvalidateDependency() {
+        DateTime modified = new DateTime(1000L);
+        cache.get(FEED_SNAPSHOT, "feed1", modified, () -> createFeed("feed1"));
+        cache.invalidate("other");
+        cache.get(FEED_SNAPSHOT, "feed1", modified, () -> createFeed("feed1"));
+        Assert.assertEquals(1, loads.get());
+
+        cache.invalidate("category1");
+        Assert.assertEquals(0, cache.size());
+        cache.get(FEED_SNAPSHOT, "feed1", modified, () -> createFeed("feed1"));
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testInvalidationIsPublished() {
+        List<Collection<String>> published = new ArrayList<>();
+        cache.setInvalidationPublisher(published::add);
+        DateTime modified = new DateTime(1000L);
+
+        cache.get(FEED_SNAPSHOT, "feed1", modified, () -> createFeed("feed1"));
+        cache.invalidate("category1");
+        Assert.assertEquals(0, cache.size());
+        cache.invalidateAll();
+        Assert.assertEquals(Arrays.asList(Collections.singleton("category1"), null), published);
+
+        //evictions received from other nodes are not sent again
+        cache.get(FEED_SNAPSHOT, "feed1", modified, () -> createFeed("feed1"));
+        cache.evict(Collections.singleton("feed1"));
+        Assert.assertEquals(0, cache.size());
+        cache.evictAll();
+        Assert.assertEquals(2, published.size());
+    }
+
+    @Test
+    public void testPublishFailureDoesNotFailInvalidation() {
+        cache.setInvalidationPublisher(ids -> {
+            throw new IllegalStateException("JMS is unavailable");
+        });
+        cache.get(FEED_SNAPSHOT, "feed1", new DateTime(1000L), () -> createFeed("feed1"));
+        cache.invalidate("feed1");
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testDatesAreCopied() {
+        DateTime modified = new DateTime(1000L);
+        FeedMetadata first = cache.get(FEED_SNAPSHOT, "feed1", modified, () -> {
+            FeedMetadata feed = createFeed("feed1");
+            HiveTableDatasource datasource = new HiveTableDatasource("datasource", "database", "table");
+            datasource.setCreationTime(new DateTime(1500000000123L));
+            feed.setUserDatasources(Collections.singletonList(datasource));
+            return feed;
+        });
+        FeedMetadata second = cache.get(FEED_SNAPSHOT, "feed1", modified, () -> createFeed("feed1"));
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(1500000000123L, first.getUserDatasources().get(0).getCreationTime().getMillis());
+        Assert.assertEquals(1500000000123L, second.getUserDatasources().get(0).getCreationTime().getMillis());
+    }
+
+    @Test
+    public void testSnapshotChangedWhileLoadingIsNotCached() {
+        DateTime modified = new DateTime(1000L);
+        cache.get(FEED_SNAPSHOT, "feed1", modified, () -> {
+            cache.invalidate("feed1");
+            return createFeed("feed1");
+        });
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testSnapshotIsIsolatedFromLoadedValue() {
+        DateTime modified = new DateTime(1000L);
+        FeedMetadata loaded = createFeed("feed1");
+        FeedMetadata first = cache.get(FEED_SNAPSHOT, "feed1", modified, () -> loaded);
+        Assert.assertNotSame(loaded, first);
+
+        loaded.setDescription("changed");
+        loaded.getProperties().add(property(1));
+        loaded.getRegisteredTemplate().getFeedNames().add("category.feed2");
+        first.getRegisteredTemplate().getFeedNames().add("category.feed3");
+
+        FeedMetadata second = cache.get(FEED_SNAPSHOT, "feed1", modified, () -> createFeed("feed1"));
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals("description", second.getDescription());
+        Assert.assertEquals(1, second.getProperties().size());
+        Assert.assertEquals(Collections.singleton("category.feed1"), second.getRegisteredTemplate().getFeedNames());
+    }
+
+    private FeedMetadata createFeed(String id) {
+        loads.incrementAndGet();
+        FeedCategory category = new FeedCategory();
+        category.setId("category1");
+        category.setSystemName("category");
+
+        RegisteredTemplate template = new RegisteredTemplate();
+        template.setId("template1");
+        template.setProperties(new ArrayList<>());
+        template.setFeedNames(new HashSet<>(Collections.singleton("category." + id)));
+
+        FeedMetadata feed = new FeedMetadata();
+        feed.setId(id);
+        feed.setCategory(category);
+        feed.setRegisteredTemplate(template);
+        feed.setDescription("description");
+        List<NifiProperty> properties = new ArrayList<>();
+        properties.add(property(0));
+        feed.setProperties(properties);
+        return feed;
+    }
+
+    private NifiProperty property(int i) {
+        NifiProperty property = new NifiProperty("group", "processor" + i, "key" + i, "value" + i);
+        property.setProcessorName("processor" + i);
+        return property;
+    }
+}
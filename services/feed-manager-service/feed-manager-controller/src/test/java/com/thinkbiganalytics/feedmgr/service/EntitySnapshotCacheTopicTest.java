@@ -0,0 +1,101 @@
+package com.thinkbiganalytics.feedmgr.service;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.activemq.SendJmsMessage;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Tests the {@link EntitySnapshotCacheTopic} sends the evictions of one node's {@link EntitySnapshotCache} to the caches of the other nodes
+ */
+public class EntitySnapshotCacheTopicTest {
+
+    private EntitySnapshotCache cache;
+
+    private EntitySnapshotCacheTopic topic;
+
+    @Before
+    public void setup() {
+        cache = Mockito.mock(EntitySnapshotCache.class);
+        topic = newTopic(cache);
+    }
+
+    @Test
+    public void testPublish() {
+        Mockito.verify(cache).setInvalidationPublisher(topic);
+
+        topic.publish(Collections.singleton("feed1"));
+        topic.publish(null);
+
+        ArgumentCaptor<EntitySnapshotCacheTopic.SnapshotInvalidation> sent = ArgumentCaptor.forClass(EntitySnapshotCacheTopic.SnapshotInvalidation.class);
+        Mockito.verify(topic.sendJmsMessage, Mockito.times(2)).sendObjectToTopic(Mockito.eq(EntitySnapshotCacheTopic.TOPIC), sent.capture());
+        Assert.assertEquals(Collections.singletonList("feed1"), sent.getAllValues().get(0).getIds());
+        Assert.assertNull(sent.getAllValues().get(1).getIds());
+        Assert.assertNotNull(sent.getAllValues().get(0).getNodeId());
+    }
+
+    @Test
+    public void testReceiveFromOtherNode() {
+        EntitySnapshotCacheTopic.SnapshotInvalidation invalidation = sentBy(newTopic(Mockito.mock(EntitySnapshotCache.class)), Collections.singleton("feed1"));
+        topic.receive(invalidation);
+        Mockito.verify(cache).evict(Collections.singletonList("feed1"));
+
+        topic.receive(sentBy(newTopic(Mockito.mock(EntitySnapshotCache.class)), null));
+        Mockito.verify(cache).evictAll();
+        Mockito.verify(cache, Mockito.never()).invalidate(Mockito.anyCollectionOf(String.class));
+        Mockito.verify(cache, Mockito.never()).invalidateAll();
+    }
+
+    @Test
+    public void testIgnoreOwnMessages() {
+        topic.receive(sentBy(topic, Collections.singleton("feed1")));
+        topic.receive(sentBy(topic, null));
+        Mockito.verify(cache, Mockito.never()).evict(Mockito.anyCollectionOf(String.class));
+        Mockito.verify(cache, Mockito.never()).evictAll();
+    }
+
+    private EntitySnapshotCacheTopic newTopic(EntitySnapshotCache snapshotCache) {
+        EntitySnapshotCacheTopic newTopic = new EntitySnapshotCacheTopic();
+        newTopic.snapshotCache = snapshotCache;
+        newTopic.sendJmsMessage = Mockito.mock(SendJmsMessage.class);
+        newTopic.init();
+        return newTopic;
+    }
+
+    /**
+     * Gets the message the topic sends for the eviction
+     */
+    private EntitySnapshotCacheTopic.SnapshotInvalidation sentBy(EntitySnapshotCacheTopic sender, Collection<String> ids) {
+        Mockito.reset(sender.sendJmsMessage);
+        sender.publish(ids);
+        ArgumentCaptor<EntitySnapshotCacheTopic.SnapshotInvalidation> sent = ArgumentCaptor.forClass(EntitySnapshotCacheTopic.SnapshotInvalidation.class);
+        Mockito.verify(sender.sendJmsMessage).sendObjectToTopic(Mockito.eq(EntitySnapshotCacheTopic.TOPIC), sent.capture());
+        return sent.getValue();
+    }
+}
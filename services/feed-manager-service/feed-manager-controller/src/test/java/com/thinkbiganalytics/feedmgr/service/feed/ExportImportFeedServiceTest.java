@@ -0,0 +1,173 @@
+package com.thinkbiganalytics.feedmgr.service.feed;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.feedmgr.rest.model.FeedCategory;
+import com.thinkbiganalytics.feedmgr.rest.model.FeedMetadata;
+import com.thinkbiganalytics.feedmgr.rest.model.FeedSchedule;
+import com.thinkbiganalytics.feedmgr.rest.model.ImportFeedOptions;
+import com.thinkbiganalytics.feedmgr.rest.model.NifiFeed;
+import com.thinkbiganalytics.feedmgr.service.MetadataService;
+import com.thinkbiganalytics.feedmgr.service.UploadProgressService;
+import com.thinkbiganalytics.feedmgr.service.template.ExportImportTemplateService;
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.MetadataCommand;
+import com.thinkbiganalytics.security.AccessController;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Tests the bulk import of a multi-feed archive with the {@link ExportImportFeedService}
+ */
+public class ExportImportFeedServiceTest {
+
+    @Mock
+    private MetadataService metadataService;
+
+    @Mock
+    private MetadataAccess metadataAccess;
+
+    @Mock
+    private ExportImportTemplateService exportImportTemplateService;
+
+    @Mock
+    private AccessController accessController;
+
+    @Spy
+    private UploadProgressService uploadProgressService = new UploadProgressService();
+
+    @InjectMocks
+    private ExportImportFeedService service = new ExportImportFeedService();
+
+    private ImportFeedOptions options;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        Mockito.when(metadataAccess.commit(Mockito.any(MetadataCommand.class), Mockito.<Principal>anyVararg()))
+            .thenAnswer(invocation -> ((MetadataCommand) invocation.getArguments()[0]).execute());
+
+        options = new ImportFeedOptions();
+        options.setUploadKey("bulk");
+        uploadProgressService.newUpload("bulk");
+    }
+
+    /**
+     * Verify each feed is saved in its own transaction, and a feed that fails does not fail or resave the others.
+     */
+    @Test
+    public void testSaveImportedFeeds() {
+        ExportImportFeedService.ImportFeed feedA = newImportFeed("a");
+        ExportImportFeedService.ImportFeed feedB = newImportFeed("b");
+        ExportImportFeedService.ImportFeed feedC = newImportFeed("c");
+
+        Mockito.when(metadataService.createFeed(Mockito.any(FeedMetadata.class))).thenAnswer(invocation -> {
+            FeedMetadata metadata = (FeedMetadata) invocation.getArguments()[0];
+            if ("b".equals(metadata.getSystemFeedName())) {
+                throw new IllegalStateException("NiFi is unavailable");
+            }
+            NifiFeed nifiFeed = new NifiFeed(metadata, null);
+            nifiFeed.setSuccess(true);
+            return nifiFeed;
+        });
+
+        service.saveImportedFeeds(Arrays.asList(feedA, feedB, feedC), options);
+
+        Assert.assertTrue(feedA.isSuccess());
+        Assert.assertEquals("category.a", feedA.getFeedName());
+        Assert.assertFalse(feedB.isSuccess());
+        Assert.assertEquals(Arrays.asList("Unable to save the feed. NiFi is unavailable"), feedB.getNifiFeed().getErrorMessages());
+        Assert.assertTrue(feedC.isSuccess());
+        Assert.assertEquals("category.c", feedC.getFeedName());
+
+        Mockito.verify(metadataAccess, Mockito.times(3)).commit(Mockito.any(MetadataCommand.class), Mockito.<Principal>anyVararg());
+        Mockito.verify(metadataService, Mockito.times(3)).createFeed(Mockito.any(FeedMetadata.class));
+    }
+
+    /**
+     * Verify the upload key of each feed is discarded once the archive is validated.
+     */
+    @Test
+    public void testValidateFeedsForImportDiscardsFeedUploads() throws IOException {
+        ByteArrayOutputStream feedZip = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(feedZip)) {
+            addEntry(zos, "README.txt", "not a feed".getBytes(StandardCharsets.UTF_8));
+        }
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(archive)) {
+            addEntry(zos, "a.feed.zip", feedZip.toByteArray());
+            addEntry(zos, "b.feed.zip", feedZip.toByteArray());
+        }
+
+        ExportImportFeedService.ImportFeeds importFeeds = service.validateFeedsForImport("feeds.zip", new ByteArrayInputStream(archive.toByteArray()), options);
+
+        Assert.assertEquals(2, importFeeds.getFeeds().size());
+        Assert.assertFalse(importFeeds.isValid());
+        Mockito.verify(uploadProgressService).newUpload("bulk-0");
+        Mockito.verify(uploadProgressService).newUpload("bulk-1");
+        Assert.assertNull(uploadProgressService.getUploadStatus("bulk-0"));
+        Assert.assertNull(uploadProgressService.getUploadStatus("bulk-1"));
+        Assert.assertNotNull(uploadProgressService.getUploadStatus("bulk"));
+    }
+
+    private ExportImportFeedService.ImportFeed newImportFeed(String systemFeedName) {
+        FeedCategory category = new FeedCategory();
+        category.setSystemName("category");
+
+        FeedMetadata metadata = new FeedMetadata();
+        metadata.setCategory(category);
+        metadata.setSystemFeedName(systemFeedName);
+        metadata.setSchedule(new FeedSchedule());
+
+        ImportFeedOptions feedOptions = new ImportFeedOptions();
+        feedOptions.setUploadKey("bulk-" + systemFeedName);
+
+        ExportImportFeedService.ImportFeed feed = new ExportImportFeedService.ImportFeed(systemFeedName + ".feed.zip");
+        feed.setFeedToImport(metadata);
+        feed.setImportOptions(feedOptions);
+        feed.setTemplate(new ExportImportTemplateService.ImportTemplate("template", true));
+        feed.setValid(true);
+        return feed;
+    }
+
+    private void addEntry(ZipOutputStream zos, String name, byte[] content) throws IOException {
+        zos.putNextEntry(new ZipEntry(name));
+        zos.write(content);
+        zos.closeEntry();
+    }
+}
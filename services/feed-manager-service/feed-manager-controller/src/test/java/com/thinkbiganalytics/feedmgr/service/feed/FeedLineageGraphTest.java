@@ -0,0 +1,104 @@
+package com.thinkbiganalytics.feedmgr.service.feed;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableSet;
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.MetadataCommand;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
+import com.thinkbiganalytics.metadata.api.feed.FeedProvider;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Tests the edges and lineage queries of the {@link FeedLineageGraph}
+ */
+public class FeedLineageGraphTest {
+
+    private FeedLineageGraph graph;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        graph = new FeedLineageGraph();
+        graph.metadataEventService = Mockito.mock(MetadataEventService.class);
+        graph.metadataAccess = Mockito.mock(MetadataAccess.class);
+        Mockito.when(graph.metadataAccess.read(Mockito.any(MetadataCommand.class), Mockito.<Principal>anyVararg()))
+            .thenAnswer(invocation -> ((MetadataCommand<?>) invocation.getArguments()[0]).execute());
+        graph.feedProvider = Mockito.mock(FeedProvider.class);
+        Mockito.doReturn(Collections.emptyList()).when(graph.feedProvider).getFeeds();
+        graph.init();
+        graph.load();
+
+        // raw -> cleansed -> report, with report also depending on cleansed
+        graph.putFeed(node("raw", ImmutableSet.of(), ImmutableSet.of("files"), ImmutableSet.of("rawTable")));
+        graph.putFeed(node("cleansed", ImmutableSet.of("raw"), ImmutableSet.of("rawTable"), ImmutableSet.of("cleanTable")));
+        graph.putFeed(node("report", ImmutableSet.of("cleansed"), ImmutableSet.of("cleanTable"), ImmutableSet.of("reportTable")));
+    }
+
+    @Test
+    public void testNeighbors() {
+        Assert.assertEquals(ImmutableSet.of("raw"), graph.getDependentFeedIds("cleansed"));
+        Assert.assertEquals(ImmutableSet.of("cleansed"), graph.getUsedByFeedIds("raw"));
+        Assert.assertEquals(ImmutableSet.of("cleansed"), graph.getSourceForFeedIds("rawTable"));
+        Assert.assertEquals(ImmutableSet.of("raw"), graph.getDestinationForFeedIds("rawTable"));
+        Assert.assertTrue(graph.getUsedByFeedIds("report").isEmpty());
+        Assert.assertTrue(graph.getSourceForFeedIds("missing").isEmpty());
+    }
+
+    @Test
+    public void testUpdateReplacesInverseEdges() {
+        graph.putFeed(node("report", ImmutableSet.of("raw"), ImmutableSet.of("rawTable"), ImmutableSet.of("reportTable")));
+        Assert.assertTrue(graph.getUsedByFeedIds("cleansed").isEmpty());
+        Assert.assertEquals(ImmutableSet.of("cleansed", "report"), graph.getUsedByFeedIds("raw"));
+        Assert.assertFalse(graph.getSourceForFeedIds("cleanTable").contains("report"));
+        Assert.assertEquals(ImmutableSet.of("cleansed", "report"), graph.getSourceForFeedIds("rawTable"));
+
+        graph.removeFeed("report");
+        Assert.assertFalse(graph.containsFeed("report"));
+        Assert.assertEquals(ImmutableSet.of("cleansed"), graph.getUsedByFeedIds("raw"));
+        Assert.assertTrue(graph.getDestinationForFeedIds("reportTable").isEmpty());
+    }
+
+    @Test
+    public void testLineage() {
+        FeedLineageGraph.Lineage all = graph.getLineage("report", -1);
+        Assert.assertEquals(Arrays.asList("report", "cleansed", "raw"), Arrays.asList(all.getFeedIds().toArray()));
+        Assert.assertEquals(ImmutableSet.of("files", "rawTable", "cleanTable", "reportTable"), all.getDatasourceIds());
+
+        FeedLineageGraph.Lineage neighbors = graph.getLineage("report", 1);
+        Assert.assertEquals(ImmutableSet.of("report", "cleansed"), neighbors.getFeedIds());
+        Assert.assertEquals(ImmutableSet.of("cleanTable", "reportTable"), neighbors.getDatasourceIds());
+
+        Assert.assertEquals(ImmutableSet.of("report"), graph.getLineage("report", 0).getFeedIds());
+    }
+
+    private FeedLineageGraph.FeedNode node(String feedId, ImmutableSet<String> dependentFeedIds, ImmutableSet<String> sourceIds, ImmutableSet<String> destinationIds) {
+        return new FeedLineageGraph.FeedNode(feedId, dependentFeedIds, sourceIds, destinationIds);
+    }
+}
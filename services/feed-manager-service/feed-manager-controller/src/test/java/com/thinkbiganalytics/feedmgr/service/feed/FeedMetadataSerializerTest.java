@@ -0,0 +1,117 @@
+package com.thinkbiganalytics.feedmgr.service.feed;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.feedmgr.rest.model.FeedCategory;
+import com.thinkbiganalytics.feedmgr.rest.model.FeedMetadata;
+import com.thinkbiganalytics.feedmgr.rest.model.RegisteredTemplate;
+import com.thinkbiganalytics.json.ObjectMapperSerializer;
+import com.thinkbiganalytics.metadata.rest.model.data.Datasource;
+import com.thinkbiganalytics.metadata.rest.model.data.HiveTableDatasource;
+import com.thinkbiganalytics.nifi.rest.model.NifiProperty;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Tests the binary form of the feed metadata written by the {@link FeedMetadataSerializer}
+ */
+public class FeedMetadataSerializerTest {
+
+    @Test
+    public void testRoundTrip() {
+        FeedMetadata feed = createFeed(10);
+        FeedMetadata copy = FeedMetadataSerializer.deserialize(FeedMetadataSerializer.serialize(feed), null);
+        Assert.assertEquals(ObjectMapperSerializer.serialize(feed), ObjectMapperSerializer.serialize(copy));
+    }
+
+    /**
+     * Verify the Joda dates in the feed metadata are read back from the binary form the same as from the JSON
+     */
+    @Test
+    public void testRoundTripDates() {
+        FeedMetadata feed = createFeed(1);
+        feed.setCreateDate(new Date(1500000000000L));
+        HiveTableDatasource datasource = new HiveTableDatasource("datasource", "database", "table");
+        datasource.setCreationTime(new DateTime(1500000000123L, DateTimeZone.UTC));
+        feed.setUserDatasources(Collections.singletonList(datasource));
+
+        FeedMetadata copy = FeedMetadataSerializer.deserialize(FeedMetadataSerializer.serialize(feed), null);
+        Assert.assertEquals(feed.getCreateDate(), copy.getCreateDate());
+        Datasource copyDatasource = copy.getUserDatasources().get(0);
+        Assert.assertTrue(copyDatasource instanceof HiveTableDatasource);
+        Assert.assertEquals(datasource.getCreationTime().getMillis(), copyDatasource.getCreationTime().getMillis());
+
+        FeedMetadata jsonCopy = FeedMetadataSerializer.deserialize(null, ObjectMapperSerializer.serialize(feed));
+        Assert.assertEquals(jsonCopy.getUserDatasources().get(0).getCreationTime().getMillis(), copyDatasource.getCreationTime().getMillis());
+        Assert.assertEquals(ObjectMapperSerializer.serialize(jsonCopy), ObjectMapperSerializer.serialize(copy));
+    }
+
+    @Test
+    public void testJsonFallback() {
+        FeedMetadata feed = createFeed(1);
+        FeedMetadata copy = FeedMetadataSerializer.deserialize(null, ObjectMapperSerializer.serialize(feed));
+        Assert.assertEquals("category.feed", copy.getCategoryAndFeedName());
+        Assert.assertEquals(1, copy.getProperties().size());
+        Assert.assertNull(FeedMetadataSerializer.deserialize(null, null));
+    }
+
+    @Test
+    public void testBinaryIsSmallerThanJson() {
+        FeedMetadata feed = createFeed(200);
+        byte[] binary = FeedMetadataSerializer.serialize(feed);
+        Assert.assertTrue("binary form should be smaller than json", binary.length < ObjectMapperSerializer.serialize(feed).getBytes().length);
+        Assert.assertEquals(200, FeedMetadataSerializer.deserialize(binary, null).getProperties().size());
+    }
+
+    private FeedMetadata createFeed(int propertyCount) {
+        FeedCategory category = new FeedCategory();
+        category.setId("category1");
+        category.setSystemName("category");
+
+        RegisteredTemplate template = new RegisteredTemplate();
+        template.setId("template1");
+        template.setProperties(new ArrayList<>());
+
+        FeedMetadata feed = new FeedMetadata();
+        feed.setId("feed1");
+        feed.setSystemFeedName("feed");
+        feed.setCategory(category);
+        feed.setRegisteredTemplate(template);
+        feed.setDescription("description");
+        List<NifiProperty> properties = new ArrayList<>();
+        for (int i = 0; i < propertyCount; i++) {
+            NifiProperty property = new NifiProperty("group", "processor" + (i % 10), "key" + i, "value" + i);
+            property.setProcessorName("processor" + (i % 10));
+            property.setProcessorType("com.thinkbiganalytics.nifi.GetTableData");
+            properties.add(property);
+        }
+        feed.setProperties(properties);
+        return feed;
+    }
+}
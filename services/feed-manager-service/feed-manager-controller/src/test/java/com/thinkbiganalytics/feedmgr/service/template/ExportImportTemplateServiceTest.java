@@ -0,0 +1,174 @@
+package com.thinkbiganalytics.feedmgr.service.template;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.feedmgr.rest.model.RegisteredTemplate;
+import com.thinkbiganalytics.feedmgr.rest.model.RegisteredTemplateRequest;
+import com.thinkbiganalytics.feedmgr.rest.model.ReusableTemplateConnectionInfo;
+import com.thinkbiganalytics.json.ObjectMapperSerializer;
+import com.thinkbiganalytics.nifi.rest.client.LegacyNifiRestClient;
+import com.thinkbiganalytics.nifi.rest.client.NifiComponentNotFoundException;
+import com.thinkbiganalytics.security.AccessController;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.nifi.web.api.dto.TemplateDTO;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Tests streaming a template export with the {@link ExportImportTemplateService}
+ */
+public class ExportImportTemplateServiceTest {
+
+    @Mock
+    private LegacyNifiRestClient nifiRestClient;
+
+    @Mock
+    private AccessController accessController;
+
+    @Mock
+    private RegisteredTemplateService registeredTemplateService;
+
+    @InjectMocks
+    private ExportImportTemplateService service = new ExportImportTemplateService();
+
+    private RegisteredTemplate template;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+
+        template = new RegisteredTemplate();
+        template.setTemplateName("My Template");
+        template.setNifiTemplateId("nifi-template");
+        Mockito.when(registeredTemplateService.findRegisteredTemplate(Mockito.any(RegisteredTemplateRequest.class))).thenReturn(template);
+    }
+
+    /**
+     * Verify the export is written entry by entry, and each NiFi template is downloaded exactly once.
+     */
+    @Test
+    public void testExportTemplate() throws IOException {
+        ReusableTemplateConnectionInfo connection = new ReusableTemplateConnectionInfo();
+        connection.setReusableTemplateInputPortName("input");
+        template.setReusableTemplateConnections(Collections.singletonList(connection));
+        Mockito.when(nifiRestClient.getTemplateIdsMatchingInputPortName("input")).thenReturn(Collections.singleton("reusable-template"));
+        Mockito.when(nifiRestClient.getTemplateXml("nifi-template")).thenReturn("<template>main</template>");
+        Mockito.when(nifiRestClient.getTemplateXml("reusable-template")).thenReturn("<template>reusable</template>");
+
+        ExportImportTemplateService.ExportTemplate export = service.exportTemplate("template-id");
+        Assert.assertEquals("my_template.template.zip", export.getFileName());
+        Mockito.verify(nifiRestClient, Mockito.never()).getTemplateXml("reusable-template");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.writeTo(out);
+
+        Map<String, String> entries = readEntries(out.toByteArray());
+        Assert.assertEquals(Arrays.asList(ExportImportTemplateService.NIFI_TEMPLATE_XML_FILE, ExportImportTemplateService.NIFI_CONNECTING_REUSABLE_TEMPLATE_XML_FILE + "_0.xml",
+                                          ExportImportTemplateService.TEMPLATE_JSON_FILE), new ArrayList<>(entries.keySet()));
+        Assert.assertEquals("<template>main</template>", entries.get(ExportImportTemplateService.NIFI_TEMPLATE_XML_FILE));
+        Assert.assertEquals("<template>reusable</template>", entries.get(ExportImportTemplateService.NIFI_CONNECTING_REUSABLE_TEMPLATE_XML_FILE + "_0.xml"));
+        Assert.assertEquals("My Template", ObjectMapperSerializer.deserialize(entries.get(ExportImportTemplateService.TEMPLATE_JSON_FILE), RegisteredTemplate.class).getTemplateName());
+
+        Mockito.verify(nifiRestClient).getTemplateXml("nifi-template");
+        Mockito.verify(nifiRestClient).getTemplateXml("reusable-template");
+        Mockito.verify(nifiRestClient, Mockito.never()).getTemplateById(Mockito.anyString());
+    }
+
+    /**
+     * Verify the NiFi template is found by name when the registered NiFi template id no longer exists.
+     */
+    @Test
+    public void testExportTemplateByName() throws IOException {
+        TemplateDTO templateDTO = new TemplateDTO();
+        templateDTO.setId("renamed-template");
+        Mockito.when(nifiRestClient.getTemplateXml("nifi-template")).thenThrow(new NifiComponentNotFoundException("nifi-template", null, null));
+        Mockito.when(nifiRestClient.getTemplateByName("My Template")).thenReturn(templateDTO);
+        Mockito.when(nifiRestClient.getTemplateXml("renamed-template")).thenReturn("<template>renamed</template>");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.exportTemplate("template-id").writeTo(out);
+
+        Assert.assertEquals("<template>renamed</template>", readEntries(out.toByteArray()).get(ExportImportTemplateService.NIFI_TEMPLATE_XML_FILE));
+        Mockito.verify(nifiRestClient).getTemplateXml("renamed-template");
+    }
+
+    /**
+     * Verify a missing NiFi template fails the export before anything is written.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testExportTemplateNotFound() {
+        Mockito.when(nifiRestClient.getTemplateXml("nifi-template")).thenThrow(new NifiComponentNotFoundException("nifi-template", null, null));
+        service.exportTemplate("template-id");
+    }
+
+    /**
+     * Verify an error downloading a reusable template while streaming is thrown as an {@link IOException}.
+     */
+    @Test
+    public void testExportTemplateReusableTemplateError() {
+        ReusableTemplateConnectionInfo connection = new ReusableTemplateConnectionInfo();
+        connection.setReusableTemplateInputPortName("input");
+        template.setReusableTemplateConnections(Collections.singletonList(connection));
+        Mockito.when(nifiRestClient.getTemplateIdsMatchingInputPortName("input")).thenReturn(Collections.singleton("reusable-template"));
+        Mockito.when(nifiRestClient.getTemplateXml("nifi-template")).thenReturn("<template>main</template>");
+        Mockito.when(nifiRestClient.getTemplateXml("reusable-template")).thenThrow(new NifiComponentNotFoundException("reusable-template", null, null));
+
+        ExportImportTemplateService.ExportTemplate export = service.exportTemplate("template-id");
+        try {
+            export.writeTo(new ByteArrayOutputStream());
+            Assert.fail("Expected IOException");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getCause() instanceof NifiComponentNotFoundException);
+        }
+    }
+
+    /**
+     * Read the zip entries, in order, as a map of entry name to content
+     */
+    private Map<String, String> readEntries(byte[] zip) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                entries.put(entry.getName(), IOUtils.toString(zis, StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+}
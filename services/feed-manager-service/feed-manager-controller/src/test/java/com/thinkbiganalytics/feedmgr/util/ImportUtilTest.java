@@ -0,0 +1,107 @@
+package com.thinkbiganalytics.feedmgr.util;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Tests reading the feed files of a multi-feed archive with the {@link ImportUtil}
+ */
+public class ImportUtilTest {
+
+    @Test
+    public void testReadZipEntries() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+            addEntry(zos, "feeds/", null);
+            addEntry(zos, "feeds/b.feed.zip", "feed b");
+            addEntry(zos, "README.txt", "not a feed");
+            addEntry(zos, "a.FEED.ZIP", "feed a");
+        }
+
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        int count = ImportUtil.readZipEntries(new ByteArrayInputStream(baos.toByteArray()), ".feed.zip", entries::put);
+        Assert.assertEquals(2, count);
+        Assert.assertEquals(Arrays.asList("feeds/b.feed.zip", "a.FEED.ZIP"), Arrays.asList(entries.keySet().toArray()));
+        Assert.assertEquals("feed b", new String(entries.get("feeds/b.feed.zip"), StandardCharsets.UTF_8));
+        Assert.assertEquals("feed a", new String(entries.get("a.FEED.ZIP"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReadZipEntriesEmpty() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+            addEntry(zos, "feed.json", "{}");
+        }
+        Assert.assertEquals(0, ImportUtil.readZipEntries(new ByteArrayInputStream(baos.toByteArray()), ".feed.zip", (name, content) -> Assert.fail("Unexpected entry " + name)));
+    }
+
+    /**
+     * Verify each entry is handled as it is read, before the entries after it are read from the stream
+     */
+    @Test
+    public void testReadZipEntriesStreams() throws IOException {
+        byte[] content = new byte[64 * 1024];
+        new Random(0).nextBytes(content);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+            for (int i = 0; i < 4; i++) {
+                zos.putNextEntry(new ZipEntry(i + ".feed.zip"));
+                zos.write(content);
+                zos.closeEntry();
+            }
+        }
+        byte[] zip = baos.toByteArray();
+
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(zip);
+        List<Integer> remainingWhenHandled = new ArrayList<>();
+        ImportUtil.readZipEntries(inputStream, ".feed.zip", (name, entryContent) -> {
+            Assert.assertArrayEquals(content, entryContent);
+            remainingWhenHandled.add(inputStream.available());
+        });
+
+        Assert.assertEquals(4, remainingWhenHandled.size());
+        Assert.assertTrue(remainingWhenHandled.get(0) > 2 * content.length);
+        Assert.assertTrue(remainingWhenHandled.get(2) < remainingWhenHandled.get(1));
+    }
+
+    private void addEntry(ZipOutputStream zos, String name, String content) throws IOException {
+        zos.putNextEntry(new ZipEntry(name));
+        if (content != null) {
+            zos.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        zos.closeEntry();
+    }
+}
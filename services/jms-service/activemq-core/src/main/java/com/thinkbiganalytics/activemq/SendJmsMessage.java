@@ -20,6 +20,10 @@ package com.thinkbiganalytics.activemq;
  * #L%
  */
 
+import com.thinkbiganalytics.activemq.codec.JmsMessageCodec;
+import com.thinkbiganalytics.activemq.config.ActiveMqConstants;
+
+import org.apache.activemq.command.ActiveMQTopic;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,6 +36,7 @@ import org.springframework.stereotype.Component;
 
 import java.io.Serializable;
 
+import javax.jms.BytesMessage;
 import javax.jms.JMSException;
 import javax.jms.Session;
 import javax.jms.TextMessage;
@@ -64,21 +69,62 @@ public class SendJmsMessage {
 
     }
 
+    /**
+     * Send the object as a BytesMessage encoded with the supplied codec.
+     * The name of the codec is set as the {@link ActiveMqConstants#CODEC_PROPERTY} so the listener can decode it.
+     * If no codec is supplied the object is sent as a serialized ObjectMessage via {@link #sendSerializedObjectToQueue(String, Serializable)}
+     *
+     * @param queueName the queue to send to
+     * @param obj       the object to send
+     * @param codec     the codec used to encode the object
+     */
+    public void sendEncodedObjectToQueue(String queueName, final Serializable obj, final JmsMessageCodec codec) throws JmsException {
+        if (codec == null) {
+            sendSerializedObjectToQueue(queueName, obj);
+            return;
+        }
+        final byte[] bytes = codec.encode(obj);
+        log.info("Sending ActiveMQ message [" + obj + "] to queue [" + queueName + "] as " + bytes.length + " bytes using the " + codec.getName() + " codec");
+        MessageCreator creator = new MessageCreator() {
+            @Override
+            public javax.jms.Message createMessage(Session session) throws JMSException {
+                BytesMessage message = session.createBytesMessage();
+                message.setStringProperty(ActiveMqConstants.CODEC_PROPERTY, codec.getName());
+                message.writeBytes(bytes);
+                return message;
+            }
+        };
+        this.jmsMessagingTemplate.getJmsTemplate().send(queueName, creator);
+    }
+
 
     private void sendObjectToQueue(String queueName, final Object obj, final String objectClassType) throws JmsException {
         log.info("Sending ActiveMQ message [" + obj + "] to queue [" + queueName + "]");
-        MessageCreator creator = new MessageCreator() {
-            TextMessage message = null;
+        this.jmsMessagingTemplate.getJmsTemplate().send(queueName, jsonMessageCreator(obj, objectClassType));
+    }
+
+    /**
+     * Send the object as a JSON TextMessage to every subscriber of the topic.
+     * The class name of the object is set as the {@link ActiveMqConstants#JAVA_TYPE_PROPERTY} so the listener can read it.
+     *
+     * @param topicName the topic to send to
+     * @param obj       the object to send
+     */
+    public void sendObjectToTopic(String topicName, final Object obj) throws JmsException {
+        log.debug("Sending ActiveMQ message [" + obj + "] to topic [" + topicName + "]");
+        this.jmsMessagingTemplate.getJmsTemplate().send(new ActiveMQTopic(topicName), jsonMessageCreator(obj, obj.getClass().getName()));
+    }
 
+    private MessageCreator jsonMessageCreator(final Object obj, final String objectClassType) {
+        return new MessageCreator() {
             @Override
             public javax.jms.Message createMessage(Session session) throws JMSException {
-                message = session.createTextMessage();
-                message.setStringProperty("jms_javatype", objectClassType);
+                TextMessage message = session.createTextMessage();
+                message.setStringProperty(ActiveMqConstants.JAVA_TYPE_PROPERTY, objectClassType);
                 message.setText(objectMapperSerializer.serialize(obj));
                 return message;
             }
         };
-        this.jmsMessagingTemplate.getJmsTemplate().send(queueName, creator);
     }
 
     public boolean testJmsIsRunning() {
@@ -0,0 +1,118 @@
+package com.thinkbiganalytics.activemq.codec;
+
+/*-
+ * #%L
+ * thinkbig-activemq-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.activemq.ObjectMapperSerializer;
+import com.thinkbiganalytics.activemq.config.ActiveMqConstants;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.SimpleMessageConverter;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.TextMessage;
+
+/**
+ * Message converter for JMS listeners that accepts messages in any of the supported wire formats.
+ *
+ * <ul>
+ * <li>BytesMessages with the {@link ActiveMqConstants#CODEC_PROPERTY} property are decoded by the registered {@link JmsMessageCodec} of that name</li>
+ * <li>TextMessages with the {@link ActiveMqConstants#JAVA_TYPE_PROPERTY} property are read as JSON into that type</li>
+ * <li>everything else (i.e. ObjectMessages) is converted by the {@link SimpleMessageConverter}</li>
+ * </ul>
+ */
+public class CodecMessageConverter extends SimpleMessageConverter {
+
+    private static final Logger log = LoggerFactory.getLogger(CodecMessageConverter.class);
+
+    private final Map<String, JmsMessageCodec> codecs = new ConcurrentHashMap<>();
+
+    private final ObjectMapperSerializer objectMapperSerializer;
+
+    /**
+     * Create the converter with the default {@link CompactBinaryJmsMessageCodec} codecs registered
+     *
+     * @param objectMapperSerializer the serializer used to read JSON messages
+     */
+    public CodecMessageConverter(ObjectMapperSerializer objectMapperSerializer) {
+        this.objectMapperSerializer = objectMapperSerializer;
+        register(new CompactBinaryJmsMessageCodec(false));
+        register(new CompactBinaryJmsMessageCodec(true));
+    }
+
+    /**
+     * Register a codec, replacing any codec already registered with the same name
+     *
+     * @param codec the codec
+     */
+    public void register(JmsMessageCodec codec) {
+        codecs.put(codec.getName(), codec);
+    }
+
+    public void registerAll(Collection<JmsMessageCodec> codecs) {
+        if (codecs != null) {
+            codecs.forEach(this::register);
+        }
+    }
+
+    /**
+     * @param name the name of the codec
+     * @return the codec registered with the name, or null if none is registered
+     */
+    public JmsMessageCodec getCodec(String name) {
+        return codecs.get(name);
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws JMSException, MessageConversionException {
+        String codecName = message.getStringProperty(ActiveMqConstants.CODEC_PROPERTY);
+        if (StringUtils.hasText(codecName) && message instanceof BytesMessage) {
+            JmsMessageCodec codec = codecs.get(codecName);
+            if (codec == null) {
+                throw new MessageConversionException("Unable to decode JMS message " + message.getJMSMessageID() + ". No codec is registered with the name " + codecName);
+            }
+            BytesMessage bytesMessage = (BytesMessage) message;
+            byte[] bytes = new byte[(int) bytesMessage.getBodyLength()];
+            bytesMessage.readBytes(bytes);
+            return codec.decode(bytes);
+        }
+
+        String javaType = message.getStringProperty(ActiveMqConstants.JAVA_TYPE_PROPERTY);
+        if (StringUtils.hasText(javaType) && message instanceof TextMessage) {
+            try {
+                Class<?> type = ClassUtils.forName(javaType, Thread.currentThread().getContextClassLoader());
+                return objectMapperSerializer.deserialize(((TextMessage) message).getText(), type);
+            } catch (ClassNotFoundException e) {
+                log.debug("Unable to find the class {} for JSON message {}.  Returning the text ", javaType, message.getJMSMessageID());
+            }
+        }
+        return super.fromMessage(message);
+    }
+}
@@ -0,0 +1,229 @@
+package com.thinkbiganalytics.activemq.codec;
+
+/*-
+ * #%L
+ * thinkbig-activemq-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.springframework.core.ConfigurableObjectInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Binary codec that writes the object graph with Java serialization using a string dictionary, optionally deflating the result.
+ *
+ * Provenance events repeat the same feed names, process group ids, component ids and attribute names/values many times in a single message.
+ * Each distinct string value is written once and every repeat is written as a back reference to the first occurrence instead of the full value.
+ *
+ * Two codecs are registered by default: {@link #BINARY} and {@link #BINARY_DEFLATE}.
+ *
+ * Messages are read from a broker that any client may write to, so decoding only resolves the classes in the {@link #DEFAULT_ALLOWED_PACKAGES}, or the packages given
+ * to the constructor.  Any other class in the stream, including proxies, fails the decode before it is instantiated.
+ */
+public class CompactBinaryJmsMessageCodec implements JmsMessageCodec {
+
+    /**
+     * Name of the uncompressed codec
+     */
+    public static final String BINARY = "binary";
+
+    /**
+     * Name of the deflate compressed codec
+     */
+    public static final String BINARY_DEFLATE = "binary-deflate";
+
+    /**
+     * The packages of the classes that may be decoded: the Kylo messages and the JDK and Joda-Time types they contain
+     */
+    public static final List<String> DEFAULT_ALLOWED_PACKAGES = Collections.unmodifiableList(Arrays.asList("com.thinkbiganalytics.", "java.lang.", "java.util.", "org.joda.time."));
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String name;
+
+    /**
+     * the package prefixes of the classes that may be decoded
+     */
+    private final List<String> allowedPackages;
+
+    /**
+     * the {@link Deflater} compression level, or -1 if the message should not be compressed
+     */
+    private final int compressionLevel;
+
+    /**
+     * @param compress true to deflate the encoded bytes
+     */
+    public CompactBinaryJmsMessageCodec(boolean compress) {
+        this(compress ? BINARY_DEFLATE : BINARY, compress ? Deflater.BEST_SPEED : -1);
+    }
+
+    /**
+     * @param name             the name of the codec
+     * @param compressionLevel the {@link Deflater} compression level, or -1 to not compress
+     */
+    public CompactBinaryJmsMessageCodec(String name, int compressionLevel) {
+        this(name, compressionLevel, DEFAULT_ALLOWED_PACKAGES);
+    }
+
+    /**
+     * @param name             the name of the codec
+     * @param compressionLevel the {@link Deflater} compression level, or -1 to not compress
+     * @param allowedPackages  the package prefixes, ending with a dot, of the classes that may be decoded
+     */
+    public CompactBinaryJmsMessageCodec(String name, int compressionLevel, List<String> allowedPackages) {
+        this.name = name;
+        this.compressionLevel = compressionLevel;
+        this.allowedPackages = allowedPackages;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public boolean isCompressed() {
+        return compressionLevel >= 0;
+    }
+
+    @Override
+    public byte[] encode(Serializable obj) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(BUFFER_SIZE);
+        Deflater deflater = isCompressed() ? new Deflater(compressionLevel) : null;
+        try {
+            OutputStream out = deflater != null ? new DeflaterOutputStream(bytes, deflater, BUFFER_SIZE) : bytes;
+            try (ObjectOutputStream objectOut = new StringDictionaryOutputStream(out)) {
+                objectOut.writeObject(obj);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error encoding object with the " + name + " codec", e);
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public Object decode(byte[] bytes) {
+        Inflater inflater = isCompressed() ? new Inflater() : null;
+        try {
+            InputStream in = new ByteArrayInputStream(bytes);
+            if (inflater != null) {
+                in = new InflaterInputStream(in, inflater, BUFFER_SIZE);
+            }
+            try (ObjectInputStream objectIn = new AllowedClassesInputStream(in, allowedPackages)) {
+                return objectIn.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException("Error decoding object with the " + name + " codec", e);
+        } finally {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+    }
+
+    /**
+     * Only resolves the classes in the allowed packages, and arrays of them, using the context class loader
+     */
+    private static class AllowedClassesInputStream extends ConfigurableObjectInputStream {
+
+        private final List<String> allowedPackages;
+
+        AllowedClassesInputStream(InputStream in, List<String> allowedPackages) throws IOException {
+            super(in, Thread.currentThread().getContextClassLoader());
+            this.allowedPackages = allowedPackages;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass classDesc) throws IOException, ClassNotFoundException {
+            if (!isAllowed(classDesc.getName())) {
+                throw new InvalidClassException(classDesc.getName(), "Class is not allowed to be decoded");
+            }
+            return super.resolveClass(classDesc);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+            throw new InvalidClassException("Proxy classes are not allowed to be decoded: " + Arrays.toString(interfaces));
+        }
+
+        private boolean isAllowed(String className) {
+            // array class names are the element type prefixed by a [ for each dimension, with object types written as Lname;
+            String elementName = className;
+            while (elementName.startsWith("[")) {
+                elementName = elementName.substring(1);
+            }
+            if (elementName.length() == 1) {
+                return true;  // primitive array
+            }
+            if (elementName.startsWith("L") && elementName.endsWith(";")) {
+                elementName = elementName.substring(1, elementName.length() - 1);
+            }
+            for (String allowedPackage : allowedPackages) {
+                if (elementName.startsWith(allowedPackage)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Replaces every string with the first equal string written to the stream.
+     * Serialization writes repeated references to the same instance as a handle to the earlier object, so equal strings are only written once.
+     */
+    private static class StringDictionaryOutputStream extends ObjectOutputStream {
+
+        private final Map<String, String> dictionary = new HashMap<>();
+
+        StringDictionaryOutputStream(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+            if (obj instanceof String) {
+                String existing = dictionary.putIfAbsent((String) obj, (String) obj);
+                return existing != null ? existing : obj;
+            }
+            return obj;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.thinkbiganalytics.activemq.codec;
+
+/*-
+ * #%L
+ * thinkbig-activemq-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Serializable;
+
+/**
+ * Encodes objects into the body of a JMS BytesMessage and decodes them on the receiving side.
+ *
+ * The name of the codec is sent with each message in the {@link com.thinkbiganalytics.activemq.config.ActiveMqConstants#CODEC_PROPERTY} property
+ * so the consumer can decode the message with the same codec the producer used.
+ */
+public interface JmsMessageCodec {
+
+    /**
+     * @return the unique name of this codec sent as the message property
+     */
+    String getName();
+
+    /**
+     * Encode the object to bytes
+     *
+     * @param obj the object to encode
+     * @return the encoded bytes
+     */
+    byte[] encode(Serializable obj);
+
+    /**
+     * Decode bytes produced by {@link #encode(Serializable)}
+     *
+     * @param bytes the encoded bytes
+     * @return the decoded object
+     */
+    Object decode(byte[] bytes);
+}
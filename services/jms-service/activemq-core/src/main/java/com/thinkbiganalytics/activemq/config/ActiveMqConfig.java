@@ -21,6 +21,8 @@ package com.thinkbiganalytics.activemq.config;
  */
 
 import com.thinkbiganalytics.activemq.ObjectMapperSerializer;
+import com.thinkbiganalytics.activemq.codec.CodecMessageConverter;
+import com.thinkbiganalytics.activemq.codec.JmsMessageCodec;
 
 import org.apache.activemq.ActiveMQConnectionFactory;
 import org.apache.activemq.pool.PooledConnectionFactory;
@@ -39,7 +41,8 @@ import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
 import org.springframework.jms.config.JmsListenerContainerFactory;
 import org.springframework.jms.connection.UserCredentialsConnectionFactoryAdapter;
 import org.springframework.jms.core.JmsMessagingTemplate;
-import org.springframework.jms.support.converter.SimpleMessageConverter;
+
+import java.util.List;
 
 import javax.jms.ConnectionFactory;
 
@@ -60,6 +63,12 @@ public class ActiveMqConfig {
     @Autowired
     private Environment env;
 
+    /**
+     * Any additional codecs defined in the application context that listeners should be able to decode
+     */
+    @Autowired(required = false)
+    private List<JmsMessageCodec> messageCodecs;
+
     @Bean
     public ConnectionFactory connectionFactory() {
         ActiveMQConnectionFactory factory = new ActiveMQConnectionFactory(env.getProperty("jms.activemq.broker.url"));
@@ -82,7 +91,20 @@ public class ActiveMqConfig {
         factory.setClientId(env.getProperty("jms.client.id:thinkbig.feedmgr"));
         factory.setConcurrency("1-1");
         factory.setConnectionFactory(connectionFactory);
-        factory.setMessageConverter(new SimpleMessageConverter());
+        factory.setMessageConverter(codecMessageConverter());
+        return factory;
+    }
+
+    /**
+     * Listener container factory for topics.  No client id is set, so every node gets each message through its own non-durable subscription.
+     */
+    @Bean(name = ActiveMqConstants.JMS_TOPIC_CONTAINER_FACTORY)
+    public JmsListenerContainerFactory<?> jmsTopicContainerFactory(ConnectionFactory connectionFactory) {
+        DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
+        factory.setPubSubDomain(true);
+        factory.setConnectionFactory(connectionFactory);
+        factory.setConcurrency("1-1");
+        factory.setMessageConverter(codecMessageConverter());
         return factory;
     }
 
@@ -106,6 +128,16 @@ public class ActiveMqConfig {
     }
 
 
+    /**
+     * Converter used by the listeners to accept ObjectMessages, JSON TextMessages and BytesMessages encoded with a {@link JmsMessageCodec}
+     */
+    @Bean
+    public CodecMessageConverter codecMessageConverter() {
+        CodecMessageConverter converter = new CodecMessageConverter(objectMapperSerializer());
+        converter.registerAll(messageCodecs);
+        return converter;
+    }
+
     @Bean
     @Qualifier("jmsTemplate")
     public JmsMessagingTemplate jmsMessagingTemplate(ConnectionFactory connectionFactory) {
@@ -26,4 +26,19 @@ public interface ActiveMqConstants {
 
     String JMS_CONTAINER_FACTORY = "jmsContainerFactory";
 
+    /**
+     * Listener container factory for topics.  Each node subscribes with its own non-durable subscription.
+     */
+    String JMS_TOPIC_CONTAINER_FACTORY = "jmsTopicContainerFactory";
+
+    /**
+     * Message property holding the name of the {@link com.thinkbiganalytics.activemq.codec.JmsMessageCodec} used to encode a BytesMessage
+     */
+    String CODEC_PROPERTY = "kylo_codec";
+
+    /**
+     * Message property holding the class name of an object sent as a JSON TextMessage
+     */
+    String JAVA_TYPE_PROPERTY = "jms_javatype";
+
 }
@@ -29,6 +29,7 @@ import com.thinkbiganalytics.metadata.api.sla.FeedExecutedSinceFeed;
 import com.thinkbiganalytics.metadata.api.sla.FeedExecutedSinceSchedule;
 import com.thinkbiganalytics.metadata.api.sla.WithinSchedule;
 import com.thinkbiganalytics.metadata.modeshape.JcrMetadataAccess;
+import com.thinkbiganalytics.metadata.modeshape.JcrSessionPool;
 import com.thinkbiganalytics.metadata.modeshape.support.JcrTool;
 import com.thinkbiganalytics.metadata.rest.model.data.Datasource;
 import com.thinkbiganalytics.metadata.rest.model.data.HiveTableDatasource;
@@ -81,6 +82,9 @@ public class DebugController {
     @Inject
     private MetadataEventService eventService;
 
+    @Inject
+    private JcrMetadataAccess jcrMetadataAccess;
+
     /**
      * Allows the caller to update status events for the feed
      *
@@ -141,6 +145,18 @@ public class DebugController {
         return metrics;
     }
 
+    /**
+     * returns the usage statistics of the sessions used by read-only metadata transactions
+     *
+     * @return the session pool statistics
+     */
+    @GET
+    @Path("jcr-session-pool")
+    @Produces(MediaType.APPLICATION_JSON)
+    public JcrSessionPool.Statistics getReadSessionPoolStatistics() {
+        return jcrMetadataAccess.getReadSessionPoolStatistics();
+    }
+
     /**
      * returns a new feed precondition model for debugging
      *
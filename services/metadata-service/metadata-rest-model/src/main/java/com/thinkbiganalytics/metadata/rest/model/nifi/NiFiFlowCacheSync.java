@@ -45,6 +45,11 @@ public class NiFiFlowCacheSync {
     private String message;
     private boolean updated = false;
 
+    /**
+     * the version of the flow cache this sync has been brought up to, or null if it has never been synced
+     */
+    private Long version;
+
     public NiFiFlowCacheSync() {
         this((NifiFlowCacheSnapshot) null);
     }
@@ -162,6 +167,15 @@ public class NiFiFlowCacheSync {
     public void reset() {
         this.snapshot = null;
         this.lastSync = null;
+        this.version = null;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
     }
 
     public String getSyncId() {
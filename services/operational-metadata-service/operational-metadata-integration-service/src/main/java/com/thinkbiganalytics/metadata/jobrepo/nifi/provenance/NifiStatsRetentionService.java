@@ -0,0 +1,112 @@
+package com.thinkbiganalytics.metadata.jobrepo.nifi.provenance;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-integration-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiFeedProcessorStatisticsProvider;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+/**
+ * Periodically deletes the raw NiFi feed processor statistics, and optionally the minute rollups, older than the configured retention.
+ * The hour and day rollups are always kept so the dashboard charts over long time frames are unaffected.
+ *
+ * A retention of 0 days keeps the rows forever.
+ */
+public class NifiStatsRetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(NifiStatsRetentionService.class);
+
+    @Inject
+    private NifiFeedProcessorStatisticsProvider nifiFeedProcessorStatisticsProvider;
+
+    @Inject
+    private MetadataAccess metadataAccess;
+
+    /**
+     * the number of days to keep the raw stats
+     */
+    @Value("${kylo.ops.mgr.stats.raw.retention.days:0}")
+    private int rawRetentionDays;
+
+    /**
+     * the number of days to keep the minute rollups of the stats
+     */
+    @Value("${kylo.ops.mgr.stats.minute.rollup.retention.days:0}")
+    private int minuteRollupRetentionDays;
+
+    /**
+     * how often to delete the expired stats
+     */
+    @Value("${kylo.ops.mgr.stats.retention.interval.minutes:60}")
+    private int intervalMinutes;
+
+    private ScheduledExecutorService executorService;
+
+    @PostConstruct
+    private void init() {
+        if (rawRetentionDays <= 0 && minuteRollupRetentionDays <= 0) {
+            log.info("NiFi feed processor statistics retention is disabled.");
+            return;
+        }
+        executorService = Executors.newSingleThreadScheduledExecutor();
+        executorService.scheduleWithFixedDelay(this::deleteExpiredStats, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Delete the raw stats and minute rollups older than their retention
+     */
+    public void deleteExpiredStats() {
+        try {
+            DateTime now = DateTime.now();
+            if (rawRetentionDays > 0) {
+                DateTime before = now.minusDays(rawRetentionDays);
+                int deleted = metadataAccess.commit(() -> nifiFeedProcessorStatisticsProvider.deleteStatisticsBefore(before), MetadataAccess.SERVICE);
+                log.info("Deleted {} NiFi feed processor statistics before {} ", deleted, before);
+            }
+            if (minuteRollupRetentionDays > 0) {
+                DateTime before = now.minusDays(minuteRollupRetentionDays);
+                int deleted = metadataAccess.commit(() -> nifiFeedProcessorStatisticsProvider.deleteMinuteRollupsBefore(before), MetadataAccess.SERVICE);
+                log.info("Deleted {} NiFi feed processor statistics minute rollups before {} ", deleted, before);
+            }
+        } catch (Exception e) {
+            log.error("Error deleting the expired NiFi feed processor statistics ", e);
+        }
+    }
+}
@@ -56,6 +56,8 @@ import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -112,6 +114,12 @@ public class ProvenanceEventReceiver implements FailedStepExecutionListener, Del
     LoadingCache<String, OpsManagerFeed> opsManagerFeedCache = null;
     @Value("${kylo.ops.mgr.query.nifi.bulletins:false}")
     private boolean queryForNiFiBulletins;
+    /**
+     * Persist all the events in a JMS message in a single transaction.
+     * If false, or if the batch transaction fails, each event is persisted in its own transactions
+     */
+    @Value("${kylo.ops.mgr.provenance.batch.ingest:true}")
+    private boolean batchIngest = true;
     @Inject
     private NifiEventProvider nifiEventProvider;
     @Inject
@@ -128,6 +136,7 @@ public class ProvenanceEventReceiver implements FailedStepExecutionListener, Del
      * The amount of retry attempts the system will do if it gets a LockAcquisitionException
      * MySQL may fail to lock the table when performing inserts into the database resulting in a deadlock exception.
      * When processing each event the LockAcquisitionException is caught and a retry attempt is done, retrying to process the event this amount of times before giving up.
+     * Creation of a job execution is locked per job flow file by the {@link BatchJobExecutionProvider} so this should only happen for unrelated database contention.
      */
     private int lockAcquisitionRetryAmount = 4;
 
@@ -183,10 +192,71 @@ public class ProvenanceEventReceiver implements FailedStepExecutionListener, Del
     @JmsListener(destination = Queues.FEED_MANAGER_QUEUE, containerFactory = ActiveMqConstants.JMS_CONTAINER_FACTORY, concurrency = "3-10")
     public void receiveEvents(ProvenanceEventRecordDTOHolder events) {
         log.info("About to process {} events from the {} queue ", events.getEvents().size(), Queues.FEED_MANAGER_QUEUE);
-        events.getEvents().stream()
+        if (batchIngest) {
+            receiveEventsInBatch(events);
+        } else {
+            events.getEvents().stream()
+                .filter(this::isRegisteredWithFeedManager)
+                .filter(this::ensureNewEvent)
+                .forEach(event -> processEvent(event, 0));
+        }
+    }
+
+    /**
+     * Persist all the events from the JMS message in a single transaction.
+     * The job executions for all the events are resolved with a single query and the events, steps and jobs are written together.
+     * If the transaction fails the events are processed one at a time via {@link #processEvent(ProvenanceEventRecordDTO, int)}
+     *
+     * @param events The events obtained from JMS
+     */
+    private void receiveEventsInBatch(ProvenanceEventRecordDTOHolder events) {
+        List<ProvenanceEventRecordDTO> registeredEvents = events.getEvents().stream()
             .filter(this::isRegisteredWithFeedManager)
-            .filter(this::ensureNewEvent)
-            .forEach(event -> processEvent(event, 0));
+            .collect(Collectors.toList());
+        if (registeredEvents.isEmpty()) {
+            return;
+        }
+        List<ProvenanceEventRecordDTO> newEvents = metadataAccess.read(() -> registeredEvents.stream()
+            .filter(event -> !nifiEventProvider.exists(event))
+            .collect(Collectors.toList()), MetadataAccess.SERVICE);
+        if (newEvents.isEmpty()) {
+            return;
+        }
+
+        try {
+            metadataAccess.commit(() -> persistEvents(newEvents), MetadataAccess.SERVICE);
+        } catch (Exception e) {
+            log.warn("Unable to persist {} events in a single transaction.  Processing each event individually. Error: {} ", newEvents.size(), e.getMessage(), e);
+            newEvents.forEach(event -> processEvent(event, 0));
+            return;
+        }
+        newEvents.stream()
+            .filter(ProvenanceEventRecordDTO::isFinalJobEvent)
+            .forEach(this::notifyJobFinished);
+    }
+
+    /**
+     * Persist the events along with their jobs and steps.  This should be called within a single transaction
+     *
+     * @param events the events to persist
+     */
+    private void persistEvents(List<ProvenanceEventRecordDTO> events) {
+        Set<String> jobFlowFileIds = events.stream()
+            .filter(ProvenanceEventRecordDTO::isBatchJob)
+            .map(ProvenanceEventRecordDTO::getJobFlowFileId)
+            .collect(Collectors.toSet());
+        Map<String, BatchJobExecution> jobExecutions = batchJobExecutionProvider.findJobExecutionsByFlowFiles(jobFlowFileIds);
+
+        for (ProvenanceEventRecordDTO event : events) {
+            if (event.isBatchJob()) {
+                BatchJobExecution jobExecution = batchJobExecutionProvider.getOrCreateJobExecution(event, jobExecutions);
+                log.debug("Received ProvenanceEvent {}.  is end of Job: {}.  is ending flowfile:{}, isBatch: {}", event, event.isEndOfJob(), event.isEndingFlowFileEvent(), event.isBatchJob());
+                NifiEvent nifiEvent = nifiEventProvider.create(event);
+                batchJobExecutionProvider.save(jobExecution, event, nifiEvent);
+            } else {
+                nifiEventProvider.create(event);
+            }
+        }
     }
 
     /**
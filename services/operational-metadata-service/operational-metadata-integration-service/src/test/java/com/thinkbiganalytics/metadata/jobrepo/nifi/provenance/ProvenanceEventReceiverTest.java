@@ -0,0 +1,236 @@
+package com.thinkbiganalytics.metadata.jobrepo.nifi.provenance;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-integration-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.MetadataAction;
+import com.thinkbiganalytics.metadata.api.MetadataCommand;
+import com.thinkbiganalytics.metadata.api.MetadataRollbackAction;
+import com.thinkbiganalytics.metadata.api.MetadataRollbackCommand;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
+import com.thinkbiganalytics.metadata.api.feed.OpsManagerFeed;
+import com.thinkbiganalytics.metadata.api.feed.OpsManagerFeedProvider;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecution;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecutionProvider;
+import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiEvent;
+import com.thinkbiganalytics.metadata.api.jobrepo.step.BatchStepExecutionProvider;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.nifi.NifiEventProvider;
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTO;
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTOHolder;
+import com.thinkbiganalytics.nifi.rest.client.LegacyNifiRestClient;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests the batched persistence of the provenance events in a JMS message
+ */
+public class ProvenanceEventReceiverTest {
+
+    @Spy
+    private TransactionalMetadataAccess metadataAccess = new TransactionalMetadataAccess();
+
+    @Mock
+    private OpsManagerFeedProvider opsManagerFeedProvider;
+
+    @Mock
+    private NifiBulletinExceptionExtractor nifiBulletinExceptionExtractor;
+
+    @Mock
+    private NifiEventProvider nifiEventProvider;
+
+    @Mock
+    private BatchJobExecutionProvider batchJobExecutionProvider;
+
+    @Mock
+    private BatchStepExecutionProvider batchStepExecutionProvider;
+
+    @Mock
+    private LegacyNifiRestClient nifiRestClient;
+
+    @Mock
+    private MetadataEventService eventService;
+
+    @InjectMocks
+    private ProvenanceEventReceiver receiver;
+
+    private BatchJobExecution jobExecution;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        Mockito.when(opsManagerFeedProvider.findByName("category.feed")).thenReturn(Mockito.mock(OpsManagerFeed.class));
+
+        jobExecution = Mockito.mock(BatchJobExecution.class);
+        Mockito.when(jobExecution.getJobExecutionId()).thenReturn(1L);
+        Mockito.when(batchJobExecutionProvider.getOrCreateJobExecution(Matchers.any(ProvenanceEventRecordDTO.class))).thenReturn(jobExecution);
+        Mockito.when(batchJobExecutionProvider.getOrCreateJobExecution(Matchers.any(ProvenanceEventRecordDTO.class), Matchers.anyMapOf(String.class, BatchJobExecution.class)))
+            .thenReturn(jobExecution);
+        Mockito.when(batchJobExecutionProvider.findByJobExecutionId(1L)).thenReturn(jobExecution);
+        Mockito.when(batchJobExecutionProvider.save(Matchers.any(BatchJobExecution.class), Matchers.any(ProvenanceEventRecordDTO.class), Matchers.any(NifiEvent.class)))
+            .thenReturn(jobExecution);
+
+        // record the events written in the current transaction
+        Mockito.when(nifiEventProvider.create(Matchers.any(ProvenanceEventRecordDTO.class))).thenAnswer(invocation -> {
+            metadataAccess.write((ProvenanceEventRecordDTO) invocation.getArguments()[0]);
+            return Mockito.mock(NifiEvent.class);
+        });
+    }
+
+    /**
+     * Verify all the events in a message are written in a single transaction, and so a single flush
+     */
+    @Test
+    public void testBatchIsPersistedInOneTransaction() {
+        List<ProvenanceEventRecordDTO> events = Arrays.asList(newEvent(1L), newEvent(2L), newEvent(3L));
+
+        receiver.receiveEvents(newHolder(events));
+
+        Assert.assertEquals(1, metadataAccess.committed.size());
+        Assert.assertEquals(events, metadataAccess.committed.get(0));
+        Assert.assertEquals(0, metadataAccess.rolledBack);
+        Mockito.verify(batchJobExecutionProvider).findJobExecutionsByFlowFiles(Matchers.anyCollectionOf(String.class));
+        Mockito.verify(batchJobExecutionProvider, Mockito.never()).getOrCreateJobExecution(Matchers.any(ProvenanceEventRecordDTO.class));
+    }
+
+    /**
+     * Verify a failure part way through the batch rolls it back and each event is then written once on its own
+     */
+    @Test
+    public void testFailedBatchFallsBackToEachEvent() {
+        ProvenanceEventRecordDTO failing = newEvent(2L);
+        List<ProvenanceEventRecordDTO> events = Arrays.asList(newEvent(1L), failing, newEvent(3L));
+        Mockito.when(batchJobExecutionProvider.save(Matchers.any(BatchJobExecution.class), Matchers.same(failing), Matchers.any(NifiEvent.class)))
+            .thenThrow(new IllegalStateException("Deadlock found when trying to get lock"))
+            .thenReturn(jobExecution);
+
+        receiver.receiveEvents(newHolder(events));
+
+        Assert.assertEquals(1, metadataAccess.rolledBack);
+        List<ProvenanceEventRecordDTO> persisted = new ArrayList<>();
+        metadataAccess.committed.forEach(persisted::addAll);
+        Assert.assertEquals(events, persisted);
+        Mockito.verify(batchJobExecutionProvider, Mockito.times(3)).getOrCreateJobExecution(Matchers.any(ProvenanceEventRecordDTO.class));
+    }
+
+    private ProvenanceEventRecordDTOHolder newHolder(List<ProvenanceEventRecordDTO> events) {
+        ProvenanceEventRecordDTOHolder holder = new ProvenanceEventRecordDTOHolder();
+        holder.setEvents(new ArrayList<>(events));
+        return holder;
+    }
+
+    private ProvenanceEventRecordDTO newEvent(Long eventId) {
+        ProvenanceEventRecordDTO event = new ProvenanceEventRecordDTO();
+        event.setEventId(eventId);
+        event.setFeedName("category.feed");
+        event.setFlowFileUuid("flowfile-" + eventId);
+        event.setJobFlowFileId("job-flowfile");
+        event.setIsBatchJob(true);
+        return event;
+    }
+
+    /**
+     * Keeps the events written in each committed transaction and discards the events of a transaction that throws
+     */
+    static class TransactionalMetadataAccess implements MetadataAccess {
+
+        final List<List<ProvenanceEventRecordDTO>> committed = new ArrayList<>();
+
+        int rolledBack;
+
+        private List<ProvenanceEventRecordDTO> transaction;
+
+        void write(ProvenanceEventRecordDTO event) {
+            Assert.assertNotNull("Events must be written in a transaction", transaction);
+            transaction.add(event);
+        }
+
+        @Override
+        public <R> R commit(MetadataCommand<R> cmd, Principal... principals) {
+            transaction = new ArrayList<>();
+            try {
+                R result = cmd.execute();
+                if (!transaction.isEmpty()) {
+                    committed.add(transaction);
+                }
+                return result;
+            } catch (RuntimeException e) {
+                rolledBack++;
+                throw e;
+            } catch (Exception e) {
+                rolledBack++;
+                throw new RuntimeException(e);
+            } finally {
+                transaction = null;
+            }
+        }
+
+        @Override
+        public <R> R commit(MetadataCommand<R> cmd, MetadataRollbackCommand rollbackCmd, Principal... principals) {
+            return commit(cmd, principals);
+        }
+
+        @Override
+        public void commit(MetadataAction action, Principal... principals) {
+            commit(() -> {
+                action.execute();
+                return null;
+            }, principals);
+        }
+
+        @Override
+        public void commit(MetadataAction action, MetadataRollbackAction rollbackAction, Principal... principals) {
+            commit(action, principals);
+        }
+
+        @Override
+        public <R> R read(MetadataCommand<R> cmd, Principal... principals) {
+            try {
+                return cmd.execute();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public void read(MetadataAction cmd, Principal... principals) {
+            read(() -> {
+                cmd.execute();
+                return null;
+            }, principals);
+        }
+    }
+}
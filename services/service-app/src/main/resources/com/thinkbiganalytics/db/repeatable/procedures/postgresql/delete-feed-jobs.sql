@@ -101,6 +101,9 @@ DELETE FROM NIFI_EVENT
 WHERE FM_FEED_NAME = jobName;
 
 DELETE FROM NIFI_FEED_PROCESSOR_STATS
+WHERE FM_FEED_NAME = jobName;
+
+DELETE FROM NIFI_FEED_PROCESSOR_STATS_ROLLUP
 WHERE FM_FEED_NAME = jobName;
 
  --   need to return a value for this procedure calls to work with spring-data-jpa repositories and named queries
@@ -22,10 +22,13 @@ package com.thinkbiganalytics.spark.shell;
 
 import com.thinkbiganalytics.spark.rest.model.TransformRequest;
 import com.thinkbiganalytics.spark.rest.model.TransformResponse;
+import com.thinkbiganalytics.spark.rest.model.TransformResultPage;
 
+import java.util.List;
 import java.util.Optional;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * Communicates with a Spark Shell process.
@@ -41,6 +44,18 @@ public interface SparkShellRestClient {
     @Nonnull
     Optional<TransformResponse> getTable(@Nonnull SparkShellProcess process, @Nonnull String table);
 
+    /**
+     * Fetches a page of rows from the results of a transformation on the specified Spark Shell process.
+     *
+     * @param table   the destination table name
+     * @param offset  the index of the first row
+     * @param limit   the maximum number of rows
+     * @param columns the display names of the columns to include, or {@code null} for all columns
+     * @return the page of results if the table exists
+     */
+    @Nonnull
+    Optional<TransformResultPage> getPage(@Nonnull SparkShellProcess process, @Nonnull String table, long offset, int limit, @Nullable List<String> columns);
+
     /**
      * Executes a Scala script on the specified Spark Shell process.
      *
@@ -31,6 +31,7 @@ import com.thinkbiganalytics.spark.rest.model.JdbcDatasource;
 import com.thinkbiganalytics.spark.rest.model.RegistrationRequest;
 import com.thinkbiganalytics.spark.rest.model.TransformRequest;
 import com.thinkbiganalytics.spark.rest.model.TransformResponse;
+import com.thinkbiganalytics.spark.rest.model.TransformResultPage;
 import com.thinkbiganalytics.spark.shell.SparkShellProcess;
 import com.thinkbiganalytics.spark.shell.SparkShellProcessManager;
 import com.thinkbiganalytics.spark.shell.SparkShellRestClient;
@@ -41,6 +42,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.MissingResourceException;
 import java.util.Optional;
@@ -52,11 +54,13 @@ import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -157,6 +161,54 @@ public class SparkShellProxyController {
         }
     }
 
+    /**
+     * Fetches a page of rows from the results of a transformation.
+     *
+     * @param id      the destination table name
+     * @param offset  the index of the first row
+     * @param limit   the maximum number of rows
+     * @param columns comma-separated display names of the columns to include, or {@code null} for all columns
+     * @return the page of results
+     */
+    @GET
+    @Path("/transform/{table}/page")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation("Fetches a page of rows from the results of a transformation.")
+    @ApiResponses({
+                      @ApiResponse(code = 200, message = "Returns the values of the requested columns for the rows in the page.", response = TransformResultPage.class),
+                      @ApiResponse(code = 400, message = "The page is not valid.", response = RestResponseStatus.class),
+                      @ApiResponse(code = 404, message = "The transformation does not exist.", response = RestResponseStatus.class),
+                      @ApiResponse(code = 500, message = "There was a problem accessing the data.", response = RestResponseStatus.class)
+                  })
+    @Nonnull
+    public Response getPage(@Nonnull @PathParam("table") final String id,
+                            @ApiParam("Index of the first row") @DefaultValue("0") @QueryParam("offset") final long offset,
+                            @ApiParam("Maximum number of rows") @DefaultValue("100") @QueryParam("limit") final int limit,
+                            @ApiParam("Comma-separated names of the columns to include") @Nullable @QueryParam("columns") final String columns) {
+        // Validate request
+        if (offset < 0 || limit <= 0) {
+            throw error(Response.Status.BAD_REQUEST, "getPage.invalidPage", null);
+        }
+
+        // Forward to the Spark Shell process
+        final SparkShellProcess process = getSparkShellProcess();
+        final List<String> columnList = (columns != null && !columns.isEmpty()) ? Arrays.asList(columns.split(",")) : null;
+        final Optional<TransformResultPage> page;
+
+        try {
+            page = restClient.getPage(process, id, offset, limit, columnList);
+        } catch (final Exception e) {
+            throw error(Response.Status.INTERNAL_SERVER_ERROR, "transform.error", e);
+        }
+
+        // Return response
+        if (page.isPresent()) {
+            return Response.ok(page.get()).build();
+        } else {
+            throw error(Response.Status.NOT_FOUND, "getTable.unknownTable", null);
+        }
+    }
+
     /**
      * Ensures a Spark Shell process has been started for the current user.
      *
@@ -25,12 +25,16 @@ import com.thinkbiganalytics.rest.JerseyClientConfig;
 import com.thinkbiganalytics.rest.JerseyRestClient;
 import com.thinkbiganalytics.spark.rest.model.TransformRequest;
 import com.thinkbiganalytics.spark.rest.model.TransformResponse;
+import com.thinkbiganalytics.spark.rest.model.TransformResultPage;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.WeakHashMap;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.ws.rs.NotFoundException;
 
 /**
@@ -60,6 +64,30 @@ public class JerseySparkShellRestClient implements SparkShellRestClient {
         }
     }
 
+    @Nonnull
+    @Override
+    public Optional<TransformResultPage> getPage(@Nonnull final SparkShellProcess process, @Nonnull final String table, final long offset, final int limit,
+                                                 @Nullable final List<String> columns) {
+        // Validate arguments
+        if (!table.matches("^[a-f0-9-]+$")) {
+            return Optional.empty();
+        }
+
+        final Map<String, Object> params = new HashMap<>();
+        params.put("offset", offset);
+        params.put("limit", limit);
+        if (columns != null) {
+            params.put("columns", String.join(",", columns));
+        }
+
+        // Query Spark Shell process
+        try {
+            return Optional.ofNullable(getClient(process).get("/api/v1/spark/shell/transform/" + table + "/page", params, TransformResultPage.class));
+        } catch (final NotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
     @Nonnull
     @Override
     public TransformResponse transform(@Nonnull final SparkShellProcess process, @Nonnull final TransformRequest request) {
@@ -34,6 +34,11 @@ public class TransformRequest {
      */
     private List<Datasource> datasources;
 
+    /**
+     * Number of rows to include in the response, or null for all rows
+     */
+    private Integer pageSize;
+
     /**
      * Previous transformation result
      */
@@ -62,6 +67,24 @@ public class TransformRequest {
         this.datasources = datasources;
     }
 
+    /**
+     * Gets the number of rows to include in the response. Further rows are fetched by page from the results table.
+     *
+     * @return the page size, or {@code null} for all rows
+     */
+    public Integer getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Sets the number of rows to include in the response.
+     *
+     * @param pageSize the page size, or {@code null} for all rows
+     */
+    public void setPageSize(final Integer pageSize) {
+        this.pageSize = pageSize;
+    }
+
     /**
      * Gets the previous transformation result.
      *
@@ -0,0 +1,179 @@
+package com.thinkbiganalytics.spark.rest.model;
+
+/*-
+ * #%L
+ * Spark Shell Service REST Model
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.thinkbiganalytics.discovery.model.DefaultQueryResultColumn;
+import com.thinkbiganalytics.discovery.schema.QueryResultColumn;
+
+import java.util.List;
+
+/**
+ * A page of rows from the results of a Spark transformation.
+ *
+ * <p>Values are grouped by column rather than by row. The values of the column at index {@code i} in {@link #getColumns()} are in {@code getData().get(i)}, in row
+ * order, so the column names are not repeated for every row.</p>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TransformResultPage {
+
+    /**
+     * Columns included in the page
+     */
+    @JsonDeserialize(contentAs = DefaultQueryResultColumn.class)
+    private List<QueryResultColumn> columns;
+
+    /**
+     * Values of each column
+     */
+    private List<List<Object>> data;
+
+    /**
+     * Index of the first row in the page
+     */
+    private Long offset;
+
+    /**
+     * Number of rows in the page
+     */
+    private Integer rowCount;
+
+    /**
+     * Table name with the results
+     */
+    private String table;
+
+    /**
+     * Total number of rows in the results
+     */
+    private Long totalRows;
+
+    /**
+     * Gets the columns included in this page.
+     *
+     * @return the columns
+     */
+    public List<QueryResultColumn> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Sets the columns included in this page.
+     *
+     * @param columns the columns
+     */
+    public void setColumns(List<QueryResultColumn> columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * Gets the values of each column, in the same order as the columns.
+     *
+     * @return the column values
+     */
+    public List<List<Object>> getData() {
+        return data;
+    }
+
+    /**
+     * Sets the values of each column, in the same order as the columns.
+     *
+     * @param data the column values
+     */
+    public void setData(List<List<Object>> data) {
+        this.data = data;
+    }
+
+    /**
+     * Gets the index of the first row in this page.
+     *
+     * @return the row offset
+     */
+    public Long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Sets the index of the first row in this page.
+     *
+     * @param offset the row offset
+     */
+    public void setOffset(Long offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * Gets the number of rows in this page.
+     *
+     * @return the row count
+     */
+    public Integer getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Sets the number of rows in this page.
+     *
+     * @param rowCount the row count
+     */
+    public void setRowCount(Integer rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Gets the table with the results.
+     *
+     * @return the table name
+     */
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * Sets the table with the results.
+     *
+     * @param table the table name
+     */
+    public void setTable(String table) {
+        this.table = table;
+    }
+
+    /**
+     * Gets the total number of rows in the results.
+     *
+     * @return the total row count
+     */
+    public Long getTotalRows() {
+        return totalRows;
+    }
+
+    /**
+     * Sets the total number of rows in the results.
+     *
+     * @param totalRows the total row count
+     */
+    public void setTotalRows(Long totalRows) {
+        this.totalRows = totalRows;
+    }
+}
@@ -1,5 +1,5 @@
 define(['angular','feed-mgr/feeds/module-name'], function (angular,moduleName) {
-    var controller = function($scope, $http, AccessControlService, RestUrlService, PaginationDataService, TableOptionsService, AddButtonService, FeedService, StateService) {
+    var controller = function($scope, $http, $q, AccessControlService, RestUrlService, PaginationDataService, TableOptionsService, AddButtonService, FeedService, StateService) {
 
         var self = this;
 
@@ -10,6 +10,17 @@ define(['angular','feed-mgr/feeds/module-name'], function (angular,moduleName) {
         self.allowExport = false;
 
         self.feedData = [];
+
+        /**
+         * The number of feeds matching the filter.  The feeds are paged by the server so only the current page is in feedData.
+         * @type {number}
+         */
+        self.totalFeeds = 0;
+
+        /**
+         * Cancels the request for the previous page when another page is requested
+         */
+        self.canceler = null;
         this.loading = true;
         this.cardTitle = 'Feeds';
 
@@ -43,8 +54,11 @@ define(['angular','feed-mgr/feeds/module-name'], function (angular,moduleName) {
 
         $scope.$watch(function () {
             return self.filter;
-        }, function (newVal) {
+        }, function (newVal, oldVal) {
             PaginationDataService.filter(self.pageName, newVal)
+            if (newVal != oldVal) {
+                self.onPaginationChange(1);
+            }
         })
 
         this.onViewTypeChange = function(viewType) {
@@ -54,11 +68,13 @@ define(['angular','feed-mgr/feeds/module-name'], function (angular,moduleName) {
         this.onOrderChange = function(order) {
             PaginationDataService.sort(self.pageName, order);
             TableOptionsService.setSortOption(self.pageName, order);
+            return getFeeds();
         };
 
         this.onPaginationChange = function(page, limit) {
             PaginationDataService.currentPage(self.pageName, null, page);
             self.currentPage = page;
+            return getFeeds();
         };
 
         /**
@@ -70,6 +86,7 @@ define(['angular','feed-mgr/feeds/module-name'], function (angular,moduleName) {
             var savedSort = PaginationDataService.sort(self.pageName, sortString);
             var updatedOption = TableOptionsService.toggleSort(self.pageName, option);
             TableOptionsService.setSortOption(self.pageName, sortString);
+            getFeeds();
         }
 
         /**
@@ -89,14 +106,23 @@ define(['angular','feed-mgr/feeds/module-name'], function (angular,moduleName) {
             }
         }
 
+        /**
+         * Fetch the current page of feeds.  The server sorts, filters and pages the feeds.
+         */
         function getFeeds() {
+            if (self.canceler != null) {
+                self.canceler.resolve();
+            }
+            var canceler = $q.defer();
+            self.canceler = canceler;
 
             var successFn = function(response) {
                 self.loading = false;
                 //simplify feedData
                 var simpleFeedData = [];
-                if (response.data) {
-                    angular.forEach(response.data, function(feed) {
+                if (response.data && response.data.data) {
+                    self.totalFeeds = response.data.recordsFiltered;
+                    angular.forEach(response.data.data, function(feed) {
                         if (feed.state == 'ENABLED') {
                             feed.stateIcon = 'check_circle'
                         }
@@ -120,10 +146,20 @@ define(['angular','feed-mgr/feeds/module-name'], function (angular,moduleName) {
                 self.feedData = simpleFeedData;
             }
             var errorFn = function(err) {
-                self.loading = false;
+                if (canceler === self.canceler) {
+                    self.loading = false;
+                }
+            }
 
+            var limit = parseInt(self.paginationData.rowsPerPage);
+            if (isNaN(limit)) {
+                // 'All' rows per page
+                limit = -1;
             }
-            var promise = $http.get(RestUrlService.GET_FEEDS_URL);
+            var start = limit > 0 ? (self.currentPage - 1) * limit : 0;
+            var params = {start: start, limit: limit, sort: PaginationDataService.sort(self.pageName), filter: self.filter};
+
+            var promise = $http.get(RestUrlService.GET_FEED_SUMMARIES_URL, {timeout: canceler.promise, params: params});
             promise.then(successFn, errorFn);
             return promise;
 
@@ -139,6 +175,6 @@ define(['angular','feed-mgr/feeds/module-name'], function (angular,moduleName) {
     };
 
 
-        angular.module(moduleName).controller('FeedsTableController',["$scope","$http","AccessControlService","RestUrlService","PaginationDataService","TableOptionsService","AddButtonService","FeedService","StateService", controller]);
+        angular.module(moduleName).controller('FeedsTableController',["$scope","$http","$q","AccessControlService","RestUrlService","PaginationDataService","TableOptionsService","AddButtonService","FeedService","StateService", controller]);
 
 });
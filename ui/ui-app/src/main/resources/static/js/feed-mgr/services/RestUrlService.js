@@ -125,6 +125,8 @@ define(['angular','feed-mgr/module-name'], function (angular,moduleName) {
 
         this.GET_FEED_NAMES_URL = self.FEEDS_BASE_URL + "/names";
 
+        this.GET_FEED_SUMMARIES_URL = self.FEEDS_BASE_URL + "/summaries";
+
         this.GET_POSSIBLE_FEED_PRECONDITIONS_URL = self.FEEDS_BASE_URL + "/possible-preconditions";
 
         this.GET_POSSIBLE_SLA_METRIC_OPTIONS_URL = self.SLA_BASE_URL + "/available-metrics";